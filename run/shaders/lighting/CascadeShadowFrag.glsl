@@ -0,0 +1,6 @@
+#version 450
+precision highp float;
+
+void main() {
+    // depth only
+}
@@ -0,0 +1,38 @@
+#version 450
+precision highp float;
+
+#define MAX_CASCADES 8
+
+// every cascade is rendered by its own invocation into its own layer
+layout (triangles, invocations = MAX_CASCADES) in;
+layout (triangle_strip, max_vertices = 3) out;
+
+uniform mat4 CascadeProjection[MAX_CASCADES];
+uniform int CascadeCount;
+
+void main() {
+    if (gl_InvocationID >= CascadeCount)
+        return;
+
+    vec4 clip[3];
+    for (int i = 0; i < 3; i++)
+        clip[i] = CascadeProjection[gl_InvocationID] * gl_in[i].gl_Position;
+
+    // skip triangles outside of the cascade. Casters in front of the
+    // cascade are kept, as they still throw shadows into it.
+    for (int axis = 0; axis < 2; axis++) {
+        if (all(lessThan(vec3(clip[0][axis], clip[1][axis], clip[2][axis]), vec3(-1)))
+                || all(greaterThan(vec3(clip[0][axis], clip[1][axis], clip[2][axis]), vec3(1))))
+            return;
+    }
+    if (all(greaterThan(vec3(clip[0].z, clip[1].z, clip[2].z), vec3(1))))
+        return;
+
+    for (int i = 0; i < 3; i++) {
+        gl_Layer = gl_InvocationID;
+        // casters in front of the near plane are depth clamped onto it
+        gl_Position = clip[i];
+        EmitVertex();
+    }
+    EndPrimitive();
+}
@@ -0,0 +1,11 @@
+#version 450
+precision highp float;
+
+layout (location = 0) in vec3 position;
+
+// world into light space, shared by all cascades
+uniform mat4 projection;
+
+void main() {
+    gl_Position = projection * vec4(position, 1);
+}
@@ -0,0 +1,117 @@
+#version 450 core
+
+#include<lighting/lighting.glsl>
+
+layout(local_size_x = TILE_SIZE, local_size_y = TILE_SIZE) in;
+
+#define GROUP_SIZE (TILE_SIZE * TILE_SIZE)
+#define MASK_WORDS ((GROUP_SIZE + 31) / 32)
+
+layout(std430, binding = LIGHT_BUFFER) readonly buffer LightBuffer {
+    Light lights[];
+};
+
+layout(std430, binding = TILE_BUFFER) writeonly buffer TileBuffer {
+    int tiles[];
+};
+
+uniform sampler2D CameraSpacePositionTexture;
+uniform int LightCount;
+uniform ivec2 TileCount;
+uniform ivec2 ScreenSize;
+
+// bounds of the tile geometry as order preserving bit patterns
+shared uint minX, minY, minZ;
+shared uint maxX, maxY, maxZ;
+shared uint visibleLights;
+// visibility of the lights tested in the current pass, one bit per invocation
+shared uint visibleMask[MASK_WORDS];
+
+uint toOrdered(float f) {
+    uint u = floatBitsToUint(f);
+    return (u & 0x80000000u) != 0u ? ~u : u | 0x80000000u;
+}
+
+float fromOrdered(uint u) {
+    return uintBitsToFloat((u & 0x80000000u) != 0u ? u & 0x7FFFFFFFu : ~u);
+}
+
+void main() {
+    uint local = gl_LocalInvocationIndex;
+    if (local == 0u) {
+        minX = minY = minZ = 0xFFFFFFFFu;
+        maxX = maxY = maxZ = 0u;
+        visibleLights = 0u;
+    }
+    if (local < uint(MASK_WORDS))
+        visibleMask[local] = 0u;
+    barrier();
+
+    ivec2 pixel = ivec2(gl_GlobalInvocationID.xy);
+    if (pixel.x < ScreenSize.x && pixel.y < ScreenSize.y) {
+        vec4 pos = texelFetch(CameraSpacePositionTexture, pixel, 0);
+        // the background is cleared to zero
+        if (pos.w > 0.5) {
+            atomicMin(minX, toOrdered(pos.x));
+            atomicMin(minY, toOrdered(pos.y));
+            atomicMin(minZ, toOrdered(pos.z));
+            atomicMax(maxX, toOrdered(pos.x));
+            atomicMax(maxY, toOrdered(pos.y));
+            atomicMax(maxZ, toOrdered(pos.z));
+        }
+    }
+    barrier();
+
+    int base = (int(gl_WorkGroupID.y) * TileCount.x + int(gl_WorkGroupID.x)) * TILE_STRIDE;
+    if (minX <= maxX) {
+        vec3 lower = vec3(fromOrdered(minX), fromOrdered(minY), fromOrdered(minZ));
+        vec3 upper = vec3(fromOrdered(maxX), fromOrdered(maxY), fromOrdered(maxZ));
+
+        // Every pass tests GROUP_SIZE lights. The slot of a visible light
+        // is its rank among the visible lights in index order, so lights
+        // beyond MAX_TILE_LIGHTS are dropped in index order instead of
+        // in the arrival order of the atomic operations.
+        uint word = local / 32u;
+        uint bit = 1u << (local % 32u);
+        for (uint first = 0u; first < uint(LightCount) && visibleLights < uint(MAX_TILE_LIGHTS);
+                first += uint(GROUP_SIZE)) {
+            uint i = first + local;
+            bool visible = false;
+            if (i < uint(LightCount)) {
+                vec4 posRange = lights[i].posRange;
+                visible = posRange.w <= 0.0;
+                if (!visible) {
+                    vec3 delta = posRange.xyz - clamp(posRange.xyz, lower, upper);
+                    visible = dot(delta, delta) <= posRange.w * posRange.w;
+                }
+            }
+
+            if (visible)
+                atomicOr(visibleMask[word], bit);
+            barrier();
+
+            if (visible) {
+                uint slot = visibleLights + uint(bitCount(visibleMask[word] & (bit - 1u)));
+                for (uint w = 0u; w < word; w++)
+                    slot += uint(bitCount(visibleMask[w]));
+                if (slot < uint(MAX_TILE_LIGHTS))
+                    tiles[base + 1 + int(slot)] = int(i);
+            }
+            barrier();
+
+            if (local == 0u) {
+                for (uint w = 0u; w < uint(MASK_WORDS); w++)
+                    visibleLights += uint(bitCount(visibleMask[w]));
+            }
+            barrier();
+
+            if (local < uint(MASK_WORDS))
+                visibleMask[local] = 0u;
+            barrier();
+        }
+    }
+    barrier();
+
+    if (local == 0u)
+        tiles[base] = int(min(visibleLights, uint(MAX_TILE_LIGHTS)));
+}
@@ -0,0 +1,4 @@
+#version 450
+#define GBUFFER_COMPACT
+
+#include<lighting/TiledLightingFragMain.glsl>
\ No newline at end of file
@@ -0,0 +1,3 @@
+#version 450
+
+#include<lighting/TiledLightingFragMain.glsl>
\ No newline at end of file
@@ -0,0 +1,75 @@
+precision highp float;
+
+#include<util/util.glsl>
+#include<util/gbuffer.glsl>
+#include<lighting/lighting.glsl>
+
+in vec2 textcoord;
+
+out vec4 fragColor;
+
+layout(std430, binding = LIGHT_BUFFER) readonly buffer LightBuffer {
+    Light lights[];
+};
+
+layout(std430, binding = TILE_BUFFER) readonly buffer TileBuffer {
+    int tiles[];
+};
+
+uniform sampler2D ColorTexture;
+uniform sampler2D EmissionTexture;
+uniform sampler2D NormalTexture;
+uniform sampler2D SpecularTexture;
+uniform sampler2D CameraSpacePositionTexture;
+
+uniform vec3 ViewPosition;
+uniform vec4 AmbientLightColor;
+uniform ivec2 TileCount;
+uniform ivec2 ScreenSize;
+// size of the geometry buffer divided by its storage size
+uniform vec2 ViewportScale;
+
+void main() {
+    vec2 uv = textcoord * ViewportScale;
+    vec4 color = texture(ColorTexture, uv);
+    vec4 emission = texture(EmissionTexture, uv);
+    vec4 pos = texture(CameraSpacePositionTexture, uv);
+    if (pos.w < 0.5) {
+        // background
+        fragColor = vec4(color.rgb + emission.rgb, color.a);
+        return;
+    }
+
+    vec3 normal = normalize(gbufferDecodeNormal(texture(NormalTexture, uv)).xyz);
+    vec3 specular = texture(SpecularTexture, uv).rgb;
+    vec3 view = normalize(ViewPosition - pos.xyz);
+
+    // the tiles are laid out in texture space, just like the culling pass
+    ivec2 tile = min(ivec2(textcoord * vec2(ScreenSize)) / TILE_SIZE, TileCount - 1);
+    int base = (tile.y * TileCount.x + tile.x) * TILE_STRIDE;
+    int count = tiles[base];
+
+    vec3 diffuse = AmbientLightColor.rgb * AmbientLightColor.a;
+    vec3 highlight = vec3(0);
+    for (int i = 0; i < count; i++) {
+        Light light = lights[tiles[base + 1 + i]];
+
+        vec3 direction;
+        float attenuation = 1.0;
+        if (light.posRange.w > 0.0) {
+            vec3 delta = light.posRange.xyz - pos.xyz;
+            float distance = length(delta);
+            direction = delta / max(distance, 1e-4);
+
+            float falloff = clamp(1.0 - pow(distance / light.posRange.w, 2.0), 0.0, 1.0);
+            attenuation = falloff * falloff;
+        } else
+            direction = normalize(light.negDir.xyz);
+
+        vec3 radiance = light.colorIntensity.rgb * light.colorIntensity.a * attenuation;
+        diffuse += radiance * max(dot(normal, direction), 0.0);
+        highlight += radiance * pow(max(dot(normal, normalize(direction + view)), 0.0), 32.0);
+    }
+
+    fragColor = vec4(color.rgb * diffuse + specular * highlight + emission.rgb, color.a);
+}
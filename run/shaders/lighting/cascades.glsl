@@ -0,0 +1,44 @@
+/*
+# Shadow lookup into the cascaded shadow map.
+#
+# CascadeMatrix transforms a world space position into the clip
+# space of a cascade and CascadeSplit holds the view distance, at
+# which a cascade ends. The uniforms are set by the cascaded shadow
+# map note.
+*/
+
+#define MAX_CASCADES 8
+
+uniform sampler2DArrayShadow CascadeShadowMap;
+uniform mat4 CascadeMatrix[MAX_CASCADES];
+uniform float CascadeSplit[MAX_CASCADES];
+uniform int CascadeCount;
+
+int cascadeIndex(float viewDistance) {
+    for (int i = 0; i < CascadeCount; i++) {
+        if (viewDistance <= CascadeSplit[i])
+            return i;
+    }
+    return -1;
+}
+
+// 1 if the position is lit, 0 if it is in the shadow
+float cascadeShadow(vec3 worldPos, float viewDistance, float bias) {
+    int cascade = cascadeIndex(viewDistance);
+    if (cascade < 0)
+        return 1.0;
+
+    vec4 clip = CascadeMatrix[cascade] * vec4(worldPos, 1);
+    vec3 coord = clip.xyz * 0.5 + 0.5;
+
+    // 2x2 hardware filtered taps
+    vec2 texel = 1.0 / vec2(textureSize(CascadeShadowMap, 0).xy);
+    float lit = 0.0;
+    for (int x = 0; x < 2; x++) {
+        for (int y = 0; y < 2; y++) {
+            vec2 offset = (vec2(x, y) - 0.5) * texel;
+            lit += texture(CascadeShadowMap, vec4(coord.xy + offset, float(cascade), coord.z - bias));
+        }
+    }
+    return lit * 0.25;
+}
@@ -0,0 +1,29 @@
+/*
+# Shared definitions of the tiled lighting passes.
+#
+# Every light is stored as three vectors in the light buffer:
+# position and range, color and intensity and the negated light
+# direction. Lights with a range of zero or less are global and
+# are not attenuated.
+#
+# For every screen tile the tile buffer holds the number of
+# visible lights followed by MAX_TILE_LIGHTS light indices.
+# If more lights are visible in a tile, the culling pass keeps
+# the lights with the lowest indices in the light buffer, so the
+# selection does not depend on the scheduling of the invocations.
+# MAX_TILE_LIGHTS has to match TiledLightingNote.MAX_TILE_LIGHTS,
+# which sizes the tile buffer.
+*/
+
+#define TILE_SIZE 16
+#define MAX_TILE_LIGHTS 255
+#define TILE_STRIDE (MAX_TILE_LIGHTS + 1)
+
+#define LIGHT_BUFFER 4
+#define TILE_BUFFER 5
+
+struct Light {
+    vec4 posRange;
+    vec4 colorIntensity;
+    vec4 negDir;
+};
@@ -0,0 +1,63 @@
+#version 450 core
+
+/*
+# Downsample pass of the bloom mip chain. Writes one mip level
+# from the next larger level with a 13 tap filter. The first pass
+# reads the screen and removes everything below the threshold.
+*/
+
+layout(local_size_x = 8, local_size_y = 8) in;
+
+layout(binding = 0, rgba16f) writeonly uniform image2D Target;
+
+uniform sampler2D SourceTexture;
+uniform int SourceLevel;
+uniform ivec2 TargetSize;
+// threshold, knee, prefilter
+uniform vec3 Threshold;
+
+vec3 tap(vec2 uv, vec2 offset, vec2 texel) {
+    return textureLod(SourceTexture, uv + offset * texel, float(SourceLevel)).rgb;
+}
+
+vec3 prefilter(vec3 color) {
+    // soft knee threshold on the brightest channel
+    float brightness = max(color.r, max(color.g, color.b));
+    float soft = clamp(brightness - Threshold.x + Threshold.y, 0.0, 2.0 * Threshold.y);
+    soft = soft * soft / (4.0 * Threshold.y + 1e-5);
+    float contribution = max(soft, brightness - Threshold.x) / max(brightness, 1e-5);
+    return color * contribution;
+}
+
+void main() {
+    ivec2 pixel = ivec2(gl_GlobalInvocationID.xy);
+    if (pixel.x >= TargetSize.x || pixel.y >= TargetSize.y)
+        return;
+
+    vec2 uv = (vec2(pixel) + 0.5) / vec2(TargetSize);
+    vec2 texel = 1.0 / vec2(textureSize(SourceTexture, SourceLevel));
+
+    vec3 a = tap(uv, vec2(-2, -2), texel);
+    vec3 b = tap(uv, vec2( 0, -2), texel);
+    vec3 c = tap(uv, vec2( 2, -2), texel);
+    vec3 d = tap(uv, vec2(-1, -1), texel);
+    vec3 e = tap(uv, vec2( 1, -1), texel);
+    vec3 f = tap(uv, vec2(-2,  0), texel);
+    vec3 g = tap(uv, vec2( 0,  0), texel);
+    vec3 h = tap(uv, vec2( 2,  0), texel);
+    vec3 i = tap(uv, vec2(-1,  1), texel);
+    vec3 j = tap(uv, vec2( 1,  1), texel);
+    vec3 k = tap(uv, vec2(-2,  2), texel);
+    vec3 l = tap(uv, vec2( 0,  2), texel);
+    vec3 m = tap(uv, vec2( 2,  2), texel);
+
+    vec3 color = (d + e + i + j) * 0.125
+            + (a + b + f + g) * 0.03125
+            + (b + c + g + h) * 0.03125
+            + (f + g + k + l) * 0.03125
+            + (g + h + l + m) * 0.03125;
+
+    if (Threshold.z > 0.5)
+        color = prefilter(color);
+    imageStore(Target, pixel, vec4(max(color, vec3(0)), 1.0));
+}
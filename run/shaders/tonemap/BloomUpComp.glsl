@@ -0,0 +1,37 @@
+#version 450 core
+
+/*
+# Upsample pass of the bloom mip chain. Blurs the next smaller
+# level with a 3x3 tent filter and adds it to the target level.
+*/
+
+layout(local_size_x = 8, local_size_y = 8) in;
+
+layout(binding = 0, rgba16f) uniform image2D Target;
+
+uniform sampler2D SourceTexture;
+uniform int SourceLevel;
+uniform ivec2 TargetSize;
+uniform float Radius;
+
+vec3 tap(vec2 uv, vec2 offset, vec2 texel) {
+    return textureLod(SourceTexture, uv + offset * texel, float(SourceLevel)).rgb;
+}
+
+void main() {
+    ivec2 pixel = ivec2(gl_GlobalInvocationID.xy);
+    if (pixel.x >= TargetSize.x || pixel.y >= TargetSize.y)
+        return;
+
+    vec2 uv = (vec2(pixel) + 0.5) / vec2(TargetSize);
+    vec2 texel = Radius / vec2(textureSize(SourceTexture, SourceLevel));
+
+    vec3 color = tap(uv, vec2(-1, -1), texel) + tap(uv, vec2(1, -1), texel)
+            + tap(uv, vec2(-1, 1), texel) + tap(uv, vec2(1, 1), texel)
+            + 2.0 * (tap(uv, vec2(0, -1), texel) + tap(uv, vec2(-1, 0), texel)
+                + tap(uv, vec2(1, 0), texel) + tap(uv, vec2(0, 1), texel))
+            + 4.0 * tap(uv, vec2(0, 0), texel);
+
+    vec4 current = imageLoad(Target, pixel);
+    imageStore(Target, pixel, vec4(current.rgb + color / 16.0, 1.0));
+}
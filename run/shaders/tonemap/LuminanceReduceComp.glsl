@@ -0,0 +1,51 @@
+#version 450 core
+
+/*
+# First pass of the luminance reduction. Every work group reduces
+# a block of 32x32 pixels to the sum of their log luminance and
+# the amount of pixels summed up.
+*/
+
+#define GROUP_SIZE 16
+#define GROUP_INVOCATIONS (GROUP_SIZE * GROUP_SIZE)
+#define EPSILON 1e-4
+
+layout(local_size_x = GROUP_SIZE, local_size_y = GROUP_SIZE) in;
+
+layout(std430, binding = 6) writeonly buffer PartialBuffer {
+    vec2 partials[];
+};
+
+uniform sampler2D ScreenTexture;
+uniform ivec2 ScreenSize;
+uniform vec3 color;
+
+shared vec2 sums[GROUP_INVOCATIONS];
+
+void main() {
+    // every invocation starts with a 2x2 block of pixels
+    ivec2 origin = ivec2(gl_GlobalInvocationID.xy) * 2;
+    vec2 sum = vec2(0);
+    for (int y = 0; y < 2; y++) {
+        for (int x = 0; x < 2; x++) {
+            ivec2 pixel = origin + ivec2(x, y);
+            if (pixel.x < ScreenSize.x && pixel.y < ScreenSize.y) {
+                float luminance = dot(texelFetch(ScreenTexture, pixel, 0).rgb, color);
+                sum += vec2(log(max(luminance, 0.0) + EPSILON), 1.0);
+            }
+        }
+    }
+
+    uint local = gl_LocalInvocationIndex;
+    sums[local] = sum;
+    barrier();
+
+    for (uint stride = GROUP_INVOCATIONS / 2; stride > 0u; stride >>= 1) {
+        if (local < stride)
+            sums[local] += sums[local + stride];
+        barrier();
+    }
+
+    if (local == 0u)
+        partials[gl_WorkGroupID.y * gl_NumWorkGroups.x + gl_WorkGroupID.x] = sums[0];
+}
@@ -0,0 +1,55 @@
+#version 450 core
+
+/*
+# Second pass of the luminance reduction. A single work group sums
+# up the partial sums of the first pass and adapts the luminance.
+#
+# The output image holds the adapted luminance, the average
+# luminance of the frame and the average log luminance of the frame.
+*/
+
+#define GROUP_SIZE 256
+
+layout(local_size_x = GROUP_SIZE) in;
+
+layout(std430, binding = 6) readonly buffer PartialBuffer {
+    vec2 partials[];
+};
+
+// adapted log luminance, average log luminance, pixels, initialized
+layout(std430, binding = 7) buffer ResultBuffer {
+    vec4 result;
+};
+
+layout(binding = 0, rgba32f) writeonly uniform image2D LuminanceImage;
+
+uniform int PartialCount;
+uniform float Delta;
+uniform float AdaptationRate;
+
+shared vec2 sums[GROUP_SIZE];
+
+void main() {
+    uint local = gl_LocalInvocationIndex;
+    vec2 sum = vec2(0);
+    for (uint i = local; i < uint(PartialCount); i += GROUP_SIZE)
+        sum += partials[i];
+
+    sums[local] = sum;
+    barrier();
+
+    for (uint stride = GROUP_SIZE / 2; stride > 0u; stride >>= 1) {
+        if (local < stride)
+            sums[local] += sums[local + stride];
+        barrier();
+    }
+
+    if (local == 0u) {
+        float average = sums[0].y > 0.0 ? sums[0].x / sums[0].y : 0.0;
+        float adapted = result.w > 0.5 ? result.x + (average - result.x) * (1.0 - exp(-Delta * AdaptationRate))
+                : average;
+
+        result = vec4(adapted, average, sums[0].y, 1.0);
+        imageStore(LuminanceImage, ivec2(0), vec4(exp(adapted), exp(average), average, 1.0));
+    }
+}
@@ -0,0 +1,58 @@
+#version 450 core
+
+/*
+# index   |   texture usage
+# 0             color map
+*/
+#define COLOR 0
+
+layout(binding = COLOR, rgba16f) uniform image2D colorTex;
+
+layout(local_size_x = 8, local_size_y = 8, local_size_z = 1)   in;
+
+struct Cell {
+    ivec2 offset;
+    ivec2 extent;
+    ivec2 srcSize;
+    int rescale;
+    int layer;
+};
+
+// cell table; one entry per staged cell texture
+layout (std430, binding = 3) buffer cellBuffer {
+    Cell[] cells;
+} Cells;
+
+// staged cell textures; one layer per cell
+uniform sampler2DArray cellSamp;
+
+/*
+Pre-Defined inputs:
+
+in uvec3 gl_NumWorkGroups;
+in uvec3 gl_WorkGroupID;
+in uvec3 gl_LocalInvocationID;
+in uvec3 gl_GlobalInvocationID;
+in uint  gl_LocalInvocationIndex;
+*/
+void main() {
+    Cell cell = Cells.cells[int(gl_GlobalInvocationID.z)];
+    ivec2 coord = ivec2(gl_GlobalInvocationID.xy);
+    // discard threads outside of the cell's bounds
+    if (coord.x >= cell.extent.x || coord.y >= cell.extent.y) {
+        return;
+    }
+
+    ivec2 srcCoord;
+    if (cell.rescale == 0) {
+        // discard threads outside of the source texture
+        if (coord.x >= cell.srcSize.x || coord.y >= cell.srcSize.y) {
+            return;
+        }
+        srcCoord = coord;
+    } else {
+        srcCoord = ivec2(vec2(cell.srcSize) * (vec2(coord) / vec2(cell.extent)));
+    }
+
+    imageStore(colorTex, cell.offset + coord, texelFetch(cellSamp, ivec3(srcCoord, cell.layer), 0));
+}
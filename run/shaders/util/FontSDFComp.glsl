@@ -0,0 +1,113 @@
+#version 450 core
+precision highp float;
+
+/*
+Signed distance field variant of the font shader.
+
+Glyphs are stored once at the reference size inside of a packed
+texture atlas. The distance to the glyph outline is stored in the
+red channel of the single channel atlas, where 0.5 marks the outline and the
+full range [0, 1] covers twice the spread of the distance field in
+reference pixels.
+
+The glyph index of a symbol contains the atlas cell id in the lower
+20 bits and the target font size in pixels in the upper 12 bits.
+*/
+#define COLOR 0
+
+layout(binding = COLOR, rgba16f) uniform image2D colorTex;
+
+layout(local_size_x = 8, local_size_y = 8, local_size_z = 1)   in;
+
+struct Symbol {
+    int glyph;
+    int x;
+    int y;
+    int argb;
+};
+
+// font buffer containing the glyph offsets and sizes
+layout (std430, binding = 1) buffer fontBuffer {
+    int[] glyphs;
+} Font;
+// text buffer
+layout (std140, binding = 2) buffer textBuffer {
+    Symbol[] chars;
+} Text;
+
+#include<util/util.glsl>
+
+uniform int referenceSize;
+uniform int spread;
+
+uniform ivec2 destCoord;
+uniform ivec2 destSize;
+
+uniform sampler2D colorSamp;
+
+ivec2 unpack(int value) {
+    return ivec2(value & 0xFFFF, (value >> 16) & 0xFFFF);
+}
+
+float distanceAt(ivec2 texel, ivec2 cellOffset, ivec2 cellSize) {
+    return texelFetch(colorSamp, cellOffset + clamp(texel, ivec2(0), cellSize - 1), 0).r;
+}
+
+// bilinear sample of the distance field inside of the glyph cell
+float sampleDistance(vec2 pos, ivec2 cellOffset, ivec2 cellSize) {
+    vec2 base = floor(pos);
+    vec2 f = pos - base;
+    ivec2 texel = ivec2(base);
+
+    float d00 = distanceAt(texel, cellOffset, cellSize);
+    float d10 = distanceAt(texel + ivec2(1, 0), cellOffset, cellSize);
+    float d01 = distanceAt(texel + ivec2(0, 1), cellOffset, cellSize);
+    float d11 = distanceAt(texel + ivec2(1, 1), cellOffset, cellSize);
+    return mix(mix(d00, d10, f.x), mix(d01, d11, f.x), f.y);
+}
+
+/*
+Pre-Defined inputs:
+
+in uvec3 gl_NumWorkGroups;
+in uvec3 gl_WorkGroupID;
+in uvec3 gl_LocalInvocationID;
+in uvec3 gl_GlobalInvocationID;
+in uint  gl_LocalInvocationIndex;
+*/
+void main() {
+    Symbol symbol = Text.chars[int(gl_GlobalInvocationID.z)];
+    int cellId = symbol.glyph & 0xFFFFF;
+    int fontSize = (symbol.glyph >> 20) & 0xFFF;
+
+    ivec2 cellOffset = unpack(Font.glyphs[cellId * 2]);
+    ivec2 cellSize = unpack(Font.glyphs[cellId * 2 + 1]);
+
+    float scale = float(fontSize) / float(referenceSize);
+    ivec2 coord = ivec2(gl_GlobalInvocationID.xy);
+    ivec2 glyphBounds = ivec2(ceil(vec2(cellSize - 2 * spread) * scale));
+
+    // clip to glyph size
+    if (coord.x >= glyphBounds.x || coord.y >= glyphBounds.y) {
+        return;
+    }
+
+    // offset inside patch volume
+    ivec2 destCoord_ = coord + ivec2(symbol.x, symbol.y);
+    // clip to patch size
+    if (destCoord_.x < 0 || destCoord_.y < 0 || destCoord_.x >= destSize.x || destCoord_.y >= destSize.y) {
+        return;
+    }
+
+    // position inside of the reference glyph, skipping the padding
+    vec2 srcPos = (vec2(coord) + 0.5) / scale + float(spread) - 0.5;
+    float distance = (sampleDistance(srcPos, cellOffset, cellSize) - 0.5) * 2.0 * float(spread);
+    // distance in target pixels to coverage
+    float coverage = clamp(distance * scale + 0.5, 0.0, 1.0);
+    if (coverage <= 0.0) {
+        return;
+    }
+
+    vec4 baseColor = ARGBToColor(symbol.argb);
+    imageStore(colorTex, destCoord_ + destCoord, vec4(baseColor.rgb, baseColor.a * coverage));
+}
@@ -0,0 +1,100 @@
+#version 450 core
+
+/*
+# index   |   texture usage
+# 0             color map
+# 1             normal map
+# 2             specular map
+# 3             glow emissive map
+# 4             metallic map
+# 5             depth offset map
+*/
+#define COLOR 0
+#define NORMAL 1
+#define SPECULAR 2
+#define EMISSION 3
+#define METALLIC 4
+#define DEPTH 5
+
+layout(binding = COLOR, rgba16f) uniform image2D colorTex;
+layout(binding = NORMAL, rgba16f) uniform image2D normalTex;
+layout(binding = SPECULAR, rgba16f) uniform image2D specularTex;
+layout(binding = EMISSION, rgba16f) uniform image2D emissionTex;
+layout(binding = METALLIC, rgba16f) uniform image2D metallicTex;
+layout(binding = DEPTH, rgba16f) uniform image2D depthTex;
+
+layout(local_size_x = 8, local_size_y = 8, local_size_z = 1)   in;
+
+struct Patch {
+    ivec4 dest;
+    ivec4 src;
+    vec4 scale;
+    vec4 colorFactor;
+    vec4 colorAdd;
+    vec4 specularFactor;
+    vec4 specularAdd;
+    vec4 emissionFactor;
+    vec4 emissionAdd;
+    vec4 metallicFactor;
+    vec4 metallicAdd;
+};
+
+// patch commands; one work group layer per patch
+layout (std430, binding = 4) buffer patchBuffer {
+    Patch[] patches;
+} Patches;
+
+// index of the first patch of the batch
+uniform int first;
+
+uniform sampler2D colorSamp;
+uniform sampler2D normalSamp;
+uniform sampler2D specularSamp;
+uniform sampler2D emissionSamp;
+uniform sampler2D metallicSamp;
+uniform sampler2D depthSamp;
+
+/*
+Pre-Defined inputs:
+
+in uvec3 gl_NumWorkGroups;
+in uvec3 gl_WorkGroupID;
+in uvec3 gl_LocalInvocationID;
+in uvec3 gl_GlobalInvocationID;
+in uint  gl_LocalInvocationIndex;
+*/
+void main() {
+    Patch p = Patches.patches[first + int(gl_GlobalInvocationID.z)];
+    ivec2 coord = ivec2(gl_GlobalInvocationID.xy);
+    // discard threads outside of the clipped patch
+    if (coord.x >= p.dest.z || coord.y >= p.dest.w) {
+        return;
+    }
+    if (coord.x >= int(p.src.z * p.scale.x) || coord.y >= int(p.src.w * p.scale.y)) {
+        return;
+    }
+
+    ivec2 src = p.src.xy + ivec2(vec2(coord) / p.scale.xy);
+    ivec2 dest = p.dest.xy + coord;
+
+    if (p.scale.z > 0) {
+        vec4 temp = imageLoad(colorTex, dest);
+        vec4 temp2 = texelFetch(colorSamp, src, 0) * p.colorFactor + p.colorAdd;
+        float mix = temp2.a;
+        float mixInv = 1 - mix;
+
+        imageStore(colorTex, dest, vec4(temp.rgb * mixInv + temp2.rgb * mix, temp.a + temp2.a));
+        imageStore(normalTex, dest, imageLoad(normalTex, dest) * mixInv + texelFetch(normalSamp, src, 0) * mix);
+        imageStore(specularTex, dest, imageLoad(specularTex, dest) * mixInv + (texelFetch(specularSamp, src, 0) * p.specularFactor + p.specularAdd) * mix);
+        imageStore(emissionTex, dest, imageLoad(emissionTex, dest) * mixInv + (texelFetch(emissionSamp, src, 0) * p.emissionFactor + p.emissionAdd) * mix);
+        imageStore(metallicTex, dest, imageLoad(metallicTex, dest) * mixInv + (texelFetch(metallicSamp, src, 0) * p.metallicFactor + p.metallicAdd) * mix);
+        imageStore(depthTex, dest, imageLoad(depthTex, dest) * mixInv + texelFetch(depthSamp, src, 0) * mix);
+    } else {
+        imageStore(colorTex, dest, texelFetch(colorSamp, src, 0) * p.colorFactor + p.colorAdd);
+        imageStore(normalTex, dest, texelFetch(normalSamp, src, 0));
+        imageStore(specularTex, dest, texelFetch(specularSamp, src, 0) * p.specularFactor + p.specularAdd);
+        imageStore(emissionTex, dest, texelFetch(emissionSamp, src, 0) * p.emissionFactor + p.emissionAdd);
+        imageStore(metallicTex, dest, texelFetch(metallicSamp, src, 0) * p.metallicFactor + p.metallicAdd);
+        imageStore(depthTex, dest, texelFetch(depthSamp, src, 0));
+    }
+}
@@ -0,0 +1,70 @@
+#version 450 core
+
+/*
+# index   |   texture usage
+# 0             color map
+# 1             normal map
+# 2             specular map
+# 3             glow emissive map
+# 4             metallic map
+# 5             depth offset map
+*/
+#define COLOR 0
+#define NORMAL 1
+#define SPECULAR 2
+#define EMISSION 3
+#define METALLIC 4
+#define DEPTH 5
+
+layout(binding = COLOR, rgba16f) uniform image2D colorTex;
+layout(binding = NORMAL, rgba16f) uniform image2D normalTex;
+layout(binding = SPECULAR, rgba16f) uniform image2D specularTex;
+layout(binding = EMISSION, rgba16f) uniform image2D emissionTex;
+layout(binding = METALLIC, rgba16f) uniform image2D metallicTex;
+layout(binding = DEPTH, rgba16f) uniform image2D depthTex;
+
+layout(local_size_x = 8, local_size_y = 8, local_size_z = 1)   in;
+
+struct Rectangle {
+    ivec4 dest;
+    vec4 color;
+    vec4 specular;
+    vec4 emission;
+    vec4 metallic;
+    vec4 normal;
+    vec4 displacement;
+};
+
+// rectangle commands; one work group layer per rectangle
+layout (std430, binding = 4) buffer rectangleBuffer {
+    Rectangle[] rects;
+} Rectangles;
+
+// index of the first rectangle of the batch
+uniform int first;
+
+/*
+Pre-Defined inputs:
+
+in uvec3 gl_NumWorkGroups;
+in uvec3 gl_WorkGroupID;
+in uvec3 gl_LocalInvocationID;
+in uvec3 gl_GlobalInvocationID;
+in uint  gl_LocalInvocationIndex;
+*/
+void main() {
+    Rectangle rect = Rectangles.rects[first + int(gl_GlobalInvocationID.z)];
+    ivec2 coord = ivec2(gl_GlobalInvocationID.xy);
+    // discard threads outside of the rectangle
+    if (coord.x >= rect.dest.z || coord.y >= rect.dest.w) {
+        return;
+    }
+
+    ivec2 dest = rect.dest.xy + coord;
+    imageStore(colorTex, dest, rect.color);
+    imageStore(specularTex, dest, rect.specular);
+    imageStore(emissionTex, dest, rect.emission);
+    imageStore(metallicTex, dest, rect.metallic);
+    imageStore(normalTex, dest, vec4(rect.normal.xyz, 1));
+    imageStore(depthTex, dest, vec4(rect.displacement.xyz, 1));
+}
@@ -0,0 +1,44 @@
+/*
+# Encoding of the geometry buffer targets written by the scene
+# shader. Requires util/util.glsl to be included first.
+#
+# Define GBUFFER_COMPACT before including this file to read or
+# write the compact layout, which stores normals octahedral
+# encoded in two half floats instead of a full color.
+#
+# The octahedral functions are mirrored on the cpu by
+# GBufferLayoutTest, which fails if they change here without
+# updating the copy in the test.
+*/
+
+vec2 octWrap(vec2 v) {
+    return (1.0 - abs(v.yx)) * vec2(v.x >= 0.0 ? 1.0 : -1.0, v.y >= 0.0 ? 1.0 : -1.0);
+}
+
+vec2 octEncode(vec3 n) {
+    n /= max(abs(n.x) + abs(n.y) + abs(n.z), 1e-6);
+    return n.z >= 0.0 ? n.xy : octWrap(n.xy);
+}
+
+vec3 octDecode(vec2 f) {
+    vec3 n = vec3(f.x, f.y, 1.0 - abs(f.x) - abs(f.y));
+    float t = clamp(-n.z, 0.0, 1.0);
+    n.xy += vec2(n.x >= 0.0 ? -t : t, n.y >= 0.0 ? -t : t);
+    return normalize(n);
+}
+
+vec4 gbufferEncodeNormal(vec4 normal) {
+#ifdef GBUFFER_COMPACT
+    return vec4(octEncode(normal.xyz), 0, 1);
+#else
+    return toColor(normal);
+#endif
+}
+
+vec4 gbufferDecodeNormal(vec4 value) {
+#ifdef GBUFFER_COMPACT
+    return vec4(octDecode(value.xy), 1);
+#else
+    return toCoord(value);
+#endif
+}
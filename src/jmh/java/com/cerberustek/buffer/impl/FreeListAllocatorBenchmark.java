@@ -0,0 +1,66 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.buffer.impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocates and releases text lines of random length in a
+ * fragmented pool, similar to an edited document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FreeListAllocatorBenchmark {
+
+    private static final int LIVE = 1024;
+
+    private final Random random = new Random(42);
+    private final long[] offsets = new long[LIVE];
+    private final long[] sizes = new long[LIVE];
+    private FreeListAllocator allocator;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        allocator = new FreeListAllocator(LIVE * 4096L, 16);
+        for (int i = 0; i < LIVE; i++) {
+            sizes[i] = 16 + random.nextInt(2048);
+            offsets[i] = allocator.allocate(sizes[i]);
+        }
+    }
+
+    @Benchmark
+    public long reallocate() {
+        int i = random.nextInt(LIVE);
+        allocator.release(offsets[i], sizes[i]);
+        sizes[i] = 16 + random.nextInt(2048);
+        offsets[i] = allocator.allocate(sizes[i]);
+        return offsets[i];
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.camera.impl;
+
+import com.cerberustek.input.impl.CursorPosition;
+import com.cerberustek.input.impl.Keyboard;
+import com.cerberustek.input.impl.Mouse;
+import com.cerberustek.logic.math.Vector2d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates a camera that is moving forward and strafing while the
+ * locked cursor turns it, which takes the longest path through
+ * {@link MoveableCamera#update(double)}.
+ *
+ * Keyboard and cursor are replaced by fakes reporting a constant
+ * input, so no window is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MoveableCameraBenchmark {
+
+    private static final double DELTA = 1d / 144d;
+
+    private MoveableCamera camera;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Keyboard keyboard = new Keyboard() {
+            @Override
+            public boolean isPressed(int keyCode) {
+                return keyCode == KEY_W || keyCode == KEY_D;
+            }
+        };
+
+        CursorPosition cursor = new CursorPosition() {
+
+            private final Vector2d delta = new Vector2d(3, -2);
+
+            @Override
+            public boolean isLocked() {
+                return true;
+            }
+
+            @Override
+            public Vector2d getDeltaPos() {
+                return delta;
+            }
+
+            @Override
+            public void reset() {}
+        };
+
+        camera = new MoveableCamera(70f, 0.1f, 1000f, keyboard, new Mouse(null, null, null, cursor)) {
+            @Override
+            public void initProjection(float fov, float near, float far) {
+                // there is no window to take the aspect ratio from
+            }
+        };
+    }
+
+    @Benchmark
+    public MoveableCamera update() {
+        camera.update(DELTA);
+        return camera;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records 10k rectangles into a canvas command list.
+ *
+ * The tiles layout does not overlap, like the panes of a user
+ * interface, so all rectangles should end up in a single batch.
+ * The random layout overlaps heavily and splits the batches. The
+ * batch count of the last recording is reported as secondary result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CFXCommandListBenchmark {
+
+    private static final int RECTANGLES = 10000;
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Param({"tiles", "random"})
+    private String layout;
+
+    private final Vector4f color = new Vector4f(1f, 0.5f, 0.25f, 1f);
+    private final Vector4f zero = new Vector4f(0f);
+    private final Vector3f normal = new Vector3f(0f, 0f, 1f);
+    private final Vector3f displacement = new Vector3f(0f);
+    private final int[] rectangles = new int[RECTANGLES * 4];
+    private CFXCommandList commandList;
+
+    /**
+     * Batch count of the last recording
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Batches {
+
+        public long batches;
+    }
+
+    @Setup
+    public void setup() {
+        commandList = new CFXCommandList();
+        commandList.setResolution(WIDTH, HEIGHT);
+
+        Random random = new Random(42);
+        int columns = (int) Math.ceil(Math.sqrt(RECTANGLES));
+        int cellWidth = WIDTH / columns;
+        int cellHeight = HEIGHT / columns;
+        for (int i = 0; i < RECTANGLES; i++) {
+            int width;
+            int height;
+            int x;
+            int y;
+            if ("tiles".equals(layout)) {
+                width = cellWidth - 1;
+                height = cellHeight - 1;
+                x = (i % columns) * cellWidth;
+                y = (i / columns) * cellHeight;
+            } else {
+                width = 4 + random.nextInt(60);
+                height = 4 + random.nextInt(60);
+                x = random.nextInt(WIDTH - width);
+                y = random.nextInt(HEIGHT - height);
+            }
+            rectangles[i * 4] = x;
+            rectangles[i * 4 + 1] = y;
+            rectangles[i * 4 + 2] = width;
+            rectangles[i * 4 + 3] = height;
+        }
+    }
+
+    @Benchmark
+    public int record(Batches batches) {
+        commandList.clear();
+        for (int i = 0; i < rectangles.length; i += 4)
+            commandList.addRectangle(rectangles[i], rectangles[i + 1], rectangles[i + 2], rectangles[i + 3],
+                    color, zero, zero, zero, normal, displacement);
+
+        batches.batches = commandList.batches();
+        return commandList.getRectangleCount();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hit tests and damage queries against a pane with many
+ * children, which are looked up through the uniform grid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CFXGridIndexBenchmark {
+
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "1000", "10000"})
+    private int children;
+
+    private final CFXGridIndex<Integer> index = new CFXGridIndex<>();
+    private final ArrayList<Integer> result = new ArrayList<>();
+    private final int[] queries = new int[QUERIES * 2];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index.resize(WIDTH, HEIGHT);
+        for (int i = 0; i < children; i++) {
+            index.put(i, random.nextInt(WIDTH), random.nextInt(HEIGHT), 16 + random.nextInt(112),
+                    16 + random.nextInt(48));
+        }
+
+        for (int i = 0; i < queries.length; i += 2) {
+            queries[i] = random.nextInt(WIDTH);
+            queries[i + 1] = random.nextInt(HEIGHT);
+        }
+    }
+
+    @Benchmark
+    public int hitTest() {
+        int i = next();
+        result.clear();
+        return index.query(queries[i], queries[i + 1], result).size();
+    }
+
+    @Benchmark
+    public int damage() {
+        int i = next();
+        result.clear();
+        return index.query(queries[i], queries[i + 1], 200, 120, result).size();
+    }
+
+    private int next() {
+        next = (next + 2) % queries.length;
+        return next;
+    }
+}
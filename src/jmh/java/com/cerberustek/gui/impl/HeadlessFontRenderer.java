@@ -0,0 +1,94 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.gui.CFXCharacter;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Font renderer for benchmarks, which measures glyphs with
+ * java.awt instead of loading them into texture alphabets.
+ *
+ * This keeps the layout code paths identical, without requiring
+ * a gl context or a running renderer. Glyphs are cached by char
+ * only, so an instance should only be used with a single font.
+ */
+class HeadlessFontRenderer extends CFXFontRendererImpl {
+
+    private static final String WORDS = "the quick brown fox jumps over lazy dog render pipeline texture "
+            + "shader buffer glyph alphabet layout paragraph cerberus window frame";
+
+    private final HashMap<Character, CFXCharacter> glyphs = new HashMap<>();
+
+    HeadlessFontRenderer() {
+        setAsyncMode(false);
+    }
+
+    @Override
+    CFXCharacter requestCharacter(char c, Font font) {
+        return glyphs.computeIfAbsent(c, key -> {
+            FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+            Rectangle2D bounds = font.getStringBounds(Character.toString(c), renderContext);
+            // glyphs are never drawn, so they do not need an alphabet
+            return new CFXCharacterImpl(c, (int) Math.ceil(bounds.getWidth()), (int) Math.ceil(bounds.getHeight()),
+                    c, font, null);
+        });
+    }
+
+    @Override
+    int tabInSpaces() {
+        return 4;
+    }
+
+    /**
+     * Generates a reproducible text of words, tabs and line breaks.
+     * @param length length in chars
+     * @param lineLength average amount of chars between line breaks
+     * @return text
+     */
+    static String text(int length, int lineLength) {
+        String[] words = WORDS.split(" ");
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(length + 16);
+        int line = 0;
+        while (builder.length() < length) {
+            String word = words[random.nextInt(words.length)];
+            builder.append(random.nextInt(10) == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1)
+                    : word);
+            line += word.length() + 1;
+
+            if (line > lineLength) {
+                builder.append('\n');
+                line = 0;
+            } else
+                builder.append(random.nextInt(20) == 0 ? '\t' : ' ');
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.exceptions.TextFormatException;
+import com.cerberustek.gui.CFXAlphabet;
+import com.cerberustek.gui.CFXCharacter;
+import com.cerberustek.gui.CFXTextBuffer;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.util.CFXColor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.BufferUtils;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static com.cerberustek.gui.CFXFontRenderer.*;
+
+/**
+ * Text buffer formatting as it was done before the introduction
+ * of CFXTextLayout.
+ *
+ * Every visible glyph is copied into a Symbol, which is collected
+ * in a HashSet per alphabet, before the buffer payload is written.
+ * This is only kept as the baseline of the text layout benchmark.
+ */
+final class LegacyTextFormatter {
+
+    private LegacyTextFormatter() {}
+
+    static @Nullable CFXTextBuffer formatTextBuffer(@NotNull CFXFontRendererImpl fontRenderer,
+                                                    @NotNull String input, @NotNull Font font, int hspace,
+                                                    int vspace, boolean packing) {
+        final HashMap<CFXAlphabet, HashSet<Symbol>> mapOfChars = new HashMap<>();
+        final HashMap<CFXAlphabet, Vector2i> mapOfExtents = new HashMap<>();
+        boolean complete = true;
+
+        int bufferCap = 0;
+
+        Vector2i pos = new Vector2i(0);
+        int currentLineHeight = font.getSize();
+        int currentARGB = 0xFFFFFFFF; // default color: white
+
+        Rectangle2D spaceBounds = fontRenderer.getSpaceBounds(font);
+        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
+        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
+
+        Loop : for (int i = 0; i < input.length(); i++) {
+            switch (input.charAt(i)) {
+                case ESCAPE_RETURN:
+                case ESCAPE_BACKSPACE:
+                    break;
+                case ESCAPE_NEW_LINE:
+                    pos.setX(0);
+                    pos.addSelf(0, currentLineHeight + vspace);
+                    currentLineHeight = font.getSize();
+                    break;
+                case ESCAPE_HIGHLIGHT:
+                    try {
+                        CFXFontRendererImpl.FormatColor color = CFXFontRendererImpl.findColor(input, i);
+                        currentARGB = CFXColor.toARGB(1f, color.color.getX(),
+                                color.color.getY(), color.color.getZ());
+                        i = color.pos;
+                    } catch (TextFormatException e) {
+                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
+                    }
+                    break;
+                case ESCAPE_FORM_FEED:
+                    break Loop;
+                case ESCAPE_TAB:
+                    pos.addSelf(spaceWidth * fontRenderer.tabInSpaces() + hspace, 0);
+                    break;
+                case SPACE:
+                    pos.addSelf(spaceWidth + hspace, 0);
+                    if (currentLineHeight < spaceHeight)
+                        currentLineHeight = spaceHeight;
+                    break;
+                default:
+                    CFXCharacter cfxChar = fontRenderer.requestCharacter(input.charAt(i), font);
+                    if (cfxChar == null)
+                        continue; // could not load character
+
+                    // adjust height for the current line
+                    if (currentLineHeight < cfxChar.getHeight())
+                        currentLineHeight = cfxChar.getHeight();
+
+                    if (cfxChar instanceof CFXPlaceholderCharacter) {
+                        // glyph is still loading. Leave the space blank
+                        complete = false;
+                    } else {
+                        mapOfChars.computeIfAbsent(cfxChar.getAlphabet(),
+                                k -> new HashSet<>()).add(new Symbol(pos.copy(), cfxChar, currentARGB));
+                        Vector2i extent = mapOfExtents.computeIfAbsent(cfxChar.getAlphabet(), k -> new Vector2i(0));
+                        if (extent.getX() < cfxChar.getWidth())
+                            extent.setX(cfxChar.getWidth());
+                        if (extent.getY() < cfxChar.getHeight())
+                            extent.setY(cfxChar.getHeight());
+                        bufferCap++;
+                    }
+
+                    if (packing || cfxChar.getWidth() > spaceWidth)
+                        pos.addSelf(cfxChar.getWidth() + hspace, 0);
+                    else
+                        pos.addSelf(spaceWidth + hspace, 0);
+            }
+        }
+
+        if (mapOfChars.isEmpty())
+            return null;
+
+        final ByteBuffer buffer = BufferUtils.createByteBuffer(bufferCap * TEXT_BUFFER_SYMBOL_SIZE);
+        final long[] cuts = new long[mapOfChars.size() - 1];
+        final CFXAlphabet[] alphabets = new CFXAlphabet[mapOfChars.size()];
+        final int[] charCounts = new int[mapOfChars.size()];
+        final Vector2i[] glyphExtents = new Vector2i[mapOfChars.size()];
+        int i = 0;
+
+        for (CFXAlphabet alphabet : mapOfChars.keySet()) {
+            HashSet<Symbol> chars = mapOfChars.get(alphabet);
+            if (i < cuts.length)
+                cuts[i] = chars.size() * TEXT_BUFFER_SYMBOL_SIZE;
+
+            charCounts[i] = chars.size();
+            glyphExtents[i] = mapOfExtents.get(alphabet);
+            alphabets[i++] = alphabet;
+
+            chars.forEach(c -> {
+                buffer.putInt(c.character.getTex());
+                buffer.putInt(c.coord.getX());
+                buffer.putInt(c.coord.getY());
+                buffer.putInt(c.argb);
+            });
+        }
+
+        buffer.flip();
+        return new CFXTextBufferImpl(buffer, alphabets, cuts, charCounts, glyphExtents, pos, complete);
+    }
+
+    /**
+     * Symbol struct class
+     */
+    private static class Symbol {
+
+        final Vector2i coord;
+        final CFXCharacter character;
+        final int argb;
+
+        Symbol(Vector2i coord, CFXCharacter character, int argb) {
+            this.coord = coord;
+            this.character = character;
+            this.argb = argb;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.buffer.GlBufferObject;
+import com.cerberustek.gui.CFXTextBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the lines of a document to a text buffer pool, like the
+ * CFXBufferedRenderDoc does for every line inserted into its document.
+ *
+ * The pool runs on buffer objects without a gl context, so only the
+ * range allocation and its bookkeeping are measured. The allocation
+ * counters of the last run are reported as secondary results. Before
+ * pooling, every line allocated a buffer object of its own, so the
+ * buffer allocations were equal to the amount of lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TextBufferPoolBenchmark {
+
+    /** Typical GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT of desktop gpus */
+    private static final long ALIGNMENT = 256;
+
+    @Param({"100", "1000"})
+    private int lines;
+
+    private CFXTextBuffer[] textBuffers;
+
+    /**
+     * Allocation counters of the last append run
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocations {
+
+        public long bufferAllocations;
+        public long rangeAllocations;
+        public long uploads;
+    }
+
+    @Setup
+    public void setup() {
+        HeadlessFontRenderer renderer = new HeadlessFontRenderer();
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+        String[] text = HeadlessFontRenderer.text(lines * 60, 60).split("\n");
+
+        ArrayList<CFXTextBuffer> formatted = new ArrayList<>(lines);
+        for (int i = 0; formatted.size() < lines; i++) {
+            CFXTextBuffer textBuffer = renderer.formatTextBuffer(text[i % text.length], font, 1, 2);
+            if (textBuffer != null)
+                formatted.add(textBuffer);
+        }
+        textBuffers = formatted.toArray(new CFXTextBuffer[0]);
+    }
+
+    @Benchmark
+    public long appendLines(Allocations allocations) {
+        CFXTextBufferPool pool = new HeadlessTextBufferPool();
+        for (CFXTextBuffer textBuffer : textBuffers)
+            pool.allocate(textBuffer);
+
+        allocations.bufferAllocations = pool.bufferAllocations();
+        allocations.rangeAllocations = pool.rangeAllocations();
+        allocations.uploads = pool.uploads();
+        return pool.used();
+    }
+
+    /**
+     * Text buffer pool, whose buffer objects ignore all calls.
+     */
+    private static class HeadlessTextBufferPool extends CFXTextBufferPool {
+
+        @Override
+        @NotNull GlBufferObject createBuffer(long size) {
+            return (GlBufferObject) Proxy.newProxyInstance(GlBufferObject.class.getClassLoader(),
+                    new Class<?>[] {GlBufferObject.class}, (proxy, method, args) -> {
+                        Class<?> type = method.getReturnType();
+                        if (type == int.class)
+                            return 0;
+                        if (type == boolean.class)
+                            return false;
+                        return null;
+                    });
+        }
+
+        @Override
+        long queryAlignment() {
+            return ALIGNMENT;
+        }
+    }
+}
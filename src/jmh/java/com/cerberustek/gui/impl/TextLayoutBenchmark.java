@@ -0,0 +1,92 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.gui.CFXFontRenderer;
+import com.cerberustek.gui.CFXTextBuffer;
+import com.cerberustek.logic.math.Vector2i;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text layout and word wrapping of the font renderer.
+ *
+ * formatTextBufferLegacy is the former per-glyph Symbol/HashSet
+ * formatting and serves as the baseline of formatTextBuffer.
+ *
+ * The cold wrap runs with a disabled wrap cache, so every
+ * paragraph is measured again, while the warm wrap only breaks
+ * the cached paragraphs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TextLayoutBenchmark {
+
+    @Param({"1000", "10000"})
+    private int length;
+
+    private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+    private final Vector2i bounds = new Vector2i(640, 0);
+
+    private HeadlessFontRenderer renderer;
+    private HeadlessFontRenderer uncached;
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = HeadlessFontRenderer.text(length, 80);
+        renderer = new HeadlessFontRenderer();
+        uncached = new HeadlessFontRenderer();
+        uncached.setWrapCacheCapacity(0);
+
+        // load all glyphs and fill the wrap cache
+        wrapWarm();
+        wrapCold();
+    }
+
+    @Benchmark
+    public CFXTextBuffer formatTextBuffer() {
+        return renderer.formatTextBuffer(text, font, 1, 2);
+    }
+
+    @Benchmark
+    public CFXTextBuffer formatTextBufferLegacy() {
+        return LegacyTextFormatter.formatTextBuffer(renderer, text, font, 1, 2, false);
+    }
+
+    @Benchmark
+    public String wrapCold() {
+        return uncached.wrap(text, font, bounds, 1, 2, false, true, CFXFontRenderer.FAKE_NEW_LINE);
+    }
+
+    @Benchmark
+    public String wrapWarm() {
+        return renderer.wrap(text, font, bounds, 1, 2, false, true, CFXFontRenderer.FAKE_NEW_LINE);
+    }
+}
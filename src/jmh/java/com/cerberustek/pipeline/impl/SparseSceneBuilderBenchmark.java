@@ -0,0 +1,95 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl;
+
+import com.cerberustek.buffer.GlBufferObject;
+import com.cerberustek.geometry.VertexBuffer;
+import com.cerberustek.pipeline.Renderable;
+import com.cerberustek.pipeline.impl.renderables.StaticObjectRenderable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partitions a scene by vertex buffer, the way
+ * {@link SparseSceneBuilder#append(Renderable)} does after the
+ * mesh of a renderable has been resolved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SparseSceneBuilderBenchmark {
+
+    @Param({"1000", "10000"})
+    private int renderables;
+
+    @Param({"8", "64"})
+    private int vertexBuffers;
+
+    private Renderable[] scene;
+    private VertexBuffer[] buffers;
+
+    @Setup
+    public void setup() {
+        VertexBuffer[] pool = new VertexBuffer[vertexBuffers];
+        for (int i = 0; i < pool.length; i++)
+            pool[i] = new DummyVertexBuffer();
+
+        Random random = new Random(42);
+        scene = new Renderable[renderables];
+        buffers = new VertexBuffer[renderables];
+        for (int i = 0; i < renderables; i++) {
+            scene[i] = new StaticObjectRenderable(null, null);
+            buffers[i] = pool[random.nextInt(pool.length)];
+        }
+    }
+
+    @Benchmark
+    public SparseSceneBuilder partition() {
+        SparseSceneBuilder builder = new SparseSceneBuilder();
+        for (int i = 0; i < scene.length; i++)
+            builder.partition(scene[i], buffers[i]);
+        return builder;
+    }
+
+    private static class DummyVertexBuffer implements VertexBuffer {
+
+        @Override
+        public void bind() {}
+
+        @Override
+        public void unbind() {}
+
+        @Override
+        public GlBufferObject bufferObject() {
+            return null;
+        }
+
+        @Override
+        public void destroy() {}
+    }
+}
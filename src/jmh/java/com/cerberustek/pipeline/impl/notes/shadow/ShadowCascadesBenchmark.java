@@ -0,0 +1,68 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes.shadow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fits four shadow cascades to a perspective camera, which is
+ * done once per frame on the render thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShadowCascadesBenchmark {
+
+    private static final double NEAR = 0.1;
+    private static final double FAR = 1000;
+
+    private final ShadowCascades cascades = new ShadowCascades(4, 2048, 0.75, 200);
+    private final float[] lightDirection = new float[] {0.3f, -1f, 0.2f};
+    private float[] cameraMatrix;
+
+    @Setup
+    public void setup() {
+        // row major perspective projection, 70 degrees at 16:9,
+        // looking down the negative z axis from (10, 5, 10)
+        double f = 1 / Math.tan(Math.toRadians(35));
+        double aspect = 16d / 9d;
+        cameraMatrix = new float[] {
+                (float) (f / aspect), 0, 0, -10 * (float) (f / aspect),
+                0, (float) f, 0, -5 * (float) f,
+                0, 0, (float) ((FAR + NEAR) / (NEAR - FAR)), (float) ((FAR + NEAR) / (NEAR - FAR) * -10
+                        + 2 * FAR * NEAR / (NEAR - FAR)),
+                0, 0, -1, 10
+        };
+    }
+
+    @Benchmark
+    public ShadowCascades fit() {
+        cascades.fit(cameraMatrix, NEAR, FAR, 0, lightDirection);
+        return cascades;
+    }
+}
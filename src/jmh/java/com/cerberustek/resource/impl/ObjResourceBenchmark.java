@@ -0,0 +1,85 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.resource.impl;
+
+import com.cerberustek.geometry.Vertex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a synthetic height field mesh in the obj format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ObjResourceBenchmark {
+
+    /** Vertices per side of the grid */
+    @Param({"100", "300"})
+    private int gridSize;
+
+    private final ObjResource resource = new ObjResource(null);
+    private String source;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int z = 0; z < gridSize; z++) {
+            for (int x = 0; x < gridSize; x++) {
+                builder.append("v ").append(x).append(' ').append(random.nextFloat()).append(' ')
+                        .append(z).append('\n');
+            }
+        }
+
+        for (int z = 0; z < gridSize - 1; z++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int i = z * gridSize + x + 1;
+                builder.append("f ").append(i).append(' ').append(i + gridSize).append(' ')
+                        .append(i + 1).append('\n');
+                builder.append("f ").append(i + 1).append(' ').append(i + gridSize).append(' ')
+                        .append(i + gridSize + 1).append('\n');
+            }
+        }
+        source = builder.toString();
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        ArrayList<Vertex> vertices = new ArrayList<>();
+        ArrayList<Integer> indices = new ArrayList<>();
+        resource.parse(new BufferedReader(new StringReader(source)), vertices, indices);
+        blackhole.consume(vertices);
+        blackhole.consume(indices);
+    }
+}
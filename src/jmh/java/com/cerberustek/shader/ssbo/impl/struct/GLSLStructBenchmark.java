@@ -0,0 +1,86 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.shader.ssbo.impl.struct;
+
+import com.cerberustek.exceptions.IllegalStructSizeException;
+import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.Vector4f;
+import com.cerberustek.shader.ssbo.MemoryLayout;
+import com.cerberustek.shader.ssbo.Struct;
+import org.lwjgl.BufferUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bakes and serializes a light buffer made of an array of
+ * structs, as it is uploaded into a shader storage buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GLSLStructBenchmark {
+
+    @Param({"64", "1024"})
+    private int lights;
+
+    private GLSLStruct root;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() throws IllegalStructSizeException {
+        Struct[] structs = new Struct[lights];
+        for (int i = 0; i < lights; i++) {
+            GLSLStruct light = new GLSLStruct();
+            light.append(new GLSLMat4f(new Matrix4f().initIdentity()));
+            light.append(new GLSLVec4f(new Vector4f(i, 0, -i, 1)));
+            light.append(new GLSLVec4f(new Vector4f(1, 0.5f, 0.25f, 1)));
+            light.append(new GLSLFloat(i * 0.5f));
+            light.append(new GLSLInt(i));
+            structs[i] = light;
+        }
+
+        root = new GLSLStruct();
+        root.append(new GLSLInt(lights));
+        root.append(new GLSLStaticStructArray(structs));
+        root.bake(MemoryLayout.STD430, 0);
+        buffer = BufferUtils.createByteBuffer((int) root.byteSize());
+    }
+
+    @Benchmark
+    public long bake() throws IllegalStructSizeException {
+        root.bake(MemoryLayout.STD430, 0);
+        return root.byteSize();
+    }
+
+    @Benchmark
+    public ByteBuffer packageData() {
+        buffer.clear();
+        root.packageData(buffer);
+        return buffer;
+    }
+}
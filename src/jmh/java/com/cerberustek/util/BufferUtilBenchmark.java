@@ -0,0 +1,100 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.util;
+
+import com.cerberustek.geometry.Vertex;
+import com.cerberustek.geometry.impl.VertexImpl;
+import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.Vector2f;
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.texture.ImageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.nio.Buffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of matrices, vectors, vertices and images into
+ * native buffers for upload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BufferUtilBenchmark {
+
+    @Param({"10000"})
+    private int vertexCount;
+
+    @Param({"512"})
+    private int imageSize;
+
+    private Matrix4f matrix;
+    private Vector3f[] vectors;
+    private Vertex[] vertices;
+    private BufferedImage image;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        matrix = new Matrix4f().initIdentity();
+
+        vectors = new Vector3f[vertexCount];
+        vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vectors[i] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+            vertices[i] = new VertexImpl(vectors[i], new Vector2f(random.nextFloat(), random.nextFloat()),
+                    new Vector3f(0, 1, 0));
+        }
+
+        image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < imageSize; y++) {
+            for (int x = 0; x < imageSize; x++)
+                image.setRGB(x, y, random.nextInt());
+        }
+    }
+
+    @Benchmark
+    public Buffer matrix() {
+        return BufferUtil.createFlippedBuffer(matrix);
+    }
+
+    @Benchmark
+    public Buffer vectors() {
+        return BufferUtil.createFlippedBuffer(vectors);
+    }
+
+    @Benchmark
+    public Buffer vertices() {
+        return BufferUtil.createVertexBuffer(vertices, true);
+    }
+
+    @Benchmark
+    public Buffer image() {
+        return BufferUtil.createFlippedBuffer(image, ImageType.RGBA_8_INTEGER);
+    }
+}
@@ -23,13 +23,17 @@
 package com.cerberustek;
 
 import com.cerberustek.commands.*;
+import com.cerberustek.debug.profiler.FramePhase;
+import com.cerberustek.debug.profiler.FrameProfiler;
 import com.cerberustek.events.ExceptionEvent;
 import com.cerberustek.events.GLFWInitEvent;
 import com.cerberustek.events.GracefulShutdownEvent;
 import com.cerberustek.exceptions.IllegalContextException;
 import com.cerberustek.geometry.GeometryBoard;
 import com.cerberustek.geometry.impl.GeometryBoardImpl;
+import com.cerberustek.gui.CFXGlyphCache;
 import com.cerberustek.gui.CFXManager;
+import com.cerberustek.gui.impl.CFXGlyphCacheImpl;
 import com.cerberustek.gui.impl.CFXManagerImpl;
 import com.cerberustek.input.InputBoard;
 import com.cerberustek.input.impl.InputBoardImpl;
@@ -75,6 +79,8 @@ public class CerberusRenderer implements CerberusService {
     public final static String PERMISSION_COMMAND_SHADER = PERMISSION_COMMAND + ".shader";
     public final static String PERMISSION_COMMAND_TEXTURE = PERMISSION_COMMAND + ".texture";
     public final static String PERMISSION_COMMAND_GEOMETRY = PERMISSION_COMMAND + ".geometry";
+    public final static String PERMISSION_COMMAND_GPU = PERMISSION_COMMAND + ".gpu";
+    public final static String PERMISSION_COMMAND_PROFILER = PERMISSION_COMMAND + ".profiler";
 
     private final WorkerBoss boss;
     private final Settings settings;
@@ -91,8 +97,10 @@ public class CerberusRenderer implements CerberusService {
     private final Window window;
     private final ParallelThread parallelThread;
     private final CFXManager guiManager;
+    private final CFXGlyphCache glyphCache;
     private final InputBoard inputBoard;
 
+    private FrameProfiler frameProfiler;
     private WorkerTask renderTask;
     private double parallelDelta;
     private long droppedFrames;
@@ -116,6 +124,7 @@ public class CerberusRenderer implements CerberusService {
             this.window = new WindowImpl(settings);
         this.parallelThread = new ParallelThread();
         this.guiManager = new CFXManagerImpl();
+        this.glyphCache = new CFXGlyphCacheImpl();
         this.inputBoard = new InputBoardImpl();
     }
 
@@ -123,6 +132,12 @@ public class CerberusRenderer implements CerberusService {
     public void start() {
         CerberusRegistry.getInstance().info("Starting renderer...");
         settings.init();
+        glyphCache.setCapacity(settings.getInteger("glyph_cache_size", 4096) * 1024L);
+        if (settings.getBoolean("profiler", true)) {
+            frameProfiler = new FrameProfiler(settings.getInteger("profiler_frames", 600));
+            if (settings.getBoolean("profiler_jmx", false))
+                frameProfiler.register();
+        }
 
         boss.createGroup(GROUP_RENDER, WorkerPriority.ABSOLUTE);
         boss.createGroup(GROUP_INPUT, WorkerPriority.HIGH);
@@ -169,6 +184,8 @@ public class CerberusRenderer implements CerberusService {
         executor.registerCommand(new ShaderCommand());
         executor.registerCommand(new TextureCommand());
         executor.registerCommand(new GeometryCommand());
+        executor.registerCommand(new GPUCommand());
+        executor.registerCommand(new ProfilerCommand());
 
         CerberusRegistry.getInstance().getService(CerberusEvent.class).addListener((RenderPipelineImpl) pipeline);
 
@@ -185,6 +202,9 @@ public class CerberusRenderer implements CerberusService {
                 stopGracefully();
 
             if (window.isInitialized()) {
+                FrameProfiler profiler = frameProfiler;
+                if (profiler != null)
+                    profiler.beginFrame();
                 if (!executerHandlers.isEmpty()) {
                     try {
                         PriorityConsumer consumer;
@@ -196,6 +216,8 @@ public class CerberusRenderer implements CerberusService {
                                 .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
                     }
                 }
+                if (profiler != null)
+                    profiler.mark(FramePhase.HANDLERS);
 
                 long startTime = System.nanoTime();
                 // Wait for the parallel thread to finish
@@ -218,13 +240,29 @@ public class CerberusRenderer implements CerberusService {
                     }
                 }
                 parallelDelta = (double) (System.nanoTime() - startTime) * 1e-6;
+                if (profiler != null)
+                    profiler.mark(FramePhase.PARALLEL_WAIT);
 
                 synchronized (parallelThread) {
                     parallelThread.notifyAll();
                 }
 
+                // deliver the input callbacks of the last poll
+                delta = inputBoard.advanceFrame(delta);
+                if (inputBoard.getInputBus().isAutoDispatch())
+                    inputBoard.getInputBus().dispatch();
+                if (profiler != null)
+                    profiler.mark(FramePhase.INPUT);
+
+                guiManager.beginFrame();
                 pipeline.update(delta);
+                if (profiler != null)
+                    profiler.mark(FramePhase.PIPELINE);
                 window.update(delta);
+                if (profiler != null) {
+                    profiler.mark(FramePhase.SWAP);
+                    profiler.endFrame();
+                }
             }
         } catch (Exception e) {
             CerberusRegistry.getInstance().getService(CerberusEvent.class)
@@ -319,10 +357,19 @@ public class CerberusRenderer implements CerberusService {
 
         boss.submitTopTask(t -> {
             window.requestClose();
+            if (frameProfiler != null) {
+                String profile = settings.getString("profiler_dump", "");
+                if (!profile.isEmpty()) {
+                    CerberusRegistry.getInstance().info("Writing frame profile to " + profile + "...");
+                    frameProfiler.dump(new File(profile));
+                }
+                frameProfiler.destroy();
+            }
             CerberusRegistry.getInstance().info("Disassembling render pipeline...");
             pipeline.destroy();
             settings.destroy();
             guiManager.destroy();
+            glyphCache.destroy();
             CerberusRegistry.getInstance().info("Cleaning shader cache...");
             shaderBoard.destroy();
             CerberusRegistry.getInstance().info("Cleaning geometry cache...");
@@ -626,6 +673,15 @@ public class CerberusRenderer implements CerberusService {
         return guiManager;
     }
 
+    /**
+     * Returns the process wide glyph cache.
+     *
+     * @return Glyph cache
+     */
+    public CFXGlyphCache getGlyphCache() {
+        return glyphCache;
+    }
+
     /**
      * Returns the resource PropertyMap
      *
@@ -649,6 +705,17 @@ public class CerberusRenderer implements CerberusService {
         return parallelDelta;
     }
 
+    /**
+     * Returns the profiler recording the CPU time of every
+     * phase of a frame.
+     *
+     * @return frame profiler, or null if the profiler is disabled
+     *          in the settings or the renderer was not started yet
+     */
+    public FrameProfiler getFrameProfiler() {
+        return frameProfiler;
+    }
+
     /**
      * Returns the total number of dropped frames since
      * the render engine was started.
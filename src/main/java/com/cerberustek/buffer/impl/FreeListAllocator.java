@@ -0,0 +1,163 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.buffer.impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * First fit free list allocator for ranges inside of a buffer.
+ *
+ * The allocator does not touch any gl state. It only manages byte
+ * ranges, which makes it usable for sub allocating any kind of
+ * buffer object. Adjacent free ranges are coalesced on release.
+ *
+ * All requested sizes are rounded up to the alignment of the
+ * allocator, so every returned offset is aligned as well.
+ */
+public class FreeListAllocator {
+
+    /** Free ranges (offset to size), sorted by offset */
+    private final TreeMap<Long, Long> free = new TreeMap<>();
+    private final long alignment;
+
+    private final long capacity;
+    private long used;
+    private long allocations;
+
+    /**
+     * Creates a new allocator.
+     * @param capacity capacity in bytes
+     * @param alignment alignment of all ranges in bytes
+     */
+    public FreeListAllocator(long capacity, long alignment) {
+        if (alignment <= 0)
+            throw new IllegalArgumentException("Alignment has to be positive");
+
+        this.alignment = alignment;
+        this.capacity = capacity;
+        if (capacity > 0)
+            free.put(0L, capacity);
+    }
+
+    /**
+     * Will allocate a range of the specified size.
+     * @param size size in bytes
+     * @return offset of the range, or -1 if there is no free range large enough
+     */
+    public long allocate(long size) {
+        long aligned = align(size);
+        for (Map.Entry<Long, Long> entry : free.entrySet()) {
+            if (entry.getValue() < aligned)
+                continue;
+
+            long offset = entry.getKey();
+            free.remove(offset);
+            if (entry.getValue() > aligned)
+                free.put(offset + aligned, entry.getValue() - aligned);
+
+            used += aligned;
+            allocations++;
+            return offset;
+        }
+        return -1;
+    }
+
+    /**
+     * Will release a range, which has previously been allocated.
+     * @param offset offset of the range
+     * @param size size of the range in bytes, as requested on allocation
+     */
+    public void release(long offset, long size) {
+        long aligned = align(size);
+        used -= aligned;
+
+        // coalesce with the following range
+        Long next = free.get(offset + aligned);
+        if (next != null) {
+            free.remove(offset + aligned);
+            aligned += next;
+        }
+
+        // coalesce with the preceding range
+        Map.Entry<Long, Long> prev = free.floorEntry(offset);
+        if (prev != null && prev.getKey() + prev.getValue() == offset) {
+            free.put(prev.getKey(), prev.getValue() + aligned);
+            return;
+        }
+        free.put(offset, aligned);
+    }
+
+    /**
+     * Will release all ranges at once.
+     */
+    public void clear() {
+        free.clear();
+        if (capacity > 0)
+            free.put(0L, capacity);
+        used = 0;
+    }
+
+    /**
+     * Will round the size up to the alignment of the allocator.
+     * @param size size in bytes
+     * @return aligned size in bytes
+     */
+    public long align(long size) {
+        long remainder = size % alignment;
+        return remainder == 0 ? size : size + alignment - remainder;
+    }
+
+    /**
+     * Returns the capacity in bytes.
+     * @return capacity
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the amount of allocated bytes.
+     * @return allocated bytes
+     */
+    public long used() {
+        return used;
+    }
+
+    /**
+     * Returns the total amount of allocations served since
+     * the creation of the allocator.
+     * @return allocation count
+     */
+    public long allocations() {
+        return allocations;
+    }
+
+    /**
+     * Returns the alignment of all ranges in bytes.
+     * @return alignment
+     */
+    public long alignment() {
+        return alignment;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.commands;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.pipeline.GPUTimer;
+import com.cerberustek.pipeline.RenderPipeline;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.service.terminal.TerminalCommand;
+import com.cerberustek.usr.PermissionHolder;
+import com.cerberustek.util.TimingHistory;
+
+import java.util.Scanner;
+
+public class GPUCommand implements TerminalCommand {
+    @Override
+    public boolean execute(PermissionHolder permissionHolder, Scanner scanner, String... args) {
+        RenderPipeline pipeline = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getPipeline();
+        GPUTimer timer = pipeline.getGPUTimer();
+
+        String subcommand = args.length > 0 ? args[0].toLowerCase() : "list";
+        switch (subcommand) {
+            case "list":
+                if (!timer.isSupported()) {
+                    CerberusRegistry.getInstance().debug("GPU timings are not available on this context");
+                    return true;
+                }
+
+                StringBuilder builder = new StringBuilder("GPU timings [min / avg / p95 / max]:");
+                RenderNote note = pipeline.get(0);
+                while (note != null) {
+                    builder.append("\n + ").append(note.getClass().getSimpleName()).append("> ");
+                    TimingHistory history = timer.getHistory(note);
+                    if (history == null || history.count() == 0)
+                        builder.append("no samples");
+                    else
+                        builder.append(String.format("%.3f / %.3f / %.3f / %.3f ms (%d samples)",
+                                history.min(), history.average(), history.percentile(95), history.max(),
+                                history.count()));
+
+                    note = note.hasChild() ? note.getChild() : null;
+                }
+                CerberusRegistry.getInstance().debug(builder.toString());
+                return true;
+            case "on":
+                timer.setEnabled(true);
+                CerberusRegistry.getInstance().debug("GPU timer enabled");
+                return true;
+            case "off":
+                timer.setEnabled(false);
+                CerberusRegistry.getInstance().debug("GPU timer disabled");
+                return true;
+            case "clear":
+                timer.clearHistories();
+                CerberusRegistry.getInstance().debug("GPU timings cleared");
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String executor() {
+        return "gpu";
+    }
+
+    @Override
+    public String usage() {
+        return "gpu <list|on|off|clear>";
+    }
+
+    @Override
+    public String requiredPermission() {
+        return CerberusRenderer.PERMISSION_COMMAND_GPU;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.commands;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.debug.profiler.FramePhase;
+import com.cerberustek.debug.profiler.FrameProfiler;
+import com.cerberustek.service.terminal.TerminalCommand;
+import com.cerberustek.usr.PermissionHolder;
+import com.cerberustek.util.TimingHistory;
+
+import java.io.File;
+import java.util.Scanner;
+
+public class ProfilerCommand implements TerminalCommand {
+    @Override
+    public boolean execute(PermissionHolder permissionHolder, Scanner scanner, String... args) {
+        FrameProfiler profiler = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getFrameProfiler();
+        if (profiler == null) {
+            CerberusRegistry.getInstance().debug("The frame profiler is disabled or the renderer has not been "
+                    + "started yet");
+            return true;
+        }
+
+        String subcommand = args.length > 0 ? args[0].toLowerCase() : "stats";
+        switch (subcommand) {
+            case "stats":
+                StringBuilder builder = new StringBuilder("Frame phases [p50 / p95 / p99 / max]:");
+                for (FramePhase phase : FramePhase.values()) {
+                    TimingHistory history = profiler.getHistory(phase);
+                    builder.append(String.format("\n + %s> %.3f / %.3f / %.3f / %.3f ms", phase.key(),
+                            history.percentile(50), history.percentile(95), history.percentile(99),
+                            history.max()));
+                }
+                builder.append("\n(").append(profiler.getHistory(FramePhase.FRAME).count()).append(" frames)");
+                CerberusRegistry.getInstance().debug(builder.toString());
+                return true;
+            case "dump":
+                if (args.length < 2)
+                    return false;
+                File file = new File(args[1]);
+                if (profiler.dump(file))
+                    CerberusRegistry.getInstance().debug("Frame profile written to " + file.getAbsolutePath());
+                return true;
+            case "on":
+                profiler.setEnabled(true);
+                CerberusRegistry.getInstance().debug("Frame profiler enabled");
+                return true;
+            case "off":
+                profiler.setEnabled(false);
+                CerberusRegistry.getInstance().debug("Frame profiler disabled");
+                return true;
+            case "clear":
+                profiler.clear();
+                CerberusRegistry.getInstance().debug("Frame profile cleared");
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String executor() {
+        return "profiler";
+    }
+
+    @Override
+    public String usage() {
+        return "profiler <stats|dump <file.csv|file.json>|on|off|clear>";
+    }
+
+    @Override
+    public String requiredPermission() {
+        return CerberusRenderer.PERMISSION_COMMAND_PROFILER;
+    }
+}
@@ -26,6 +26,7 @@ import com.cerberustek.CerberusRegistry;
 import com.cerberustek.Destroyable;
 import com.cerberustek.logic.math.Vector2f;
 import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.pipeline.GPUTimer;
 import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.pipeline.RenderPipeline;
 import com.cerberustek.pipeline.impl.RenderNote;
@@ -35,6 +36,7 @@ import com.cerberustek.CerberusRenderer;
 import com.cerberustek.gui.impl.CFXTextPane;
 import com.cerberustek.gui.impl.RelativeOrientation;
 import com.cerberustek.util.CFXColor;
+import com.cerberustek.util.TimingHistory;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
@@ -90,6 +92,7 @@ public class CFXDebugGUI extends CFXNoteSelfContained implements Destroyable {
                 .append("Pipeline timings: [Total> ")
                 .append(formatNumber(pipeline.getDelta()))
                 .append(CFXColor.GREY_BLUE).append(" ms]");
+        GPUTimer gpuTimer = pipeline.getGPUTimer();
         RenderNote note = pipeline.get(0);
         while (note != null) {
             builder.append('\n')
@@ -101,6 +104,18 @@ public class CFXDebugGUI extends CFXNoteSelfContained implements Destroyable {
                     .append(CFXColor.GREY_BLUE)
                     .append(" ms");
 
+            TimingHistory history = gpuTimer.getHistory(note);
+            if (history != null && history.count() > 0) {
+                builder.append(CFXColor.GREY_BLUE)
+                        .append("\t|\tgpu> ")
+                        .append(formatNumber(history.average()))
+                        .append(CFXColor.GREY_BLUE)
+                        .append(" ms, p95> ")
+                        .append(formatNumber(history.percentile(95)))
+                        .append(CFXColor.GREY_BLUE)
+                        .append(" ms");
+            }
+
             if (note.hasChild())
                 note = note.getChild();
             else
@@ -23,6 +23,7 @@
 package com.cerberustek.debug.overlay;
 
 import com.cerberustek.CerberusRegistry;
+import com.cerberustek.gui.CFXGlyphCache;
 import com.cerberustek.logic.math.Vector2f;
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.overlay.OverlayFrame;
@@ -123,6 +124,18 @@ public class DebugOverlay extends OverlayContainerImpl {
         else
             builder.append(CFXColor.RED_WINE).append("DISABLED");
         builder.append(TerminalUtil.ANSI_RESET).append('\n');
+        CFXGlyphCache glyphCache = renderer.getGlyphCache();
+        builder.append("Glyph cache: ").append(CFXColor.AQUA_BLUE)
+                .append(Math.round(glyphCache.hitRate() * 1000f) / 10f).append(TerminalUtil.ANSI_RESET)
+                .append(" % hits, ").append(CFXColor.AQUA_BLUE).append(glyphCache.size())
+                .append(TerminalUtil.ANSI_RESET).append(" glyphs, ").append(CFXColor.AQUA_BLUE)
+                .append(glyphCache.getMemory() / 1024).append(TerminalUtil.ANSI_RESET).append(" KiB\n");
+        builder.append("Glyph atlas memory: ").append(CFXColor.AQUA_BLUE)
+                .append(renderer.getGUIManager().getFontRenderer().getAtlasMemory() / 1024)
+                .append(TerminalUtil.ANSI_RESET).append(" KiB\n");
+        builder.append("GUI repaint: ").append(CFXColor.AQUA_BLUE)
+                .append(renderer.getGUIManager().getRepaintedPixels()).append(TerminalUtil.ANSI_RESET)
+                .append(" px\n");
         builder.append("Renderer: ").append(CFXColor.GOLDEN)
                 .append(renderer.getWindow().getRenderer()).append(TerminalUtil.ANSI_RESET).append('\n');
         builder.append("OpenGL-version: ").append(CFXColor.GOLDEN)
@@ -141,5 +154,7 @@ public class DebugOverlay extends OverlayContainerImpl {
     public void destroy() {
         super.destroy();
         getRenderer().getWorker().decomissionTask(task, CerberusRenderer.GROUP_OTHER);
+        plain.destroy();
+        bold.destroy();
     }
 }
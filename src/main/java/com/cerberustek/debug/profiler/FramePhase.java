@@ -0,0 +1,50 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.debug.profiler;
+
+/**
+ * CPU phases of a single frame on the render thread.
+ */
+public enum FramePhase {
+
+    /** Executor handlers submitted to the render thread */
+    HANDLERS,
+    /** Waiting for the parallel render assembly */
+    PARALLEL_WAIT,
+    /** Advancing and dispatching input callbacks */
+    INPUT,
+    /** Rendering the pipeline and the gui */
+    PIPELINE,
+    /** Window update including the buffer swap */
+    SWAP,
+    /** The entire frame */
+    FRAME;
+
+    /**
+     * Returns the name used in exports and JMX object names.
+     * @return lower case name
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
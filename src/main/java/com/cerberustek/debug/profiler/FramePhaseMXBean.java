@@ -0,0 +1,68 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.debug.profiler;
+
+/**
+ * JMX view on the timings of one frame phase.
+ *
+ * All values are in milliseconds and describe the frames
+ * currently held by the profiler.
+ */
+public interface FramePhaseMXBean {
+
+    /**
+     * Returns the amount of frames the statistics are based on.
+     * @return frame count
+     */
+    int getSamples();
+
+    /**
+     * Returns the average phase time.
+     * @return average in ms
+     */
+    double getAverage();
+
+    /**
+     * Returns the median phase time.
+     * @return p50 in ms
+     */
+    double getP50();
+
+    /**
+     * Returns the 95th percentile of the phase time.
+     * @return p95 in ms
+     */
+    double getP95();
+
+    /**
+     * Returns the 99th percentile of the phase time.
+     * @return p99 in ms
+     */
+    double getP99();
+
+    /**
+     * Returns the longest phase time.
+     * @return max in ms
+     */
+    double getMax();
+}
@@ -0,0 +1,67 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.debug.profiler;
+
+import com.cerberustek.util.TimingHistory;
+
+/**
+ * Exposes the history of a frame phase as an MXBean.
+ */
+class FramePhaseStats implements FramePhaseMXBean {
+
+    private final TimingHistory history;
+
+    FramePhaseStats(TimingHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public int getSamples() {
+        return history.count();
+    }
+
+    @Override
+    public double getAverage() {
+        return history.average();
+    }
+
+    @Override
+    public double getP50() {
+        return history.percentile(50);
+    }
+
+    @Override
+    public double getP95() {
+        return history.percentile(95);
+    }
+
+    @Override
+    public double getP99() {
+        return history.percentile(99);
+    }
+
+    @Override
+    public double getMax() {
+        return history.max();
+    }
+}
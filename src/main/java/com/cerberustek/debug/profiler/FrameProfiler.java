@@ -0,0 +1,310 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.debug.profiler;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.Destroyable;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.util.TimingHistory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Records the CPU time of every phase of a frame on the
+ * render thread.
+ *
+ * The last {@code capacity} frames are kept in one ring
+ * buffer per {@link FramePhase}. The buffers are always
+ * written together, so the n-th sample of every phase belongs
+ * to the same frame. Frames that threw an exception are never
+ * completed and therefore not recorded.
+ *
+ * The statistics can be exported as CSV or JSON and are
+ * published as one MXBean per phase under
+ * {@value #JMX_DOMAIN}:type=FrameProfiler,phase=&lt;phase&gt;.
+ */
+public class FrameProfiler implements Destroyable {
+
+    public static final String JMX_DOMAIN = "com.cerberustek";
+
+    private static final FramePhase[] PHASES = FramePhase.values();
+
+    /** Phase histories */
+    private final TimingHistory[] histories = new TimingHistory[PHASES.length];
+    /** Phase times of the current frame in ns */
+    private final long[] current = new long[PHASES.length];
+    /** Registered JMX names */
+    private ObjectName[] objectNames;
+
+    /** Start of the current frame in ns */
+    private long frameStart;
+    /** Time of the last mark in ns */
+    private long lastMark;
+    /** Whether a frame is being recorded */
+    private boolean recording;
+    /** Whether frames are recorded at all */
+    private volatile boolean enabled = true;
+
+    /**
+     * Creates a new frame profiler.
+     * @param capacity amount of frames kept
+     */
+    public FrameProfiler(int capacity) {
+        for (int i = 0; i < PHASES.length; i++)
+            histories[i] = new TimingHistory(capacity);
+    }
+
+    /**
+     * Starts recording a new frame.
+     *
+     * A frame that was begun but never ended is discarded.
+     */
+    public void beginFrame() {
+        recording = enabled;
+        if (!recording)
+            return;
+
+        for (int i = 0; i < current.length; i++)
+            current[i] = 0;
+        frameStart = lastMark = System.nanoTime();
+    }
+
+    /**
+     * Attributes the time passed since the last mark to a phase.
+     * @param phase frame phase that just finished
+     */
+    public void mark(FramePhase phase) {
+        if (!recording)
+            return;
+
+        long time = System.nanoTime();
+        current[phase.ordinal()] += time - lastMark;
+        lastMark = time;
+    }
+
+    /**
+     * Completes the current frame and adds it to the history.
+     */
+    public void endFrame() {
+        if (!recording)
+            return;
+
+        recording = false;
+        current[FramePhase.FRAME.ordinal()] = System.nanoTime() - frameStart;
+        synchronized (histories) {
+            for (int i = 0; i < PHASES.length; i++)
+                histories[i].add(current[i] * 1e-6);
+        }
+    }
+
+    /**
+     * Returns the history of a phase in ms.
+     * @param phase frame phase
+     * @return history
+     */
+    public TimingHistory getHistory(FramePhase phase) {
+        return histories[phase.ordinal()];
+    }
+
+    /**
+     * Returns if frames are recorded.
+     * @return enabled?
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables recording. The history is kept.
+     * @param enabled enabled?
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Removes all recorded frames.
+     */
+    public void clear() {
+        synchronized (histories) {
+            for (TimingHistory history : histories)
+                history.clear();
+        }
+    }
+
+    /**
+     * Writes all recorded frames as CSV, one frame per row and
+     * one column per phase in ms.
+     * @param writer output
+     * @throws IOException failed to write
+     */
+    public void writeCSV(Writer writer) throws IOException {
+        double[][] samples = snapshot();
+        StringBuilder builder = new StringBuilder("index");
+        for (FramePhase phase : PHASES)
+            builder.append(',').append(phase.key());
+        builder.append('\n');
+
+        for (int frame = 0; frame < samples[0].length; frame++) {
+            builder.append(frame);
+            for (double[] phase : samples)
+                builder.append(',').append(format(phase[frame]));
+            builder.append('\n');
+        }
+        writer.write(builder.toString());
+        writer.flush();
+    }
+
+    /**
+     * Writes the percentile statistics and all recorded frames
+     * of every phase as JSON.
+     * @param writer output
+     * @throws IOException failed to write
+     */
+    public void writeJSON(Writer writer) throws IOException {
+        double[][] samples = snapshot();
+        StringBuilder builder = new StringBuilder("{\n  \"frames\": ")
+                .append(samples[0].length).append(",\n  \"phases\": {");
+
+        for (int i = 0; i < PHASES.length; i++) {
+            TimingHistory history = new TimingHistory(Math.max(1, samples[i].length));
+            for (double sample : samples[i])
+                history.add(sample);
+
+            builder.append(i == 0 ? "\n" : ",\n")
+                    .append("    \"").append(PHASES[i].key()).append("\": {")
+                    .append("\"p50\": ").append(format(history.percentile(50)))
+                    .append(", \"p95\": ").append(format(history.percentile(95)))
+                    .append(", \"p99\": ").append(format(history.percentile(99)))
+                    .append(", \"max\": ").append(format(history.max()))
+                    .append(", \"samples\": [");
+            for (int frame = 0; frame < samples[i].length; frame++) {
+                if (frame > 0)
+                    builder.append(", ");
+                builder.append(format(samples[i][frame]));
+            }
+            builder.append("]}");
+        }
+        builder.append("\n  }\n}\n");
+        writer.write(builder.toString());
+        writer.flush();
+    }
+
+    /**
+     * Writes the recorded frames to a file. Files ending with
+     * {@code .json} are written as JSON, all others as CSV.
+     * @param file output file
+     * @return success?
+     */
+    public boolean dump(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            CerberusRegistry.getInstance().warning("Unable to create directory " + parent);
+            return false;
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            if (file.getName().toLowerCase().endsWith(".json"))
+                writeJSON(writer);
+            else
+                writeCSV(writer);
+            return true;
+        } catch (IOException e) {
+            CerberusRegistry.getInstance().warning("Unable to write frame profile to " + file);
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            return false;
+        }
+    }
+
+    /**
+     * Publishes the phase statistics on the platform MBean server.
+     */
+    public void register() {
+        if (objectNames != null)
+            return;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName[] names = new ObjectName[PHASES.length];
+        try {
+            for (int i = 0; i < PHASES.length; i++) {
+                names[i] = new ObjectName(JMX_DOMAIN + ":type=FrameProfiler,phase=" + PHASES[i].key());
+                if (!server.isRegistered(names[i]))
+                    server.registerMBean(new FramePhaseStats(histories[i]), names[i]);
+            }
+            objectNames = names;
+        } catch (JMException e) {
+            CerberusRegistry.getInstance().warning("Unable to register the frame profiler MBeans");
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            objectNames = names;
+            unregister();
+        }
+    }
+
+    /**
+     * Removes the phase statistics from the platform MBean server.
+     */
+    public void unregister() {
+        if (objectNames == null)
+            return;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : objectNames) {
+            try {
+                if (name != null && server.isRegistered(name))
+                    server.unregisterMBean(name);
+            } catch (JMException e) {
+                CerberusRegistry.getInstance().warning("Unable to unregister " + name);
+            }
+        }
+        objectNames = null;
+    }
+
+    @Override
+    public void destroy() {
+        unregister();
+    }
+
+    private double[][] snapshot() {
+        double[][] samples = new double[PHASES.length][];
+        synchronized (histories) {
+            for (int i = 0; i < PHASES.length; i++)
+                samples[i] = histories[i].toArray();
+        }
+        return samples;
+    }
+
+    private static String format(double ms) {
+        return String.format(Locale.ROOT, "%.4f", ms);
+    }
+}
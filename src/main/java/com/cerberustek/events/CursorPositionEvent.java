@@ -45,6 +45,29 @@ public class CursorPositionEvent extends InputEvent implements Event {
         this.deltaPos = deltaPos;
     }
 
+    /**
+     * Will reinitialize the cursor event, so the instance can be
+     * reused for an other cursor callback.
+     *
+     * The position and delta are copied into the vectors of
+     * this event.
+     *
+     * @param inputDevice the input device
+     * @param windowId window id
+     * @param x current x position
+     * @param y current y position
+     * @param deltaX x delta
+     * @param deltaY y delta
+     * @return this cursor event
+     */
+    public CursorPositionEvent set(InputDevice inputDevice, long windowId, double x, double y,
+                                   double deltaX, double deltaY) {
+        setSource(inputDevice, windowId);
+        currentPos.set(x, y);
+        deltaPos.set(deltaX, deltaY);
+        return this;
+    }
+
     /**
      * Returns the current Position of the cursor.
      *
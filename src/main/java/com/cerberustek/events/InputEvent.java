@@ -28,9 +28,9 @@ import com.cerberustek.input.InputDevice;
 public abstract class InputEvent implements Event {
 
     /** The input device responsible for the input event */
-    private final InputDevice inputDevice;
+    private InputDevice inputDevice;
     /** Window id */
-    private final long windowId;
+    private long windowId;
 
     /**
      * An input event with the responsible input device and window.
@@ -43,6 +43,20 @@ public abstract class InputEvent implements Event {
         this.windowId = windowId;
     }
 
+    /**
+     * Will reassign the input device and window of the event.
+     *
+     * Input events are reused by the input bus, so listeners
+     * must not keep references to them.
+     *
+     * @param inputDevice the input device
+     * @param windowId window id
+     */
+    protected void setSource(InputDevice inputDevice, long windowId) {
+        this.inputDevice = inputDevice;
+        this.windowId = windowId;
+    }
+
     /**
      * Returns the input device which is responsible for the event call
      *
@@ -28,13 +28,13 @@ import com.cerberustek.input.InputDevice;
 public class KeyEvent extends InputEvent implements Event {
 
     /** Key code of the key event */
-    private final int key;
+    private int key;
     /** Scan code of the key event */
-    private final int scanCode;
+    private int scanCode;
     /** The action performed */
-    private final int action;
+    private int action;
     /** Modifications to the key event */
-    private final int mods;
+    private int mods;
 
     /**
      * Standard key event.
@@ -54,6 +54,27 @@ public class KeyEvent extends InputEvent implements Event {
         this.mods = mods;
     }
 
+    /**
+     * Will reinitialize the key event, so the instance can be
+     * reused for an other key callback.
+     *
+     * @param inputDevice the input device responsible
+     * @param window The Window that pulled the key callback
+     * @param key The key code of the key that triggered the key event
+     * @param scanCode The scan code of the key callback
+     * @param action The action of the event
+     * @param mods modification the the key event
+     * @return this key event
+     */
+    public KeyEvent set(InputDevice inputDevice, long window, int key, int scanCode, int action, int mods) {
+        setSource(inputDevice, window);
+        this.key = key;
+        this.scanCode = scanCode;
+        this.action = action;
+        this.mods = mods;
+        return this;
+    }
+
     public int getKey() {
         return key;
     }
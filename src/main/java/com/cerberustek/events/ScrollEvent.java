@@ -48,6 +48,28 @@ public class ScrollEvent extends InputEvent implements Event {
     }
 
     /** Returns the amount scrolled in x and y direction */
+    /**
+     * Will reinitialize the scroll event, so the instance can be
+     * reused for an other scroll callback.
+     *
+     * The scroll offsets are copied into the vectors of this
+     * event.
+     *
+     * @param inputDevice the input device
+     * @param windowId window id
+     * @param x x scroll offset
+     * @param y y scroll offset
+     * @param deltaX x delta
+     * @param deltaY y delta
+     * @return this scroll event
+     */
+    public ScrollEvent set(InputDevice inputDevice, long windowId, double x, double y, double deltaX, double deltaY) {
+        setSource(inputDevice, windowId);
+        scroll.set(x, y);
+        deltaScroll.set(deltaX, deltaY);
+        return this;
+    }
+
     public Vector2d getScroll() {
         return scroll;
     }
@@ -31,4 +31,8 @@ public class AtlasCellSizeException extends IllegalArgumentException {
     public AtlasCellSizeException(TextureAtlas atlas, Vector3i size) {
         super("Expected: " + atlas.getCellSize() + ", provided: " + size);
     }
+
+    public AtlasCellSizeException(Vector3i expected, Vector3i size) {
+        super("Expected: " + expected + ", provided: " + size);
+    }
 }
@@ -55,6 +55,20 @@ public interface CFXAlphabet extends Destroyable, Initable {
      */
     int insertCharacter(TextureResource cellTexture);
 
+    /**
+     * Will insert multiple character textures at once and return
+     * their cell ids.
+     *
+     * All character textures are stitched into the alphabet's
+     * texture atlas in a single batch. If the alphabet cannot hold
+     * all of the character textures, none of them is inserted and
+     * this method returns null.
+     *
+     * @param cellTextures cell textures to insert
+     * @return cell ids in the order of the cell textures, or null
+     */
+    int[] insertCharacters(TextureResource[] cellTextures);
+
     /**
      * Will remove the character in the specified atlas cell id.
      * @param cellId cell id
@@ -91,4 +105,16 @@ public interface CFXAlphabet extends Destroyable, Initable {
      * @return free cells
      */
     int remaining();
+
+    /**
+     * Will return true, if the alphabet stores signed distance
+     * field glyphs.
+     *
+     * Distance field glyphs are stored once at a reference size
+     * and can be rendered at any font size, but require a
+     * different font shader than bitmap glyphs.
+     *
+     * @return distance field alphabet
+     */
+    boolean isDistanceField();
 }
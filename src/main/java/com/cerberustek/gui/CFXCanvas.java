@@ -294,4 +294,57 @@ public interface CFXCanvas extends Initable, Destroyable {
      * @param renderContext text render context
      */
     void drawString(@NotNull CFXTextRenderContext renderContext);
+
+    /**
+     * Will restrict all following draw calls to the specified
+     * region of the canvas.
+     *
+     * Rectangles and textures are clipped to the scissor region.
+     * Text cannot be clipped without moving its origin, so text
+     * is only skipped, if it lies outside of the region entirely.
+     *
+     * @param x x coordinate in pixels
+     * @param y y coordinate in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    void setScissor(int x, int y, int width, int height);
+
+    /**
+     * Will remove the scissor region.
+     */
+    void resetScissor();
+
+    /**
+     * Will start recording draw commands.
+     *
+     * While recording, rectangles, textures and text are not
+     * drawn immediately, but appended to a command list. The
+     * commands are drawn in their recorded order, once the
+     * batch is flushed. Consecutive rectangles and consecutive
+     * patches of the same texture, which do not overlap, are
+     * drawn with a single dispatch.
+     */
+    void beginBatch();
+
+    /**
+     * Will draw all recorded commands and stop recording.
+     *
+     * This method has to be called from a gl render thread.
+     */
+    void endBatch();
+
+    /**
+     * Returns true, if draw commands are currently recorded.
+     * @return batch mode
+     */
+    boolean isBatching();
+
+    /**
+     * Will draw all recorded commands without leaving the
+     * batch mode.
+     *
+     * This method has to be called from a gl render thread.
+     */
+    void flush();
 }
@@ -91,6 +91,18 @@ public interface CFXContainer extends CFXComponent, CFXRepaintable {
      */
     void remove(CFXComponent child);
 
+    /**
+     * Will update the position and size of a child component.
+     *
+     * Containers may cache the bounds of their children, so
+     * this method has to be called whenever the orientation
+     * of a child component has been changed after it has
+     * been added to this container.
+     *
+     * @param child component that has been moved
+     */
+    void relocate(CFXComponent child);
+
     /**
      * Returns true, if this container contains the specified
      * child component.
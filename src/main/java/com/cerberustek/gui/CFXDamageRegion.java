@@ -0,0 +1,218 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Set of damaged rectangles of a gui component in pixels.
+ *
+ * Overlapping rectangles are merged into their bounding box
+ * when they are added, so the rectangles of a region never
+ * overlap each other. If a region exceeds the max amount of
+ * rectangles, it is collapsed into a single bounding box.
+ */
+public class CFXDamageRegion {
+
+    /** Max amount of rectangles, before the region is collapsed */
+    public static final int MAX_RECTANGLES = 16;
+
+    private final int[] x0 = new int[MAX_RECTANGLES + 1];
+    private final int[] y0 = new int[MAX_RECTANGLES + 1];
+    private final int[] x1 = new int[MAX_RECTANGLES + 1];
+    private final int[] y1 = new int[MAX_RECTANGLES + 1];
+    private int count;
+
+    /**
+     * Will add a damaged rectangle to the region.
+     *
+     * Empty rectangles are ignored.
+     *
+     * @param x x coordinate in pixels
+     * @param y y coordinate in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    public void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0)
+            return;
+
+        int minX = x;
+        int minY = y;
+        int maxX = x + width;
+        int maxY = y + height;
+
+        // merge with all overlapping rectangles until nothing overlaps
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count; i++) {
+                if (minX < x1[i] && x0[i] < maxX && minY < y1[i] && y0[i] < maxY) {
+                    minX = Math.min(minX, x0[i]);
+                    minY = Math.min(minY, y0[i]);
+                    maxX = Math.max(maxX, x1[i]);
+                    maxY = Math.max(maxY, y1[i]);
+                    remove(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        x0[count] = minX;
+        y0[count] = minY;
+        x1[count] = maxX;
+        y1[count] = maxY;
+        count++;
+
+        if (count > MAX_RECTANGLES)
+            collapse();
+    }
+
+    /**
+     * Will add all rectangles of an other region with the
+     * specified offset.
+     * @param region other region
+     * @param offsetX x offset in pixels
+     * @param offsetY y offset in pixels
+     */
+    public void add(@NotNull CFXDamageRegion region, int offsetX, int offsetY) {
+        for (int i = 0; i < region.count; i++)
+            add(region.x0[i] + offsetX, region.y0[i] + offsetY, region.getWidth(i), region.getHeight(i));
+    }
+
+    /**
+     * Will replace the rectangles of this region with the
+     * rectangles of an other region.
+     * @param region other region
+     */
+    public void set(@NotNull CFXDamageRegion region) {
+        System.arraycopy(region.x0, 0, x0, 0, region.count);
+        System.arraycopy(region.y0, 0, y0, 0, region.count);
+        System.arraycopy(region.x1, 0, x1, 0, region.count);
+        System.arraycopy(region.y1, 0, y1, 0, region.count);
+        count = region.count;
+    }
+
+    /**
+     * Will clip all rectangles to the specified bounds.
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    public void clip(int width, int height) {
+        for (int i = 0; i < count; i++) {
+            x0[i] = Math.max(x0[i], 0);
+            y0[i] = Math.max(y0[i], 0);
+            x1[i] = Math.min(x1[i], width);
+            y1[i] = Math.min(y1[i], height);
+            if (x1[i] <= x0[i] || y1[i] <= y0[i])
+                remove(i--);
+        }
+    }
+
+    /**
+     * Returns true, if any rectangle of the region intersects
+     * the specified rectangle.
+     * @param x x coordinate in pixels
+     * @param y y coordinate in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     * @return intersects
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        for (int i = 0; i < count; i++) {
+            if (x < x1[i] && x0[i] < x + width && y < y1[i] && y0[i] < y + height)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the amount of damaged pixels.
+     * @return area in pixels
+     */
+    public long getArea() {
+        long area = 0;
+        for (int i = 0; i < count; i++)
+            area += (long) getWidth(i) * getHeight(i);
+        return area;
+    }
+
+    /**
+     * Will remove all rectangles.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the amount of rectangles.
+     * @return rectangle count
+     */
+    public int size() {
+        return count;
+    }
+
+    public int getX(int i) {
+        return x0[i];
+    }
+
+    public int getY(int i) {
+        return y0[i];
+    }
+
+    public int getWidth(int i) {
+        return x1[i] - x0[i];
+    }
+
+    public int getHeight(int i) {
+        return y1[i] - y0[i];
+    }
+
+    private void remove(int i) {
+        count--;
+        x0[i] = x0[count];
+        y0[i] = y0[count];
+        x1[i] = x1[count];
+        y1[i] = y1[count];
+    }
+
+    private void collapse() {
+        int minX = x0[0];
+        int minY = y0[0];
+        int maxX = x1[0];
+        int maxY = y1[0];
+        for (int i = 1; i < count; i++) {
+            minX = Math.min(minX, x0[i]);
+            minY = Math.min(minY, y0[i]);
+            maxX = Math.max(maxX, x1[i]);
+            maxY = Math.max(maxY, y1[i]);
+        }
+        count = 0;
+        add(minX, minY, maxX - minX, maxY - minY);
+    }
+}
@@ -57,4 +57,17 @@ public interface CFXDocumentEditable extends CFXDocument {
      * @param action action to do
      */
     void doAction(CFXDocAction action);
+
+    /**
+     * Will add a listener, which is notified about the exact range
+     * of lines affected by every change of this document.
+     * @param listener document listener
+     */
+    void addListener(CFXDocumentListener listener);
+
+    /**
+     * Will remove a document listener.
+     * @param listener document listener
+     */
+    void removeListener(CFXDocumentListener listener);
 }
@@ -80,6 +80,94 @@ public interface CFXFontRenderer extends Destroyable {
      */
     @Nullable CFXCharacter getCharacter(char c, @NotNull Font font);
 
+    /**
+     * Will enable or disable the signed distance field mode.
+     *
+     * In distance field mode, each glyph is generated only once
+     * at a reference size and stored as a signed distance field.
+     * Characters of all font sizes then share the same glyph, which
+     * is scaled to the target size during rendering.
+     *
+     * Changing the mode does not affect characters which are
+     * already loaded.
+     *
+     * @param distanceField distance field mode
+     */
+    void setDistanceFieldMode(boolean distanceField);
+
+    /**
+     * Returns true, if the signed distance field mode is enabled.
+     * @return distance field mode
+     */
+    boolean isDistanceFieldMode();
+
+    /**
+     * Will enable or disable asynchronous glyph loading.
+     *
+     * In async mode, glyphs that are missing while formatting or
+     * measuring text are rasterized on a worker thread and inserted
+     * into the alphabets in batches on the gl thread. Until then,
+     * the text uses placeholder characters, which take up the space
+     * of the glyph but are not drawn.
+     *
+     * @param async async mode
+     */
+    void setAsyncMode(boolean async);
+
+    /**
+     * Returns true, if glyphs are loaded asynchronously.
+     * @return async mode
+     */
+    boolean isAsyncMode();
+
+    /**
+     * Will set the max amount of paragraphs of which the line
+     * breaks are cached by the wrap methods.
+     *
+     * Wrapping a text only measures and breaks the paragraphs
+     * which are not cached. If only the width changes, cached
+     * paragraphs are broken again without measuring any glyphs.
+     *
+     * @param paragraphs capacity in paragraphs
+     */
+    void setWrapCacheCapacity(int paragraphs);
+
+    /**
+     * Returns the max amount of paragraphs of which the line
+     * breaks are cached by the wrap methods.
+     * @return capacity in paragraphs
+     */
+    int getWrapCacheCapacity();
+
+    /**
+     * Returns the ratio of wrapped paragraphs, which did not
+     * have to be measured again.
+     * @return hit rate between 0 and 1
+     */
+    double getWrapCacheHitRate();
+
+    /**
+     * Will rasterize the glyphs of the default character set with
+     * the specified font asynchronously.
+     *
+     * This method may be called from any thread.
+     *
+     * @param font font
+     */
+    void preload(@NotNull Font font);
+
+    /**
+     * Will rasterize the glyphs of all characters in the char
+     * sequence with the specified font asynchronously.
+     *
+     * Glyphs which are already loaded or loading are skipped.
+     * This method may be called from any thread.
+     *
+     * @param font font
+     * @param s characters to preload
+     */
+    void preload(@NotNull Font font, @NotNull CharSequence s);
+
     /**
      * Will delete a cfx character from the font renderer.
      * @param c character to delete
@@ -357,4 +445,11 @@ public interface CFXFontRenderer extends Destroyable {
      * @return byte size
      */
     long calcByteSize(@NotNull String input);
+
+    /**
+     * Returns the memory occupied by the texture atlases of all
+     * alphabets in bytes.
+     * @return atlas memory in bytes
+     */
+    long getAtlasMemory();
 }
@@ -0,0 +1,69 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Rasterized glyph of the shared glyph cache.
+ *
+ * The image of a glyph must not be modified, since it is shared
+ * between all renderers using the glyph cache.
+ */
+public interface CFXGlyph {
+
+    /**
+     * Returns the character of this glyph.
+     * @return character
+     */
+    char getCharacter();
+
+    /**
+     * Returns the font this glyph was rasterized with.
+     * @return font
+     */
+    @NotNull Font getFont();
+
+    /**
+     * Returns the rasterized image of this glyph.
+     * @return glyph image
+     */
+    @NotNull BufferedImage getImage();
+
+    /**
+     * Returns the string bounds of this glyph in the font.
+     * @return glyph bounds
+     */
+    @NotNull Rectangle2D getBounds();
+
+    /**
+     * Returns the amount of references currently held on this
+     * glyph.
+     * @return reference count
+     */
+    int references();
+}
@@ -0,0 +1,119 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui;
+
+import com.cerberustek.Destroyable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+
+/**
+ * Process wide cache of rasterized glyphs.
+ *
+ * Glyphs are keyed by font face, style, point size, transform and
+ * code point, so
+ * the same glyph is only rasterized once, no matter if it is used
+ * by the overlay fonts or the CFX font renderer.
+ *
+ * Glyphs are reference counted. A glyph with no remaining references
+ * stays cached, until the cache exceeds its capacity. Then the least
+ * recently used unreferenced glyphs are evicted.
+ *
+ * All methods of the glyph cache are thread safe.
+ */
+public interface CFXGlyphCache extends Destroyable {
+
+    /**
+     * Will return the glyph of the specified char and font and
+     * increase its reference count.
+     *
+     * If the glyph is not cached yet, it will be rasterized on
+     * the calling thread. Every acquired glyph has to be released
+     * again (see release).
+     *
+     * @param c character
+     * @param font font
+     * @return glyph or null, if the char has no visible glyph in the font
+     */
+    @Nullable CFXGlyph acquire(char c, @NotNull Font font);
+
+    /**
+     * Will decrease the reference count of the glyph.
+     * @param glyph glyph to release
+     */
+    void release(@NotNull CFXGlyph glyph);
+
+    /**
+     * Will decrease the reference count of the glyph and remove
+     * it from the cache right away, if it is not referenced anymore.
+     *
+     * This should be used instead of release, if the image has been
+     * copied elsewhere (e.g. into a texture atlas), such that the
+     * cache does not keep a second copy of it.
+     * @param glyph glyph to discard
+     */
+    void discard(@NotNull CFXGlyph glyph);
+
+    /**
+     * Sets the capacity of the cache in bytes.
+     * @param capacity capacity in bytes
+     */
+    void setCapacity(long capacity);
+
+    /**
+     * Returns the capacity of the cache in bytes.
+     * @return capacity in bytes
+     */
+    long getCapacity();
+
+    /**
+     * Returns the memory currently occupied by glyph images in bytes.
+     * @return memory in bytes
+     */
+    long getMemory();
+
+    /**
+     * Returns the amount of cached glyphs.
+     * @return glyph count
+     */
+    int size();
+
+    /**
+     * Returns the amount of lookups which were served from the cache.
+     * @return cache hits
+     */
+    long hits();
+
+    /**
+     * Returns the amount of lookups which required rasterization.
+     * @return cache misses
+     */
+    long misses();
+
+    /**
+     * Returns the ratio of cache hits to lookups.
+     * @return hit rate in [0, 1]
+     */
+    float hitRate();
+}
@@ -145,6 +145,34 @@ public interface CFXManager extends Destroyable, Initable {
      */
     void update();
 
+    /**
+     * Will add repainted pixels to the repaint statistics of
+     * the current frame.
+     *
+     * This is called by the panes, whenever they repaint their
+     * damaged regions.
+     *
+     * @param pixels repainted pixels
+     */
+    void countRepaintedPixels(long pixels);
+
+    /**
+     * Returns the amount of pixels, which have been repainted
+     * by all gui panes during the last frame.
+     *
+     * An idle gui should not repaint any pixels.
+     *
+     * @return repainted pixels of the last frame
+     */
+    long getRepaintedPixels();
+
+    /**
+     * Will start a new frame for the repaint statistics.
+     *
+     * This is called by the renderer once per frame.
+     */
+    void beginFrame();
+
     /**
      * Will register a gui with the specified root component
      * and the next free gui id.
@@ -173,6 +201,13 @@ public interface CFXManager extends Destroyable, Initable {
      */
     Vector2i getAtlasDimensions();
 
+    /**
+     * Returns the dimensions of the distance field glyph atlas
+     * from the font renderer in pixels.
+     * @return distance field atlas dimensions
+     */
+    Vector2i getDistanceFieldAtlasDimensions();
+
     /**
      * Returns the amount of space bars representing a single
      * tab.
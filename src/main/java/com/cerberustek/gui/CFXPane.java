@@ -39,6 +39,11 @@ import org.jetbrains.annotations.NotNull;
  * All calls to the paintComponent() method will simply
  * paint the contents of the internal canvas to the
  * target canvas.
+ *
+ * Repaint requests are tracked as damaged regions of the
+ * pane. After a repaint, the damage of that repaint can be
+ * used by the parent to only recomposite the affected part
+ * of the pane.
  */
 public abstract class CFXPane implements CFXComponent, CFXRepaintable, Destroyable {
 
@@ -48,10 +53,17 @@ public abstract class CFXPane implements CFXComponent, CFXRepaintable, Destroyab
     private CerberusRenderer renderer;
     /** repaint flag */
     private boolean shouldRepaint;
+    /** is true, if the entire pane has to be repainted */
+    private boolean fullDamage;
+    /** damage of the next repaint in pixels */
+    private final CFXDamageRegion pendingDamage = new CFXDamageRegion();
+    /** damage of the last repaint in pixels */
+    private final CFXDamageRegion damage = new CFXDamageRegion();
 
     public CFXPane(CFXCanvas canvas) {
         this.canvas = canvas;
         shouldRepaint = true;
+        fullDamage = true;
     }
 
     /**
@@ -77,10 +89,89 @@ public abstract class CFXPane implements CFXComponent, CFXRepaintable, Destroyab
      * for later execution in the gl render thread.
      */
     public void repaint() {
-        getRenderer().tryGLTask(t -> paintToCanvas());
+        getRenderer().tryGLTask(t -> {
+            synchronized (pendingDamage) {
+                if (fullDamage) {
+                    damage.clear();
+                    damage.add(0, 0, canvas.getResolution().getX(), canvas.getResolution().getY());
+                } else {
+                    damage.set(pendingDamage);
+                    damage.clip(canvas.getResolution().getX(), canvas.getResolution().getY());
+                }
+                pendingDamage.clear();
+                fullDamage = false;
+            }
+
+            if (damage.isEmpty())
+                return;
+            getRenderer().getGUIManager().countRepaintedPixels(damage.getArea());
+
+            canvas.beginBatch();
+            if (damage.size() == 1 && damage.getArea() == (long) canvas.getResolution().getX() *
+                    canvas.getResolution().getY()) {
+                paintToCanvas();
+            } else {
+                // only repaint the damaged regions
+                for (int i = 0; i < damage.size(); i++) {
+                    canvas.setScissor(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i));
+                    paintToCanvas();
+                }
+                canvas.resetScissor();
+            }
+            canvas.endBatch();
+        });
         shouldRepaint = false;
     }
 
+    /**
+     * Returns the damaged region of the last repaint in pixels
+     * of the pane.
+     *
+     * Implementations of paintToCanvas() may restrict painting
+     * to this region. The parent uses it to only recomposite the
+     * affected part of the pane.
+     *
+     * @return damage of the last repaint
+     */
+    @NotNull
+    public CFXDamageRegion getDamage() {
+        return damage;
+    }
+
+    /**
+     * Will mark a region of the pane as damaged without
+     * requesting a repaint.
+     *
+     * @param x x coordinate in pixels
+     * @param y y coordinate in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    protected void markDamaged(int x, int y, int width, int height) {
+        synchronized (pendingDamage) {
+            pendingDamage.add(x, y, width, height);
+        }
+    }
+
+    /**
+     * Will mark a region of the pane as damaged and request
+     * a repaint.
+     *
+     * Only the damaged regions are repainted. Use
+     * requestRepaint() to repaint the entire pane.
+     *
+     * @param x x coordinate in pixels
+     * @param y y coordinate in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    public void requestRepaint(int x, int y, int width, int height) {
+        markDamaged(x, y, width, height);
+        shouldRepaint = true;
+        if (id() != 0)
+            getRenderer().getGUIManager().requestUpdate(id());
+    }
+
     /**
      * Returns the canvas the contents of the pane are
      * drawn to.
@@ -128,6 +219,9 @@ public abstract class CFXPane implements CFXComponent, CFXRepaintable, Destroyab
 
     @Override
     public void requestRepaint() {
+        synchronized (pendingDamage) {
+            fullDamage = true;
+        }
         shouldRepaint = true;
         if (id() != 0)
             CerberusRegistry.getInstance().getService(CerberusRenderer.class).getGUIManager().requestUpdate(id());
@@ -40,6 +40,7 @@ import com.cerberustek.shader.ShaderBoard;
 import com.cerberustek.shader.code.ShaderCodeLoader;
 import com.cerberustek.shader.uniform.*;
 import com.cerberustek.CerberusRenderer;
+import com.cerberustek.gui.impl.CFXDistanceField;
 
 import java.util.function.Supplier;
 
@@ -47,7 +48,10 @@ public enum CFXShader {
 
     PATCH(new PatchSupplier()),
     RECTANGLE(new RectangleSupplier()),
+    PATCH_BATCH(new PatchBatchSupplier()),
+    RECTANGLE_BATCH(new RectangleBatchSupplier()),
     FONT(new FontSupplier()),
+    FONT_SDF(new DistanceFieldFontSupplier()),
     DRAW(new DrawSupplier());
 
     private final Supplier<ShaderResource> defaultResource;
@@ -126,6 +130,57 @@ public enum CFXShader {
         }
     }
 
+    private static class PatchBatchSupplier implements Supplier<ShaderResource> {
+
+        private void initShader(Shader shader) {
+            try {
+                shader.addUniform(new Uniform1i(shader, "first", 0));
+
+                shader.addUniform(new Uniform1i(shader, "colorSamp", SceneNote.COLOR));
+                shader.addUniform(new Uniform1i(shader, "normalSamp", SceneNote.NORMAL));
+                shader.addUniform(new Uniform1i(shader, "specularSamp", SceneNote.SPECULAR));
+                shader.addUniform(new Uniform1i(shader, "emissionSamp", SceneNote.EMISSION));
+                shader.addUniform(new Uniform1i(shader, "metallicSamp", SceneNote.METALLIC));
+                shader.addUniform(new Uniform1i(shader, "depthSamp", SceneNote.DISPLACEMENT));
+            } catch (GLUnknownUniformException e) {
+                CerberusRegistry.getInstance().warning("Failed to load patch batch shader for gui manager");
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            }
+        }
+
+        @Override
+        public ShaderResource get() {
+            ShaderBoard shaderBoard = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getShaderBoard();
+            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+            return new BaseComputeShaderResource(codeLoader.resourceFromName("util/PatchBatchComp.glsl"),
+                    this::initShader);
+        }
+    }
+
+    private static class RectangleBatchSupplier implements Supplier<ShaderResource> {
+
+        private void initShader(Shader shader) {
+            try {
+                shader.addUniform(new Uniform1i(shader, "first", 0));
+            } catch (GLUnknownUniformException e) {
+                CerberusRegistry.getInstance().warning("Failed to load rectangle batch shader for gui manager");
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            }
+        }
+
+        @Override
+        public ShaderResource get() {
+            ShaderBoard shaderBoard = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getShaderBoard();
+            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+            return new BaseComputeShaderResource(codeLoader.resourceFromName("util/RectangleBatchComp.glsl"),
+                    this::initShader);
+        }
+    }
+
     @SuppressWarnings("DuplicatedCode")
     private static class FontSupplier implements Supplier<ShaderResource> {
 
@@ -159,6 +214,33 @@ public enum CFXShader {
         }
     }
 
+    private static class DistanceFieldFontSupplier implements Supplier<ShaderResource> {
+
+        private void initShader(Shader shader) {
+            try {
+                shader.addUniform(new Uniform1i(shader, "referenceSize", CFXDistanceField.REFERENCE_SIZE));
+                shader.addUniform(new Uniform1i(shader, "spread", CFXDistanceField.SPREAD));
+
+                shader.addUniform(new Uniform2i(shader, "destCoord", new Vector2i(0)));
+                shader.addUniform(new Uniform2i(shader, "destSize", new Vector2i(0)));
+
+                shader.addUniform(new Uniform1i(shader, "colorSamp", SceneNote.COLOR));
+            } catch (GLUnknownUniformException e) {
+                CerberusRegistry.getInstance().warning("Failed to load distance field font shader for gui manager");
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            }
+        }
+
+        @Override
+        public ShaderResource get() {
+            ShaderBoard shaderBoard = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getShaderBoard();
+            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+            return new BaseComputeShaderResource(codeLoader.resourceFromName("util/FontSDFComp.glsl"), this::initShader);
+        }
+    }
+
     private static class DrawSupplier implements Supplier<ShaderResource> {
 
         private void initShader(Shader shader) {
@@ -62,6 +62,24 @@ public interface CFXTextBuffer {
      */
     int[] charCounts();
 
+    /**
+     * Returns the largest extent of a single glyph in pixels
+     * inside the buffer section with the appropriate index.
+     *
+     * The glyph extent determines the size of the compute work
+     * area for each character when the section is rendered.
+     *
+     * @param index section index
+     * @return glyph extent in pixels
+     */
+    Vector2i getGlyphExtent(int index);
+
+    /**
+     * Returns all glyph extents as an array
+     * @return glyph extents
+     */
+    Vector2i[] glyphExtents();
+
     /**
      * Returns the cuts to the shader block needed for the
      * separation of each section.
@@ -91,4 +109,15 @@ public interface CFXTextBuffer {
      * @return bounds in pixels
      */
     Vector2i getBounds();
+
+    /**
+     * Will return false, if the text contained characters whose
+     * glyphs were still loading at the time of formatting.
+     *
+     * Such characters are left blank. The text should be formatted
+     * again once the glyphs are loaded.
+     *
+     * @return all glyphs loaded
+     */
+    boolean isComplete();
 }
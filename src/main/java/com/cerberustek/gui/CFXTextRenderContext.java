@@ -24,6 +24,7 @@ package com.cerberustek.gui;
 
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.resource.shader.SSBOResource;
+import com.cerberustek.shader.ssbo.ShaderBlock;
 
 public interface CFXTextRenderContext {
 
@@ -43,6 +44,14 @@ public interface CFXTextRenderContext {
      */
     int getCharCount(int index);
 
+    /**
+     * Returns the largest extent of a single glyph in pixels
+     * inside the buffer section with the appropriate index.
+     * @param index section index
+     * @return glyph extent in pixels
+     */
+    Vector2i getGlyphExtent(int index);
+
     /**
      * Returns the resource to the associated shader storage
      * buffer object.
@@ -50,6 +59,17 @@ public interface CFXTextRenderContext {
      */
     SSBOResource getBufferResource();
 
+    /**
+     * Will bind the buffer section with the appropriate index
+     * to the text buffer binding of the font shader.
+     *
+     * This method has to be called from a gl render thread.
+     *
+     * @param index section index
+     * @return bound shader block
+     */
+    ShaderBlock bind(int index);
+
     /**
      * Returns the amount of section in the text render context
      * @return amount of sections
@@ -68,4 +88,11 @@ public interface CFXTextRenderContext {
      * @return bounding size in pixels
      */
     Vector2i getBounds();
+
+    /**
+     * Will return false, if the text contained characters whose
+     * glyphs were still loading at the time of formatting.
+     * @return all glyphs loaded
+     */
+    boolean isComplete();
 }
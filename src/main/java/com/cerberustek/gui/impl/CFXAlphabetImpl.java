@@ -104,11 +104,37 @@ public class CFXAlphabetImpl implements CFXAlphabet {
             if (insertGlyph(cell.getCellId(), textureSize.getX(), textureSize.getY()))
                 return cell.getCellId();
         } catch (AtlasCapacityException e) {
-            e.printStackTrace();
+            CerberusRegistry.getInstance().warning("CFX-Alphabet " + this + " is full: " + e.getMessage());
         }
         return -1;
     }
 
+    @Override
+    public int[] insertCharacters(TextureResource[] cellTextures) {
+        StitchedTextureAtlas2D atlas = (StitchedTextureAtlas2D) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        Vector3i[] textureSizes = new Vector3i[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++) {
+            Texture texture = getRenderer().getTextureBoard().loadTexture(cellTextures[i]);
+            if (texture == null)
+                return null;
+            textureSizes[i] = texture.getSize(0);
+        }
+
+        try {
+            AtlasCell[] cells = atlas.addCells(cellTextures);
+            int[] ids = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                ids[i] = cells[i].getCellId();
+                if (!insertGlyph(ids[i], textureSizes[i].getX(), textureSizes[i].getY()))
+                    return null;
+            }
+            return ids;
+        } catch (AtlasCapacityException e) {
+            CerberusRegistry.getInstance().warning("CFX-Alphabet " + this + " is full: " + e.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Will insert the width and height information for the character
      * into the glyph buffer of the alphabet.
@@ -173,6 +199,11 @@ public class CFXAlphabetImpl implements CFXAlphabet {
         return 0;
     }
 
+    @Override
+    public boolean isDistanceField() {
+        return false;
+    }
+
     @Override
     public void destroy() {
         getRenderer().getTextureBoard().deleteTexture(atlas);
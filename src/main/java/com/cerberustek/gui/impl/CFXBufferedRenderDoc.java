@@ -22,29 +22,23 @@
 
 package com.cerberustek.gui.impl;
 
-import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
-import com.cerberustek.buffer.BufferUsage;
-import com.cerberustek.events.ExceptionEvent;
 import com.cerberustek.exceptions.EndOfDocumentException;
 import com.cerberustek.gui.*;
-import com.cerberustek.resource.impl.StaticByteBufferResource;
-import com.cerberustek.resource.shader.SSBOResource;
-import com.cerberustek.resource.shader.impl.MutableSSBOResource;
-import com.cerberustek.shader.ShaderBoard;
 import com.cerberustek.CerberusRenderer;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 
 public class CFXBufferedRenderDoc implements CFXRenderDoc {
 
     private final ArrayList<CFXTextRenderContext> renderContexts = new ArrayList<>();
+    private final CFXTextBufferPool bufferPool = new CFXTextBufferPool();
 
-    private CFXDocument doc;
+    private final DocumentListener listener = new DocumentListener();
+
+    private CFXDocumentEditable doc;
     private CerberusRenderer renderer;
 
     private Font font;
@@ -55,11 +49,13 @@ public class CFXBufferedRenderDoc implements CFXRenderDoc {
 
     public CFXBufferedRenderDoc(@NotNull Font font, int vspace, int hspace, boolean highlight, boolean tightPacking) {
         doc = new CFXEditorDocument();
+        doc.addListener(listener);
         this.font = font;
         this.vspace = vspace;
         this.hspace = hspace;
         this.highlight = highlight;
         this.tightPacking = tightPacking;
+        rebuild();
     }
 
     @Override
@@ -77,133 +73,55 @@ public class CFXBufferedRenderDoc implements CFXRenderDoc {
     @Override
     public void setDocument(CFXDocument doc) {
         if (doc instanceof CFXDocumentEditable) {
+            this.doc.removeListener(listener);
             this.doc = (CFXDocumentEditable) doc;
+            this.doc.addListener(listener);
+            rebuild();
         } else
             throw new IllegalStateException("Document " + doc + " is not an editable document!");
     }
 
     /**
-     * Will update the render context for the specified
-     * line id.
-     * @param lineId line id
-     */
-    private void updateLine(int lineId) {
-        getRenderer().tryGLTask(t -> {
-            CharSequence chars = doc.getLine(lineId);
-            CFXManager guiManager = getRenderer().getGUIManager();
-            CFXFontRenderer fontRenderer = guiManager.getFontRenderer();
-            CFXTextRenderContext context = renderContexts.get(lineId);
-
-            context = fontRenderer.formatTextBuffer(context.getBufferResource(), "" + chars, font, vspace, hspace, highlight, tightPacking);
-            renderContexts.set(lineId, context);
-        });
-    }
-
-    /**
-     * Will update the render contexts for all lines.
-     *
-     * Note that this method will only update render
-     * contexts which already exist. It will not add a
-     * render context for a line that did not exist
-     * previously.
-     */
-    private void updateAll() {
-        getRenderer().tryGLTask(t -> {
-            CFXManager guiManager = getRenderer().getGUIManager();
-            CFXFontRenderer fontRenderer = guiManager.getFontRenderer();
-
-            for (int i = 0; i < renderContexts.size(); i++) {
-                CharSequence chars = doc.getLine(i);
-                CFXTextRenderContext context = renderContexts.get(i);
-
-                context = fontRenderer.formatTextBuffer(context.getBufferResource(), "" + chars, font,
-                        vspace, hspace, highlight, tightPacking);
-                renderContexts.set(i, context);
-            }
-        });
-    }
-
-    /**
-     * Will delete all registered render contexts, clear the
-     * buffers and refill the render context list with newly
-     * populated buffers.
+     * Will release all registered render contexts and
+     * refill the render context list with newly populated
+     * buffer ranges.
      *
-     * This method will update all changes to the render doc,
-     * but it is very costly, especially for large files.
+     * The buffers of the pool are kept, so this does not
+     * allocate any new buffer objects, unless the document
+     * grew beyond the pool capacity.
      */
     private void rebuild() {
         getRenderer().tryGLTask(t -> {
-            CFXManager guiManager = getRenderer().getGUIManager();
-            CFXFontRenderer fontRenderer = guiManager.getFontRenderer();
-            ShaderBoard shaderBoard = getRenderer().getShaderBoard();
-
             // clear all
-            for (CFXTextRenderContext context : renderContexts)
-                shaderBoard.deleteSSBO(context.getBufferResource());
+            bufferPool.clear();
             renderContexts.clear();
 
             // rebuild
             for (int i = 0; i < doc.size(); i++) {
                 CharSequence chars = doc.getLine(i);
-                CFXTextRenderContext context = formatInternalLineBuffer("" + chars, fontRenderer, i);
-                if (context == null)
-                    break;
-
-                renderContexts.add(context);
+                renderContexts.add(bufferPool.allocate(formatLine("" + chars)));
             }
         });
     }
 
     /**
-     * Will insert a render context similar to inserting
-     * a line in a document.
-     * @param lineId line id
+     * Will format a line of the document.
+     * @param input line
+     * @return text buffer, or null, if the line contains no visible glyphs
      */
-    private void insertLine(int lineId) {
-        getRenderer().tryGLTask(t -> {
-            CharSequence chars = doc.getLine(lineId);
-            CFXManager guiManager = getRenderer().getGUIManager();
-            CFXFontRenderer fontRenderer = guiManager.getFontRenderer();
-            CFXTextRenderContext context = formatInternalLineBuffer("" + chars, fontRenderer, lineId);
-
-            if (context != null)
-                renderContexts.add(lineId, context);
-        });
-    }
-
-    private CFXTextRenderContext formatInternalLineBuffer(String input, CFXFontRenderer fontRenderer, int lineId) {
-        CFXTextBuffer textBuffer = fontRenderer.formatTextBuffer(input, font, vspace, hspace,
-                highlight, tightPacking);
-        if (textBuffer == null) {
-            CerberusRegistry.getInstance().warning("Unable to format line " + lineId + "!");
-            CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, new NullPointerException()));
-            return null;
-        }
-
-        ByteBuffer buf = textBuffer.getBuffer();
-        int[] textBufferBindings = new int[textBuffer.size()];
-        Arrays.fill(textBufferBindings, CFXFontRenderer.TEXT_BUFFER_BINDING);
-
-        SSBOResource bufferResource = new MutableSSBOResource(new StaticByteBufferResource(buf),
-                BufferUsage.STATIC_READ, textBuffer.cuts(), textBufferBindings);
-        getRenderer().getShaderBoard().loadSSBO(bufferResource);
-        return new CFXTextRenderContextImpl(textBuffer.alphabets(), bufferResource,
-                textBuffer.charCounts(), textBuffer.getBounds());
+    private CFXTextBuffer formatLine(String input) {
+        CFXFontRenderer fontRenderer = getRenderer().getGUIManager().getFontRenderer();
+        return fontRenderer.formatTextBuffer(input, font, vspace, hspace, highlight, tightPacking);
     }
 
     /**
-     * Will remove a line from the render contexts.
-     * @param lineId line to remove
+     * Will release all buffers of the render doc.
+     *
+     * This method has to be called from a gl render thread.
      */
-    private void removeLine(int lineId) {
-        CFXTextRenderContext context = renderContexts.get(lineId);
-        if (context != null) {
-            getRenderer().tryGLTask(t -> {
-                getRenderer().getShaderBoard().deleteSSBO(context.getBufferResource());
-            });
-            renderContexts.remove(lineId);
-        }
+    public void destroy() {
+        renderContexts.clear();
+        bufferPool.destroy();
     }
 
     @Override
@@ -218,59 +136,32 @@ public class CFXBufferedRenderDoc implements CFXRenderDoc {
 
     @Override
     public int insert(CharSequence input, int first) throws EndOfDocumentException {
-        int affected = doc.insert(input, first);
-        updateLine(first);
-        if (affected > 1) {
-            for (int i = 1; i < affected; i++)
-                insertLine(first + i);
-        }
-        return affected;
+        return doc.insert(input, first);
     }
 
     @Override
     public int insert(CharSequence input, int first, int start) throws EndOfDocumentException {
-        int affected = doc.insert(input, first, start);
-        updateLine(first);
-        if (affected > 1) {
-            for (int i = 1; i < affected; i++)
-                insertLine(first + i);
-        }
-        return affected;
+        return doc.insert(input, first, start);
     }
 
     @Override
     public int insert(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException, ArrayIndexOutOfBoundsException {
-        int affected = doc.insert(input, first, start, last, end);
-        updateLine(first);
-        if (first != last) {
-            updateLine(last);
-            if (affected > 2) {
-                for (int i = 1; i < affected - 1; i++)
-                    insertLine(first + i);
-            }
-        } else if (affected > 1) {
-            for (int i = 1; i < affected; i++)
-                insertLine(first + i);
-        }
-        return affected;
+        return doc.insert(input, first, start, last, end);
     }
 
     @Override
     public int set(CharSequence input, int first, int start) throws EndOfDocumentException {
-        int affected = doc.set(input, first, start);
-        return affected;
+        return doc.set(input, first, start);
     }
 
     @Override
     public int set(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException, ArrayIndexOutOfBoundsException {
-        int affected = doc.set(input, first, start, last, end);
-        return affected;
+        return doc.set(input, first, start, last, end);
     }
 
     @Override
     public int remove(int first, int start, int last, int end) throws EndOfDocumentException {
-        int affected = doc.remove(first, start, last, end);
-        return affected;
+        return doc.remove(first, start, last, end);
     }
 
     @Override
@@ -400,4 +291,37 @@ public class CFXBufferedRenderDoc implements CFXRenderDoc {
             renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
         return renderer;
     }
+
+    /**
+     * Updates the render contexts of exactly the lines affected by
+     * a document change.
+     */
+    private class DocumentListener implements CFXDocumentListener {
+
+        @Override
+        public void onChange(CFXDocument document, int first, int removed, int inserted) {
+            // capture the state of the document, since the update might be deferred
+            int expectedSize = document.size() - inserted + removed;
+            CharSequence[] lines = new CharSequence[inserted];
+            for (int i = 0; i < inserted; i++)
+                lines[i] = document.getLine(first + i);
+
+            getRenderer().tryGLTask(t -> {
+                if (renderContexts.size() != expectedSize) {
+                    // render contexts are out of sync
+                    rebuild();
+                    return;
+                }
+
+                int common = Math.min(removed, inserted);
+                for (int i = 0; i < common; i++)
+                    renderContexts.set(first + i, bufferPool.update(renderContexts.get(first + i),
+                            formatLine("" + lines[i])));
+                for (int i = common; i < removed; i++)
+                    bufferPool.release(renderContexts.remove(first + common));
+                for (int i = common; i < inserted; i++)
+                    renderContexts.add(first + i, bufferPool.allocate(formatLine("" + lines[i])));
+            });
+        }
+    }
 }
@@ -0,0 +1,383 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector4f;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Recorded draw commands of a canvas.
+ *
+ * Rectangle and patch commands are written into primitive int
+ * arrays, which can be uploaded into a shader storage buffer
+ * as they are. Consecutive commands of the same kind are merged
+ * into batches, which are executed with a single dispatch.
+ *
+ * Commands of one batch are drawn in parallel, so a batch is
+ * split whenever a command overlaps a previous command of the
+ * same batch. The commands of the current batch are binned into
+ * a coarse grid of the canvas, so a new command only has to be
+ * tested against the commands in the grid cells it covers.
+ *
+ * A command list is not thread safe, but can be reused for any
+ * number of frames. Arrays only grow, they are never shrunk.
+ */
+class CFXCommandList {
+
+    static final byte TYPE_RECTANGLE = 0;
+    static final byte TYPE_PATCH = 1;
+    static final byte TYPE_TEXT = 2;
+
+    /** Size of a rectangle command in ints */
+    static final int RECTANGLE_STRIDE = 28;
+    /** Size of a patch command in ints */
+    static final int PATCH_STRIDE = 44;
+    /** Max amount of commands per batch (min. work group count) */
+    static final int MAX_BATCH_SIZE = 0xFFFF;
+
+    /** Size of an overlap grid cell in pixels */
+    private static final int GRID_CELL = 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    /* command payload */
+    private int[] rectangles = new int[INITIAL_CAPACITY * RECTANGLE_STRIDE];
+    private int rectangleCount;
+    private int[] patches = new int[INITIAL_CAPACITY * PATCH_STRIDE];
+    private int patchCount;
+
+    /* per batch state */
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private Object[] targets = new Object[INITIAL_CAPACITY];
+    private int[] firsts = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] x = new int[INITIAL_CAPACITY];
+    private int[] y = new int[INITIAL_CAPACITY];
+    private int[] widths = new int[INITIAL_CAPACITY];
+    private int[] heights = new int[INITIAL_CAPACITY];
+    private int batchCount;
+
+    /* overlap grid. Each cell holds a list of the commands of the current batch */
+    private int[] cellStamps = new int[0];
+    private int[] cellHeads = new int[0];
+    private int gridWidth;
+    private int gridHeight;
+    private int stamp;
+
+    /* grid cell entries */
+    private int[] entryX0 = new int[INITIAL_CAPACITY];
+    private int[] entryY0 = new int[INITIAL_CAPACITY];
+    private int[] entryX1 = new int[INITIAL_CAPACITY];
+    private int[] entryY1 = new int[INITIAL_CAPACITY];
+    private int[] entryNext = new int[INITIAL_CAPACITY];
+    private int entryCount;
+
+    /**
+     * Will record a rectangle command.
+     *
+     * The coordinates have to be clipped to the canvas already.
+     */
+    void addRectangle(int destX, int destY, int width, int height, @NotNull Vector4f color,
+                      @NotNull Vector4f specular, @NotNull Vector4f emission, @NotNull Vector4f metallic,
+                      @NotNull Vector3f normal, @NotNull Vector3f displacement) {
+        int batch = batchFor(TYPE_RECTANGLE, null, destX, destY, width, height, rectangleCount);
+
+        if ((rectangleCount + 1) * RECTANGLE_STRIDE > rectangles.length)
+            rectangles = Arrays.copyOf(rectangles, rectangles.length * 2);
+
+        int i = rectangleCount++ * RECTANGLE_STRIDE;
+        i = put(rectangles, i, destX, destY, width, height);
+        i = put(rectangles, i, color);
+        i = put(rectangles, i, specular);
+        i = put(rectangles, i, emission);
+        i = put(rectangles, i, metallic);
+        i = put(rectangles, i, normal);
+        put(rectangles, i, displacement);
+        grow(batch, width, height);
+    }
+
+    /**
+     * Will record a texture patch command.
+     *
+     * The coordinates have to be clipped to the canvas already.
+     * Consecutive patches are only merged, if they use the same
+     * texture.
+     */
+    void addPatch(@NotNull Object texture, int destX, int destY, int width, int height, int srcX, int srcY,
+                  int srcWidth, int srcHeight, float scaleX, float scaleY, boolean blend,
+                  @NotNull Vector4f colorFactor, @NotNull Vector4f colorAdd,
+                  @NotNull Vector4f specularFactor, @NotNull Vector4f specularAdd,
+                  @NotNull Vector4f emissionFactor, @NotNull Vector4f emissionAdd,
+                  @NotNull Vector4f metallicFactor, @NotNull Vector4f metallicAdd) {
+        int batch = batchFor(TYPE_PATCH, texture, destX, destY, width, height, patchCount);
+
+        if ((patchCount + 1) * PATCH_STRIDE > patches.length)
+            patches = Arrays.copyOf(patches, patches.length * 2);
+
+        int i = patchCount++ * PATCH_STRIDE;
+        i = put(patches, i, destX, destY, width, height);
+        i = put(patches, i, srcX, srcY, srcWidth, srcHeight);
+        i = put(patches, i, Float.floatToRawIntBits(scaleX), Float.floatToRawIntBits(scaleY),
+                Float.floatToRawIntBits(blend ? 1f : 0f), 0);
+        i = put(patches, i, colorFactor);
+        i = put(patches, i, colorAdd);
+        i = put(patches, i, specularFactor);
+        i = put(patches, i, specularAdd);
+        i = put(patches, i, emissionFactor);
+        i = put(patches, i, emissionAdd);
+        i = put(patches, i, metallicFactor);
+        put(patches, i, metallicAdd);
+        grow(batch, width, height);
+    }
+
+    /**
+     * Will record a text command.
+     *
+     * Text is never merged with other commands, since each text
+     * is already drawn with one dispatch per alphabet.
+     */
+    void addText(@NotNull Object renderContext, int destX, int destY, int width, int height) {
+        int batch = newBatch(TYPE_TEXT, renderContext, 0);
+        x[batch] = destX;
+        y[batch] = destY;
+        widths[batch] = width;
+        heights[batch] = height;
+        counts[batch] = 1;
+    }
+
+    /**
+     * Will discard all recorded commands.
+     */
+    void clear() {
+        Arrays.fill(targets, 0, batchCount, null);
+        rectangleCount = 0;
+        patchCount = 0;
+        batchCount = 0;
+    }
+
+    /**
+     * Will resize the overlap grid to the canvas resolution.
+     * @param width canvas width in pixels
+     * @param height canvas height in pixels
+     */
+    void setResolution(int width, int height) {
+        gridWidth = Math.max((width + GRID_CELL - 1) / GRID_CELL, 1);
+        gridHeight = Math.max((height + GRID_CELL - 1) / GRID_CELL, 1);
+        cellStamps = new int[gridWidth * gridHeight];
+        cellHeads = new int[gridWidth * gridHeight];
+        stamp = 0;
+    }
+
+    boolean isEmpty() {
+        return batchCount == 0;
+    }
+
+    int batches() {
+        return batchCount;
+    }
+
+    byte getType(int batch) {
+        return types[batch];
+    }
+
+    /**
+     * Returns the texture of a patch batch or the render context
+     * of a text batch.
+     */
+    Object getTarget(int batch) {
+        return targets[batch];
+    }
+
+    /**
+     * Returns the index of the first command of the batch.
+     */
+    int getFirst(int batch) {
+        return firsts[batch];
+    }
+
+    int getCount(int batch) {
+        return counts[batch];
+    }
+
+    int getX(int batch) {
+        return x[batch];
+    }
+
+    int getY(int batch) {
+        return y[batch];
+    }
+
+    /**
+     * Returns the max width of all commands of the batch.
+     */
+    int getWidth(int batch) {
+        return widths[batch];
+    }
+
+    /**
+     * Returns the max height of all commands of the batch.
+     */
+    int getHeight(int batch) {
+        return heights[batch];
+    }
+
+    int[] getRectangles() {
+        return rectangles;
+    }
+
+    int getRectangleCount() {
+        return rectangleCount;
+    }
+
+    int[] getPatches() {
+        return patches;
+    }
+
+    int getPatchCount() {
+        return patchCount;
+    }
+
+    private int batchFor(byte type, Object target, int destX, int destY, int width, int height, int first) {
+        int last = batchCount - 1;
+        int destX1 = destX + width;
+        int destY1 = destY + height;
+        int x0 = Math.max(destX / GRID_CELL, 0);
+        int y0 = Math.max(destY / GRID_CELL, 0);
+        int x1 = Math.min((destX1 - 1) / GRID_CELL, gridWidth - 1);
+        int y1 = Math.min((destY1 - 1) / GRID_CELL, gridHeight - 1);
+
+        boolean merge = last >= 0 && types[last] == type && targets[last] == target &&
+                counts[last] < MAX_BATCH_SIZE;
+        for (int gy = y0; merge && gy <= y1; gy++) {
+            int row = gy * gridWidth;
+            for (int gx = x0; merge && gx <= x1; gx++) {
+                if (cellStamps[row + gx] != stamp)
+                    continue;
+
+                for (int e = cellHeads[row + gx]; e >= 0; e = entryNext[e]) {
+                    if (destX < entryX1[e] && entryX0[e] < destX1 && destY < entryY1[e] && entryY0[e] < destY1) {
+                        // command overlaps the batch
+                        merge = false;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!merge)
+            last = newBatch(type, target, first);
+
+        for (int gy = y0; gy <= y1; gy++) {
+            int row = gy * gridWidth;
+            for (int gx = x0; gx <= x1; gx++) {
+                int cell = row + gx;
+                if (cellStamps[cell] != stamp) {
+                    cellStamps[cell] = stamp;
+                    cellHeads[cell] = -1;
+                }
+                cellHeads[cell] = addEntry(destX, destY, destX1, destY1, cellHeads[cell]);
+            }
+        }
+        counts[last]++;
+        return last;
+    }
+
+    private int addEntry(int x0, int y0, int x1, int y1, int next) {
+        if (entryCount == entryNext.length) {
+            int capacity = entryCount * 2;
+            entryX0 = Arrays.copyOf(entryX0, capacity);
+            entryY0 = Arrays.copyOf(entryY0, capacity);
+            entryX1 = Arrays.copyOf(entryX1, capacity);
+            entryY1 = Arrays.copyOf(entryY1, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+        }
+
+        int e = entryCount++;
+        entryX0[e] = x0;
+        entryY0[e] = y0;
+        entryX1[e] = x1;
+        entryY1[e] = y1;
+        entryNext[e] = next;
+        return e;
+    }
+
+    private int newBatch(byte type, Object target, int first) {
+        if (batchCount == types.length) {
+            int capacity = batchCount * 2;
+            types = Arrays.copyOf(types, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+
+        if (++stamp == 0) {
+            // stamp overflow. Forget all previous batches
+            Arrays.fill(cellStamps, 0);
+            stamp = 1;
+        }
+        // entries of previous batches are not referenced anymore
+        entryCount = 0;
+
+        int batch = batchCount++;
+        types[batch] = type;
+        targets[batch] = target;
+        firsts[batch] = first;
+        counts[batch] = 0;
+        x[batch] = 0;
+        y[batch] = 0;
+        widths[batch] = 0;
+        heights[batch] = 0;
+        return batch;
+    }
+
+    private void grow(int batch, int width, int height) {
+        if (widths[batch] < width)
+            widths[batch] = width;
+        if (heights[batch] < height)
+            heights[batch] = height;
+    }
+
+    private static int put(int[] dest, int i, int a, int b, int c, int d) {
+        dest[i] = a;
+        dest[i + 1] = b;
+        dest[i + 2] = c;
+        dest[i + 3] = d;
+        return i + 4;
+    }
+
+    private static int put(int[] dest, int i, Vector4f v) {
+        return put(dest, i, Float.floatToRawIntBits(v.getX()), Float.floatToRawIntBits(v.getY()),
+                Float.floatToRawIntBits(v.getZ()), Float.floatToRawIntBits(v.getW()));
+    }
+
+    private static int put(int[] dest, int i, Vector3f v) {
+        return put(dest, i, Float.floatToRawIntBits(v.getX()), Float.floatToRawIntBits(v.getY()),
+                Float.floatToRawIntBits(v.getZ()), 0);
+    }
+}
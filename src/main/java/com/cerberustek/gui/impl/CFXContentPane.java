@@ -30,15 +30,21 @@ import com.cerberustek.CerberusRenderer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public class CFXContentPane extends CFXPane implements CFXContainer {
 
     /** Container layout */
     private CFXLayout layout;
-    /** Child components */
-    private final HashSet<CFXComponent> children = new HashSet<>();
+    /** Child components in paint order */
+    private final LinkedHashSet<CFXComponent> children = new LinkedHashSet<>();
+    /** Bounds of the child components */
+    private final CFXGridIndex<CFXComponent> index = new CFXGridIndex<>();
+    /** Index has to be rebuilt */
+    private boolean indexDirty = true;
     /** component orientation */
     private CFXOrientation orientation;
     /** gui id */
@@ -63,6 +69,9 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
     @Override
     public void setLayout(@NotNull CFXLayout layout) {
         this.layout = layout;
+        synchronized (index) {
+            indexDirty = true;
+        }
     }
 
     @Override
@@ -76,12 +85,34 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
         child.setResolution(layout.getSize(child, getCanvas()));
         child.register(id);
         children.add(child);
+        synchronized (index) {
+            if (!indexDirty)
+                index(child);
+        }
         requestRepaint();
     }
 
     @Override
     public void remove(CFXComponent child) {
-        children.remove(child);
+        if (children.remove(child)) {
+            synchronized (index) {
+                index.remove(child);
+            }
+            requestRepaint();
+        }
+    }
+
+    @Override
+    public void relocate(CFXComponent child) {
+        if (!children.contains(child))
+            return;
+
+        child.setResolution(layout.getSize(child, getCanvas()));
+        synchronized (index) {
+            if (!indexDirty)
+                index(child);
+        }
+        requestRepaint();
     }
 
     @Override
@@ -96,19 +127,11 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
 
     @Override
     public Collection<CFXComponent> query(Vector2i point, Collection<CFXComponent> collection) {
-        for (CFXComponent child : children) {
-            Vector2i coord = layout.getOffset(child, getCanvas()).sub(point);
-
-            if (coord.getX() >= 0 && coord.getY() >= 0) {
-
-                Vector2i size = layout.getSize(child, getCanvas());
-                if (coord.getX() < size.getX() && coord.getY() < size.getY()) {
-                    collection.add(child);
+        for (CFXComponent child : hits(point)) {
+            collection.add(child);
 
-                    if (child instanceof CFXContainer)
-                        ((CFXContainer) child).query(point, collection);
-                }
-            }
+            if (child instanceof CFXContainer)
+                ((CFXContainer) child).query(point.sub(layout.getOffset(child, getCanvas())), collection);
         }
         return collection;
     }
@@ -116,8 +139,24 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
     @Override
     public void paintToCanvas() {
         CFXCanvas canvas = getCanvas();
+        CFXDamageRegion damage = getDamage();
 
-        for (CFXComponent child : children) {
+        // the children are blended, so the damaged region has to be cleared first
+        canvas.clear();
+
+        ArrayList<CFXComponent> visible;
+        synchronized (index) {
+            validateIndex();
+
+            HashSet<CFXComponent> found = new HashSet<>();
+            for (int i = 0; i < damage.size(); i++)
+                index.query(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i), found);
+
+            visible = new ArrayList<>(found);
+            visible.sort(index.order());
+        }
+
+        for (CFXComponent child : visible) {
             canvas.setSize(layout.getSize(child, canvas));
             canvas.setOffset(layout.getOffset(child, canvas));
             child.paintComponent(canvas);
@@ -126,9 +165,25 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
 
     @Override
     public void repaint() {
+        boolean glThread = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getWindow()
+                .isGlThread();
+
         for (CFXComponent child : children) {
-            if (child instanceof CFXRepaintable && ((CFXRepaintable) child).shouldRepaint())
+            if (child instanceof CFXRepaintable && ((CFXRepaintable) child).shouldRepaint()) {
                 ((CFXRepaintable) child).repaint();
+
+                Vector2i offset = layout.getOffset(child, getCanvas());
+                if (glThread && child instanceof CFXPane) {
+                    // the repaint has been executed, so the damage is known
+                    CFXDamageRegion childDamage = ((CFXPane) child).getDamage();
+                    for (int i = 0; i < childDamage.size(); i++)
+                        markDamaged(offset.getX() + childDamage.getX(i), offset.getY() + childDamage.getY(i),
+                                childDamage.getWidth(i), childDamage.getHeight(i));
+                } else {
+                    Vector2i size = layout.getSize(child, getCanvas());
+                    markDamaged(offset.getX(), offset.getY(), size.getX(), size.getY());
+                }
+            }
         }
         super.repaint();
     }
@@ -145,26 +200,80 @@ public class CFXContentPane extends CFXPane implements CFXContainer {
 
     @Override
     public void dispatchEvent(CFXEvent event) {
-        for (CFXComponent child : children) {
+        ArrayList<CFXComponent> hits = hits(event.getPoint());
+
+        // the top most child receives the event first
+        for (int i = hits.size() - 1; i >= 0; i--) {
             // check each loop, the event can be consumed
             // by the children
             if (event.isConsumed())
                 break;
 
-            Vector2i coord = layout.getOffset(child, getCanvas()).sub(event.getPoint());
+            hits.get(i).dispatchEvent(event);
+        }
+    }
 
-            if (coord.getX() >= 0 && coord.getY() >= 0) {
-                Vector2i size = layout.getSize(child, getCanvas());
+    @Override
+    public void setResolution(Vector2i res) {
+        super.setResolution(res);
+        synchronized (index) {
+            indexDirty = true;
+        }
+    }
 
-                if (coord.getX() < size.getX() && coord.getY() < size.getY())
-                    child.dispatchEvent(event);
-            }
+    /**
+     * Returns all direct children that contain the point
+     * in paint order.
+     * @param point point in pixels from origin
+     * @return children that contain the point
+     */
+    private ArrayList<CFXComponent> hits(Vector2i point) {
+        ArrayList<CFXComponent> hits = new ArrayList<>();
+        synchronized (index) {
+            validateIndex();
+            index.query(point.getX(), point.getY(), hits);
+            if (hits.size() > 1)
+                hits.sort(index.order());
         }
+        return hits;
+    }
+
+    /**
+     * Will rebuild the child index, if the layout or the
+     * resolution of this pane has changed.
+     *
+     * Has to be called while holding the index lock.
+     */
+    private void validateIndex() {
+        Vector2i res = getCanvas().getResolution();
+        if (!indexDirty && index.getWidth() == res.getX() && index.getHeight() == res.getY())
+            return;
+
+        index.clear();
+        index.resize(res.getX(), res.getY());
+        for (CFXComponent child : children)
+            index(child);
+        indexDirty = false;
+    }
+
+    /**
+     * Will update the bounds of a child inside the index.
+     *
+     * Has to be called while holding the index lock.
+     * @param child child to index
+     */
+    private void index(CFXComponent child) {
+        Vector2i offset = layout.getOffset(child, getCanvas());
+        Vector2i size = layout.getSize(child, getCanvas());
+        index.put(child, offset.getX(), offset.getY(), size.getX(), size.getY());
     }
 
     @Override
     public void destroy() {
         children.forEach(Destroyable::destroy);
+        synchronized (index) {
+            index.clear();
+        }
         super.destroy();
     }
 
@@ -0,0 +1,202 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Generator for signed distance field glyphs.
+ *
+ * A distance field glyph is rendered once at the reference size
+ * and can then be drawn at any font size by the font shader, by
+ * scaling the sampled distance with the ratio between the target
+ * size and the reference size.
+ *
+ * The distance is stored in all channels of the generated image,
+ * so it survives the conversion into the single channel atlas of
+ * the distance field alphabet. A value of 0.5 marks the glyph
+ * outline, greater values are inside of the glyph and smaller
+ * values are outside.
+ * The distance is clamped to the spread of the distance field,
+ * which is measured in pixels at the reference size.
+ *
+ * Generation does not require a gl context, so this may be called
+ * from any thread.
+ */
+public final class CFXDistanceField {
+
+    /** Font size the distance fields are generated at */
+    public static final int REFERENCE_SIZE = 48;
+    /** Distance field spread in pixels at the reference size */
+    public static final int SPREAD = 6;
+
+    private static final float INF = 1e20f;
+
+    private CFXDistanceField() {}
+
+    /**
+     * Returns the font used to generate the distance field
+     * glyphs of the specified font.
+     * @param font font
+     * @return reference font
+     */
+    static Font referenceFont(Font font) {
+        if (font.getSize() == REFERENCE_SIZE && font.getSize2D() == REFERENCE_SIZE)
+            return font;
+        return font.deriveFont((float) REFERENCE_SIZE);
+    }
+
+    /**
+     * Will generate the distance field glyph of the specified
+     * character.
+     *
+     * The font is expected to be a reference font (see
+     * referenceFont). The returned image is padded by SPREAD
+     * pixels on each side. If the character has no visible
+     * extent, this method returns null.
+     *
+     * @param c character to render
+     * @param font reference font
+     * @return distance field glyph
+     */
+    static BufferedImage generate(char c, Font font) {
+        FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+        Rectangle2D charBounds = font.getStringBounds(Character.toString(c), renderContext);
+
+        int glyphWidth = (int) Math.ceil(charBounds.getWidth());
+        int glyphHeight = (int) Math.ceil(charBounds.getHeight());
+        if (glyphWidth == 0 || glyphHeight == 0)
+            return null;
+
+        int width = glyphWidth + 2 * SPREAD;
+        int height = glyphHeight + 2 * SPREAD;
+
+        // render a binary mask of the glyph
+        BufferedImage mask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = (Graphics2D) mask.getGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(font);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.drawString(Character.toString(c), (float) charBounds.getX() + SPREAD,
+                -(float) charBounds.getY() + SPREAD);
+        graphics.dispose();
+
+        int size = width * height;
+        float[] outside = new float[size];
+        float[] inside = new float[size];
+        boolean[] solid = new boolean[size];
+
+        byte[] pixels = new byte[size];
+        mask.getRaster().getDataElements(0, 0, width, height, pixels);
+        for (int i = 0; i < size; i++) {
+            solid[i] = (pixels[i] & 0xFF) >= 0x80;
+            outside[i] = solid[i] ? 0 : INF;
+            inside[i] = solid[i] ? INF : 0;
+        }
+
+        transform(outside, width, height);
+        transform(inside, width, height);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] argb = new int[size];
+        for (int i = 0; i < size; i++) {
+            float distance = solid[i] ? (float) Math.sqrt(inside[i]) - 0.5f
+                    : 0.5f - (float) Math.sqrt(outside[i]);
+            float value = 0.5f + distance / (2f * SPREAD);
+            int channel = Math.round(Math.max(0f, Math.min(1f, value)) * 255f);
+            argb[i] = (channel << 24) | (channel << 16) | (channel << 8) | channel;
+        }
+        image.setRGB(0, 0, width, height, argb, 0, width);
+        return image;
+    }
+
+    /**
+     * Will compute the squared euclidean distance transform of a
+     * two dimensional grid in place.
+     *
+     * Cells with the value 0 are feature cells, all other cells
+     * should be initialized with INF.
+     *
+     * @param grid grid data in row-major order
+     * @param width grid width
+     * @param height grid height
+     */
+    private static void transform(float[] grid, int width, int height) {
+        int max = Math.max(width, height);
+        float[] f = new float[max];
+        float[] d = new float[max];
+        float[] z = new float[max + 1];
+        int[] v = new int[max];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++)
+                f[y] = grid[y * width + x];
+            transform(f, d, z, v, height);
+            for (int y = 0; y < height; y++)
+                grid[y * width + x] = d[y];
+        }
+
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform(f, d, z, v, width);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    /**
+     * One dimensional squared distance transform after Felzenszwalb
+     * and Huttenlocher, computing the lower envelope of parabolas
+     * rooted at each sample.
+     */
+    private static void transform(float[] f, float[] d, float[] z, int[] v, int n) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INF;
+        z[1] = INF;
+
+        for (int q = 1; q < n; q++) {
+            float s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INF;
+        }
+
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q)
+                k++;
+            d[q] = (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.AtlasCapacityException;
+import com.cerberustek.exceptions.IllegalContextException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.pipeline.impl.notes.SceneNote;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.image.impl.PackedAtlas2DResource;
+import com.cerberustek.resource.shader.SSBOResource;
+import com.cerberustek.resource.shader.impl.ImmutableSSBOResource;
+import com.cerberustek.shader.ssbo.ShaderBlock;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.PackedAtlasCell;
+import com.cerberustek.texture.PackedTextureAtlas;
+import com.cerberustek.texture.Texture;
+import com.cerberustek.util.BufferUtil;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.gui.CFXAlphabet;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CFX alphabet for signed distance field glyphs.
+ *
+ * Other than the default alphabet, the glyphs are packed into a
+ * texture atlas with variable cell sizes, since distance field
+ * glyphs are stored at their reference size, including padding.
+ * The cell size of this alphabet is therefore one pixel and the
+ * dimensions of the alphabet are the pixel dimensions of the
+ * atlas.
+ *
+ * The distance fields only occupy a single channel, so the atlas
+ * consists of a single R_16_FLOAT layer on the color unit instead
+ * of the full material layout of the default alphabet.
+ *
+ * The glyph buffer stores two ints per glyph: the offset of the
+ * glyph inside the atlas and the size of the glyph, both packed
+ * as (x | y << 16).
+ */
+public class CFXDistanceFieldAlphabet implements CFXAlphabet {
+
+    private static final int BINDING_GLYPH_BUFFER = 1;
+    /** Size of a glyph entry in the glyph buffer in bytes */
+    private static final int GLYPH_SIZE = 8;
+
+    private final Vector2i dimensions;
+    private final int maxGlyphs;
+    private final PackedAtlas2DResource atlas;
+    private final SSBOResource glyphBuffer;
+
+    private CerberusRenderer renderer;
+
+    public CFXDistanceFieldAlphabet(Vector2i dimensions, int maxGlyphs) {
+        this.dimensions = dimensions;
+        this.maxGlyphs = maxGlyphs;
+
+        this.atlas = new PackedAtlas2DResource(dimensions, SceneNote.COLOR, ImageType.R_16_FLOAT);
+        this.glyphBuffer = new ImmutableSSBOResource(maxGlyphs * GLYPH_SIZE,
+                new long[] {}, new int[] {BINDING_GLYPH_BUFFER}, BufferUtil.FLAGS_GPGPU_DATA_INPUT);
+    }
+
+    @Override
+    public void init() {
+        getRenderer().getTextureBoard().loadTexture(atlas);
+        getRenderer().getShaderBoard().loadSSBO(glyphBuffer);
+    }
+
+    @Override
+    public Vector2i getCellSize() {
+        return new Vector2i(1);
+    }
+
+    @Override
+    public Vector2i getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public void bind() {
+        getRenderer().getTextureBoard().bindTexture(atlas);
+        getRenderer().getShaderBoard().bindSSBO(glyphBuffer, 0);
+    }
+
+    @Override
+    public int insertCharacter(TextureResource cellTexture) {
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        Texture texture = getRenderer().getTextureBoard().bindTexture(cellTexture);
+        if (texture == null)
+            return -1;
+
+        Vector3i textureSize = texture.getSize(0);
+        try {
+            PackedAtlasCell cell = atlas.addCell(cellTexture, new Vector2i(textureSize.getX(), textureSize.getY()));
+            if (insertGlyph(cell))
+                return cell.getCellId();
+            atlas.removeCell(cell.getCellId());
+        } catch (AtlasCapacityException e) {
+            CerberusRegistry.getInstance().fine("Distance field alphabet " + this + " is full");
+        }
+        return -1;
+    }
+
+    @Override
+    public int[] insertCharacters(TextureResource[] cellTextures) {
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        Vector2i[] sizes = new Vector2i[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++) {
+            Texture texture = getRenderer().getTextureBoard().loadTexture(cellTextures[i]);
+            if (texture == null)
+                return null;
+            Vector3i textureSize = texture.getSize(0);
+            sizes[i] = new Vector2i(textureSize.getX(), textureSize.getY());
+        }
+
+        try {
+            PackedAtlasCell[] cells = atlas.addCells(cellTextures, sizes);
+            int[] ids = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                if (!insertGlyph(cells[i])) {
+                    for (PackedAtlasCell cell : cells)
+                        atlas.removeCell(cell.getCellId());
+                    return null;
+                }
+                ids[i] = cells[i].getCellId();
+            }
+            return ids;
+        } catch (AtlasCapacityException e) {
+            CerberusRegistry.getInstance().fine("Distance field alphabet " + this + " is full");
+        }
+        return null;
+    }
+
+    /**
+     * Will insert the offset and size of the glyph cell into the
+     * glyph buffer of the alphabet.
+     *
+     * This method will return true only if the information could be
+     * inserted successfully.
+     *
+     * @param cell glyph cell
+     * @return operation success
+     */
+    private boolean insertGlyph(PackedAtlasCell cell) {
+        if (cell.getCellId() >= maxGlyphs)
+            return false;
+
+        ShaderBlock block = getRenderer().getShaderBoard().bindSSBO(glyphBuffer, 0);
+        if (block == null) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                            new NullPointerException("Glyph buffer has not been initialized for alphabet: "
+                                    + toString())));
+            return false;
+        }
+
+        Vector2i offset = cell.getOffset();
+        Vector2i size = cell.getSize();
+        ByteBuffer buffer = BufferUtils.createByteBuffer(GLYPH_SIZE);
+        buffer.putInt((offset.getX() & 0xFFFF) + ((offset.getY() & 0xFFFF) << 16));
+        buffer.putInt((size.getX() & 0xFFFF) + ((size.getY() & 0xFFFF) << 16));
+        buffer.flip();
+        block.upload(buffer, (long) cell.getCellId() * GLYPH_SIZE);
+        return true;
+    }
+
+    @Override
+    public void removeCharacter(int cellId) {
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        atlas.removeCell(cellId);
+    }
+
+    @Override
+    public TextureResource getTextureAtlas() {
+        return atlas;
+    }
+
+    @Override
+    public SSBOResource getGlyphBuffer() {
+        return glyphBuffer;
+    }
+
+    @Override
+    public boolean isFull() {
+        if (!getRenderer().getWindow().isGlThread())
+            throw new IllegalContextException();
+
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().bindTexture(this.atlas);
+        if (atlas == null) {
+            CerberusRegistry.getInstance().warning("CFX-Alphabet has not been initialized yet");
+            return false;
+        }
+        return atlas.isFull();
+    }
+
+    /**
+     * Will check if a glyph of the specified size would fit into
+     * the texture atlas of this alphabet.
+     *
+     * This method should only be called from within a valid gl
+     * render context.
+     *
+     * @param size glyph size in pixels
+     * @return glyph fits
+     */
+    public boolean fits(Vector2i size) {
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        return atlas != null && atlas.fits(size);
+    }
+
+    @Override
+    public int remaining() {
+        PackedTextureAtlas atlas = (PackedTextureAtlas) getRenderer().getTextureBoard().loadTexture(this.atlas);
+        return atlas != null ? atlas.remaining() : 0;
+    }
+
+    @Override
+    public boolean isDistanceField() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        getRenderer().getTextureBoard().deleteTexture(atlas);
+        getRenderer().getShaderBoard().deleteSSBO(glyphBuffer);
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+}
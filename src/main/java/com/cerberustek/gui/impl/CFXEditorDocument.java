@@ -29,6 +29,7 @@ import com.cerberustek.gui.impl.action.CFXSetAction;
 import com.cerberustek.gui.CFXDocAction;
 import com.cerberustek.gui.CFXDocument;
 import com.cerberustek.gui.CFXDocumentEditable;
+import com.cerberustek.gui.CFXDocumentListener;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
@@ -37,10 +38,11 @@ import java.util.List;
 public class CFXEditorDocument implements CFXDocumentEditable {
 
     private final ArrayList<CFXDocAction> actions = new ArrayList<>();
+    private final ArrayList<CFXDocumentListener> listeners = new ArrayList<>();
     private final CFXDocument doc;
 
     public CFXEditorDocument() {
-        doc = new CFXDocumentImpl();
+        doc = new CFXPieceTableDocument();
     }
 
     public CFXEditorDocument(CFXDocument doc) {
@@ -56,12 +58,23 @@ public class CFXEditorDocument implements CFXDocumentEditable {
 
     @Override
     public void undoAction(CFXDocAction action) {
-        action.undoAction(doc);
+        int size = doc.size();
+        fireChange(action.getFirst(), size, action.undoAction(doc));
     }
 
     @Override
     public void doAction(CFXDocAction action) {
-        action.doAction(doc);
+        apply(action);
+    }
+
+    @Override
+    public void addListener(CFXDocumentListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(CFXDocumentListener listener) {
+        listeners.remove(listener);
     }
 
     @Override
@@ -78,46 +91,79 @@ public class CFXEditorDocument implements CFXDocumentEditable {
     public int insert(CharSequence input, int first) throws EndOfDocumentException {
         CFXInsertAction action = new CFXInsertAction(first, input.toString());
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int insert(CharSequence input, int first, int start) throws EndOfDocumentException {
         CFXInsertAction action = new CFXInsertAction(first, start, input.toString());
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int insert(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException, ArrayIndexOutOfBoundsException {
         CFXInsertAction action = new CFXInsertAction(first, start, last, end, input.toString());
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int set(CharSequence input, int first, int start) throws EndOfDocumentException {
         CFXSetAction action = new CFXSetAction(first, start, input.toString());
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int set(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException, ArrayIndexOutOfBoundsException {
         CFXSetAction action = new CFXSetAction(first, start, last, end, input.toString());
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int remove(int first, int start, int last, int end) throws EndOfDocumentException {
         CFXRemoveAction action = new CFXRemoveAction(first, start, last, end);
         actions.add(action);
-        return action.doAction(doc);
+        return apply(action);
     }
 
     @Override
     public int size() {
         return doc.size();
     }
+
+    /**
+     * Will do the action on the underlying document and notify
+     * all listeners.
+     * @param action action to do
+     * @return number of affected lines
+     */
+    private int apply(CFXDocAction action) {
+        int size = doc.size();
+        int affected = action.doAction(doc);
+        fireChange(action.getFirst(), size, affected);
+        return affected;
+    }
+
+    /**
+     * Will notify all listeners about a change.
+     *
+     * The affected line count of a document operation is the amount
+     * of lines spanned by the resulting block, so the amount of
+     * replaced lines follows from the change of the document size.
+     *
+     * @param first first affected line
+     * @param previousSize document size before the change
+     * @param affected affected lines
+     */
+    private void fireChange(int first, int previousSize, int affected) {
+        if (listeners.isEmpty())
+            return;
+
+        int removed = affected - (doc.size() - previousSize);
+        for (CFXDocumentListener listener : listeners)
+            listener.onChange(this, first, removed, affected);
+    }
 }
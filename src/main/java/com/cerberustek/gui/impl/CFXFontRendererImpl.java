@@ -25,11 +25,13 @@ package com.cerberustek.gui.impl;
 import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
 import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.events.GlyphLoadEvent;
 import com.cerberustek.exceptions.FontRenderException;
 import com.cerberustek.exceptions.TextFormatException;
 import com.cerberustek.gui.*;
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector3i;
 import com.cerberustek.resource.image.TextureResource;
 import com.cerberustek.resource.impl.BufferedImageResource;
 import com.cerberustek.resource.impl.BufferedTextureResource;
@@ -40,6 +42,7 @@ import com.cerberustek.texture.Texture;
 import com.cerberustek.texture.TextureBoard;
 import com.cerberustek.util.CFXColor;
 import com.cerberustek.CerberusRenderer;
+import com.cerberustek.worker.WorkerPriority;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.BufferUtils;
@@ -50,6 +53,11 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 /**
  * The main font rendering system of the new CFX-GUI renderer.
@@ -69,6 +77,19 @@ import java.util.*;
  * all characters are indeed rendered undistorted to the target
  * texture, which is not necessarily the case for the old
  * font rendering system the Cerberus Renderer employed.
+ *
+ * If the distance field mode is enabled, glyphs are not rendered
+ * per font size. Instead, a signed distance field of each glyph is
+ * generated once at a reference size and stored in a packed
+ * distance field alphabet. Characters of any font size then share
+ * the same glyph cell and are scaled by the font shader.
+ *
+ * In async mode, glyphs which are missing during text layout are
+ * rasterized on a worker thread and inserted into the alphabets in
+ * batches on the gl thread. Until then, the layout uses placeholder
+ * characters, which occupy the space of the glyph without being
+ * drawn. A GlyphLoadEvent is fired after each batch, so that text
+ * with placeholders can be formatted again.
  */
 public class CFXFontRendererImpl implements CFXFontRenderer {
 
@@ -85,14 +106,42 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
             '(', ')', '&', '%', '$', '§', '"', '@', '€', '|', '<', '>'
     };
 
+    /** Maximum font size supported in distance field mode */
+    private static final int MAX_DISTANCE_FIELD_SIZE = 0xFFF;
+    /** Maximum amount of glyphs per distance field alphabet */
+    private static final int MAX_DISTANCE_FIELD_GLYPHS = 4096;
+
     /** Character map */
-    private final HashMap<CharInfo, CFXCharacter> chars = new HashMap<>();
+    private final ConcurrentHashMap<CharInfo, CFXCharacter> chars = new ConcurrentHashMap<>();
+    /** Distance field glyphs at the reference size */
+    private final ConcurrentHashMap<CharInfo, CFXCharacter> referenceGlyphs = new ConcurrentHashMap<>();
+    /** Placeholders for characters which are still loading */
+    private final ConcurrentHashMap<CharInfo, CFXCharacter> placeholders = new ConcurrentHashMap<>();
+    /** Glyphs which are currently rasterized asynchronously */
+    private final Set<CharInfo> pending = ConcurrentHashMap.newKeySet();
+    /** Glyphs without a visible image (e.g. zero width chars). These
+     * are skipped during layout and never rasterized again */
+    private final Set<CharInfo> failed = ConcurrentHashMap.newKeySet();
+    /** Rasterized glyphs waiting to be inserted on the gl thread */
+    private final ConcurrentLinkedQueue<RasterizedGlyph> rasterized = new ConcurrentLinkedQueue<>();
+    /** Is true, if a glyph flush has been scheduled on the gl thread */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    /** Reusable layout engine per thread */
+    private final ThreadLocal<CFXTextLayout> layouts = ThreadLocal.withInitial(() -> new CFXTextLayout(this));
+    /** Cached line breaks of wrapped paragraphs */
+    private final CFXWrapCache wrapCache = new CFXWrapCache(this);
     /** Alphabets containing the characters
      * This should be sorted by cellsize in ascending other,
      * such that the cellsize of the right neighbour of an
      * alphabet is always greater than the cellsize of set
      * alphabet in both, the x and y coordinate.*/
     private final ArrayList<CFXAlphabet> alphabets = new ArrayList<>();
+    /** Alphabets containing the distance field glyphs */
+    private final ArrayList<CFXDistanceFieldAlphabet> distanceFieldAlphabets = new ArrayList<>();
+    /** true, if glyphs are rendered as signed distance fields */
+    private volatile boolean distanceField;
+    /** true, if missing glyphs are loaded asynchronously during layout */
+    private volatile boolean async = true;
     /** local reference to the current cerberus renderer
      * instance for faster lookup during rendering. */
     private CerberusRenderer renderer;
@@ -101,14 +150,18 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     public @Nullable CFXCharacter loadCharacter(char c, @NotNull Font font) {
         CharInfo info = new CharInfo(c, font);
         CFXCharacter character = chars.get(info);
-        if (character != null)
+        if (character != null || failed.contains(info))
             return character;
 
         CerberusRenderer renderer = getRenderer();
         if (renderer.getWindow().isGlThread()) {
+            if (distanceField)
+                return loadDistanceFieldCharacter(c, font, info);
+
             // this is a gl render thread. Load the char directly
             BufferedImage image = generateImage(c, font);
             if (image == null) {
+                failed.add(info);
                 CerberusRegistry.getInstance().getService(CerberusEvent.class)
                         .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
                                 new FontRenderException("Cannot render character " + c + " with font " + font)));
@@ -152,11 +205,475 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
             return cfxChar;
         } else {
             // this is not a gl render thread. Load asynchronously
-            getRenderer().submitGLTask(t -> loadCharacter(c, font));
+            preload(font, Character.toString(c));
             return null;
         }
     }
 
+    /**
+     * Will return the loaded character for the specified char and
+     * font, or a placeholder character, if the glyph is not loaded
+     * yet.
+     *
+     * In async mode, a missing glyph is scheduled for rasterization
+     * on a worker thread. Otherwise the character is loaded directly
+     * (see loadCharacter).
+     *
+     * @param c char
+     * @param font font
+     * @return CFX-Character or placeholder
+     */
+    @Nullable CFXCharacter requestCharacter(char c, @NotNull Font font) {
+        if (!async)
+            return loadCharacter(c, font);
+
+        CharInfo info = new CharInfo(c, font);
+        CFXCharacter character = chars.get(info);
+        if (character != null || failed.contains(info))
+            return character;
+
+        if (distanceField) {
+            if (font.getSize() > MAX_DISTANCE_FIELD_SIZE)
+                return loadCharacter(c, font); // will report the unsupported font size
+
+            CharInfo reference = new CharInfo(c, CFXDistanceField.referenceFont(font));
+            CFXCharacter glyph = referenceGlyphs.get(reference);
+            if (glyph != null)
+                return createDistanceFieldCharacter(c, font, glyph, info);
+            if (failed.contains(reference))
+                return null;
+        }
+
+        preload(font, Character.toString(c));
+        return placeholders.computeIfAbsent(info, k -> {
+            FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+            Rectangle2D charBounds = font.getStringBounds(Character.toString(c), renderContext);
+            return new CFXPlaceholderCharacter((int) Math.ceil(charBounds.getWidth()),
+                    (int) Math.ceil(charBounds.getHeight()), c, font);
+        });
+    }
+
+    @Override
+    public void preload(@NotNull Font font) {
+        preload(font, new String(DEFAULT_CHARACTER_SET));
+    }
+
+    @Override
+    public void preload(@NotNull Font font, @NotNull CharSequence s) {
+        boolean distanceField = this.distanceField;
+        if (distanceField && font.getSize() > MAX_DISTANCE_FIELD_SIZE)
+            return;
+
+        Font glyphFont = distanceField ? CFXDistanceField.referenceFont(font) : font;
+        Map<CharInfo, CFXCharacter> loaded = distanceField ? referenceGlyphs : chars;
+
+        ArrayList<CharInfo> missing = new ArrayList<>();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == SPACE || Character.isISOControl(c))
+                continue;
+
+            CharInfo info = new CharInfo(c, glyphFont);
+            if (!loaded.containsKey(info) && !failed.contains(info) && pending.add(info))
+                missing.add(info);
+        }
+
+        if (!missing.isEmpty())
+            getRenderer().getWorker().submitTask(t -> rasterize(missing, distanceField), WorkerPriority.MEDIUM,
+                    CerberusRenderer.GROUP_OTHER);
+    }
+
+    /**
+     * Will rasterize the specified glyphs and queue them for
+     * insertion on the gl thread.
+     *
+     * This method is executed on a worker thread.
+     *
+     * @param infos glyphs to rasterize
+     * @param distanceField generate distance field glyphs
+     */
+    private void rasterize(@NotNull List<CharInfo> infos, boolean distanceField) {
+        for (CharInfo info : infos) {
+            BufferedImage image = distanceField ? CFXDistanceField.generate(info.getC(), info.getFont())
+                    : generateImage(info.getC(), info.getFont());
+            rasterized.add(new RasterizedGlyph(info, image, distanceField));
+        }
+
+        if (flushScheduled.compareAndSet(false, true))
+            getRenderer().submitGLTask(t -> flushGlyphs());
+    }
+
+    /**
+     * Will insert all rasterized glyphs into the alphabets.
+     *
+     * Glyphs are grouped by font, such that each group is inserted
+     * into its alphabet as a single batch.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     */
+    private void flushGlyphs() {
+        flushScheduled.set(false);
+
+        LinkedHashMap<Font, ArrayList<RasterizedGlyph>> bitmapGlyphs = new LinkedHashMap<>();
+        LinkedHashMap<Font, ArrayList<RasterizedGlyph>> distanceGlyphs = new LinkedHashMap<>();
+        ArrayList<CharInfo> flushed = new ArrayList<>();
+        int resolved = 0;
+
+        RasterizedGlyph glyph;
+        while ((glyph = rasterized.poll()) != null) {
+            flushed.add(glyph.info);
+            if (glyph.image == null) {
+                // zero width or unrenderable char. Remember it, such that it
+                // is skipped by the layout instead of being requested again
+                if (failed.add(glyph.info)) {
+                    CerberusRegistry.getInstance().warning("Failed to render character glyph \""
+                            + glyph.info.getC() + "\" in font " + glyph.info.getFont() + "!");
+                    resolved++;
+                }
+                continue;
+            }
+
+            // the glyph may have been loaded synchronously in the meantime
+            if ((glyph.distanceField ? referenceGlyphs : chars).containsKey(glyph.info))
+                continue;
+
+            (glyph.distanceField ? distanceGlyphs : bitmapGlyphs)
+                    .computeIfAbsent(glyph.info.getFont(), k -> new ArrayList<>()).add(glyph);
+        }
+
+        if (flushed.isEmpty())
+            return;
+
+        for (Map.Entry<Font, ArrayList<RasterizedGlyph>> entry : bitmapGlyphs.entrySet())
+            resolved += insertBitmapGlyphs(entry.getKey(), entry.getValue());
+        for (Map.Entry<Font, ArrayList<RasterizedGlyph>> entry : distanceGlyphs.entrySet()) {
+            Font font = entry.getKey();
+            ArrayList<RasterizedGlyph> glyphs = entry.getValue();
+            char[] glyphChars = new char[glyphs.size()];
+            BufferedImage[] images = new BufferedImage[glyphs.size()];
+            for (int i = 0; i < glyphs.size(); i++) {
+                glyphChars[i] = glyphs.get(i).info.getC();
+                images[i] = glyphs.get(i).image;
+            }
+            resolved += insertReferenceGlyphs(glyphChars, images, font);
+        }
+
+        flushed.forEach(pending::remove);
+        placeholders.clear();
+
+        // only layouts that contain a newly resolved glyph can change
+        if (resolved > 0) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new GlyphLoadEvent(resolved));
+        }
+    }
+
+    /**
+     * Will insert a batch of rasterized glyphs of the same font into
+     * the bitmap alphabets.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     *
+     * @param font font of the glyphs
+     * @param glyphs rasterized glyphs
+     * @return amount of inserted glyphs
+     */
+    private int insertBitmapGlyphs(@NotNull Font font, @NotNull List<RasterizedGlyph> glyphs) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        ArrayList<TextureResource> resources = new ArrayList<>();
+        ArrayList<RasterizedGlyph> loaded = new ArrayList<>();
+        Vector2i maxSize = new Vector2i(0);
+        int inserted = 0;
+
+        try {
+            for (RasterizedGlyph glyph : glyphs) {
+                TextureResource resource = new BufferedTextureResource(new BufferedImageResource(glyph.image, 0));
+                if (textureBoard.loadTexture(resource) == null) {
+                    CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                            .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                                    new FontRenderException("Failed to load image texture for char "
+                                            + glyph.info.getC() + " with font " + font + "!")));
+                    continue;
+                }
+
+                resources.add(resource);
+                loaded.add(glyph);
+                if (maxSize.getX() < glyph.image.getWidth())
+                    maxSize.setX(glyph.image.getWidth());
+                if (maxSize.getY() < glyph.image.getHeight())
+                    maxSize.setY(glyph.image.getHeight());
+            }
+            if (resources.isEmpty())
+                return 0;
+
+            CFXAlphabet alphabet = findAppropriateAlphabet(maxSize, font);
+            int[] ids = alphabet.insertCharacters(resources.toArray(new TextureResource[0]));
+            for (int i = 0; i < loaded.size(); i++) {
+                RasterizedGlyph glyph = loaded.get(i);
+                CFXAlphabet target = alphabet;
+                int id;
+                if (ids != null) {
+                    id = ids[i];
+                } else {
+                    // the batch does not fit into a single alphabet. Insert glyph by glyph
+                    target = findAppropriateAlphabet(new Vector2i(glyph.image.getWidth(), glyph.image.getHeight()),
+                            font);
+                    id = target.insertCharacter(resources.get(i));
+                }
+
+                if (id == -1) {
+                    CerberusRegistry.getInstance().warning("Failed to save character glyph \"" + glyph.info.getC()
+                            + "\" in font " + font + "!");
+                    continue;
+                }
+                chars.put(glyph.info, new CFXCharacterImpl(id, glyph.image.getWidth(), glyph.image.getHeight(),
+                        glyph.info.getC(), font, target));
+                inserted++;
+            }
+        } finally {
+            // delete temporary char textures
+            resources.forEach(textureBoard::deleteTexture);
+        }
+        return inserted;
+    }
+
+    /**
+     * Will load a character in distance field mode.
+     *
+     * The distance field glyph of the character is generated at the
+     * reference size, if it is not present yet. The character itself
+     * only references the glyph cell together with the target font
+     * size.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     *
+     * @param c character
+     * @param font font
+     * @param info character info of the char and font
+     * @return CFX-Character
+     */
+    private @Nullable CFXCharacter loadDistanceFieldCharacter(char c, @NotNull Font font, @NotNull CharInfo info) {
+        if (font.getSize() > MAX_DISTANCE_FIELD_SIZE) {
+            CerberusRegistry.getInstance().warning("Font size " + font.getSize() + " of font " + font
+                    + " exceeds the maximum distance field font size of " + MAX_DISTANCE_FIELD_SIZE);
+            return null;
+        }
+
+        Font reference = CFXDistanceField.referenceFont(font);
+        CFXCharacter glyph = referenceGlyphs.get(new CharInfo(c, reference));
+        if (glyph == null) {
+            loadReferenceGlyphs(new char[] {c}, reference);
+            glyph = referenceGlyphs.get(new CharInfo(c, reference));
+            if (glyph == null) {
+                CerberusRegistry.getInstance().warning("Failed to render distance field glyph \"" + c
+                        + "\" in font " + font + "!");
+                return null;
+            }
+        }
+
+        return createDistanceFieldCharacter(c, font, glyph, info);
+    }
+
+    /**
+     * Will create and register a distance field character, which
+     * references the specified distance field glyph.
+     * @param c character
+     * @param font font
+     * @param glyph distance field glyph at the reference size
+     * @param info character info of the char and font
+     * @return CFX-Character
+     */
+    private @NotNull CFXCharacter createDistanceFieldCharacter(char c, @NotNull Font font,
+                                                               @NotNull CFXCharacter glyph, @NotNull CharInfo info) {
+        FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+        Rectangle2D charBounds = font.getStringBounds(Character.toString(c), renderContext);
+
+        CFXCharacter cfxChar = new CFXCharacterImpl(glyph.getTex() | (font.getSize() << 20),
+                (int) Math.ceil(charBounds.getWidth()), (int) Math.ceil(charBounds.getHeight()),
+                c, font, glyph.getAlphabet());
+        chars.put(info, cfxChar);
+        return cfxChar;
+    }
+
+    /**
+     * Will generate the distance field glyphs of all specified
+     * characters, which are not loaded yet, and insert them into
+     * the distance field alphabets.
+     *
+     * The distance fields are generated in parallel on worker
+     * threads, after which all glyphs are inserted into the
+     * alphabet as a single batch.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     *
+     * @param s characters to load
+     * @param reference reference font
+     */
+    private void loadReferenceGlyphs(@NotNull char[] s, @NotNull Font reference) {
+        LinkedHashSet<Character> missing = new LinkedHashSet<>();
+        for (char c : s) {
+            CharInfo info = new CharInfo(c, reference);
+            if (!Character.isISOControl(c) && !referenceGlyphs.containsKey(info) && !failed.contains(info))
+                missing.add(c);
+        }
+        if (missing.isEmpty())
+            return;
+
+        char[] glyphChars = new char[missing.size()];
+        int index = 0;
+        for (char c : missing)
+            glyphChars[index++] = c;
+
+        BufferedImage[] images = IntStream.range(0, glyphChars.length).parallel()
+                .mapToObj(i -> CFXDistanceField.generate(glyphChars[i], reference))
+                .toArray(BufferedImage[]::new);
+        insertReferenceGlyphs(glyphChars, images, reference);
+    }
+
+    /**
+     * Will insert generated distance field glyphs into the distance
+     * field alphabets as a single batch.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     *
+     * @param glyphChars characters of the glyphs
+     * @param images distance field glyph images
+     * @param reference reference font
+     * @return amount of inserted or newly failed glyphs
+     */
+    private int insertReferenceGlyphs(@NotNull char[] glyphChars, @NotNull BufferedImage[] images,
+                                      @NotNull Font reference) {
+        int failedGlyphs = 0;
+        ArrayList<TextureResource> resources = new ArrayList<>();
+        ArrayList<BufferedImage> resourceImages = new ArrayList<>();
+        ArrayList<Character> resourceChars = new ArrayList<>();
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        try {
+            for (int i = 0; i < images.length; i++) {
+                if (images[i] == null) {
+                    if (failed.add(new CharInfo(glyphChars[i], reference))) {
+                        CerberusRegistry.getInstance().warning("Failed to render distance field glyph \""
+                                + glyphChars[i] + "\" in font " + reference + "!");
+                        failedGlyphs++;
+                    }
+                    continue;
+                }
+
+                TextureResource resource = new BufferedTextureResource(new BufferedImageResource(images[i], 0));
+                if (textureBoard.loadTexture(resource) == null) {
+                    CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                            .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                                    new FontRenderException("Failed to load distance field texture for char "
+                                            + glyphChars[i] + " with font " + reference + "!")));
+                    continue;
+                }
+                resources.add(resource);
+                resourceImages.add(images[i]);
+                resourceChars.add(glyphChars[i]);
+            }
+            if (resources.isEmpty())
+                return failedGlyphs;
+
+            TextureResource[] cellTextures = resources.toArray(new TextureResource[0]);
+            CFXDistanceFieldAlphabet alphabet = null;
+            int[] ids = null;
+            for (CFXDistanceFieldAlphabet candidate : distanceFieldAlphabets) {
+                ids = candidate.insertCharacters(cellTextures);
+                if (ids != null) {
+                    alphabet = candidate;
+                    break;
+                }
+            }
+
+            if (ids == null) {
+                alphabet = createDistanceFieldAlphabet();
+                ids = alphabet.insertCharacters(cellTextures);
+                if (ids == null) {
+                    CerberusRegistry.getInstance().warning("Failed to save " + cellTextures.length
+                            + " distance field glyphs in font " + reference + "!");
+                    return failedGlyphs;
+                }
+            }
+
+            for (int i = 0; i < ids.length; i++) {
+                char c = resourceChars.get(i);
+                BufferedImage image = resourceImages.get(i);
+                referenceGlyphs.put(new CharInfo(c, reference),
+                        new CFXCharacterImpl(ids[i], image.getWidth(), image.getHeight(), c, reference, alphabet));
+            }
+            return ids.length + failedGlyphs;
+        } finally {
+            // delete temporary glyph textures
+            resources.forEach(textureBoard::deleteTexture);
+        }
+    }
+
+    /**
+     * Will create a new distance field alphabet.
+     *
+     * This method should only be called from within a valid gl
+     * render context. (no-check)
+     */
+    private @NotNull CFXDistanceFieldAlphabet createDistanceFieldAlphabet() {
+        CFXDistanceFieldAlphabet alphabet = new CFXDistanceFieldAlphabet(
+                getRenderer().getGUIManager().getDistanceFieldAtlasDimensions(), MAX_DISTANCE_FIELD_GLYPHS);
+        alphabet.init();
+        distanceFieldAlphabets.add(alphabet);
+        return alphabet;
+    }
+
+    /**
+     * Will generate all missing distance field glyphs of the
+     * specified characters at once, if the distance field mode is
+     * enabled and the current thread is a gl render thread.
+     * @param s characters
+     * @param font font
+     */
+    private void prepareDistanceField(@NotNull char[] s, @NotNull Font font) {
+        if (distanceField && font.getSize() <= MAX_DISTANCE_FIELD_SIZE && getRenderer().getWindow().isGlThread())
+            loadReferenceGlyphs(s, CFXDistanceField.referenceFont(font));
+    }
+
+    @Override
+    public void setDistanceFieldMode(boolean distanceField) {
+        this.distanceField = distanceField;
+    }
+
+    @Override
+    public boolean isDistanceFieldMode() {
+        return distanceField;
+    }
+
+    @Override
+    public void setAsyncMode(boolean async) {
+        this.async = async;
+    }
+
+    @Override
+    public boolean isAsyncMode() {
+        return async;
+    }
+
+    @Override
+    public void setWrapCacheCapacity(int paragraphs) {
+        wrapCache.setCapacity(paragraphs);
+    }
+
+    @Override
+    public int getWrapCacheCapacity() {
+        return wrapCache.getCapacity();
+    }
+
+    @Override
+    public double getWrapCacheHitRate() {
+        return wrapCache.hitRate();
+    }
+
     @Override
     public @Nullable CFXCharacter getCharacter(char c, @NotNull Font font) {
         return chars.get(new CharInfo(c, font));
@@ -177,6 +694,7 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
         char[] chars = s.toCharArray();
         if (chars.length == 0)
             return null;
+        prepareDistanceField(chars, font);
 
         HashSet<CFXCharacter> output = new HashSet<>();
         for (char c : chars) {
@@ -193,6 +711,7 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     @Override
     public @Nullable Collection<CFXCharacter> loadString(@NotNull CharSequence s, @NotNull Font font) {
         HashSet<CFXCharacter> output = new HashSet<>();
+        prepareDistanceField(s.toString().toCharArray(), font);
 
         for (int i = 0; i < s.length(); i++) {
             CFXCharacter cfxChar = loadCharacter(s.charAt(i), font);
@@ -208,6 +727,7 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     @Override
     public @Nullable Collection<CFXCharacter> loadString(@NotNull char[] s, @NotNull Font font) {
         HashSet<CFXCharacter> output = new HashSet<>();
+        prepareDistanceField(s, font);
 
         for (char c : s) {
             CFXCharacter cfxChar = loadCharacter(c, font);
@@ -223,6 +743,13 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     @Override
     public @Nullable Collection<CFXCharacter> loadString(@NotNull Collection<Character> s, @NotNull Font font) {
         HashSet<CFXCharacter> output = new HashSet<>();
+        if (distanceField) {
+            char[] chars = new char[s.size()];
+            int index = 0;
+            for (char c : s)
+                chars[index++] = c;
+            prepareDistanceField(chars, font);
+        }
 
         for (char c : s) {
             CFXCharacter cfxChar = loadCharacter(c, font);
@@ -253,103 +780,12 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     @Override
     public @Nullable CFXTextBuffer formatTextBuffer(@NotNull String input, @NotNull Font font, int hspace, int vspace, boolean colors,
                                           boolean packing) {
+        if (async)
+            preload(font, input);
+        else
+            prepareDistanceField(input.toCharArray(), font);
 
-        CFXManager manager = getRenderer().getGUIManager();
-        final HashMap<CFXAlphabet, HashSet<Symbol>> mapOfChars = new HashMap<>();
-
-        int bufferCap = 0;
-
-        Vector2i pos = new Vector2i(0);
-        int currentLineHeight = font.getSize();
-        int currentARGB = 0xFFFFFFFF; // default color: white
-
-        Rectangle2D spaceBounds = getSpaceBounds(font);
-        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
-        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
-
-        Loop : for (int i = 0; i < input.length(); i++) {
-            switch (input.charAt(i)) {
-                case ESCAPE_RETURN:
-                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
-                    break;
-                case ESCAPE_NEW_LINE:
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    break;
-                case ESCAPE_BACKSPACE:
-                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
-                    break;
-                case ESCAPE_HIGHLIGHT:
-                    try {
-                        FormatColor color = findColor(input, i);
-                        currentARGB = CFXColor.toARGB(1f, color.color.getX(),
-                                color.color.getY(), color.color.getZ());
-                        i = color.pos;
-                    } catch (TextFormatException e) {
-                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
-                    }
-                    break;
-                case ESCAPE_FORM_FEED:
-                    break Loop;
-                case ESCAPE_TAB:
-                    pos.addSelf(spaceWidth * manager.tabInSpaces() + hspace, 0);
-                    break;
-                case SPACE:
-                    pos.addSelf(spaceWidth + hspace, 0);
-                    if (currentLineHeight < spaceHeight)
-                        currentLineHeight = spaceHeight;
-                    break;
-                default:
-                    CFXCharacter cfxChar = loadCharacter(input.charAt(i), font);
-                    if (cfxChar == null)
-                        continue; // could not load character
-
-                    // adjust height for the current line
-                    if (currentLineHeight < cfxChar.getHeight())
-                        currentLineHeight = cfxChar.getHeight();
-
-                    mapOfChars.computeIfAbsent(cfxChar.getAlphabet(),
-                            k -> new HashSet<>()).add(new Symbol(pos.copy(), cfxChar, currentARGB));
-
-                    if (packing || cfxChar.getWidth() > spaceWidth)
-                        pos.addSelf(cfxChar.getWidth() + hspace, 0);
-                    else
-                        pos.addSelf(spaceWidth + hspace, 0);
-
-                    bufferCap++;
-            }
-        }
-
-        if (mapOfChars.isEmpty())
-            return null;
-
-        final ByteBuffer buffer = BufferUtils.createByteBuffer(bufferCap * TEXT_BUFFER_SYMBOL_SIZE);
-        final long[] cuts = new long[mapOfChars.size() - 1];
-        final CFXAlphabet[] alphabets = new CFXAlphabet[mapOfChars.size()];
-        final int[] charCounts = new int[mapOfChars.size()];
-        int i = 0;
-
-        for (CFXAlphabet alphabet : mapOfChars.keySet()) {
-            HashSet<Symbol> chars = mapOfChars.get(alphabet);
-            if (i < cuts.length)
-                cuts[i] = chars.size() * TEXT_BUFFER_SYMBOL_SIZE;
-
-            charCounts[i] = chars.size();
-            alphabets[i++] = alphabet;
-
-            chars.forEach(c -> {
-                buffer.putInt(c.character.getTex());
-                buffer.putInt(c.coord.getX());
-                buffer.putInt(c.coord.getY());
-                buffer.putInt(c.argb);
-            });
-        }
-
-        buffer.flip();
-        return new CFXTextBufferImpl(buffer, alphabets, cuts, charCounts, pos);
+        return layout(input, font, hspace, vspace, packing).toTextBuffer();
     }
 
     @Override
@@ -376,252 +812,26 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
             ((MutableSSBO) bufferObj).bufferData(buffer.getBuffer(), buffer.cuts(), bindings);
             getRenderer().getShaderBoard().bindSSBO(ssbo, 0); // mark the ssbo as bound for security reasons
         });
-        return new CFXTextRenderContextImpl(buffer.alphabets(), ssbo, buffer.charCounts(), buffer.getBounds());
+        return new CFXTextRenderContextImpl(buffer.alphabets(), ssbo, buffer.charCounts(), buffer.glyphExtents(),
+                buffer.getBounds(), buffer.isComplete());
     }
 
     @Override
     public @Nullable Vector2i getTextBounds(@NotNull String input, @NotNull Font font, int hspace, int vspace,
                                             boolean packing) {
-        CFXManager manager = getRenderer().getGUIManager();
-
-        Vector2i pos = new Vector2i(0);
-        int currentLineHeight = font.getSize();
-
-        Rectangle2D spaceBounds = getSpaceBounds(font);
-        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
-        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
-
-        Loop : for (int i = 0; i < input.length(); i++) {
-            switch (input.charAt(i)) {
-                case ESCAPE_RETURN:
-                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
-                    break;
-                case ESCAPE_NEW_LINE:
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    break;
-                case ESCAPE_BACKSPACE:
-                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
-                    break;
-                case ESCAPE_HIGHLIGHT:
-                    try {
-                        FormatColor color = findColor(input, i);
-                        i = color.pos;
-                    } catch (TextFormatException e) {
-                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
-                    }
-                    break;
-                case ESCAPE_FORM_FEED:
-                    break Loop;
-                case ESCAPE_TAB:
-                    pos.addSelf(spaceWidth * manager.tabInSpaces() + hspace, 0);
-                    break;
-                case SPACE:
-                    pos.addSelf(spaceWidth + hspace, 0);
-                    if (currentLineHeight < spaceHeight)
-                        currentLineHeight = spaceHeight;
-                    break;
-                default:
-                    CFXCharacter cfxChar = loadCharacter(input.charAt(i), font);
-                    if (cfxChar == null)
-                        continue; // could not load character
-
-                    // adjust height for the current line
-                    if (currentLineHeight < cfxChar.getHeight())
-                        currentLineHeight = cfxChar.getHeight();
-
-                    if (packing || cfxChar.getWidth() > spaceWidth)
-                        pos.addSelf(cfxChar.getWidth() + hspace, 0);
-                    else
-                        pos.addSelf(spaceWidth + hspace, 0);
-            }
-        }
-        return pos;
+        return layout(input, font, hspace, vspace, packing).getBounds();
     }
 
-    @SuppressWarnings("DuplicatedCode")
     @Override
     public @Nullable Vector2i getTextPixel(@NotNull String input, @NotNull Font font, int hspace, int vspace,
                                            boolean packing, int line, int letter) {
-        CFXManager manager = getRenderer().getGUIManager();
-
-        Vector2i pos = new Vector2i(0);
-        int currentLineHeight = font.getSize();
-
-        Rectangle2D spaceBounds = getSpaceBounds(font);
-        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
-        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
-
-        int currentLine = 0;
-        int currentLetter = 0;
-
-        if (line == currentLine && letter <= currentLetter)
-            return pos;
-
-        Loop : for (int i = 0; i < input.length(); i++) {
-            switch (input.charAt(i)) {
-                case ESCAPE_RETURN:
-                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
-                    break;
-                case ESCAPE_NEW_LINE:
-                    if (currentLine == line)
-                        return pos;
-
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    currentLine++;
-                    currentLetter = 0;
-                    break;
-                case FAKE_NEW_LINE:
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    break;
-                case ESCAPE_BACKSPACE:
-                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
-                    break;
-                case ESCAPE_HIGHLIGHT:
-                    try {
-                        FormatColor color = findColor(input, i);
-                        i = color.pos;
-                    } catch (TextFormatException e) {
-                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
-                    }
-                    break;
-                case ESCAPE_FORM_FEED:
-                    break Loop;
-                case ESCAPE_TAB:
-                    pos.addSelf(spaceWidth * manager.tabInSpaces() + hspace, 0);
-                    currentLetter++;
-                    break;
-                case SPACE:
-                    pos.addSelf(spaceWidth + hspace, 0);
-                    if (currentLineHeight < spaceHeight)
-                        currentLineHeight = spaceHeight;
-                    currentLetter++;
-                    break;
-                default:
-                    CFXCharacter cfxChar = loadCharacter(input.charAt(i), font);
-                    if (cfxChar == null)
-                        continue; // could not load charater
-
-                    // adjust height for the current line
-                    if (currentLineHeight < cfxChar.getHeight())
-                        currentLineHeight = cfxChar.getHeight();
-
-                    if (packing || cfxChar.getWidth() > spaceWidth)
-                        pos.addSelf(cfxChar.getWidth() + hspace, 0);
-                    else
-                        pos.addSelf(spaceWidth + hspace, 0);
-                    currentLetter++;
-            }
-
-            if (line == currentLine && letter == currentLetter)
-                return pos;
-            if (currentLine > line)
-                return null;
-        }
-        return null;
+        return layout(input, font, hspace, vspace, packing).getPixel(line, letter);
     }
 
-    @SuppressWarnings("DuplicatedCode")
     @Override
     public @Nullable Vector2i getTextPosition(@NotNull String input, @NotNull Font font, int hspace, int vspace,
                                               boolean packing, @NotNull Vector2i pixelPos) {
-
-        CFXManager manager = getRenderer().getGUIManager();
-
-        Vector2i pos = new Vector2i(0);
-        Vector2i prevPos = new Vector2i(0);
-        int currentLineHeight = font.getSize();
-
-        Rectangle2D spaceBounds = getSpaceBounds(font);
-        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
-        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
-
-        int currentLine = 0;
-        int currentLetter = 0;
-
-        int prevLine = 0;
-        int prevLetter = 0;
-
-        if (prevPos.getY() < pixelPos.getY() && pos.getY() >= pixelPos.getY())
-            return new Vector2i(prevLine, prevLetter);
-        if (prevPos.getX() < pixelPos.getX() && pos.getX() >= pixelPos.getX() &&
-                pos.getY() < pixelPos.getY() && pos.getY() + currentLineHeight >= pixelPos.getY())
-            return new Vector2i(currentLine, prevLetter);
-
-        Loop : for (int i = 0; i < input.length(); i++) {
-            prevPos = pos.copy();
-
-            prevLine = currentLine;
-            prevLetter = currentLetter;
-
-            switch (input.charAt(i)) {
-                case ESCAPE_RETURN:
-                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
-                    break;
-                case ESCAPE_NEW_LINE:
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    currentLine++;
-                    currentLetter = 0;
-                    break;
-                case ESCAPE_BACKSPACE:
-                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
-                    break;
-                case ESCAPE_HIGHLIGHT:
-                    try {
-                        FormatColor color = findColor(input, i);
-                        i = color.pos;
-                    } catch (TextFormatException e) {
-                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
-                    }
-                    break;
-                case ESCAPE_FORM_FEED:
-                    break Loop;
-                case ESCAPE_TAB:
-                    pos.addSelf(spaceWidth * manager.tabInSpaces() + hspace, 0);
-                    currentLetter++;
-                    break;
-                case SPACE:
-                    pos.addSelf(spaceWidth + hspace, 0);
-                    if (currentLineHeight < spaceHeight)
-                        currentLineHeight = spaceHeight;
-                    currentLetter++;
-                    break;
-                default:
-                    CFXCharacter cfxChar = loadCharacter(input.charAt(i), font);
-                    if (cfxChar == null)
-                        continue; // could not load charater
-
-                    // adjust height for the current line
-                    if (currentLineHeight < cfxChar.getHeight())
-                        currentLineHeight = cfxChar.getHeight();
-
-                    if (packing || cfxChar.getWidth() > spaceWidth)
-                        pos.addSelf(cfxChar.getWidth() + hspace, 0);
-                    else
-                        pos.addSelf(spaceWidth + hspace, 0);
-                    currentLetter++;
-            }
-
-            if (prevPos.getY() < pixelPos.getY() && pos.getY() >= pixelPos.getY())
-                return new Vector2i(prevLine, prevLetter);
-            if (prevPos.getX() < pixelPos.getX() && pos.getX() >= pixelPos.getX() &&
-                    pos.getY() < pixelPos.getY() && pos.getY() + currentLineHeight >= pixelPos.getY())
-                return new Vector2i(currentLine, prevLetter);
-        }
-        return new Vector2i(currentLine, currentLetter);
+        return layout(input, font, hspace, vspace, packing).getPosition(pixelPos);
     }
 
     @Override
@@ -728,134 +938,8 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     @Override
     public @NotNull String wrap(@NotNull String input, @NotNull Font font, @NotNull Vector2i bounds, int hspace,
                                 int vspace, boolean packing, boolean wordWrap, char newLineEscape) {
-
-        CFXManager manager = getRenderer().getGUIManager();
-        StringBuilder builder = new StringBuilder();
-        StringBuilder line = new StringBuilder();
-
-        Vector2i pos = new Vector2i(0);
-        boolean inWord = false;
-        int lastWordStart = 0;
-        int currentLineHeight = font.getSize();
-
-        Rectangle2D spaceBounds = getSpaceBounds(font);
-        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
-        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
-
-        Loop : for (int i = 0; i < input.length(); i++) {
-            switch (input.charAt(i)) {
-                case ESCAPE_RETURN:
-                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
-                    break;
-                case ESCAPE_NEW_LINE:
-                    builder.append(line.toString());
-                    builder.append(ESCAPE_NEW_LINE);
-                    line = new StringBuilder();
-                    inWord = false;
-
-                    pos.setX(0);
-                    pos.addSelf(0, currentLineHeight + vspace);
-                    currentLineHeight = font.getSize();
-                    break;
-                case ESCAPE_BACKSPACE:
-                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
-                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
-                    break;
-                case ESCAPE_HIGHLIGHT:
-                    try {
-                        FormatColor color = findColor(input, i);
-                        i = color.pos;
-                        builder.append("\u001b[#").append(CFXColor.toHexColor(color.color, null));
-                    } catch (TextFormatException e) {
-                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
-                    }
-                    break;
-                case ESCAPE_FORM_FEED:
-                    break Loop;
-                case ESCAPE_TAB:
-                    if (inWord) {
-                        builder.append(line.toString());
-                        line = new StringBuilder();
-                        inWord = false;
-                    }
-
-                    pos.addSelf(spaceWidth * manager.tabInSpaces() + hspace, 0);
-                    if (pos.getX() >= bounds.getX()) {
-                        // insert new line
-                        builder.append(line.toString());
-                        builder.append(newLineEscape);
-                        line = new StringBuilder();
-
-                        pos.setX(spaceWidth * manager.tabInSpaces() + hspace);
-                        pos.addSelf(0, currentLineHeight + vspace);
-                        currentLineHeight = font.getSize();
-                    }
-                    builder.append(ESCAPE_TAB);
-
-                    break;
-                case SPACE:
-                    if (inWord) {
-                        builder.append(line.toString());
-                        line = new StringBuilder();
-                        inWord = false;
-                    }
-
-                    pos.addSelf(spaceWidth + hspace, 0);
-                    if (pos.getX() < bounds.getX()) {
-                        if (currentLineHeight < spaceHeight)
-                            currentLineHeight = spaceHeight;
-                    } else {
-                        // insert new line
-                        builder.append(line.toString());
-                        builder.append(newLineEscape);
-                        line = new StringBuilder();
-
-                        pos.setX(spaceWidth + hspace);
-                        pos.addSelf(0, currentLineHeight + vspace);
-                        currentLineHeight = Math.max(spaceHeight, font.getSize());
-                    }
-                    builder.append(SPACE);
-                    break;
-                default:
-                    if (!inWord) {
-                        inWord = true;
-                        lastWordStart = pos.getX();
-                    }
-
-                    CFXCharacter cfxChar = loadCharacter(input.charAt(i), font);
-                    if (cfxChar == null)
-                        continue; // could not load character
-
-                    // adjust height for the current line
-                    if (currentLineHeight < cfxChar.getHeight())
-                        currentLineHeight = cfxChar.getHeight();
-
-                    int add;
-                    if (packing || cfxChar.getWidth() > spaceWidth)
-                        add = cfxChar.getWidth() + hspace;
-                    else
-                        add = spaceWidth + hspace;
-
-                    pos.addSelf(add, 0);
-                    if (pos.getX() >= bounds.getX()) {
-                        if (lastWordStart == 0 || !wordWrap) {
-                            // word is to long. separate word
-                            builder.append(line.toString());
-                            line = new StringBuilder();
-                            pos.setX(add);
-                            lastWordStart = 0;
-                        }
-                        builder.append(newLineEscape);
-                        // next line
-                        pos.addSelf(-lastWordStart, currentLineHeight + vspace);
-                        lastWordStart = 0;
-                    }
-                    line.append(cfxChar.getCharacter());
-            }
-        }
-        builder.append(line.toString());
-        return builder.toString();
+        return wrapCache.wrap(input, font, bounds.getX(), hspace, packing, tabInSpaces(), wordWrap,
+                newLineEscape);
     }
 
     @Override
@@ -900,14 +984,32 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
         return (count + lineCount) * TEXT_BUFFER_SYMBOL_SIZE;
     }
 
+    @Override
+    public long getAtlasMemory() {
+        long memory = 0;
+        for (CFXAlphabet alphabet : alphabets)
+            memory += atlasMemory(alphabet);
+        for (CFXAlphabet alphabet : distanceFieldAlphabets)
+            memory += atlasMemory(alphabet);
+        return memory;
+    }
+
     @Override
     public void destroy() {
         alphabets.forEach(CFXAlphabet::destroy);
         alphabets.clear();
+        distanceFieldAlphabets.forEach(CFXAlphabet::destroy);
+        distanceFieldAlphabets.clear();
+        referenceGlyphs.clear();
+        placeholders.clear();
+        rasterized.clear();
+        pending.clear();
+        failed.clear();
         chars.clear();
+        wrapCache.clear();
     }
 
-    private FormatColor findColor(String input, int pos) throws TextFormatException {
+    static FormatColor findColor(String input, int pos) throws TextFormatException {
         if (input.charAt(pos) == '\u001B') {
             int remaining = input.length() - pos;
             if (remaining > 2 && input.charAt(pos + 1) == '[') {
@@ -966,12 +1068,41 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
         return new FormatColor(CFXColor.WHITE.getDiffuse(), pos);
     }
 
+    /**
+     * Will lay out the input string with the layout engine of the
+     * calling thread.
+     *
+     * The returned layout is only valid until the next layout pass
+     * on the same thread.
+     *
+     * @param input input string
+     * @param font font
+     * @param hspace horizontal space between chars
+     * @param vspace vertical space between lines
+     * @param packing tight packing
+     * @return laid out text
+     */
+    @NotNull CFXTextLayout layout(@NotNull String input, @NotNull Font font, int hspace, int vspace,
+                                  boolean packing) {
+        CFXTextLayout layout = layouts.get();
+        layout.layout(input, font, hspace, vspace, packing, tabInSpaces());
+        return layout;
+    }
+
+    /**
+     * Returns the width of a tab in spaces.
+     * @return tab width in spaces
+     */
+    int tabInSpaces() {
+        return getRenderer().getGUIManager().tabInSpaces();
+    }
+
     /**
      * Will return the bounds of the space bar for the specified font.
      * @param font font
      * @return bounding rectangle for the space bar
      */
-    private @NotNull Rectangle2D getSpaceBounds(@NotNull Font font) {
+    @NotNull Rectangle2D getSpaceBounds(@NotNull Font font) {
         FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
         return font.getStringBounds(" ", renderContext);
     }
@@ -1029,44 +1160,46 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     }
 
     /**
-     * Will generate a buffered image from a character an a font.
+     * Will rasterize a character through the shared glyph cache.
      *
-     * The image will be scaled according to the rendered characters
-     * glyph size.
+     * The glyph is discarded right away, since its image is only
+     * copied into an alphabet.
      *
      * @param c character to render
      * @param font font to render the character with
      * @return character rendered to a buffered image
      */
-    private static BufferedImage generateImage(char c, Font font) {
-        FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
-        Rectangle2D charBounds = font.getStringBounds(Character.toString(c), renderContext);
-
-        int width = (int) Math.ceil(charBounds.getWidth());
-        int height = (int) Math.ceil(charBounds.getHeight());
-
-        if (width == 0)
+    private @Nullable BufferedImage generateImage(char c, @NotNull Font font) {
+        CFXGlyphCache glyphCache = getRenderer().getGlyphCache();
+        CFXGlyph glyph = glyphCache.acquire(c, font);
+        if (glyph == null)
             return null;
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D graphics = (Graphics2D) image.getGraphics();
-        graphics.setColor(Color.WHITE);
-        graphics.setFont(font);
-
-        Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit()
-                .getDesktopProperty("awt.font.desktophints");
-        if (desktopHints == null) {
-            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
-                    RenderingHints.VALUE_RENDER_QUALITY);
-            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
-                    RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                    RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
-        } else
-            graphics.setRenderingHints(desktopHints);
-
-        graphics.drawString(Character.toString(c), (float) charBounds.getX(), -(float) charBounds.getY());
-        return image;
+        glyphCache.discard(glyph);
+        return glyph.getImage();
+    }
+
+    /**
+     * Returns the size of the texture atlas of an alphabet in bytes.
+     *
+     * The size is summed over all layers of the atlas texture using
+     * the image type of each layer. Atlases that are not loaded into
+     * the texture board yet do not occupy any memory.
+     *
+     * @param alphabet alphabet
+     * @return atlas size in bytes
+     */
+    private long atlasMemory(@NotNull CFXAlphabet alphabet) {
+        Texture texture = getRenderer().getTextureBoard().getTexture(alphabet.getTextureAtlas());
+        if (texture == null)
+            return 0;
+
+        long memory = 0;
+        for (int i = 0; i < texture.length(); i++) {
+            Vector3i size = texture.getSize(i);
+            memory += (long) size.getX() * size.getY() * Math.max(size.getZ(), 1) * texture.getType(i).byteSize();
+        }
+        return memory;
     }
 
     /**
@@ -1107,10 +1240,10 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     /**
      * Format color struct class
      */
-    private static class FormatColor {
+    static class FormatColor {
 
-        private final Vector3f color;
-        private final int pos;
+        final Vector3f color;
+        final int pos;
 
         public FormatColor(Vector3f color, int pos) {
             this.color = color;
@@ -1119,18 +1252,18 @@ public class CFXFontRendererImpl implements CFXFontRenderer {
     }
 
     /**
-     * Symbol struct class
+     * Rasterized glyph struct class
      */
-    private static class Symbol {
+    private static class RasterizedGlyph {
 
-        private final Vector2i coord;
-        private final CFXCharacter character;
-        private final int argb;
+        private final CharInfo info;
+        private final BufferedImage image;
+        private final boolean distanceField;
 
-        public Symbol(Vector2i coord, CFXCharacter character, int argb) {
-            this.coord = coord;
-            this.character = character;
-            this.argb = argb;
+        public RasterizedGlyph(CharInfo info, BufferedImage image, boolean distanceField) {
+            this.info = info;
+            this.image = image;
+            this.distanceField = distanceField;
         }
     }
 }
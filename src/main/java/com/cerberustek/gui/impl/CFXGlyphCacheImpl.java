@@ -0,0 +1,327 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.gui.CFXGlyph;
+import com.cerberustek.gui.CFXGlyphCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class CFXGlyphCacheImpl implements CFXGlyphCache {
+
+    /** Default capacity in bytes */
+    public static final long DEFAULT_CAPACITY = 4L * 1024L * 1024L;
+
+    /** Glyphs in access order. The eldest entry is the least recently used */
+    private final LinkedHashMap<GlyphKey, Glyph> glyphs = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long capacity = DEFAULT_CAPACITY;
+    private long memory;
+    private long hits;
+    private long misses;
+
+    @Override
+    public @Nullable CFXGlyph acquire(char c, @NotNull Font font) {
+        GlyphKey key = new GlyphKey(c, font);
+        synchronized (glyphs) {
+            Glyph glyph = glyphs.get(key);
+            if (glyph != null) {
+                hits++;
+                glyph.references++;
+                return glyph;
+            }
+            misses++;
+        }
+
+        // rasterize outside of the lock
+        Glyph rasterized = rasterize(c, font);
+        if (rasterized == null)
+            return null;
+
+        synchronized (glyphs) {
+            Glyph glyph = glyphs.putIfAbsent(key, rasterized);
+            if (glyph == null) {
+                glyph = rasterized;
+                memory += glyph.size();
+            }
+            glyph.references++;
+            evict();
+            return glyph;
+        }
+    }
+
+    @Override
+    public void release(@NotNull CFXGlyph glyph) {
+        if (!(glyph instanceof Glyph))
+            throw new IllegalArgumentException("Glyph does not belong to this cache");
+
+        synchronized (glyphs) {
+            Glyph g = (Glyph) glyph;
+            if (g.references <= 0) {
+                CerberusRegistry.getInstance().warning("Glyph \"" + g.c + "\" released more often than acquired");
+                return;
+            }
+            g.references--;
+            evict();
+        }
+    }
+
+    @Override
+    public void discard(@NotNull CFXGlyph glyph) {
+        if (!(glyph instanceof Glyph))
+            throw new IllegalArgumentException("Glyph does not belong to this cache");
+
+        synchronized (glyphs) {
+            Glyph g = (Glyph) glyph;
+            if (g.references <= 0) {
+                CerberusRegistry.getInstance().warning("Glyph \"" + g.c + "\" discarded more often than acquired");
+                return;
+            }
+            if (--g.references == 0 && glyphs.remove(new GlyphKey(g.c, g.font), g))
+                memory -= g.size();
+        }
+    }
+
+    @Override
+    public void setCapacity(long capacity) {
+        synchronized (glyphs) {
+            this.capacity = capacity;
+            evict();
+        }
+    }
+
+    @Override
+    public long getCapacity() {
+        synchronized (glyphs) {
+            return capacity;
+        }
+    }
+
+    @Override
+    public long getMemory() {
+        synchronized (glyphs) {
+            return memory;
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (glyphs) {
+            return glyphs.size();
+        }
+    }
+
+    @Override
+    public long hits() {
+        synchronized (glyphs) {
+            return hits;
+        }
+    }
+
+    @Override
+    public long misses() {
+        synchronized (glyphs) {
+            return misses;
+        }
+    }
+
+    @Override
+    public float hitRate() {
+        synchronized (glyphs) {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0f : (float) hits / (float) lookups;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (glyphs) {
+            glyphs.clear();
+            memory = 0;
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    /**
+     * Will evict the least recently used unreferenced glyphs, until
+     * the memory fits into the capacity.
+     *
+     * Has to be called with the lock on the glyph map.
+     */
+    private void evict() {
+        if (memory <= capacity)
+            return;
+
+        Iterator<Glyph> iterator = glyphs.values().iterator();
+        while (memory > capacity && iterator.hasNext()) {
+            Glyph glyph = iterator.next();
+            if (glyph.references > 0)
+                continue;
+
+            iterator.remove();
+            memory -= glyph.size();
+        }
+    }
+
+    /**
+     * Will rasterize a char with the specified font.
+     *
+     * The image will be scaled according to the rendered characters
+     * glyph size.
+     *
+     * @param c character to render
+     * @param font font to render the character with
+     * @return glyph or null, if the glyph has no width
+     */
+    private static @Nullable Glyph rasterize(char c, @NotNull Font font) {
+        FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+        Rectangle2D charBounds = font.getStringBounds(Character.toString(c), renderContext);
+
+        int width = (int) Math.ceil(charBounds.getWidth());
+        int height = (int) Math.ceil(charBounds.getHeight());
+
+        if (width == 0 || height == 0)
+            return null;
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = (Graphics2D) image.getGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(font);
+
+        Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit()
+                .getDesktopProperty("awt.font.desktophints");
+        if (desktopHints == null) {
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                    RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
+        } else
+            graphics.setRenderingHints(desktopHints);
+
+        graphics.drawString(Character.toString(c), (float) charBounds.getX(), -(float) charBounds.getY());
+        graphics.dispose();
+        return new Glyph(c, font, image, charBounds);
+    }
+
+    /**
+     * Cache key of a glyph. Fonts are compared by face, style,
+     * fractional point size and transform, so derived font instances
+     * share their glyphs, while differently scaled fonts do not.
+     */
+    private static class GlyphKey {
+
+        private final char c;
+        private final String face;
+        private final int style;
+        private final float size;
+        private final AffineTransform transform;
+
+        public GlyphKey(char c, Font font) {
+            this.c = c;
+            this.face = font.getFontName();
+            this.style = font.getStyle();
+            this.size = font.getSize2D();
+            this.transform = font.getTransform();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GlyphKey glyphKey = (GlyphKey) o;
+            return c == glyphKey.c &&
+                    style == glyphKey.style &&
+                    Float.compare(size, glyphKey.size) == 0 &&
+                    face.equals(glyphKey.face) &&
+                    transform.equals(glyphKey.transform);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(c, face, style, size, transform);
+        }
+    }
+
+    /**
+     * Cached glyph
+     */
+    private static class Glyph implements CFXGlyph {
+
+        private final char c;
+        private final Font font;
+        private final BufferedImage image;
+        private final Rectangle2D bounds;
+        /** guarded by the lock on the glyph map */
+        private int references;
+
+        public Glyph(char c, Font font, BufferedImage image, Rectangle2D bounds) {
+            this.c = c;
+            this.font = font;
+            this.image = image;
+            this.bounds = bounds;
+        }
+
+        @Override
+        public char getCharacter() {
+            return c;
+        }
+
+        @Override
+        public @NotNull Font getFont() {
+            return font;
+        }
+
+        @Override
+        public @NotNull BufferedImage getImage() {
+            return image;
+        }
+
+        @Override
+        public @NotNull Rectangle2D getBounds() {
+            return bounds;
+        }
+
+        @Override
+        public int references() {
+            return references;
+        }
+
+        private long size() {
+            return (long) image.getWidth() * image.getHeight() * 4L;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Uniform grid spatial index of rectangles.
+ *
+ * The indexed area is divided into square cells and every entry is
+ * binned into all cells its bounds cover. A point query only has to
+ * test the entries of a single cell, a rectangle query only the
+ * entries of the cells it covers, instead of every entry.
+ *
+ * Entries that exceed the indexed area are clamped into the border
+ * cells, so they are still found. The exact bounds are always tested
+ * before an entry is returned.
+ *
+ * Query results are reported in cell order. The insertion order of
+ * the entries can be restored with the {@link #order()} comparator.
+ *
+ * The grid is not thread safe.
+ *
+ * @param <T> type of the indexed entries
+ */
+class CFXGridIndex<T> {
+
+    /** Default size of a grid cell in pixels */
+    static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int cellSize;
+    private final HashMap<T, Entry<T>> entries = new HashMap<>();
+    private final Comparator<T> order = Comparator.comparingLong(this::sequence);
+
+    private ArrayList<Entry<T>>[] cells;
+    private int columns;
+    private int rows;
+    private int width;
+    private int height;
+    /** Query stamp to report entries spanning several cells only once */
+    private int stamp;
+    /** Insertion counter */
+    private long sequence;
+
+    CFXGridIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    CFXGridIndex(int cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Grid cell size has to be positive: " + cellSize);
+        this.cellSize = cellSize;
+        resize(0, 0);
+    }
+
+    /**
+     * Will resize the indexed area.
+     *
+     * All entries are rebinned into the new grid.
+     * @param width width of the indexed area in pixels
+     * @param height height of the indexed area in pixels
+     */
+    @SuppressWarnings("unchecked")
+    void resize(int width, int height) {
+        this.width = Math.max(width, 0);
+        this.height = Math.max(height, 0);
+        columns = Math.max(1, (this.width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (this.height + cellSize - 1) / cellSize);
+        cells = new ArrayList[columns * rows];
+
+        for (Entry<T> entry : entries.values())
+            bin(entry);
+    }
+
+    /**
+     * Will insert or move an entry.
+     * @param value entry to index
+     * @param x x offset in pixels
+     * @param y y offset in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    void put(T value, int x, int y, int width, int height) {
+        Entry<T> entry = entries.get(value);
+        if (entry == null) {
+            entry = new Entry<>(value, sequence++);
+            entries.put(value, entry);
+        } else {
+            if (entry.x == x && entry.y == y && entry.width == width && entry.height == height)
+                return;
+            unbin(entry);
+        }
+
+        entry.x = x;
+        entry.y = y;
+        entry.width = width;
+        entry.height = height;
+        bin(entry);
+    }
+
+    /**
+     * Will remove an entry from the index.
+     * @param value entry to remove
+     * @return true, if the entry was indexed
+     */
+    boolean remove(T value) {
+        Entry<T> entry = entries.remove(value);
+        if (entry == null)
+            return false;
+        unbin(entry);
+        return true;
+    }
+
+    /**
+     * Will remove all entries from the index.
+     */
+    void clear() {
+        entries.clear();
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = null;
+    }
+
+    /**
+     * Will add all entries that contain the point to the collection.
+     * @param px x coordinate in pixels
+     * @param py y coordinate in pixels
+     * @param collection collection to put the entries in
+     * @return the specified collection
+     */
+    Collection<T> query(int px, int py, Collection<T> collection) {
+        ArrayList<Entry<T>> cell = cells[row(py) * columns + column(px)];
+        if (cell == null)
+            return collection;
+
+        for (int i = 0; i < cell.size(); i++) {
+            Entry<T> entry = cell.get(i);
+            if (px >= entry.x && py >= entry.y && px < entry.x + entry.width && py < entry.y + entry.height)
+                collection.add(entry.value);
+        }
+        return collection;
+    }
+
+    /**
+     * Will add all entries that intersect the rectangle to the
+     * collection.
+     * @param x x offset in pixels
+     * @param y y offset in pixels
+     * @param width width in pixels
+     * @param height height in pixels
+     * @param collection collection to put the entries in
+     * @return the specified collection
+     */
+    Collection<T> query(int x, int y, int width, int height, Collection<T> collection) {
+        if (width <= 0 || height <= 0)
+            return collection;
+
+        int stamp = ++this.stamp;
+        int c0 = column(x);
+        int c1 = column(x + width - 1);
+        int r0 = row(y);
+        int r1 = row(y + height - 1);
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                ArrayList<Entry<T>> cell = cells[r * columns + c];
+                if (cell == null)
+                    continue;
+
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.stamp == stamp)
+                        continue;
+                    entry.stamp = stamp;
+
+                    if (entry.x < x + width && entry.y < y + height &&
+                            x < entry.x + entry.width && y < entry.y + entry.height)
+                        collection.add(entry.value);
+                }
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Returns a comparator that sorts entries in the order
+     * they have been inserted into the index.
+     *
+     * Entries that are not indexed are sorted last.
+     * @return insertion order comparator
+     */
+    Comparator<T> order() {
+        return order;
+    }
+
+    /**
+     * Returns the amount of indexed entries
+     * @return entry count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    private void bin(Entry<T> entry) {
+        if (entry.width <= 0 || entry.height <= 0)
+            return;
+
+        for (int r = row(entry.y), r1 = row(entry.y + entry.height - 1); r <= r1; r++) {
+            for (int c = column(entry.x), c1 = column(entry.x + entry.width - 1); c <= c1; c++) {
+                int index = r * columns + c;
+                if (cells[index] == null)
+                    cells[index] = new ArrayList<>(4);
+                cells[index].add(entry);
+            }
+        }
+    }
+
+    private void unbin(Entry<T> entry) {
+        if (entry.width <= 0 || entry.height <= 0)
+            return;
+
+        for (int r = row(entry.y), r1 = row(entry.y + entry.height - 1); r <= r1; r++) {
+            for (int c = column(entry.x), c1 = column(entry.x + entry.width - 1); c <= c1; c++) {
+                ArrayList<Entry<T>> cell = cells[r * columns + c];
+                if (cell != null)
+                    cell.remove(entry);
+            }
+        }
+    }
+
+    private long sequence(T value) {
+        Entry<T> entry = entries.get(value);
+        return entry != null ? entry.sequence : Long.MAX_VALUE;
+    }
+
+    private int column(int x) {
+        return Math.min(Math.max(Math.floorDiv(x, cellSize), 0), columns - 1);
+    }
+
+    private int row(int y) {
+        return Math.min(Math.max(Math.floorDiv(y, cellSize), 0), rows - 1);
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+        private final long sequence;
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+        private int stamp;
+
+        private Entry(T value, long sequence) {
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import java.io.File;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 public class CFXManagerImpl implements CFXManager {
@@ -50,8 +51,14 @@ public class CFXManagerImpl implements CFXManager {
     private final HashSet<Integer> requests;
     private final CFXFontRenderer fontRenderer;
 
+    /** pixels repainted during the current frame */
+    private final AtomicLong repaintedPixels = new AtomicLong();
+    /** pixels repainted during the last frame */
+    private volatile long lastRepaintedPixels;
+
     private Settings settings;
     private Vector2i atlasDim;
+    private Vector2i distanceFieldAtlasDim;
 
     public CFXManagerImpl() {
         shaderProperties = new SimplePropertyMap<>();
@@ -166,6 +173,21 @@ public class CFXManagerImpl implements CFXManager {
         }
     }
 
+    @Override
+    public void countRepaintedPixels(long pixels) {
+        repaintedPixels.addAndGet(pixels);
+    }
+
+    @Override
+    public long getRepaintedPixels() {
+        return lastRepaintedPixels;
+    }
+
+    @Override
+    public void beginFrame() {
+        lastRepaintedPixels = repaintedPixels.getAndSet(0);
+    }
+
     @Override
     public int register(CFXComponent root) {
         int id = nextId();
@@ -190,6 +212,11 @@ public class CFXManagerImpl implements CFXManager {
         return atlasDim;
     }
 
+    @Override
+    public Vector2i getDistanceFieldAtlasDimensions() {
+        return distanceFieldAtlasDim;
+    }
+
     @Override
     public int tabInSpaces() {
         return settings.getInteger("spaces-per-tab", 4);
@@ -223,6 +250,12 @@ public class CFXManagerImpl implements CFXManager {
         atlasDim = new Vector2i(
                 settings.getInteger("atlas-width", 64),
                 settings.getInteger("atlas-height", 64));
+        distanceFieldAtlasDim = new Vector2i(
+                settings.getInteger("distance-field-atlas-width", 1024),
+                settings.getInteger("distance-field-atlas-height", 1024));
+        fontRenderer.setDistanceFieldMode(settings.getBoolean("font-distance-field", false));
+        fontRenderer.setAsyncMode(settings.getBoolean("font-async-glyphs", true));
+        fontRenderer.setWrapCacheCapacity(settings.getInteger("wrap-cache-size", CFXWrapCache.DEFAULT_CAPACITY));
         CerberusRegistry.getInstance().debug("loaded CFX-GUI Manager");
     }
 }
@@ -0,0 +1,440 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.exceptions.EndOfDocumentException;
+import com.cerberustek.gui.CFXDocument;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.cerberustek.gui.CFXFontRenderer.ESCAPE_NEW_LINE;
+
+/**
+ * Piece table backed CFX document.
+ *
+ * All text ever inserted into the document is appended to a single
+ * buffer, which is never modified otherwise. The document content is
+ * described by a sequence of pieces, each referencing a range of that
+ * buffer. Pieces are kept in a treap ordered by their position in the
+ * document, where every node stores the char and line break count of
+ * its subtree. This makes inserts, removals and line lookups run in
+ * O(log n) for n pieces, regardless of the line lengths.
+ *
+ * Line breaks are located through a sorted index of all line break
+ * positions in the buffer, so the content of a piece never has to be
+ * scanned.
+ */
+public class CFXPieceTableDocument implements CFXDocument {
+
+    /** append only text buffer */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /** sorted positions of all line breaks in the buffer */
+    private int[] breaks = new int[64];
+    private int breakCount;
+
+    private Piece root;
+
+    public CFXPieceTableDocument() {}
+
+    public CFXPieceTableDocument(CharSequence text) {
+        root = createPiece(text);
+    }
+
+    @Override
+    public CharSequence getLine(int first) throws EndOfDocumentException {
+        if (first < 0 || first >= size())
+            throw new EndOfDocumentException(first, 0, -1, -1, this);
+
+        int offset = lineOffset(first);
+        return text(offset, offset + lineLength(first));
+    }
+
+    @Override
+    public CharSequence get(int first, int start, int last, int end) throws EndOfDocumentException {
+        checkBlock(first, start, last, end);
+        return text(lineOffset(first) + start, lineOffset(last) + end);
+    }
+
+    @Override
+    public int insert(CharSequence input, int first) throws EndOfDocumentException {
+        if (first < 0 || first >= size())
+            throw new EndOfDocumentException(first, 0, -1, -1, this);
+
+        insertAt(lineOffset(first) + lineLength(first), input);
+        return 1 + countBreaks(input, input.length());
+    }
+
+    @Override
+    public int insert(CharSequence input, int first, int start) throws EndOfDocumentException {
+        checkPosition(first, start, -1, -1);
+
+        insertAt(lineOffset(first) + start, input);
+        return 1 + countBreaks(input, input.length());
+    }
+
+    @Override
+    public int insert(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException,
+            ArrayIndexOutOfBoundsException {
+        checkPosition(first, start, last, end);
+
+        // only insert the part of the input, which ends before (last, end)
+        int line = first;
+        int letter = start;
+        int length = 0;
+        while (length < input.length() && (line < last || (line == last && letter < end))) {
+            if (input.charAt(length++) == ESCAPE_NEW_LINE) {
+                line++;
+                letter = 0;
+            } else
+                letter++;
+        }
+
+        insertAt(lineOffset(first) + start, input.subSequence(0, length));
+        return 1 + countBreaks(input, length);
+    }
+
+    @Override
+    public int set(CharSequence input, int first, int start) throws EndOfDocumentException {
+        checkPosition(first, start, -1, -1);
+
+        // the overwritten block has the extent of the input
+        int inputBreaks = countBreaks(input, input.length());
+        int last = first + inputBreaks;
+        int end;
+        if (inputBreaks == 0)
+            end = start + input.length();
+        else
+            end = input.length() - lastIndexOf(input, ESCAPE_NEW_LINE) - 1;
+
+        // clamp the block to the document
+        if (last >= size()) {
+            last = size() - 1;
+            end = lineLength(last);
+        } else if (end > lineLength(last))
+            end = lineLength(last);
+
+        return set(input, first, start, last, end);
+    }
+
+    @Override
+    public int set(CharSequence input, int first, int start, int last, int end) throws EndOfDocumentException,
+            ArrayIndexOutOfBoundsException {
+        checkBlock(first, start, last, end);
+
+        int offset = lineOffset(first) + start;
+        removeRange(offset, lineOffset(last) + end);
+        insertAt(offset, input);
+        return 1 + countBreaks(input, input.length());
+    }
+
+    @Override
+    public int remove(int first, int start, int last, int end) throws EndOfDocumentException {
+        checkBlock(first, start, last, end);
+
+        removeRange(lineOffset(first) + start, lineOffset(last) + end);
+        return 1;
+    }
+
+    @Override
+    public int size() {
+        return breaksOf(root) + 1;
+    }
+
+    /**
+     * Returns the amount of chars in the document, including
+     * line breaks.
+     * @return char count
+     */
+    public int length() {
+        return lengthOf(root);
+    }
+
+    @Override
+    public String toString() {
+        return text(0, length()).toString();
+    }
+
+    private void checkPosition(int first, int start, int last, int end) {
+        if (first < 0 || first >= size() || start < 0 || start > lineLength(first))
+            throw new EndOfDocumentException(first, start, last, end, this);
+    }
+
+    private void checkBlock(int first, int start, int last, int end) {
+        checkPosition(first, start, last, end);
+        if (last < first || last >= size() || end < 0 || end > lineLength(last) || (last == first && end < start))
+            throw new EndOfDocumentException(first, start, last, end, this);
+    }
+
+    /**
+     * Returns the document offset of the first char of a line.
+     * @param line line
+     * @return char offset
+     */
+    private int lineOffset(int line) {
+        if (line == 0)
+            return 0;
+        return breakOffset(root, line) + 1;
+    }
+
+    /**
+     * Returns the length of a line without its line break.
+     * @param line line
+     * @return line length
+     */
+    private int lineLength(int line) {
+        int end = line + 1 < size() ? breakOffset(root, line + 1) : length();
+        return end - lineOffset(line);
+    }
+
+    /**
+     * Returns the document offset of the k-th line break in the
+     * subtree (1-based).
+     */
+    private int breakOffset(Piece piece, int k) {
+        int offset = 0;
+        while (piece != null) {
+            int leftBreaks = breaksOf(piece.left);
+            if (k <= leftBreaks) {
+                piece = piece.left;
+                continue;
+            }
+
+            k -= leftBreaks;
+            offset += lengthOf(piece.left);
+            if (k <= piece.breaks) {
+                int first = lowerBound(piece.start);
+                return offset + breaks[first + k - 1] - piece.start;
+            }
+
+            k -= piece.breaks;
+            offset += piece.length;
+            piece = piece.right;
+        }
+        throw new IllegalStateException("Line break " + k + " does not exist");
+    }
+
+    private CharSequence text(int from, int to) {
+        StringBuilder builder = new StringBuilder(to - from);
+        appendText(root, 0, from, to, builder);
+        return builder.toString();
+    }
+
+    private void appendText(Piece piece, int offset, int from, int to, StringBuilder builder) {
+        if (piece == null || from >= to)
+            return;
+
+        int pieceOffset = offset + lengthOf(piece.left);
+        if (from < pieceOffset)
+            appendText(piece.left, offset, from, to, builder);
+
+        int pieceEnd = pieceOffset + piece.length;
+        int start = Math.max(from, pieceOffset);
+        int end = Math.min(to, pieceEnd);
+        if (start < end)
+            builder.append(buffer, piece.start + start - pieceOffset, piece.start + end - pieceOffset);
+
+        if (to > pieceEnd)
+            appendText(piece.right, pieceEnd, from, to, builder);
+    }
+
+    private void insertAt(int offset, CharSequence input) {
+        Piece piece = createPiece(input);
+        if (piece == null)
+            return;
+
+        Piece[] split = split(root, offset);
+        root = merge(merge(split[0], piece), split[1]);
+    }
+
+    private void removeRange(int from, int to) {
+        if (from >= to)
+            return;
+
+        Piece[] head = split(root, from);
+        Piece[] tail = split(head[1], to - from);
+        root = merge(head[0], tail[1]);
+    }
+
+    /**
+     * Will append the text to the buffer and create a piece for it.
+     * @param text text
+     * @return piece, or null if the text is empty
+     */
+    private Piece createPiece(CharSequence text) {
+        if (text.length() == 0)
+            return null;
+
+        int start = buffer.length();
+        buffer.append(text);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != ESCAPE_NEW_LINE)
+                continue;
+
+            if (breakCount == breaks.length)
+                breaks = Arrays.copyOf(breaks, breakCount * 2);
+            breaks[breakCount++] = start + i;
+        }
+        return new Piece(start, text.length(), countBreaks(start, text.length()));
+    }
+
+    /**
+     * Will split the subtree into the first <code>offset</code> chars
+     * and the remaining chars. A piece spanning the offset is split
+     * into two pieces.
+     */
+    private Piece[] split(Piece piece, int offset) {
+        if (piece == null)
+            return new Piece[2];
+
+        int leftLength = lengthOf(piece.left);
+        if (offset <= leftLength) {
+            Piece[] split = split(piece.left, offset);
+            piece.left = split[1];
+            piece.update();
+            split[1] = piece;
+            return split;
+        }
+
+        if (offset >= leftLength + piece.length) {
+            Piece[] split = split(piece.right, offset - leftLength - piece.length);
+            piece.right = split[0];
+            piece.update();
+            split[0] = piece;
+            return split;
+        }
+
+        // the offset is inside of this piece
+        int cut = offset - leftLength;
+        Piece tail = new Piece(piece.start + cut, piece.length - cut,
+                countBreaks(piece.start + cut, piece.length - cut), piece.priority);
+        tail.right = piece.right;
+        tail.update();
+
+        piece.length = cut;
+        piece.breaks -= tail.breaks;
+        piece.right = null;
+        piece.update();
+        return new Piece[] {piece, tail};
+    }
+
+    private Piece merge(Piece left, Piece right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    /**
+     * Returns the amount of line breaks in the buffer range.
+     */
+    private int countBreaks(int start, int length) {
+        return lowerBound(start + length) - lowerBound(start);
+    }
+
+    /**
+     * Returns the index of the first line break at or after the
+     * buffer position.
+     */
+    private int lowerBound(int position) {
+        int low = 0;
+        int high = breakCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (breaks[mid] < position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static int countBreaks(CharSequence input, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(i) == ESCAPE_NEW_LINE)
+                count++;
+        }
+        return count;
+    }
+
+    private static int lastIndexOf(CharSequence input, char c) {
+        for (int i = input.length() - 1; i >= 0; i--) {
+            if (input.charAt(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int lengthOf(Piece piece) {
+        return piece != null ? piece.totalLength : 0;
+    }
+
+    private static int breaksOf(Piece piece) {
+        return piece != null ? piece.totalBreaks : 0;
+    }
+
+    /**
+     * Piece of the document. Also a node of the treap
+     */
+    private static class Piece {
+
+        private final int start;
+        private final int priority;
+        private int length;
+        private int breaks;
+
+        private Piece left;
+        private Piece right;
+        private int totalLength;
+        private int totalBreaks;
+
+        public Piece(int start, int length, int breaks) {
+            this(start, length, breaks, ThreadLocalRandom.current().nextInt());
+        }
+
+        public Piece(int start, int length, int breaks, int priority) {
+            this.start = start;
+            this.length = length;
+            this.breaks = breaks;
+            this.priority = priority;
+            update();
+        }
+
+        private void update() {
+            totalLength = lengthOf(left) + length + lengthOf(right);
+            totalBreaks = breaksOf(left) + breaks + breaksOf(right);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.gui.CFXAlphabet;
+import com.cerberustek.gui.CFXCharacter;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+
+/**
+ * Placeholder for a character, whose glyph is still loading.
+ *
+ * A placeholder has the size of the actual character, so text can
+ * be laid out before all glyphs are loaded, but it is not stored
+ * in any alphabet and will therefore not be drawn.
+ */
+class CFXPlaceholderCharacter implements CFXCharacter {
+
+    private final int width;
+    private final int height;
+    private final char base;
+    private final Font font;
+
+    CFXPlaceholderCharacter(int width, int height, char base, @NotNull Font font) {
+        this.width = width;
+        this.height = height;
+        this.base = base;
+        this.font = font;
+    }
+
+    @Override
+    public int getTex() {
+        return -1;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public char getCharacter() {
+        return base;
+    }
+
+    @Override
+    @NotNull
+    public Font getFont() {
+        return font;
+    }
+
+    @Override
+    @NotNull
+    public CFXAlphabet getAlphabet() {
+        throw new IllegalStateException("Placeholder character \"" + base + "\" is not stored in an alphabet");
+    }
+}
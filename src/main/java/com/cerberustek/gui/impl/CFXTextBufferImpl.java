@@ -33,15 +33,20 @@ public class CFXTextBufferImpl implements CFXTextBuffer {
     private final ByteBuffer buffer;
     final CFXAlphabet[] alphabets;
     final int[] charCounts;
+    final Vector2i[] glyphExtents;
     private final long[] cuts;
     private final Vector2i bounds;
+    private final boolean complete;
 
-    public CFXTextBufferImpl(ByteBuffer buffer, CFXAlphabet[] alphabets, long[] cuts, int[] charCounts, Vector2i bounds) {
+    public CFXTextBufferImpl(ByteBuffer buffer, CFXAlphabet[] alphabets, long[] cuts, int[] charCounts,
+                             Vector2i[] glyphExtents, Vector2i bounds, boolean complete) {
         this.buffer = buffer;
         this.alphabets = alphabets;
         this.cuts = cuts;
         this.charCounts = charCounts;
+        this.glyphExtents = glyphExtents;
         this.bounds = bounds;
+        this.complete = complete;
     }
 
     @Override
@@ -69,6 +74,16 @@ public class CFXTextBufferImpl implements CFXTextBuffer {
         return charCounts;
     }
 
+    @Override
+    public Vector2i getGlyphExtent(int index) {
+        return glyphExtents[index];
+    }
+
+    @Override
+    public Vector2i[] glyphExtents() {
+        return glyphExtents;
+    }
+
     @Override
     public long[] cuts() {
         return cuts;
@@ -91,4 +106,9 @@ public class CFXTextBufferImpl implements CFXTextBuffer {
     public Vector2i getBounds() {
         return bounds;
     }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
 }
@@ -0,0 +1,417 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.Destroyable;
+import com.cerberustek.buffer.BufferUsage;
+import com.cerberustek.buffer.GlBufferObject;
+import com.cerberustek.buffer.GlBufferTarget;
+import com.cerberustek.buffer.impl.FreeListAllocator;
+import com.cerberustek.buffer.impl.SimpleGlBufferObject;
+import com.cerberustek.gui.CFXAlphabet;
+import com.cerberustek.gui.CFXTextBuffer;
+import com.cerberustek.gui.CFXTextRenderContext;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.resource.shader.SSBOResource;
+import com.cerberustek.shader.ssbo.ShaderBlock;
+import com.cerberustek.shader.ssbo.impl.SharedShaderBlock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import static com.cerberustek.gui.CFXFontRenderer.TEXT_BUFFER_BINDING;
+import static com.cerberustek.gui.CFXFontRenderer.TEXT_BUFFER_SYMBOL_SIZE;
+import static org.lwjgl.opengl.GL11.glGetInteger;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT;
+
+/**
+ * Pool of text buffers, which are sub allocated from a few large
+ * shader storage buffers.
+ *
+ * Every text buffer occupies one range inside of a page. The sections
+ * of a text buffer are aligned to the ssbo offset alignment, so they
+ * can be bound with glBindBufferRange(...). Released ranges are reused
+ * through the free list of the page. Updating a text buffer rewrites
+ * its range in place, as long as the new text still fits.
+ *
+ * All methods, except the statistics, have to be called from a gl
+ * render thread.
+ */
+public class CFXTextBufferPool implements Destroyable {
+
+    /** Default page size in bytes */
+    public static final long DEFAULT_PAGE_SIZE = 256L * 1024L;
+
+    private final ArrayList<Page> pages = new ArrayList<>();
+    private final long pageSize;
+
+    private long alignment = -1;
+    private long bufferAllocations;
+    private long uploads;
+
+    public CFXTextBufferPool() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    public CFXTextBufferPool(long pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Will allocate a range for the text buffer and upload it.
+     *
+     * If the text buffer is null, this will return an empty render
+     * context without any sections.
+     *
+     * @param textBuffer text buffer
+     * @return render context
+     */
+    public @NotNull CFXTextRenderContext allocate(@Nullable CFXTextBuffer textBuffer) {
+        if (textBuffer == null)
+            return new PooledRenderContext();
+
+        long[] sectionOffsets = new long[textBuffer.size()];
+        long size = layoutSections(textBuffer, sectionOffsets);
+
+        Page page = null;
+        long offset = -1;
+        for (Page p : pages) {
+            offset = p.allocator.allocate(size);
+            if (offset != -1) {
+                page = p;
+                break;
+            }
+        }
+
+        if (page == null) {
+            page = createPage(Math.max(pageSize, size));
+            offset = page.allocator.allocate(size);
+        }
+
+        PooledRenderContext context = new PooledRenderContext(textBuffer, page, offset, size, sectionOffsets);
+        upload(context, textBuffer);
+        return context;
+    }
+
+    /**
+     * Will replace the text of a pooled render context.
+     *
+     * The range of the context is reused, if the new text buffer fits
+     * into it. Otherwise the range is released and a new one is
+     * allocated.
+     *
+     * @param context previous render context of this pool
+     * @param textBuffer new text buffer
+     * @return updated render context
+     */
+    public @NotNull CFXTextRenderContext update(@NotNull CFXTextRenderContext context,
+                                                @Nullable CFXTextBuffer textBuffer) {
+        PooledRenderContext pooled = checkContext(context);
+        if (textBuffer == null || pooled.page == null) {
+            release(pooled);
+            return allocate(textBuffer);
+        }
+
+        long[] sectionOffsets = new long[textBuffer.size()];
+        long size = layoutSections(textBuffer, sectionOffsets);
+        if (size > pooled.page.allocator.align(pooled.size)) {
+            release(pooled);
+            return allocate(textBuffer);
+        }
+
+        PooledRenderContext updated = new PooledRenderContext(textBuffer, pooled.page, pooled.offset,
+                pooled.size, sectionOffsets);
+        upload(updated, textBuffer);
+        return updated;
+    }
+
+    /**
+     * Will release the range of a pooled render context.
+     * @param context render context of this pool
+     */
+    public void release(@NotNull CFXTextRenderContext context) {
+        PooledRenderContext pooled = checkContext(context);
+        if (pooled.page != null)
+            pooled.page.allocator.release(pooled.offset, pooled.size);
+    }
+
+    /**
+     * Will release all ranges at once. The buffer objects of the
+     * pool are kept for reuse.
+     */
+    public void clear() {
+        pages.forEach(page -> page.allocator.clear());
+    }
+
+    /**
+     * Returns the amount of buffer objects allocated by this pool.
+     * @return buffer allocations
+     */
+    public long bufferAllocations() {
+        return bufferAllocations;
+    }
+
+    /**
+     * Returns the amount of ranges allocated by this pool.
+     * @return range allocations
+     */
+    public long rangeAllocations() {
+        long sum = 0;
+        for (Page page : pages)
+            sum += page.allocator.allocations();
+        return sum;
+    }
+
+    /**
+     * Returns the amount of text buffer uploads.
+     * @return uploads
+     */
+    public long uploads() {
+        return uploads;
+    }
+
+    /**
+     * Returns the amount of bytes currently in use.
+     * @return used bytes
+     */
+    public long used() {
+        long sum = 0;
+        for (Page page : pages)
+            sum += page.allocator.used();
+        return sum;
+    }
+
+    /**
+     * Returns the amount of bytes allocated on the gpu.
+     * @return capacity in bytes
+     */
+    public long capacity() {
+        long sum = 0;
+        for (Page page : pages)
+            sum += page.allocator.capacity();
+        return sum;
+    }
+
+    @Override
+    public void destroy() {
+        pages.forEach(page -> page.buffer.destroy());
+        pages.clear();
+    }
+
+    private @NotNull PooledRenderContext checkContext(@NotNull CFXTextRenderContext context) {
+        if (!(context instanceof PooledRenderContext))
+            throw new IllegalArgumentException("Render context " + context + " does not belong to this pool");
+        return (PooledRenderContext) context;
+    }
+
+    /**
+     * Will compute the aligned offsets of the text buffer sections
+     * inside of a range.
+     * @param textBuffer text buffer
+     * @param sectionOffsets section offsets output
+     * @return size of the range in bytes
+     */
+    private long layoutSections(@NotNull CFXTextBuffer textBuffer, long[] sectionOffsets) {
+        long alignment = getAlignment();
+        long offset = 0;
+        for (int i = 0; i < sectionOffsets.length; i++) {
+            sectionOffsets[i] = offset;
+            long bytes = (long) textBuffer.getCharCount(i) * TEXT_BUFFER_SYMBOL_SIZE;
+            long remainder = bytes % alignment;
+            offset += remainder == 0 ? bytes : bytes + alignment - remainder;
+        }
+        return offset;
+    }
+
+    /**
+     * Will write the sections of the text buffer into the range of
+     * the render context. Only the range of the context is updated.
+     */
+    private void upload(@NotNull PooledRenderContext context, @NotNull CFXTextBuffer textBuffer) {
+        GlBufferObject buffer = context.page.buffer;
+        buffer.bind();
+
+        ByteBuffer data = textBuffer.getBuffer().duplicate();
+        int position = 0;
+        for (int i = 0; i < context.blocks.length; i++) {
+            int bytes = textBuffer.getCharCount(i) * TEXT_BUFFER_SYMBOL_SIZE;
+            data.limit(position + bytes).position(position);
+            buffer.bufferSubData(data, context.blocks[i].byteOffset());
+            position += bytes;
+        }
+        uploads++;
+    }
+
+    private @NotNull Page createPage(long size) {
+        GlBufferObject buffer = createBuffer(size);
+        bufferAllocations++;
+
+        Page page = new Page(buffer, new FreeListAllocator(size, getAlignment()));
+        pages.add(page);
+        return page;
+    }
+
+    /**
+     * Will create the shader storage buffer of a new page.
+     * @param size size of the buffer in bytes
+     * @return buffer object
+     */
+    @NotNull GlBufferObject createBuffer(long size) {
+        GlBufferObject buffer = new SimpleGlBufferObject(GlBufferTarget.SHADER_STORAGE);
+        buffer.bind();
+        buffer.bufferData(size, BufferUsage.DYNAMIC_DRAW);
+        return buffer;
+    }
+
+    /**
+     * Returns the offset alignment of shader storage buffer ranges.
+     * @return alignment in bytes
+     */
+    long queryAlignment() {
+        return glGetInteger(GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT);
+    }
+
+    private long getAlignment() {
+        if (alignment == -1)
+            alignment = Math.max(TEXT_BUFFER_SYMBOL_SIZE, queryAlignment());
+        return alignment;
+    }
+
+    /**
+     * Buffer object with its free list
+     */
+    private static class Page {
+
+        private final GlBufferObject buffer;
+        private final FreeListAllocator allocator;
+
+        public Page(GlBufferObject buffer, FreeListAllocator allocator) {
+            this.buffer = buffer;
+            this.allocator = allocator;
+        }
+    }
+
+    /**
+     * Render context backed by a range of a pool page.
+     *
+     * Pooled render contexts do not have a buffer resource of their
+     * own, their sections are bound as shader blocks directly.
+     */
+    private static class PooledRenderContext implements CFXTextRenderContext {
+
+        private final CFXAlphabet[] alphabets;
+        private final int[] charCounts;
+        private final Vector2i[] glyphExtents;
+        private final Vector2i bounds;
+        private final boolean complete;
+        private final Page page;
+        private final long offset;
+        private final long size;
+        private final ShaderBlock[] blocks;
+
+        /**
+         * Creates an empty render context.
+         */
+        public PooledRenderContext() {
+            this.alphabets = new CFXAlphabet[0];
+            this.charCounts = new int[0];
+            this.glyphExtents = new Vector2i[0];
+            this.bounds = new Vector2i(0);
+            this.complete = true;
+            this.page = null;
+            this.offset = -1;
+            this.size = 0;
+            this.blocks = new ShaderBlock[0];
+        }
+
+        public PooledRenderContext(CFXTextBuffer textBuffer, Page page, long offset, long size,
+                                   long[] sectionOffsets) {
+            this.alphabets = textBuffer.alphabets();
+            this.charCounts = textBuffer.charCounts();
+            this.glyphExtents = textBuffer.glyphExtents();
+            this.bounds = textBuffer.getBounds();
+            this.complete = textBuffer.isComplete();
+            this.page = page;
+            this.offset = offset;
+            this.size = size;
+
+            this.blocks = new ShaderBlock[sectionOffsets.length];
+            for (int i = 0; i < blocks.length; i++)
+                blocks[i] = new SharedShaderBlock(page.buffer, TEXT_BUFFER_BINDING, offset + sectionOffsets[i],
+                        (long) charCounts[i] * TEXT_BUFFER_SYMBOL_SIZE);
+        }
+
+        @Override
+        public CFXAlphabet getAlphabet(int index) {
+            return alphabets[index];
+        }
+
+        @Override
+        public int getCharCount(int index) {
+            return charCounts[index];
+        }
+
+        @Override
+        public Vector2i getGlyphExtent(int index) {
+            return glyphExtents[index];
+        }
+
+        @Override
+        public SSBOResource getBufferResource() {
+            return null;
+        }
+
+        @Override
+        public ShaderBlock bind(int index) {
+            return CerberusRegistry.getInstance().getService(CerberusRenderer.class).getShaderBoard()
+                    .bindStorageBlock(blocks[index]);
+        }
+
+        @Override
+        public int size() {
+            return alphabets.length;
+        }
+
+        @Override
+        public int charCount() {
+            int sum = 0;
+            for (int count : charCounts)
+                sum += count;
+            return sum;
+        }
+
+        @Override
+        public Vector2i getBounds() {
+            return bounds;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.cerberustek.event.Event;
 import com.cerberustek.event.EventHandler;
 import com.cerberustek.event.EventListener;
 import com.cerberustek.events.CharEvent;
+import com.cerberustek.events.GlyphLoadEvent;
 import com.cerberustek.events.KeyEvent;
 import com.cerberustek.exceptions.EndOfDocumentException;
 import com.cerberustek.exceptions.IllegalContextException;
@@ -118,6 +119,8 @@ public class CFXTextField extends CFXPane {
         CerberusEvent eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
         eventService.addListener(new KeyListener());
         eventService.addListener(new CharListener());
+        eventService.addListener(new GlyphListener());
+        getRenderer().getGUIManager().getFontRenderer().preload(font);
     }
 
     @Override
@@ -299,6 +302,7 @@ public class CFXTextField extends CFXPane {
     public void setFont(@NotNull Font font) {
         if (!this.font.equals(font)) {
             this.font = font;
+            getRenderer().getGUIManager().getFontRenderer().preload(font);
             hasChanged = true;
             requestRepaint();
         }
@@ -517,4 +521,18 @@ public class CFXTextField extends CFXPane {
             return false;
         }
     }
+
+    @EventHandler(events = {GlyphLoadEvent.class})
+    private class GlyphListener implements EventListener {
+
+        @Override
+        public boolean onEvent(Event event) {
+            // format the text again, if it contained glyphs that were still loading
+            if (hasChanged || (renderContext != null && !renderContext.isComplete())) {
+                hasChanged = true;
+                requestRepaint();
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,471 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.exceptions.TextFormatException;
+import com.cerberustek.gui.CFXAlphabet;
+import com.cerberustek.gui.CFXCharacter;
+import com.cerberustek.gui.CFXTextBuffer;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.util.CFXColor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.BufferUtils;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static com.cerberustek.gui.CFXFontRenderer.*;
+
+/**
+ * Single pass text layout engine of the CFX font renderer.
+ *
+ * The layout walks the input string once and records the pen state
+ * after every char in primitive arrays. Visible glyphs are recorded
+ * separately, so the text buffer payload can be written without any
+ * intermediate objects per glyph. Bounds, caret and wrap queries are
+ * answered from the same recorded state. Word wrapping is done by
+ * the {@link CFXWrapCache} from the recorded advances.
+ *
+ * A layout instance is not thread safe, but can be reused for any
+ * number of layout passes. Arrays only grow, they are never shrunk.
+ */
+class CFXTextLayout {
+
+    /** char has not been processed (formatting, unloadable glyph) */
+    static final byte KIND_SKIP = 0;
+    /** char has been processed, but did not move the pen */
+    static final byte KIND_IGNORED = 1;
+    static final byte KIND_NEW_LINE = 2;
+    static final byte KIND_FAKE_NEW_LINE = 3;
+    static final byte KIND_HIGHLIGHT = 4;
+    static final byte KIND_TAB = 5;
+    static final byte KIND_SPACE = 6;
+    static final byte KIND_GLYPH = 7;
+
+    private static final int ASCII_CACHE_SIZE = 128;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_ALPHABETS = 4;
+
+    private final CFXFontRendererImpl fontRenderer;
+    private final CFXCharacter[] asciiCache = new CFXCharacter[ASCII_CACHE_SIZE];
+
+    /* per char state */
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] advances = new int[INITIAL_CAPACITY];
+    private int[] penX = new int[INITIAL_CAPACITY];
+    private int[] penY = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] letters = new int[INITIAL_CAPACITY];
+    private int[] lineHeights = new int[INITIAL_CAPACITY];
+    private int length;
+
+    /* per glyph state */
+    private int[] glyphTex = new int[INITIAL_CAPACITY];
+    private int[] glyphX = new int[INITIAL_CAPACITY];
+    private int[] glyphY = new int[INITIAL_CAPACITY];
+    private int[] glyphARGB = new int[INITIAL_CAPACITY];
+    private int[] glyphAlphabet = new int[INITIAL_CAPACITY];
+    private int glyphCount;
+
+    /* per alphabet state */
+    private CFXAlphabet[] alphabets = new CFXAlphabet[INITIAL_ALPHABETS];
+    private int[] alphabetCounts = new int[INITIAL_ALPHABETS];
+    private int[] extentX = new int[INITIAL_ALPHABETS];
+    private int[] extentY = new int[INITIAL_ALPHABETS];
+    private int alphabetCount;
+
+    private int fontSize;
+    private boolean complete;
+
+    CFXTextLayout(@NotNull CFXFontRendererImpl fontRenderer) {
+        this.fontRenderer = fontRenderer;
+    }
+
+    /**
+     * Will lay out the input string.
+     *
+     * All results of a previous layout pass are discarded.
+     *
+     * @param input input string
+     * @param font font
+     * @param hspace horizontal space between chars
+     * @param vspace vertical space between lines
+     * @param packing tight packing
+     * @param tabInSpaces width of a tab in spaces
+     */
+    void layout(@NotNull String input, @NotNull Font font, int hspace, int vspace, boolean packing,
+                int tabInSpaces) {
+        ensureCharCapacity(input.length());
+        Arrays.fill(asciiCache, null);
+        glyphCount = 0;
+        alphabetCount = 0;
+        length = input.length();
+        fontSize = font.getSize();
+        complete = true;
+
+        Rectangle2D spaceBounds = fontRenderer.getSpaceBounds(font);
+        int spaceWidth = (int) Math.ceil(spaceBounds.getWidth());
+        int spaceHeight = (int) Math.ceil(spaceBounds.getHeight());
+        int tabAdvance = spaceWidth * tabInSpaces + hspace;
+
+        int x = 0;
+        int y = 0;
+        int line = 0;
+        int letter = 0;
+        int lineHeight = fontSize;
+        int argb = 0xFFFFFFFF; // default color: white
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            byte kind;
+            int advance = 0;
+
+            switch (c) {
+                case ESCAPE_RETURN:
+                    CerberusRegistry.getInstance().warning("return is not allowed in direct text processing");
+                    CerberusRegistry.getInstance().warning("return escape char will be ignored!");
+                    kind = KIND_IGNORED;
+                    break;
+                case ESCAPE_BACKSPACE:
+                    CerberusRegistry.getInstance().warning("backspace not allowed in direct text processing");
+                    CerberusRegistry.getInstance().warning("backspace escape char will be ignored!");
+                    kind = KIND_IGNORED;
+                    break;
+                case ESCAPE_NEW_LINE:
+                    x = 0;
+                    y += lineHeight + vspace;
+                    lineHeight = fontSize;
+                    line++;
+                    letter = 0;
+                    kind = KIND_NEW_LINE;
+                    break;
+                case FAKE_NEW_LINE:
+                    x = 0;
+                    y += lineHeight + vspace;
+                    lineHeight = fontSize;
+                    kind = KIND_FAKE_NEW_LINE;
+                    break;
+                case ESCAPE_HIGHLIGHT:
+                    kind = KIND_HIGHLIGHT;
+                    try {
+                        CFXFontRendererImpl.FormatColor color = CFXFontRendererImpl.findColor(input, i);
+                        argb = CFXColor.toARGB(1f, color.color.getX(), color.color.getY(),
+                                color.color.getZ());
+                        record(i, kind, 0, x, y, line, letter, lineHeight);
+                        for (int j = i + 1; j <= color.pos && j < length; j++)
+                            kinds[j] = KIND_SKIP;
+                        i = color.pos;
+                        continue;
+                    } catch (TextFormatException e) {
+                        CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
+                    }
+                    break;
+                case ESCAPE_FORM_FEED:
+                    length = i;
+                    return;
+                case ESCAPE_TAB:
+                    advance = tabAdvance;
+                    x += advance;
+                    letter++;
+                    kind = KIND_TAB;
+                    break;
+                case SPACE:
+                    advance = spaceWidth + hspace;
+                    x += advance;
+                    if (lineHeight < spaceHeight)
+                        lineHeight = spaceHeight;
+                    letter++;
+                    kind = KIND_SPACE;
+                    break;
+                default:
+                    CFXCharacter cfxChar = lookup(c, font);
+                    if (cfxChar == null) {
+                        // could not load character
+                        kinds[i] = KIND_SKIP;
+                        continue;
+                    }
+
+                    // adjust height for the current line
+                    if (lineHeight < cfxChar.getHeight())
+                        lineHeight = cfxChar.getHeight();
+
+                    if (cfxChar instanceof CFXPlaceholderCharacter) {
+                        // glyph is still loading. Leave the space blank
+                        complete = false;
+                    } else
+                        addGlyph(cfxChar, x, y, argb);
+
+                    if (packing || cfxChar.getWidth() > spaceWidth)
+                        advance = cfxChar.getWidth() + hspace;
+                    else
+                        advance = spaceWidth + hspace;
+                    x += advance;
+                    letter++;
+                    kind = KIND_GLYPH;
+            }
+            record(i, kind, advance, x, y, line, letter, lineHeight);
+        }
+    }
+
+    /**
+     * Will return true if all glyphs of the last layout pass were
+     * loaded.
+     * @return layout complete
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the amount of visible glyphs of the last layout pass.
+     * @return glyph count
+     */
+    int getGlyphCount() {
+        return glyphCount;
+    }
+
+    /**
+     * Returns the pen position after the last processed char.
+     * @return text bounds
+     */
+    @NotNull Vector2i getBounds() {
+        for (int i = length - 1; i >= 0; i--) {
+            if (kinds[i] != KIND_SKIP)
+                return new Vector2i(penX[i], penY[i]);
+        }
+        return new Vector2i(0);
+    }
+
+    /**
+     * Returns the pixel position of the specified letter in the
+     * specified line.
+     * @param line line
+     * @param letter letter in line
+     * @return pixel position or null, if the position is not part of the text
+     */
+    @Nullable Vector2i getPixel(int line, int letter) {
+        if (line == 0 && letter <= 0)
+            return new Vector2i(0);
+
+        int prev = -1;
+        for (int i = 0; i < length; i++) {
+            byte kind = kinds[i];
+            if (kind == KIND_SKIP)
+                continue;
+
+            if (kind == KIND_NEW_LINE && lineBefore(prev) == line)
+                return prev < 0 ? new Vector2i(0) : new Vector2i(penX[prev], penY[prev]);
+
+            if (lines[i] == line && letters[i] == letter)
+                return new Vector2i(penX[i], penY[i]);
+            if (lines[i] > line)
+                return null;
+            prev = i;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the line and letter which are located at the specified
+     * pixel position.
+     * @param pixelPos pixel position
+     * @return (line, letter)
+     */
+    @NotNull Vector2i getPosition(@NotNull Vector2i pixelPos) {
+        int prevX = 0;
+        int prevY = 0;
+        int prevLine = 0;
+        int prevLetter = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (kinds[i] == KIND_SKIP)
+                continue;
+
+            if (prevY < pixelPos.getY() && penY[i] >= pixelPos.getY())
+                return new Vector2i(prevLine, prevLetter);
+            if (prevX < pixelPos.getX() && penX[i] >= pixelPos.getX() &&
+                    penY[i] < pixelPos.getY() && penY[i] + lineHeights[i] >= pixelPos.getY())
+                return new Vector2i(lines[i], prevLetter);
+
+            prevX = penX[i];
+            prevY = penY[i];
+            prevLine = lines[i];
+            prevLetter = letters[i];
+        }
+        return new Vector2i(prevLine, prevLetter);
+    }
+
+    /**
+     * Returns the amount of chars processed by the last layout
+     * pass.
+     *
+     * This is less than the input length, if the layout has been
+     * terminated by a form feed.
+     * @return processed length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the kind of the specified char of the last layout
+     * pass.
+     * @param i char index
+     * @return char kind
+     */
+    byte getKind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * Returns the horizontal advance of the specified char of the
+     * last layout pass.
+     * @param i char index
+     * @return advance in pixels
+     */
+    int getAdvance(int i) {
+        return advances[i];
+    }
+
+    /**
+     * Will write the visible glyphs of the last layout pass into a
+     * new text buffer.
+     *
+     * The glyphs are grouped by alphabet with a counting sort and
+     * written to the buffer in text order.
+     *
+     * @return text buffer or null, if there are no visible glyphs
+     */
+    @Nullable CFXTextBuffer toTextBuffer() {
+        if (glyphCount == 0)
+            return null;
+
+        final ByteBuffer buffer = BufferUtils.createByteBuffer(glyphCount * TEXT_BUFFER_SYMBOL_SIZE);
+        final long[] cuts = new long[alphabetCount - 1];
+        final CFXAlphabet[] alphabets = Arrays.copyOf(this.alphabets, alphabetCount);
+        final int[] charCounts = Arrays.copyOf(alphabetCounts, alphabetCount);
+        final Vector2i[] glyphExtents = new Vector2i[alphabetCount];
+        final int[] offsets = new int[alphabetCount];
+
+        for (int a = 0; a < alphabetCount; a++) {
+            if (a < cuts.length)
+                cuts[a] = charCounts[a] * TEXT_BUFFER_SYMBOL_SIZE;
+            if (a > 0)
+                offsets[a] = offsets[a - 1] + charCounts[a - 1];
+            glyphExtents[a] = new Vector2i(extentX[a], extentY[a]);
+        }
+
+        for (int g = 0; g < glyphCount; g++) {
+            int address = offsets[glyphAlphabet[g]]++ * TEXT_BUFFER_SYMBOL_SIZE;
+            buffer.putInt(address, glyphTex[g]);
+            buffer.putInt(address + 4, glyphX[g]);
+            buffer.putInt(address + 8, glyphY[g]);
+            buffer.putInt(address + 12, glyphARGB[g]);
+        }
+
+        return new CFXTextBufferImpl(buffer, alphabets, cuts, charCounts, glyphExtents, getBounds(), complete);
+    }
+
+    private int lineBefore(int prev) {
+        return prev < 0 ? 0 : lines[prev];
+    }
+
+    private @Nullable CFXCharacter lookup(char c, @NotNull Font font) {
+        if (c >= ASCII_CACHE_SIZE)
+            return fontRenderer.requestCharacter(c, font);
+
+        CFXCharacter cfxChar = asciiCache[c];
+        if (cfxChar == null) {
+            cfxChar = fontRenderer.requestCharacter(c, font);
+            asciiCache[c] = cfxChar;
+        }
+        return cfxChar;
+    }
+
+    private void record(int i, byte kind, int advance, int x, int y, int line, int letter, int lineHeight) {
+        kinds[i] = kind;
+        advances[i] = advance;
+        penX[i] = x;
+        penY[i] = y;
+        lines[i] = line;
+        letters[i] = letter;
+        lineHeights[i] = lineHeight;
+    }
+
+    private void addGlyph(@NotNull CFXCharacter cfxChar, int x, int y, int argb) {
+        CFXAlphabet alphabet = cfxChar.getAlphabet();
+        int index = 0;
+        while (index < alphabetCount && alphabets[index] != alphabet)
+            index++;
+
+        if (index == alphabetCount) {
+            if (alphabetCount == alphabets.length) {
+                int capacity = alphabetCount * 2;
+                alphabets = Arrays.copyOf(alphabets, capacity);
+                alphabetCounts = Arrays.copyOf(alphabetCounts, capacity);
+                extentX = Arrays.copyOf(extentX, capacity);
+                extentY = Arrays.copyOf(extentY, capacity);
+            }
+            alphabets[index] = alphabet;
+            alphabetCounts[index] = 0;
+            extentX[index] = 0;
+            extentY[index] = 0;
+            alphabetCount++;
+        }
+
+        alphabetCounts[index]++;
+        if (extentX[index] < cfxChar.getWidth())
+            extentX[index] = cfxChar.getWidth();
+        if (extentY[index] < cfxChar.getHeight())
+            extentY[index] = cfxChar.getHeight();
+
+        glyphTex[glyphCount] = cfxChar.getTex();
+        glyphX[glyphCount] = x;
+        glyphY[glyphCount] = y;
+        glyphARGB[glyphCount] = argb;
+        glyphAlphabet[glyphCount++] = index;
+    }
+
+    private void ensureCharCapacity(int capacity) {
+        if (kinds.length >= capacity)
+            return;
+
+        int size = Math.max(capacity, kinds.length * 2);
+        kinds = new byte[size];
+        advances = new int[size];
+        penX = new int[size];
+        penY = new int[size];
+        lines = new int[size];
+        letters = new int[size];
+        lineHeights = new int[size];
+        glyphTex = new int[size];
+        glyphX = new int[size];
+        glyphY = new int[size];
+        glyphARGB = new int[size];
+        glyphAlphabet = new int[size];
+    }
+}
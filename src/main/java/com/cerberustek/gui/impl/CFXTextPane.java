@@ -22,8 +22,13 @@
 
 package com.cerberustek.gui.impl;
 
+import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
 import com.cerberustek.buffer.BufferUsage;
+import com.cerberustek.event.Event;
+import com.cerberustek.event.EventHandler;
+import com.cerberustek.event.EventListener;
+import com.cerberustek.events.GlyphLoadEvent;
 import com.cerberustek.exceptions.IllegalContextException;
 import com.cerberustek.gui.*;
 import com.cerberustek.logic.math.Vector2i;
@@ -101,6 +106,9 @@ public class CFXTextPane extends CFXPane {
         textBuffer = new MutableSSBOResource(new StaticByteBufferResource(buffer), BufferUsage.DYNAMIC_READ,
                 new long[] {}, new int[] {CFXFontRenderer.TEXT_BUFFER_BINDING});
         getRenderer().getShaderBoard().loadSSBO(textBuffer);
+
+        getRenderer().getGUIManager().getFontRenderer().preload(font);
+        CerberusRegistry.getInstance().getService(CerberusEvent.class).addListener(new GlyphListener());
     }
 
     @Override
@@ -235,6 +243,7 @@ public class CFXTextPane extends CFXPane {
     public void setFont(@NotNull Font font) {
         if (!this.font.equals(font)) {
             this.font = font;
+            getRenderer().getGUIManager().getFontRenderer().preload(font);
             hasChanged = true;
             requestRepaint();
         }
@@ -379,4 +388,18 @@ public class CFXTextPane extends CFXPane {
             renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
         return renderer;
     }
+
+    @EventHandler(events = {GlyphLoadEvent.class})
+    private class GlyphListener implements EventListener {
+
+        @Override
+        public boolean onEvent(Event event) {
+            // format the text again, if it contained glyphs that were still loading
+            if (hasChanged || (renderContext != null && !renderContext.isComplete())) {
+                hasChanged = true;
+                requestRepaint();
+            }
+            return false;
+        }
+    }
 }
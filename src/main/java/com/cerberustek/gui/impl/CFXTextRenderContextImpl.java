@@ -22,8 +22,11 @@
 
 package com.cerberustek.gui.impl;
 
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.resource.shader.SSBOResource;
+import com.cerberustek.shader.ssbo.ShaderBlock;
 import com.cerberustek.gui.CFXAlphabet;
 import com.cerberustek.gui.CFXTextRenderContext;
 
@@ -31,14 +34,19 @@ public class CFXTextRenderContextImpl implements CFXTextRenderContext {
 
     private final CFXAlphabet[] alphabets;
     private final int[] charCounts;
+    private final Vector2i[] glyphExtents;
     private final SSBOResource ssbo;
     private final Vector2i bounds;
+    private final boolean complete;
 
-    public CFXTextRenderContextImpl(CFXAlphabet[] alphabets, SSBOResource ssbo, int[] charCounts, Vector2i bounds) {
+    public CFXTextRenderContextImpl(CFXAlphabet[] alphabets, SSBOResource ssbo, int[] charCounts,
+                                    Vector2i[] glyphExtents, Vector2i bounds, boolean complete) {
         this.alphabets = alphabets;
         this.ssbo = ssbo;
         this.charCounts = charCounts;
+        this.glyphExtents = glyphExtents;
         this.bounds = bounds;
+        this.complete = complete;
     }
 
     @Override
@@ -51,11 +59,22 @@ public class CFXTextRenderContextImpl implements CFXTextRenderContext {
         return charCounts[index];
     }
 
+    @Override
+    public Vector2i getGlyphExtent(int index) {
+        return glyphExtents[index];
+    }
+
     @Override
     public SSBOResource getBufferResource() {
         return ssbo;
     }
 
+    @Override
+    public ShaderBlock bind(int index) {
+        return CerberusRegistry.getInstance().getService(CerberusRenderer.class).getShaderBoard()
+                .bindSSBO(ssbo, index);
+    }
+
     @Override
     public int size() {
         return alphabets.length;
@@ -73,4 +92,9 @@ public class CFXTextRenderContextImpl implements CFXTextRenderContext {
     public Vector2i getBounds() {
         return bounds;
     }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
 }
@@ -0,0 +1,310 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.exceptions.TextFormatException;
+import com.cerberustek.util.CFXColor;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.cerberustek.gui.CFXFontRenderer.ESCAPE_NEW_LINE;
+import static com.cerberustek.gui.impl.CFXTextLayout.*;
+
+/**
+ * Word wrap cache of the CFX font renderer.
+ *
+ * The input text is split into paragraphs at every new line. Each
+ * paragraph is measured once per (content, font, spacing) and the
+ * prefix sums of the char advances are kept, so a changed width only
+ * has to re-break the paragraph without measuring any glyph again.
+ * The break result of the last width is kept as well, so wrapping
+ * a text again, after only a single paragraph has been edited, only
+ * measures and breaks the edited paragraph.
+ *
+ * Paragraphs which contain glyphs that are still loading are not
+ * cached, since their advances are not final.
+ */
+class CFXWrapCache {
+
+    /** Default capacity in paragraphs */
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final CFXFontRendererImpl fontRenderer;
+    /** Paragraphs in access order. The eldest entry is the least recently used */
+    private final LinkedHashMap<ParagraphKey, Paragraph> paragraphs = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ParagraphKey, Paragraph> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    private int capacity = DEFAULT_CAPACITY;
+    private long hits;
+    private long misses;
+
+    CFXWrapCache(@NotNull CFXFontRendererImpl fontRenderer) {
+        this.fontRenderer = fontRenderer;
+    }
+
+    /**
+     * Will insert line breaks into the input, so that no line
+     * exceeds the specified width.
+     *
+     * Fake new lines of the input are dropped, since they are
+     * the result of a previous wrap.
+     *
+     * @param input input string
+     * @param font font
+     * @param width max line width in pixels
+     * @param hspace horizontal space between chars
+     * @param packing tight packing
+     * @param tabInSpaces width of a tab in spaces
+     * @param wordWrap true, if words should be moved to the next line as a whole
+     * @param newLineEscape char to insert as line break
+     * @return wrapped string
+     */
+    @NotNull String wrap(@NotNull String input, @NotNull Font font, int width, int hspace, boolean packing,
+                         int tabInSpaces, boolean wordWrap, char newLineEscape) {
+        StringBuilder builder = new StringBuilder(input.length() + 16);
+
+        int start = 0;
+        while (true) {
+            int end = input.indexOf(ESCAPE_NEW_LINE, start);
+            if (end < 0)
+                end = input.length();
+
+            Paragraph paragraph = getParagraph(input.substring(start, end), font, hspace, packing, tabInSpaces);
+            builder.append(paragraph.wrap(width, wordWrap, newLineEscape));
+            if (paragraph.terminated || end == input.length())
+                break;
+
+            builder.append(ESCAPE_NEW_LINE);
+            start = end + 1;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Will set the max amount of cached paragraphs.
+     * @param capacity capacity in paragraphs
+     */
+    void setCapacity(int capacity) {
+        synchronized (paragraphs) {
+            this.capacity = Math.max(capacity, 0);
+            if (paragraphs.size() > this.capacity)
+                paragraphs.clear();
+        }
+    }
+
+    /**
+     * Returns the max amount of cached paragraphs.
+     * @return capacity in paragraphs
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the ratio of paragraphs which did not have
+     * to be measured again.
+     * @return hit rate between 0 and 1
+     */
+    double hitRate() {
+        synchronized (paragraphs) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Will discard all cached paragraphs.
+     */
+    void clear() {
+        synchronized (paragraphs) {
+            paragraphs.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    private @NotNull Paragraph getParagraph(@NotNull String text, @NotNull Font font, int hspace, boolean packing,
+                                            int tabInSpaces) {
+        ParagraphKey key = new ParagraphKey(text, font, hspace, packing, tabInSpaces);
+        synchronized (paragraphs) {
+            Paragraph paragraph = paragraphs.get(key);
+            if (paragraph != null) {
+                hits++;
+                return paragraph;
+            }
+            misses++;
+        }
+
+        // measure outside of the lock
+        CFXTextLayout layout = fontRenderer.layout(text, font, hspace, 0, packing);
+        Paragraph paragraph = new Paragraph(text, layout);
+        if (layout.isComplete()) {
+            synchronized (paragraphs) {
+                paragraphs.put(key, paragraph);
+            }
+        }
+        return paragraph;
+    }
+
+    private static class ParagraphKey {
+
+        private final String text;
+        private final Font font;
+        private final int hspace;
+        private final boolean packing;
+        private final int tabInSpaces;
+
+        private ParagraphKey(String text, Font font, int hspace, boolean packing, int tabInSpaces) {
+            this.text = text;
+            this.font = font;
+            this.hspace = hspace;
+            this.packing = packing;
+            this.tabInSpaces = tabInSpaces;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ParagraphKey))
+                return false;
+            ParagraphKey that = (ParagraphKey) o;
+            return hspace == that.hspace && packing == that.packing && tabInSpaces == that.tabInSpaces &&
+                    text.equals(that.text) && font.equals(that.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, font, hspace, packing, tabInSpaces);
+        }
+    }
+
+    private static class Paragraph {
+
+        private final String text;
+        /** char kinds as recorded by the layout */
+        private final byte[] kinds;
+        /** prefix[i] is the sum of all advances before char i */
+        private final int[] prefix;
+        /** true, if the layout was terminated by a form feed */
+        private final boolean terminated;
+
+        /* break result of the last wrap */
+        private int lastWidth = -1;
+        private boolean lastWordWrap;
+        private char lastEscape;
+        private String lastResult;
+
+        private Paragraph(@NotNull String text, @NotNull CFXTextLayout layout) {
+            int length = layout.length();
+            this.text = text;
+            this.kinds = new byte[length];
+            this.prefix = new int[length + 1];
+            this.terminated = length < text.length();
+
+            for (int i = 0; i < length; i++) {
+                kinds[i] = layout.getKind(i);
+                prefix[i + 1] = prefix[i] + layout.getAdvance(i);
+            }
+        }
+
+        private synchronized @NotNull String wrap(int width, boolean wordWrap, char newLineEscape) {
+            if (lastResult != null && lastWidth == width && lastWordWrap == wordWrap &&
+                    lastEscape == newLineEscape)
+                return lastResult;
+
+            lastResult = breakLines(width, wordWrap, newLineEscape);
+            lastWidth = width;
+            lastWordWrap = wordWrap;
+            lastEscape = newLineEscape;
+            return lastResult;
+        }
+
+        private @NotNull String breakLines(int width, boolean wordWrap, char newLineEscape) {
+            StringBuilder builder = new StringBuilder(text.length() + 16);
+            // index of the current word in the builder
+            int wordBegin = -1;
+            // pen positions as prefix sums
+            int lineStart = 0;
+            int wordStart = 0;
+
+            for (int i = 0; i < kinds.length; i++) {
+                int x = prefix[i + 1] - lineStart;
+                switch (kinds[i]) {
+                    case KIND_HIGHLIGHT:
+                        try {
+                            CFXFontRendererImpl.FormatColor color = CFXFontRendererImpl.findColor(text, i);
+                            builder.append("\u001b[#").append(CFXColor.toHexColor(color.color, null));
+                        } catch (TextFormatException e) {
+                            CerberusRegistry.getInstance().fine("Illegal text formatting: " + e);
+                        }
+                        break;
+                    case KIND_TAB:
+                    case KIND_SPACE:
+                        wordBegin = -1;
+                        if (x >= width) {
+                            // insert new line
+                            builder.append(newLineEscape);
+                            lineStart = prefix[i];
+                        }
+                        builder.append(text.charAt(i));
+                        break;
+                    case KIND_GLYPH:
+                        if (wordBegin < 0) {
+                            wordBegin = builder.length();
+                            wordStart = prefix[i];
+                        }
+
+                        if (x >= width) {
+                            if (wordStart == lineStart || !wordWrap) {
+                                // word is to long. separate word
+                                builder.append(newLineEscape);
+                                lineStart = prefix[i];
+                                wordStart = lineStart;
+                                wordBegin = builder.length();
+                            } else {
+                                // move the whole word to the next line
+                                builder.insert(wordBegin, newLineEscape);
+                                lineStart = wordStart;
+                                wordBegin++;
+                            }
+                        }
+                        builder.append(text.charAt(i));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -47,12 +47,33 @@ import com.cerberustek.texture.TextureBoard;
 import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.CerberusRenderer;
 import org.jetbrains.annotations.NotNull;
+import org.lwjgl.BufferUtils;
 
-import static org.lwjgl.opengl.GL42.*;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL43.*;
 
 @SuppressWarnings("DuplicatedCode")
 public class FlatCanvas implements CFXCanvas {
 
+    /** Binding index of the command buffer in batch mode */
+    private static final int COMMAND_BUFFER_BINDING = 4;
+    /** Neutral factor for texture patches */
+    private static final Vector4f IDENTITY = new Vector4f(1, 1, 1, 1);
+
+    /** recorded commands in batch mode */
+    private final CFXCommandList commands = new CFXCommandList();
+    /** is true, while commands are recorded */
+    private boolean batching;
+    /** is true, while recorded commands are executed */
+    private boolean executing;
+    /** shader storage buffer for the command payload */
+    private int commandBuffer;
+    /** staging buffer for the command payload */
+    private IntBuffer staging;
+    /** shader storage buffer offset alignment in ints */
+    private int alignment;
+
     /** image texture to use for rendering */
     protected ImageTextureResource imageTexture;
     /** Cerberus renderer instance */
@@ -77,6 +98,14 @@ public class FlatCanvas implements CFXCanvas {
     /** current patch size in pixels */
     protected Vector2i currentSize;
 
+    /** is true, if draw calls are restricted to the scissor region */
+    private boolean scissor;
+    /* scissor region in pixels */
+    private int scissorX;
+    private int scissorY;
+    private int scissorWidth;
+    private int scissorHeight;
+
     public FlatCanvas(Vector2i size) {
         this.size = size;
         this.clearColor = new Vector4f(0, 0, 0, 0);
@@ -88,6 +117,7 @@ public class FlatCanvas implements CFXCanvas {
 
         currentOffset = new Vector2i(0, 0);
         currentSize = size;
+        commands.setResolution(size.getX(), size.getY());
     }
 
     @Override
@@ -139,6 +169,13 @@ public class FlatCanvas implements CFXCanvas {
             throw new IllegalArgumentException("Illegal compute work group size");
 
         ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+        if (batching && !executing && !commands.isEmpty()) {
+            // draw recorded commands first to keep the drawing order
+            ShaderResource resource = shaderBoard.getCurrentlyBoundResource();
+            flush();
+            shaderBoard.bindShader(resource);
+        }
+
         if (!computeShader.equals(shaderBoard.getCurrentlyBound()))
             throw new GLShaderStateException(shaderBoard.getCurrentlyBound(), computeShader);
         if (!getRenderer().getWindow().isGlThread())
@@ -228,7 +265,9 @@ public class FlatCanvas implements CFXCanvas {
 
     @Override
     public void setResolution(@NotNull Vector2i resolution) {
+        flush();
         this.size = resolution;
+        commands.setResolution(resolution.getX(), resolution.getY());
         initImageTexture();
 
         setOffset(new Vector2i(0));
@@ -319,6 +358,18 @@ public class FlatCanvas implements CFXCanvas {
         if (doClipping(coord, size))
             return;
 
+        if (batching) {
+            if (size.getX() > 0 && size.getY() > 0)
+                commands.addRectangle(coord.getX(), coord.getY(), size.getX(), size.getY(),
+                        color != null ? color : clearColor,
+                        specular != null ? specular : clearSpecular,
+                        emission != null ? emission : clearEmissive,
+                        metallic != null ? metallic : clearMetallic,
+                        normal != null ? normal : clearNormal,
+                        displacement != null ? displacement : clearDisplacement);
+            return;
+        }
+
         // load the shader
         ComputeShader shader = prepareRectangleShader();
 
@@ -353,37 +404,42 @@ public class FlatCanvas implements CFXCanvas {
     @Override
     public void drawTexture(@NotNull TextureResource texture, @NotNull Vector2i srcCoord, @NotNull Vector2i destCoord,
                             @NotNull Vector2f scale, boolean blend) {
-        ComputeShader shader = preparePatchShader();
-        if (shader == null) {
-            // cannot draw patch
+        Texture tex = fetchTexture(texture);
+        if (tex == null)
             return;
-        }
-
-        Texture tex = getRenderer().getTextureBoard().bindTexture(texture);
-        if (tex == null) {
-            CerberusRegistry.getInstance().warning("Could not bind Texture");
-            return;
-        }
 
         Vector2i srcSize = tex.getSize(0).xy();
         Vector2i size = srcSize.toVector2f().mul(scale).toVector2i();
         // clipping
         destCoord.addSelf(currentOffset);
-        if (doClipping(destCoord, size))
+        srcCoord = clipPatch(srcCoord, destCoord, size, scale);
+        if (srcCoord == null)
             return;
 
+        if (batching) {
+            recordPatch(texture, srcCoord, destCoord, size, srcSize, scale, blend, IDENTITY, clearColor,
+                    IDENTITY, clearSpecular, IDENTITY, clearEmissive, IDENTITY, clearMetallic);
+            return;
+        }
+
+        ComputeShader shader = preparePatchShader();
+        if (shader == null) {
+            // cannot draw patch
+            return;
+        }
+
         shader.getUniform("srcCoord", Uniform2i.class).set(srcCoord);
         shader.getUniform("srcSize", Uniform2i.class).set(srcSize);
         shader.getUniform("srcScale", Uniform2f.class).set(scale);
         shader.getUniform("blend", Uniform1i.class).set(blend ? 1 : 0);
 
-        shader.getUniform("colorFactor", Uniform4f.class).set(new Vector4f(1, 1, 1, 1));
+        shader.getUniform("colorFactor", Uniform4f.class).set(IDENTITY);
         shader.getUniform("colorAdd", Uniform4f.class).set(clearColor);
-        shader.getUniform("specularFactor", Uniform4f.class).set(new Vector4f(1, 1, 1, 1));
+        shader.getUniform("specularFactor", Uniform4f.class).set(IDENTITY);
         shader.getUniform("specularAdd", Uniform4f.class).set(clearSpecular);
-        shader.getUniform("emissionFactor", Uniform4f.class).set(new Vector4f(1, 1, 1, 1));
+        shader.getUniform("emissionFactor", Uniform4f.class).set(IDENTITY);
         shader.getUniform("emissionAdd", Uniform4f.class).set(clearEmissive);
-        shader.getUniform("metallicFactor", Uniform4f.class).set(new Vector4f(1, 1, 1, 1));
+        shader.getUniform("metallicFactor", Uniform4f.class).set(IDENTITY);
         shader.getUniform("metallicAdd", Uniform4f.class).set(clearMetallic);
 
         dispatch(shader, destCoord, size);
@@ -430,37 +486,49 @@ public class FlatCanvas implements CFXCanvas {
                             @NotNull Vector2i size, Vector4f colorFactor, Vector4f colorAdd, Vector4f specularFactor,
                             Vector4f specularAdd, Vector4f emissionFactor, Vector4f emissionAdd,
                             Vector4f metallicFactor, Vector4f metallicAdd, boolean blend) {
+        Texture tex = fetchTexture(texture);
+        if (tex == null)
+            return;
+
+        // the scale is determined by the requested size, not the clipped size
+        Vector2i srcSize = tex.getSize(0).xy();
+        Vector2f scale = size.toVector2f().div(srcSize.toVector2f());
 
         destCoord.addSelf(currentOffset);
-        if (doClipping(destCoord, size))
+        srcCoord = clipPatch(srcCoord, destCoord, size, scale);
+        if (srcCoord == null)
             return;
 
-        ComputeShader shader = preparePatchShader();
-        if (shader == null) {
-            // cannot draw texture
+        if (batching) {
+            recordPatch(texture, srcCoord, destCoord, size, srcSize, scale, blend,
+                    colorFactor != null ? colorFactor : IDENTITY, colorAdd != null ? colorAdd : clearColor,
+                    specularFactor != null ? specularFactor : IDENTITY,
+                    specularAdd != null ? specularAdd : clearSpecular,
+                    emissionFactor != null ? emissionFactor : IDENTITY,
+                    emissionAdd != null ? emissionAdd : clearEmissive,
+                    metallicFactor != null ? metallicFactor : IDENTITY,
+                    metallicAdd != null ? metallicAdd : clearMetallic);
             return;
         }
 
-        Texture tex = getRenderer().getTextureBoard().bindTexture(texture);
-        if (tex == null) {
-            CerberusRegistry.getInstance().warning("Could not bind Texture");
+        ComputeShader shader = preparePatchShader();
+        if (shader == null) {
+            // cannot draw texture
             return;
         }
 
-        Vector2i srcSize = tex.getSize(0).xy();
-        Vector2f scale = size.toVector2f().div(srcSize.toVector2f());
         shader.getUniform("srcCoord", Uniform2i.class).set(srcCoord);
         shader.getUniform("srcSize", Uniform2i.class).set(srcSize);
         shader.getUniform("srcScale", Uniform2f.class).set(scale);
         shader.getUniform("blend", Uniform1i.class).set(blend ? 1 : 0);
 
-        shader.getUniform("colorFactor", Uniform4f.class).set(colorFactor != null ? colorFactor : new Vector4f(1, 1, 1, 1));
+        shader.getUniform("colorFactor", Uniform4f.class).set(colorFactor != null ? colorFactor : IDENTITY);
         shader.getUniform("colorAdd", Uniform4f.class).set(colorAdd != null ? colorAdd : clearColor);
-        shader.getUniform("specularFactor", Uniform4f.class).set(specularFactor != null ? specularFactor : new Vector4f(1, 1, 1, 1));
+        shader.getUniform("specularFactor", Uniform4f.class).set(specularFactor != null ? specularFactor : IDENTITY);
         shader.getUniform("specularAdd", Uniform4f.class).set(specularAdd != null ? specularAdd : clearSpecular);
-        shader.getUniform("emissionFactor", Uniform4f.class).set(emissionFactor != null ? emissionFactor : new Vector4f(1, 1, 1, 1));
+        shader.getUniform("emissionFactor", Uniform4f.class).set(emissionFactor != null ? emissionFactor : IDENTITY);
         shader.getUniform("emissionAdd", Uniform4f.class).set(emissionAdd != null ? emissionAdd : clearEmissive);
-        shader.getUniform("metallicFactor", Uniform4f.class).set(metallicFactor != null ? metallicFactor : new Vector4f(1, 1, 1, 1));
+        shader.getUniform("metallicFactor", Uniform4f.class).set(metallicFactor != null ? metallicFactor : IDENTITY);
         shader.getUniform("metallicAdd", Uniform4f.class).set(metallicAdd != null ? metallicAdd : clearMetallic);
 
         dispatch(shader, destCoord, size);
@@ -477,61 +545,239 @@ public class FlatCanvas implements CFXCanvas {
 
     @Override
     public void drawString(@NotNull CFXTextRenderContext renderContext, @NotNull Vector2i destCoord) {
-        // do clipping
+        // do clipping. The scissor region cannot move the text origin
         destCoord.addSelf(currentOffset);
         Vector2i size = currentSize.copy();
-        if (doClipping(destCoord, size))
+        if (doClipping(destCoord, size, false) || outsideScissor(destCoord, size))
             return;
 
-        ComputeShader shader = prepareFontShader();
-        if (shader == null) {
-            // cannot draw string
+        if (batching)
+            commands.addText(renderContext, destCoord.getX(), destCoord.getY(), size.getX(), size.getY());
+        else
+            renderString(renderContext, destCoord, size);
+    }
+
+    @Override
+    public void drawString(@NotNull CFXTextRenderContext renderContext) {
+        if (outsideScissor(currentOffset, currentSize))
             return;
-        }
 
-        ShaderBoard shaderBoard = getRenderer().getShaderBoard();
-        int aCount = renderContext.size();
-        for (int i = 0; i < aCount; i++) {
-            CFXAlphabet alphabet = renderContext.getAlphabet(i);
-            alphabet.bind();
+        if (batching)
+            commands.addText(renderContext, currentOffset.getX(), currentOffset.getY(), currentSize.getX(),
+                    currentSize.getY());
+        else
+            renderString(renderContext, null, null);
+    }
 
-            shaderBoard.bindSSBO(renderContext.getBufferResource(), i);
+    @Override
+    public void setScissor(int x, int y, int width, int height) {
+        scissor = true;
+        scissorX = x;
+        scissorY = y;
+        scissorWidth = width;
+        scissorHeight = height;
+    }
 
-            shader.getUniform("atlasDim", Uniform2i.class).set(alphabet.getDimensions());
-            dispatch(shader, destCoord, size, alphabet.getCellSize(), renderContext.getCharCount(i));
-        }
+    @Override
+    public void resetScissor() {
+        scissor = false;
     }
 
     @Override
-    public void drawString(@NotNull CFXTextRenderContext renderContext) {
-        ComputeShader shader = prepareFontShader();
+    public void beginBatch() {
+        batching = true;
+    }
+
+    @Override
+    public void endBatch() {
+        flush();
+        batching = false;
+    }
+
+    @Override
+    public boolean isBatching() {
+        return batching;
+    }
+
+    @Override
+    public void flush() {
+        if (commands.isEmpty())
+            return;
+        if (!getRenderer().getWindow().isGlThread())
+            throw new IllegalContextException();
+
+        executing = true;
+        try {
+            if (commandBuffer == 0) {
+                commandBuffer = glGenBuffers();
+                alignment = Math.max(glGetInteger(GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT) / 4, 1);
+            }
+
+            // rectangles are uploaded before the patches
+            int rectangleWords = commands.getRectangleCount() * CFXCommandList.RECTANGLE_STRIDE;
+            int patchOffset = (rectangleWords + alignment - 1) / alignment * alignment;
+            int patchWords = commands.getPatchCount() * CFXCommandList.PATCH_STRIDE;
+            if (staging == null || staging.capacity() < patchOffset + patchWords)
+                staging = BufferUtils.createIntBuffer(Math.max(patchOffset + patchWords,
+                        staging != null ? staging.capacity() * 2 : 0));
+
+            staging.clear();
+            staging.put(commands.getRectangles(), 0, rectangleWords);
+            staging.position(patchOffset);
+            staging.put(commands.getPatches(), 0, patchWords);
+            staging.flip();
+
+            glBindBuffer(GL_SHADER_STORAGE_BUFFER, commandBuffer);
+            glBufferData(GL_SHADER_STORAGE_BUFFER, staging, GL_STREAM_DRAW);
+            glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+
+            int batches = commands.batches();
+            for (int batch = 0; batch < batches; batch++) {
+                switch (commands.getType(batch)) {
+                    case CFXCommandList.TYPE_RECTANGLE:
+                        executeBatch(prepareShader(CFXShader.RECTANGLE_BATCH), batch, 0,
+                                rectangleWords * 4L);
+                        break;
+                    case CFXCommandList.TYPE_PATCH:
+                        Texture tex = getRenderer().getTextureBoard()
+                                .bindTexture((TextureResource) commands.getTarget(batch));
+                        if (tex == null) {
+                            CerberusRegistry.getInstance().warning("Could not bind Texture");
+                            break;
+                        }
+                        executeBatch(prepareShader(CFXShader.PATCH_BATCH), batch, patchOffset * 4L,
+                                patchWords * 4L);
+                        break;
+                    case CFXCommandList.TYPE_TEXT:
+                        renderString((CFXTextRenderContext) commands.getTarget(batch),
+                                new Vector2i(commands.getX(batch), commands.getY(batch)),
+                                new Vector2i(commands.getWidth(batch), commands.getHeight(batch)));
+                        break;
+                }
+            }
+        } finally {
+            glBindBufferBase(GL_SHADER_STORAGE_BUFFER, COMMAND_BUFFER_BINDING, 0);
+            commands.clear();
+            executing = false;
+        }
+    }
+
+    /**
+     * Will execute a batch of recorded commands with a single
+     * dispatch.
+     *
+     * Each command is drawn by one work group layer.
+     *
+     * @param shader batch shader
+     * @param batch batch index
+     * @param offset offset of the command type in the command buffer in bytes
+     * @param size size of the command type in the command buffer in bytes
+     */
+    private void executeBatch(ComputeShader shader, int batch, long offset, long size) {
         if (shader == null) {
-            // cannot draw string
+            // cannot draw batch
             return;
         }
 
-        ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+        glBindBufferRange(GL_SHADER_STORAGE_BUFFER, COMMAND_BUFFER_BINDING, commandBuffer, offset, size);
+        shader.getUniform("first", Uniform1i.class).set(commands.getFirst(batch));
+        try {
+            dispatch(shader, new Vector2i(0), null,
+                    new Vector2i(commands.getWidth(batch), commands.getHeight(batch)), commands.getCount(batch));
+        } catch (GLShaderStateException e) {
+            CerberusRegistry.getInstance().warning("Failed to render to canvas");
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        }
+    }
+
+    /**
+     * Will return the texture of the resource. Outside of the
+     * batch mode, the texture is bound as well.
+     * @param texture texture resource
+     * @return texture or null, if the texture could not be loaded
+     */
+    private Texture fetchTexture(TextureResource texture) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        Texture tex;
+        if (batching) {
+            tex = textureBoard.getTexture(texture);
+            if (tex == null)
+                tex = textureBoard.loadTexture(texture);
+        } else
+            tex = textureBoard.bindTexture(texture);
+
+        if (tex == null)
+            CerberusRegistry.getInstance().warning("Could not bind Texture");
+        return tex;
+    }
+
+    /**
+     * Will clip a texture patch and move the source coordinates
+     * by the clipped amount.
+     * @return clipped source coordinates or null, if nothing is left to draw
+     */
+    private Vector2i clipPatch(Vector2i srcCoord, Vector2i destCoord, Vector2i size, Vector2f scale) {
+        int destX = destCoord.getX();
+        int destY = destCoord.getY();
+        if (doClipping(destCoord, size) || scale.getX() <= 0 || scale.getY() <= 0)
+            return null;
+
+        return new Vector2i(srcCoord.getX() + (int) ((destCoord.getX() - destX) / scale.getX()),
+                srcCoord.getY() + (int) ((destCoord.getY() - destY) / scale.getY()));
+    }
+
+    /**
+     * Returns true, if the region lies outside of the scissor
+     * region entirely.
+     */
+    private boolean outsideScissor(Vector2i destCoord, Vector2i size) {
+        return scissor && (destCoord.getX() >= scissorX + scissorWidth || destCoord.getY() >= scissorY + scissorHeight
+                || destCoord.getX() + size.getX() <= scissorX || destCoord.getY() + size.getY() <= scissorY);
+    }
+
+    /**
+     * Will record a clipped texture patch.
+     */
+    private void recordPatch(TextureResource texture, Vector2i srcCoord, Vector2i destCoord, Vector2i size,
+                             Vector2i srcSize, Vector2f scale, boolean blend,
+                             Vector4f colorFactor, Vector4f colorAdd, Vector4f specularFactor, Vector4f specularAdd,
+                             Vector4f emissionFactor, Vector4f emissionAdd, Vector4f metallicFactor,
+                             Vector4f metallicAdd) {
+        if (size.getX() <= 0 || size.getY() <= 0)
+            return;
+
+        commands.addPatch(texture, destCoord.getX(), destCoord.getY(), size.getX(), size.getY(),
+                srcCoord.getX(), srcCoord.getY(), srcSize.getX(), srcSize.getY(), scale.getX(), scale.getY(), blend,
+                colorFactor, colorAdd, specularFactor, specularAdd, emissionFactor, emissionAdd,
+                metallicFactor, metallicAdd);
+    }
+
+    /**
+     * Will draw the text render context with one dispatch per
+     * alphabet.
+     * @param renderContext text render context
+     * @param destCoord clipped destination or null for the current patch
+     * @param size clipped size or null for the current patch
+     */
+    private void renderString(@NotNull CFXTextRenderContext renderContext, Vector2i destCoord, Vector2i size) {
         int aCount = renderContext.size();
         for (int i = 0; i < aCount; i++) {
             CFXAlphabet alphabet = renderContext.getAlphabet(i);
+            ComputeShader shader = prepareFontShader(alphabet);
+            if (shader == null) {
+                // cannot draw string
+                return;
+            }
             alphabet.bind();
 
-            // CFXFontRenderer fontRenderer = getRenderer().getGUIManager().getFontRenderer();
-            // Font font = new Font("Fira Code Medium", Font.PLAIN, 24);
-            // CFXCharacter testChar = fontRenderer.getCharacter('H', font);
-
-            // TextureResource cobbleTexture = new BufferedTextureResource(new FileImageResource("textures/coord_test.png", 0));
-            // getRenderer().getTextureBoard().bindTexture(cobbleTexture);
-            // shaderBoard.bindSSBO(renderContext.getBufferResource(), i);
-
-            // getRenderer().getTextureBoard().bindTexture(testChar.getAlphabet().getTextureAtlas());
-
-            shader.getUniform("atlasDim", Uniform2i.class).set(alphabet.getDimensions());
-            shader.getUniform("cellSize", Uniform2i.class).set(alphabet.getCellSize());
-            // getRenderer().getTextureBoard().bindTexture(alphabet.getTextureAtlas());
+            renderContext.bind(i);
 
-            dispatch(shader, null, null, alphabet.getCellSize(), renderContext.getCharCount(i));
-            // CerberusRegistry.getInstance().info("Successfully rendered text to canvas");
+            if (!alphabet.isDistanceField()) {
+                shader.getUniform("atlasDim", Uniform2i.class).set(alphabet.getDimensions());
+                shader.getUniform("cellSize", Uniform2i.class).set(alphabet.getCellSize());
+            }
+            dispatch(shader, destCoord, size, renderContext.getGlyphExtent(i), renderContext.getCharCount(i));
         }
     }
 
@@ -539,8 +785,8 @@ public class FlatCanvas implements CFXCanvas {
         return prepareShader(CFXShader.PATCH);
     }
 
-    private ComputeShader prepareFontShader() {
-        return prepareShader(CFXShader.FONT);
+    private ComputeShader prepareFontShader(CFXAlphabet alphabet) {
+        return prepareShader(alphabet.isDistanceField() ? CFXShader.FONT_SDF : CFXShader.FONT);
     }
 
     private ComputeShader prepareRectangleShader() {
@@ -569,6 +815,10 @@ public class FlatCanvas implements CFXCanvas {
     }
 
     private boolean doClipping(Vector2i destCoord, Vector2i size) {
+        return doClipping(destCoord, size, true);
+    }
+
+    private boolean doClipping(Vector2i destCoord, Vector2i size, boolean scissored) {
         if (size.getX() + destCoord.getX() < currentOffset.getX())
             return true;
         if (size.getY() + destCoord.getY() < currentOffset.getX())
@@ -587,11 +837,30 @@ public class FlatCanvas implements CFXCanvas {
             size.addSelf(0, destCoord.getY() - currentOffset.getY());
             destCoord.setY(currentOffset.getY());
         }
+
+        if (scissored && scissor) {
+            int x0 = Math.max(destCoord.getX(), scissorX);
+            int y0 = Math.max(destCoord.getY(), scissorY);
+            int x1 = Math.min(destCoord.getX() + size.getX(), scissorX + scissorWidth);
+            int y1 = Math.min(destCoord.getY() + size.getY(), scissorY + scissorHeight);
+            if (x1 <= x0 || y1 <= y0)
+                return true;
+
+            destCoord.setX(x0);
+            destCoord.setY(y0);
+            size.setX(x1 - x0);
+            size.setY(y1 - y0);
+        }
         return false;
     }
 
     @Override
     public void destroy() {
+        commands.clear();
+        if (commandBuffer != 0) {
+            glDeleteBuffers(commandBuffer);
+            commandBuffer = 0;
+        }
         getRenderer().getTextureBoard().deleteTexture(imageTexture);
     }
 
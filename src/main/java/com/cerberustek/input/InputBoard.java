@@ -26,6 +26,10 @@ import com.cerberustek.Initable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 public interface InputBoard extends Initable {
 
     /**
@@ -110,4 +114,74 @@ public interface InputBoard extends Initable {
      * @return input device
      */
     <T extends InputDevice> @Nullable T getInputDevice(@NotNull InputDeviceSpec spec, @NotNull Class<T> clazz);
+
+    /**
+     * Returns the input bus the input devices post their
+     * callbacks to.
+     *
+     * @return input bus
+     */
+    @NotNull InputBus getInputBus();
+
+    /**
+     * Will start recording all keyboard, mouse button, cursor
+     * and scroll callbacks into the specified stream.
+     *
+     * A running recording is stopped first.
+     *
+     * @param out stream to write the input session to
+     * @throws IOException thrown, if the stream could not be
+     *          written to
+     */
+    void startRecording(@NotNull OutputStream out) throws IOException;
+
+    /**
+     * Will stop the recording and close the stream.
+     */
+    void stopRecording();
+
+    /**
+     * Returns true, if the input callbacks are recorded.
+     * @return is recording
+     */
+    boolean isRecording();
+
+    /**
+     * Will start to play back a recorded input session.
+     *
+     * The recorded callbacks are fed through the input devices
+     * of this board. If the frame step is positive, the replay
+     * is locked to fixed frame steps: the callbacks of each
+     * recorded frame are played back in the same frame and the
+     * renderer uses the frame step as frame delta.
+     *
+     * @param in recorded input session
+     * @param frameStep fixed frame delta, or 0 to follow the
+     *                  recorded timestamps
+     * @throws IOException thrown, if the session could not be read
+     */
+    void startReplay(@NotNull InputStream in, double frameStep) throws IOException;
+
+    /**
+     * Will stop the replay.
+     */
+    void stopReplay();
+
+    /**
+     * Returns true, if a recorded input session is played back.
+     * @return is replaying
+     */
+    boolean isReplaying();
+
+    /**
+     * Will advance the recording and the replay by one frame.
+     *
+     * This method is called by the renderer at the beginning of
+     * each frame, before the input bus is dispatched.
+     *
+     * @param delta frame delta
+     * @return frame delta to use, which is the fixed frame step
+     *          of a frame locked replay
+     */
+    double advanceFrame(double delta);
 }
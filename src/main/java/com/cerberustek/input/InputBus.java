@@ -22,5 +22,101 @@
 
 package com.cerberustek.input;
 
+/**
+ * Queue of input events between the glfw callbacks and the event
+ * listeners.
+ *
+ * Input devices post their callbacks into the bus instead of
+ * dispatching a new event object for each callback. The callbacks
+ * are recorded as primitive values and dispatched in a batch by
+ * a consumer thread, reusing one event instance per event type.
+ * Event listeners must therefore not keep references to input
+ * events after they have been handled.
+ *
+ * Consecutive cursor movements of the same device are coalesced,
+ * so the listeners only receive the latest position of each batch.
+ */
 public interface InputBus {
+
+    /**
+     * Will post a key or button callback.
+     * @param device input device
+     * @param window window id
+     * @param key key or button code
+     * @param scanCode scan code of the key
+     * @param action key action id
+     * @param mods modifier bits
+     */
+    void postKey(InputDevice device, long window, int key, int scanCode, int action, int mods);
+
+    /**
+     * Will post a cursor movement.
+     *
+     * If the last queued event is a movement of the same device
+     * and window, the movement is coalesced into it. The position
+     * is replaced. The delta is added to the queued delta, if the
+     * delta is relative, or replaced otherwise.
+     *
+     * @param device input device
+     * @param window window id
+     * @param x cursor x position
+     * @param y cursor y position
+     * @param deltaX x delta
+     * @param deltaY y delta
+     * @param relative delta is relative to the previous movement
+     */
+    void postCursor(InputDevice device, long window, double x, double y, double deltaX, double deltaY,
+                    boolean relative);
+
+    /**
+     * Will post a scroll callback.
+     * @param device input device
+     * @param window window id
+     * @param x x scroll offset
+     * @param y y scroll offset
+     * @param deltaX x delta
+     * @param deltaY y delta
+     */
+    void postScroll(InputDevice device, long window, double x, double y, double deltaX, double deltaY);
+
+    /**
+     * Will dispatch all queued events on the calling thread.
+     *
+     * Events that are posted while dispatching are part of the
+     * next batch.
+     *
+     * @return amount of dispatched events
+     */
+    int dispatch();
+
+    /**
+     * Returns true, if the renderer dispatches the queued events
+     * at the beginning of each frame on the gl thread.
+     * @return dispatched by the renderer
+     */
+    boolean isAutoDispatch();
+
+    /**
+     * Sets whether the renderer dispatches the queued events at
+     * the beginning of each frame on the gl thread.
+     *
+     * If disabled, dispatch() has to be called by the consumer
+     * thread of choice.
+     *
+     * @param autoDispatch dispatched by the renderer
+     */
+    void setAutoDispatch(boolean autoDispatch);
+
+    /**
+     * Returns the amount of queued events.
+     * @return queued events
+     */
+    int size();
+
+    /**
+     * Returns the amount of cursor movements that have been
+     * coalesced into previous ones.
+     * @return coalesced movements
+     */
+    long getCoalesced();
 }
@@ -24,11 +24,16 @@ package com.cerberustek.input.impl;
 
 import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
-import com.cerberustek.events.CursorPositionEvent;
+import com.cerberustek.event.Event;
+import com.cerberustek.event.EventHandler;
+import com.cerberustek.event.EventListener;
+import com.cerberustek.events.FrameBufferSizeEvent;
 import com.cerberustek.logic.math.Vector2d;
+import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.resource.image.ImageResource;
 import com.cerberustek.window.Window;
 import com.cerberustek.CerberusRenderer;
+import com.cerberustek.input.InputBus;
 import com.cerberustek.input.InputDevice;
 import org.lwjgl.glfw.GLFWCursorPosCallback;
 
@@ -42,8 +47,11 @@ public class CursorPosition extends GLFWCursorPosCallback implements InputDevice
 
     private Vector2d currentPos;
     private Vector2d lastPos;
+    /** Framebuffer size, cached to keep the callback allocation free */
+    private Vector2i screenSize;
 
-    private CerberusEvent eventService;
+    private InputBus inputBus;
+    private FrameBufferListener frameBufferListener;
 
     public CursorPosition() {
         this.currentPos = new Vector2d(0, 0);
@@ -80,11 +88,18 @@ public class CursorPosition extends GLFWCursorPosCallback implements InputDevice
     @Override
     public void destroy() {
         free();
+        if (frameBufferListener != null)
+            CerberusRegistry.getInstance().getService(CerberusEvent.class).removeListener(frameBufferListener);
     }
 
     @Override
     public void init(Window window) {
         this.window = window;
+        screenSize = window.getScreenSize();
+        if (frameBufferListener == null) {
+            frameBufferListener = new FrameBufferListener();
+            CerberusRegistry.getInstance().getService(CerberusEvent.class).addListener(frameBufferListener);
+        }
         set(window.id());
     }
 
@@ -93,9 +108,12 @@ public class CursorPosition extends GLFWCursorPosCallback implements InputDevice
         lastPos.set(currentPos.getX(), currentPos.getY());
         currentPos.set(x, y);
 
-        if (eventService == null)
-            eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
-        eventService.executeFullEIF(new CursorPositionEvent(this, window, currentPos, getDeltaPos()));
+        // same as getDeltaPos(), without allocating vectors
+        if (lock)
+            getInputBus().postCursor(this, window, x, y, x, y, false);
+        else
+            getInputBus().postCursor(this, window, x, y,
+                    (lastPos.getX() - x) / screenSize.getX(), (lastPos.getY() - y) / screenSize.getY(), true);
     }
 
     public void reset() {
@@ -123,4 +141,20 @@ public class CursorPosition extends GLFWCursorPosCallback implements InputDevice
         else
             return lastPos.sub(currentPos).div(window.getScreenSize().toVector2d());
     }
+
+    private InputBus getInputBus() {
+        if (inputBus == null)
+            inputBus = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getInputBoard().getInputBus();
+        return inputBus;
+    }
+
+    @EventHandler(events = {FrameBufferSizeEvent.class})
+    private class FrameBufferListener implements EventListener {
+
+        @Override
+        public boolean onEvent(Event event) {
+            screenSize = ((FrameBufferSizeEvent) event).getSize();
+            return true;
+        }
+    }
 }
@@ -22,22 +22,33 @@
 
 package com.cerberustek.input.impl;
 
+import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
+import com.cerberustek.events.ExceptionEvent;
 import com.cerberustek.settings.Settings;
 import com.cerberustek.window.Window;
 import com.cerberustek.CerberusRenderer;
 import com.cerberustek.input.InputBoard;
+import com.cerberustek.input.InputBus;
 import com.cerberustek.input.InputDevice;
 import com.cerberustek.input.InputDeviceSpec;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 public class InputBoardImpl implements InputBoard {
 
     private final InputDevice[] devices;
+    private final InputBusImpl inputBus;
+    private InputRecorder recorder;
+    private volatile InputReplay replay;
 
     public InputBoardImpl() {
         devices = new InputDevice[InputDeviceSpec.values().length];
+        inputBus = new InputBusImpl();
     }
 
     @Override
@@ -90,6 +101,76 @@ public class InputBoardImpl implements InputBoard {
         }
     }
 
+    @Override
+    public @NotNull InputBus getInputBus() {
+        return inputBus;
+    }
+
+    @Override
+    public synchronized void startRecording(@NotNull OutputStream out) throws IOException {
+        stopRecording();
+        recorder = new InputRecorder(this, out);
+        inputBus.setRecorder(recorder);
+    }
+
+    @Override
+    public synchronized void stopRecording() {
+        if (recorder == null)
+            return;
+
+        inputBus.setRecorder(null);
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            CerberusRegistry.getInstance().warning("Failed to close input recording: " + e);
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        }
+        CerberusRegistry.getInstance().info("Recorded " + recorder.getRecordCount() + " input callbacks in "
+                + recorder.getFrameCount() + " frames");
+        recorder = null;
+    }
+
+    @Override
+    public synchronized boolean isRecording() {
+        return recorder != null;
+    }
+
+    @Override
+    public void startReplay(@NotNull InputStream in, double frameStep) throws IOException {
+        replay = new InputReplay(this, in, frameStep);
+    }
+
+    @Override
+    public void stopReplay() {
+        replay = null;
+    }
+
+    @Override
+    public boolean isReplaying() {
+        return replay != null;
+    }
+
+    @Override
+    public double advanceFrame(double delta) {
+        synchronized (this) {
+            if (recorder != null)
+                recorder.nextFrame();
+        }
+
+        InputReplay replay = this.replay;
+        if (replay == null)
+            return delta;
+
+        delta = replay.advance(delta);
+        if (replay.isFinished()) {
+            CerberusRegistry.getInstance().info("Finished input replay of " + replay.getRecordCount()
+                    + " callbacks");
+            this.replay = null;
+        }
+        return delta;
+    }
+
     @Override
     public void init() {
         CerberusRenderer renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
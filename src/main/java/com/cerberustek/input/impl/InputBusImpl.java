@@ -0,0 +1,269 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.input.impl;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.event.Event;
+import com.cerberustek.events.CursorPositionEvent;
+import com.cerberustek.events.KeyEvent;
+import com.cerberustek.events.ScrollEvent;
+import com.cerberustek.input.InputBus;
+import com.cerberustek.input.InputDevice;
+import com.cerberustek.logic.math.Vector2d;
+
+import java.util.Arrays;
+
+/**
+ * Double buffered input bus.
+ *
+ * Callbacks are appended to the primitive arrays of the front
+ * batch. Dispatching swaps the front and the back batch, so the
+ * input thread can keep posting while the consumer dispatches the
+ * back batch. The arrays are pre-allocated and only grow if more
+ * callbacks are posted between two dispatches than fit.
+ */
+public class InputBusImpl implements InputBus {
+
+    /** Default batch capacity in events */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final byte TYPE_KEY = 0;
+    private static final byte TYPE_CURSOR = 1;
+    private static final byte TYPE_CURSOR_RELATIVE = 2;
+    private static final byte TYPE_SCROLL = 3;
+
+    private final Object dispatchLock = new Object();
+    /* reused event instances */
+    private final KeyEvent keyEvent = new KeyEvent(null, 0, 0, 0, 0, 0);
+    private final CursorPositionEvent cursorEvent = new CursorPositionEvent(null, 0,
+            new Vector2d(0, 0), new Vector2d(0, 0));
+    private final ScrollEvent scrollEvent = new ScrollEvent(null, 0, new Vector2d(0, 0), new Vector2d(0, 0));
+
+    private Batch front;
+    private Batch back;
+
+    private volatile boolean autoDispatch = true;
+    private long coalesced;
+    /** Recorder of the posted callbacks, or null */
+    private InputRecorder recorder;
+
+    private CerberusEvent eventService;
+
+    public InputBusImpl() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputBusImpl(int capacity) {
+        front = new Batch(Math.max(capacity, 1));
+        back = new Batch(Math.max(capacity, 1));
+    }
+
+    @Override
+    public synchronized void postKey(InputDevice device, long window, int key, int scanCode, int action, int mods) {
+        if (recorder != null)
+            recorder.recordKey(device, key, scanCode, action, mods);
+
+        int i = front.append(TYPE_KEY, device, window);
+        front.key[i] = key;
+        front.scanCode[i] = scanCode;
+        front.action[i] = action;
+        front.mods[i] = mods;
+    }
+
+    @Override
+    public synchronized void postCursor(InputDevice device, long window, double x, double y, double deltaX,
+                                        double deltaY, boolean relative) {
+        if (recorder != null)
+            recorder.recordCursor(device, x, y);
+
+        byte type = relative ? TYPE_CURSOR_RELATIVE : TYPE_CURSOR;
+
+        int last = front.count - 1;
+        if (last >= 0 && front.types[last] == type && front.devices[last] == device && front.windows[last] == window) {
+            front.x[last] = x;
+            front.y[last] = y;
+            if (relative) {
+                front.deltaX[last] += deltaX;
+                front.deltaY[last] += deltaY;
+            } else {
+                front.deltaX[last] = deltaX;
+                front.deltaY[last] = deltaY;
+            }
+            coalesced++;
+            return;
+        }
+
+        int i = front.append(type, device, window);
+        front.x[i] = x;
+        front.y[i] = y;
+        front.deltaX[i] = deltaX;
+        front.deltaY[i] = deltaY;
+    }
+
+    @Override
+    public synchronized void postScroll(InputDevice device, long window, double x, double y, double deltaX,
+                                        double deltaY) {
+        if (recorder != null)
+            recorder.recordScroll(device, x, y);
+
+        int i = front.append(TYPE_SCROLL, device, window);
+        front.x[i] = x;
+        front.y[i] = y;
+        front.deltaX[i] = deltaX;
+        front.deltaY[i] = deltaY;
+    }
+
+    @Override
+    public int dispatch() {
+        synchronized (dispatchLock) {
+            Batch batch;
+            synchronized (this) {
+                batch = front;
+                front = back;
+                back = batch;
+            }
+
+            int count = batch.count;
+            for (int i = 0; i < count; i++) {
+                if (batch.types[i] == TYPE_KEY) {
+                    keyEvent.set(batch.devices[i], batch.windows[i], batch.key[i], batch.scanCode[i],
+                            batch.action[i], batch.mods[i]);
+                    fire(keyEvent);
+                } else if (batch.types[i] == TYPE_SCROLL) {
+                    scrollEvent.set(batch.devices[i], batch.windows[i], batch.x[i], batch.y[i],
+                            batch.deltaX[i], batch.deltaY[i]);
+                    fire(scrollEvent);
+                } else {
+                    cursorEvent.set(batch.devices[i], batch.windows[i], batch.x[i], batch.y[i],
+                            batch.deltaX[i], batch.deltaY[i]);
+                    fire(cursorEvent);
+                }
+            }
+            batch.count = 0;
+            return count;
+        }
+    }
+
+    /**
+     * Will execute the event of a dispatched callback.
+     *
+     * The event instances are reused, so they must not be
+     * referenced after this method returned.
+     * @param event event
+     */
+    void fire(Event event) {
+        if (eventService == null)
+            eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
+        eventService.executeFullEIF(event);
+    }
+
+    @Override
+    public boolean isAutoDispatch() {
+        return autoDispatch;
+    }
+
+    @Override
+    public void setAutoDispatch(boolean autoDispatch) {
+        this.autoDispatch = autoDispatch;
+    }
+
+    /**
+     * Sets the recorder all posted callbacks are written to.
+     * @param recorder input recorder or null
+     */
+    public synchronized void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public synchronized InputRecorder getRecorder() {
+        return recorder;
+    }
+
+    @Override
+    public synchronized int size() {
+        return front.count;
+    }
+
+    @Override
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Input callbacks in structure of arrays layout.
+     */
+    private static class Batch {
+
+        private byte[] types;
+        private InputDevice[] devices;
+        private long[] windows;
+        private int[] key;
+        private int[] scanCode;
+        private int[] action;
+        private int[] mods;
+        private double[] x;
+        private double[] y;
+        private double[] deltaX;
+        private double[] deltaY;
+        private int count;
+
+        private Batch(int capacity) {
+            types = new byte[capacity];
+            devices = new InputDevice[capacity];
+            windows = new long[capacity];
+            key = new int[capacity];
+            scanCode = new int[capacity];
+            action = new int[capacity];
+            mods = new int[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            deltaX = new double[capacity];
+            deltaY = new double[capacity];
+        }
+
+        private int append(byte type, InputDevice device, long window) {
+            if (count == types.length)
+                grow(count * 2);
+
+            types[count] = type;
+            devices[count] = device;
+            windows[count] = window;
+            return count++;
+        }
+
+        private void grow(int capacity) {
+            types = Arrays.copyOf(types, capacity);
+            devices = Arrays.copyOf(devices, capacity);
+            windows = Arrays.copyOf(windows, capacity);
+            key = Arrays.copyOf(key, capacity);
+            scanCode = Arrays.copyOf(scanCode, capacity);
+            action = Arrays.copyOf(action, capacity);
+            mods = Arrays.copyOf(mods, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            deltaX = Arrays.copyOf(deltaX, capacity);
+            deltaY = Arrays.copyOf(deltaY, capacity);
+        }
+    }
+}
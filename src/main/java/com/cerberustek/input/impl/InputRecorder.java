@@ -0,0 +1,224 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.input.impl;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.input.InputBoard;
+import com.cerberustek.input.InputDevice;
+import com.cerberustek.input.InputDeviceSpec;
+
+import java.io.*;
+
+/**
+ * Writes the input callbacks of a session into a compact binary
+ * stream, which can be played back by an InputReplay.
+ *
+ * The stream starts with the magic number and the format version,
+ * followed by one record per callback. A record consists of the
+ * record type, the amount of frames and the nanoseconds passed
+ * since the previous record (both as variable length integers) and
+ * the raw callback arguments. Window ids are not recorded, since
+ * they are only valid for one session.
+ */
+public class InputRecorder implements Closeable {
+
+    static final int MAGIC = 0x43495250; // CIRP
+    static final int VERSION = 1;
+
+    static final byte RECORD_KEY = 0;
+    static final byte RECORD_CURSOR = 1;
+    static final byte RECORD_SCROLL = 2;
+
+    private final InputBoard board;
+    private final DataOutputStream out;
+
+    private long lastTime;
+    private int frame;
+    private int lastFrame;
+    private int records;
+    private boolean failed;
+
+    public InputRecorder(InputBoard board, OutputStream out) throws IOException {
+        this.board = board;
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        lastTime = System.nanoTime();
+    }
+
+    /**
+     * Will record a keyboard key or mouse button callback.
+     * @param device input device
+     * @param key key or button code
+     * @param scanCode scan code of the key
+     * @param action key action id
+     * @param mods modifier bits
+     */
+    public synchronized void recordKey(InputDevice device, int key, int scanCode, int action, int mods) {
+        InputDeviceSpec spec = specOf(device);
+        if (spec == null || !header(RECORD_KEY))
+            return;
+
+        try {
+            out.writeByte(spec.ordinal());
+            writeVarInt(out, zigZag(key));
+            writeVarInt(out, zigZag(scanCode));
+            writeVarInt(out, action);
+            writeVarInt(out, mods);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Will record a cursor position callback.
+     * @param device input device
+     * @param x cursor x position
+     * @param y cursor y position
+     */
+    public synchronized void recordCursor(InputDevice device, double x, double y) {
+        if (specOf(device) == InputDeviceSpec.CURSOR_POSITION && header(RECORD_CURSOR))
+            writePair(x, y);
+    }
+
+    /**
+     * Will record a scroll callback.
+     * @param device input device
+     * @param x x scroll offset
+     * @param y y scroll offset
+     */
+    public synchronized void recordScroll(InputDevice device, double x, double y) {
+        if (specOf(device) == InputDeviceSpec.MOUSE_WHEEL && header(RECORD_SCROLL))
+            writePair(x, y);
+    }
+
+    /**
+     * Will mark the beginning of the next frame.
+     */
+    public synchronized void nextFrame() {
+        frame++;
+    }
+
+    /**
+     * Returns the amount of recorded callbacks.
+     * @return record count
+     */
+    public synchronized int getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Returns the amount of recorded frames.
+     * @return frame count
+     */
+    public synchronized int getFrameCount() {
+        return frame;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private boolean header(byte type) {
+        if (failed)
+            return false;
+
+        long time = System.nanoTime();
+        try {
+            out.writeByte(type);
+            writeVarInt(out, frame - lastFrame);
+            writeVarLong(out, time - lastTime);
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+
+        lastFrame = frame;
+        lastTime = time;
+        records++;
+        return true;
+    }
+
+    private void writePair(double x, double y) {
+        try {
+            out.writeDouble(x);
+            out.writeDouble(y);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private InputDeviceSpec specOf(InputDevice device) {
+        for (InputDeviceSpec spec : InputDeviceSpec.values()) {
+            if (board.hasInputDevice(spec, device))
+                return spec;
+        }
+        return null;
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        CerberusRegistry.getInstance().warning("Failed to record input: " + e);
+        CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.input.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.input.InputBoard;
+import com.cerberustek.input.InputDevice;
+import com.cerberustek.input.InputDeviceSpec;
+import org.lwjgl.glfw.GLFWCursorPosCallbackI;
+import org.lwjgl.glfw.GLFWKeyCallbackI;
+import org.lwjgl.glfw.GLFWMouseButtonCallbackI;
+import org.lwjgl.glfw.GLFWScrollCallbackI;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static com.cerberustek.input.impl.InputRecorder.*;
+
+/**
+ * Plays back an input session written by an InputRecorder.
+ *
+ * The recorded callbacks are invoked on the input devices of the
+ * input board, so the device states and the input bus are updated
+ * exactly as by the original glfw callbacks.
+ *
+ * The replay either follows the recorded timestamps, or is locked
+ * to fixed frame steps. If locked, the callbacks of each recorded
+ * frame are played back in the same frame of the replay and the
+ * frame delta is replaced by the fixed step, which makes headless
+ * benchmark runs reproducible.
+ */
+public class InputReplay {
+
+    private final InputBoard board;
+    private final double frameStep;
+
+    /* recorded callbacks */
+    private byte[] types = new byte[256];
+    private byte[] specs = new byte[256];
+    private int[] frames = new int[256];
+    private long[] times = new long[256];
+    private int[] ints = new int[256 * 4];
+    private double[] doubles = new double[256 * 2];
+    private int count;
+
+    private int next;
+    private int frame;
+    private long startTime = -1;
+
+    private CerberusRenderer renderer;
+
+    /**
+     * Will read the full input session from the stream.
+     *
+     * @param board input board to play the session back on
+     * @param in recorded input session
+     * @param frameStep fixed frame delta, or 0 to follow the
+     *                  recorded timestamps
+     * @throws IOException thrown, if the stream could not be read
+     *          or is not an input session
+     */
+    public InputReplay(InputBoard board, InputStream in, double frameStep) throws IOException {
+        this.board = board;
+        this.frameStep = frameStep;
+        read(new DataInputStream(new BufferedInputStream(in)));
+    }
+
+    /**
+     * Will advance the replay by one frame and invoke all callbacks
+     * that are due.
+     *
+     * @param delta frame delta of the renderer
+     * @return frame delta to use for this frame
+     */
+    public double advance(double delta) {
+        frame++;
+        if (startTime < 0)
+            startTime = System.nanoTime();
+        long time = System.nanoTime() - startTime;
+        long window = next < count ? getRenderer().getWindow().id() : 0;
+
+        while (next < count) {
+            // callbacks of a recorded frame have been dispatched
+            // at the beginning of the following frame
+            if (isFrameLocked() ? frames[next] >= frame : times[next] > time)
+                break;
+
+            invoke(next++, window);
+        }
+        return isFrameLocked() ? frameStep : delta;
+    }
+
+    /**
+     * Returns true, if the replay is locked to fixed frame steps.
+     * @return is frame locked
+     */
+    public boolean isFrameLocked() {
+        return frameStep > 0;
+    }
+
+    /**
+     * Returns the fixed frame delta, or 0 if the replay follows the
+     * recorded timestamps.
+     * @return frame step
+     */
+    public double getFrameStep() {
+        return frameStep;
+    }
+
+    /**
+     * Returns true, if all recorded callbacks have been played back.
+     * @return is finished
+     */
+    public boolean isFinished() {
+        return next >= count;
+    }
+
+    /**
+     * Returns the amount of recorded callbacks.
+     * @return record count
+     */
+    public int getRecordCount() {
+        return count;
+    }
+
+    /**
+     * Returns the amount of callbacks that have been played back.
+     * @return played back callbacks
+     */
+    public int getPosition() {
+        return next;
+    }
+
+    private void invoke(int i, long window) {
+        InputDevice device = board.getInputDevice(InputDeviceSpec.values()[specs[i]]);
+        switch (types[i]) {
+            case RECORD_KEY:
+                if (device instanceof GLFWKeyCallbackI)
+                    ((GLFWKeyCallbackI) device).invoke(window, ints[i * 4], ints[i * 4 + 1], ints[i * 4 + 2],
+                            ints[i * 4 + 3]);
+                else if (device instanceof GLFWMouseButtonCallbackI)
+                    ((GLFWMouseButtonCallbackI) device).invoke(window, ints[i * 4], ints[i * 4 + 2],
+                            ints[i * 4 + 3]);
+                break;
+            case RECORD_CURSOR:
+                if (device instanceof GLFWCursorPosCallbackI)
+                    ((GLFWCursorPosCallbackI) device).invoke(window, doubles[i * 2], doubles[i * 2 + 1]);
+                break;
+            case RECORD_SCROLL:
+                if (device instanceof GLFWScrollCallbackI)
+                    ((GLFWScrollCallbackI) device).invoke(window, doubles[i * 2], doubles[i * 2 + 1]);
+                break;
+        }
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("The stream does not contain an input session");
+        int version = in.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported input session version " + version);
+
+        int frame = 0;
+        long time = 0;
+        int type;
+        while ((type = in.read()) != -1) {
+            frame += readVarInt(in);
+            time += readVarLong(in);
+
+            if (count == types.length)
+                grow(count * 2);
+            types[count] = (byte) type;
+            frames[count] = frame;
+            times[count] = time;
+
+            switch (type) {
+                case RECORD_KEY:
+                    specs[count] = in.readByte();
+                    ints[count * 4] = unZigZag(readVarInt(in));
+                    ints[count * 4 + 1] = unZigZag(readVarInt(in));
+                    ints[count * 4 + 2] = readVarInt(in);
+                    ints[count * 4 + 3] = readVarInt(in);
+                    break;
+                case RECORD_CURSOR:
+                    specs[count] = (byte) InputDeviceSpec.CURSOR_POSITION.ordinal();
+                    doubles[count * 2] = in.readDouble();
+                    doubles[count * 2 + 1] = in.readDouble();
+                    break;
+                case RECORD_SCROLL:
+                    specs[count] = (byte) InputDeviceSpec.MOUSE_WHEEL.ordinal();
+                    doubles[count * 2] = in.readDouble();
+                    doubles[count * 2 + 1] = in.readDouble();
+                    break;
+                default:
+                    throw new IOException("Unknown input record type " + type);
+            }
+
+            if (specs[count] < 0 || specs[count] >= InputDeviceSpec.values().length)
+                throw new IOException("Unknown input device " + specs[count]);
+            count++;
+        }
+    }
+
+    private void grow(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        specs = Arrays.copyOf(specs, capacity);
+        frames = Arrays.copyOf(frames, capacity);
+        times = Arrays.copyOf(times, capacity);
+        ints = Arrays.copyOf(ints, capacity * 4);
+        doubles = Arrays.copyOf(doubles, capacity * 2);
+    }
+}
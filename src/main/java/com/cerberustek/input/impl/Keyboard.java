@@ -22,11 +22,11 @@
 
 package com.cerberustek.input.impl;
 
-import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
-import com.cerberustek.events.KeyEvent;
+import com.cerberustek.CerberusRenderer;
 import com.cerberustek.window.Window;
 import com.cerberustek.input.ButtonInputDevice;
+import com.cerberustek.input.InputBus;
 import com.cerberustek.input.KeyAction;
 import com.cerberustek.input.KeyMod;
 import org.lwjgl.glfw.GLFWKeyCallback;
@@ -166,7 +166,7 @@ public class Keyboard extends GLFWKeyCallback implements ButtonInputDevice {
     private final boolean[] keysTyped;
     private final KeyMod[] keyMods;
 
-    private CerberusEvent eventService;
+    private InputBus inputBus;
 
     public Keyboard() {
         keysPressed = new boolean[KEY_LAST];
@@ -209,15 +209,12 @@ public class Keyboard extends GLFWKeyCallback implements ButtonInputDevice {
 
     @Override
     public void invoke(long window, int key, int scanCode, int action, int mods) {
-        if (eventService == null)
-            eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
-
         if (key <= KEY_LAST && key >= 0) {
             keysTyped[key] = !keysPressed[key] && action != KeyAction.RELEASED.getActionId();
             keysPressed[key] = action != KeyAction.RELEASED.getActionId();
             keyMods[key] = KeyMod.fromModCode(mods);
 
-            eventService.executeFullEIF(new KeyEvent(this, window, key, scanCode, action, mods));
+            getInputBus().postKey(this, window, key, scanCode, action, mods);
         }
     }
 
@@ -231,6 +228,12 @@ public class Keyboard extends GLFWKeyCallback implements ButtonInputDevice {
         set(window.id());
     }
 
+    private InputBus getInputBus() {
+        if (inputBus == null)
+            inputBus = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getInputBoard().getInputBus();
+        return inputBus;
+    }
+
     public static String getKeyName(int keyCode) {
         return glfwGetKeyName(keyCode, 0);
     }
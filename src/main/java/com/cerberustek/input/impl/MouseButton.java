@@ -22,11 +22,11 @@
 
 package com.cerberustek.input.impl;
 
-import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
-import com.cerberustek.events.KeyEvent;
+import com.cerberustek.CerberusRenderer;
 import com.cerberustek.window.Window;
 import com.cerberustek.input.ButtonInputDevice;
+import com.cerberustek.input.InputBus;
 import com.cerberustek.input.KeyAction;
 import com.cerberustek.input.KeyMod;
 import org.lwjgl.glfw.GLFWMouseButtonCallback;
@@ -50,7 +50,7 @@ public class MouseButton extends GLFWMouseButtonCallback implements ButtonInputD
     private boolean[] buttonsTyped;
     private KeyMod[] keyMods;
 
-    private CerberusEvent eventService;
+    private InputBus inputBus;
 
     public MouseButton() {
         this.buttonsPressed = new boolean[MOUSE_BUTTON_LAST];
@@ -100,16 +100,18 @@ public class MouseButton extends GLFWMouseButtonCallback implements ButtonInputD
 
     @Override
     public void invoke(long window, int button, int action, int mods) {
-        if (eventService == null)
-            eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
-
-
         if (button <= MOUSE_BUTTON_LAST && button >= 0) {
             buttonsTyped[button] = !buttonsPressed[button] && action != KeyAction.PRESSED.getActionId();
             buttonsPressed[button] = action != KeyAction.RELEASED.getActionId();
             keyMods[button] = KeyMod.fromModCode(action);
 
-            eventService.executeFullEIF(new KeyEvent(this, window, button, 0, action, mods));
+            getInputBus().postKey(this, window, button, 0, action, mods);
         }
     }
+
+    private InputBus getInputBus() {
+        if (inputBus == null)
+            inputBus = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getInputBoard().getInputBus();
+        return inputBus;
+    }
 }
@@ -22,11 +22,11 @@
 
 package com.cerberustek.input.impl;
 
-import com.cerberustek.CerberusEvent;
 import com.cerberustek.CerberusRegistry;
-import com.cerberustek.events.ScrollEvent;
+import com.cerberustek.CerberusRenderer;
 import com.cerberustek.logic.math.Vector2d;
 import com.cerberustek.window.Window;
+import com.cerberustek.input.InputBus;
 import com.cerberustek.input.InputDevice;
 import org.lwjgl.glfw.GLFWScrollCallback;
 
@@ -35,7 +35,7 @@ public class ScrollWheel extends GLFWScrollCallback implements InputDevice {
     private Vector2d lastScroll;
     private Vector2d currentScroll;
 
-    private CerberusEvent eventService;
+    private InputBus inputBus;
 
     public ScrollWheel() {
         lastScroll = new Vector2d(0, 0);
@@ -57,9 +57,8 @@ public class ScrollWheel extends GLFWScrollCallback implements InputDevice {
         lastScroll.set(currentScroll.getX(), currentScroll.getY());
         currentScroll.set(x, y);
 
-        if (eventService == null)
-            eventService = CerberusRegistry.getInstance().getService(CerberusEvent.class);
-        eventService.executeFullEIF(new ScrollEvent(this, window, currentScroll, getDeltaScroll()));
+        // same as getDeltaScroll(), without allocating vectors
+        getInputBus().postScroll(this, window, x, y, x - lastScroll.getX(), y - lastScroll.getY());
     }
 
     public Vector2d getLastScroll() {
@@ -73,4 +72,10 @@ public class ScrollWheel extends GLFWScrollCallback implements InputDevice {
     public Vector2d getDeltaScroll() {
         return currentScroll.sub(lastScroll);
     }
+
+    private InputBus getInputBus() {
+        if (inputBus == null)
+            inputBus = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getInputBoard().getInputBus();
+        return inputBus;
+    }
 }
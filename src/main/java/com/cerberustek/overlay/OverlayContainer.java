@@ -36,6 +36,30 @@ public interface OverlayContainer extends OverlayFrame {
 
     Vector2f getChildPos(OverlayFrame child);
 
+    /**
+     * Returns the render target region of the container.
+     *
+     * The texture of a container may be shared with other
+     * containers, so it has to be sampled using the uv offset
+     * and size of the surface.
+     * @return container surface
+     */
+    OverlaySurface getSurface();
+
+    /**
+     * Will force the container to redraw its children on the
+     * next update.
+     *
+     * Containers only redraw their children after they have
+     * been changed. Changes of children that notify their parent
+     * through updateParent() are picked up automatically, just like
+     * changes of the size, visibility, enabled and selection state
+     * of the frames in this package. Containers with dynamic
+     * children, whose textures change without notice, are redrawn
+     * on every update.
+     */
+    void invalidate();
+
     static void drawChild(OverlayFrame child, Vector2f pos, CerberusRenderer renderer, double t) {
         if (!child.isVisible())
             return;
@@ -49,10 +73,17 @@ public interface OverlayContainer extends OverlayFrame {
         renderer.getShaderBoard().bindShader(util.getScreenShader());
 
         util.setColor(new Vector3f(1, 1, 1));
-        util.setUVOffset(new Vector2f(0, 0));
+        if (child instanceof OverlayContainer) {
+            // containers may be packed into a shared framebuffer
+            OverlaySurface surface = ((OverlayContainer) child).getSurface();
+            util.setUVOffset(surface.getUVOffset());
+            util.setSize(surface.getUVSize());
+        } else {
+            util.setUVOffset(new Vector2f(0, 0));
+            util.setSize(new Vector2f(1, 1));
+        }
         //util.setUVFiltering(new Vector2f(0.0125f * 0.5f * 0.2f, 0.0125f * 0.2f));
         util.setUVFiltering(new Vector2f(0, 0));
-        util.setSize(new Vector2f(1, 1));
         util.setScale(size);
         util.setTranslation(new Vector2f(x * 2 - 1 + size.getX(), -y * 2 + 1 - size.getY()));
         util.updateUniforms(t);
@@ -0,0 +1,177 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.overlay;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.logic.math.Vector2f;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.util.RenderUtil;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Render target region of an overlay frame.
+ *
+ * A surface is either packed into a shared atlas framebuffer of
+ * the surface pool, or owns a dedicated framebuffer. Packed
+ * surfaces have to be sampled with their uv offset and uv size,
+ * since the framebuffer texture contains the surfaces of other
+ * frames as well.
+ *
+ * Surfaces are acquired from and released back to the
+ * OverlaySurfacePool.
+ */
+public class OverlaySurface {
+
+    private final OverlaySurfacePool pool;
+    private final FrameBufferResource frameBuffer;
+    private final Vector2i offset;
+    private final Vector2i size;
+    private final Vector2f uvOffset;
+    private final Vector2f uvSize;
+    /** Nesting depth, or -1 for dedicated framebuffers */
+    private final int depth;
+    /** Packer id inside of the atlas page */
+    private final int id;
+
+    private CerberusRenderer renderer;
+
+    OverlaySurface(OverlaySurfacePool pool, FrameBufferResource frameBuffer, Vector2i offset, Vector2i size,
+                   int depth, int id) {
+        this.pool = pool;
+        this.frameBuffer = frameBuffer;
+        this.offset = offset;
+        this.size = size;
+        this.depth = depth;
+        this.id = id;
+
+        Vector2i bin = frameBuffer.getSize();
+        uvOffset = new Vector2f((float) offset.getX() / bin.getX(), (float) offset.getY() / bin.getY());
+        uvSize = new Vector2f((float) size.getX() / bin.getX(), (float) size.getY() / bin.getY());
+    }
+
+    /**
+     * Will bind the framebuffer of the surface and restrict the
+     * viewport to the surface region.
+     */
+    public void bind() {
+        getRenderer().getTextureBoard().bindFrameBuffer(frameBuffer);
+        // the framebuffer may already have been bound by another
+        // surface of the same page, so the viewport is always set
+        glViewport(offset.getX(), offset.getY(), size.getX(), size.getY());
+    }
+
+    /**
+     * Will clear the surface region of the bound framebuffer.
+     *
+     * The surface has to be bound first.
+     */
+    public void clear() {
+        if (!isPacked()) {
+            RenderUtil.clear();
+            return;
+        }
+
+        glEnable(GL_SCISSOR_TEST);
+        glScissor(offset.getX(), offset.getY(), size.getX(), size.getY());
+        RenderUtil.clear();
+        glDisable(GL_SCISSOR_TEST);
+    }
+
+    /**
+     * Will hand the surface back to the pool.
+     *
+     * The surface must not be used after it has been released.
+     */
+    public void release() {
+        pool.release(this);
+    }
+
+    /**
+     * Returns the framebuffer the surface is located in.
+     * @return framebuffer
+     */
+    public FrameBufferResource getTexture() {
+        return frameBuffer;
+    }
+
+    /**
+     * Returns the offset of the surface inside the framebuffer
+     * in pixels.
+     * @return surface offset
+     */
+    public Vector2i getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the size of the surface in pixels.
+     * @return surface size
+     */
+    public Vector2i getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the uv offset of the surface inside the framebuffer
+     * texture.
+     * @return uv offset
+     */
+    public Vector2f getUVOffset() {
+        return uvOffset;
+    }
+
+    /**
+     * Returns the uv size of the surface inside the framebuffer
+     * texture.
+     * @return uv size
+     */
+    public Vector2f getUVSize() {
+        return uvSize;
+    }
+
+    /**
+     * Returns true, if the surface is packed into a shared atlas
+     * framebuffer.
+     * @return is packed
+     */
+    public boolean isPacked() {
+        return depth >= 0;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+}
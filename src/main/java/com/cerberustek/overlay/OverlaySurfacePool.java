@@ -0,0 +1,272 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.overlay;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.texture.AttachmentType;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.impl.SimpleAttachment;
+import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.impl.atlas.MaxRectsPacker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Render target allocator for overlay frames.
+ *
+ * Small surfaces are packed into a few large atlas framebuffers
+ * (pages) instead of allocating one framebuffer per frame. Pages
+ * are separated by nesting depth, such that a container never
+ * samples from the page it renders into.
+ *
+ * Released surfaces are kept for a while and handed out again to
+ * the next request of the same size, so resizing or recreating
+ * overlays does not fragment the pages. Surfaces larger than a page
+ * are given a dedicated framebuffer, which is recycled the same way.
+ *
+ * The pool has to be used from the gl thread.
+ */
+public class OverlaySurfacePool {
+
+    /** Default page size in pixels */
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+    /** Gap between packed surfaces to prevent filtering bleed */
+    private static final int PADDING = 1;
+    /** Max amount of released surfaces that are kept for recycling */
+    private static final int MAX_RECYCLED = 32;
+
+    private static OverlaySurfacePool instance;
+
+    private final ArrayList<Page> pages = new ArrayList<>();
+    private final HashMap<Key, ArrayDeque<OverlaySurface>> recycled = new HashMap<>();
+    /** Released surfaces, oldest first */
+    private final ArrayDeque<OverlaySurface> recycleOrder = new ArrayDeque<>();
+    private final int pageSize;
+
+    private CerberusRenderer renderer;
+
+    private OverlaySurfacePool() {
+        pageSize = getRenderer().getSettings().getInteger("overlay_atlas_size", DEFAULT_PAGE_SIZE);
+    }
+
+    public static OverlaySurfacePool getInstance() {
+        if (instance == null)
+            instance = new OverlaySurfacePool();
+        return instance;
+    }
+
+    /**
+     * Will acquire a surface of the specified size.
+     *
+     * Surfaces with a negative depth, or surfaces that are too
+     * large for a page, get a dedicated framebuffer. All other
+     * surfaces are packed into a page of the specified depth.
+     *
+     * @param size surface size in pixels
+     * @param depth nesting depth of the frame, or -1 for a
+     *              dedicated framebuffer
+     * @return surface
+     */
+    public OverlaySurface acquire(Vector2i size, int depth) {
+        int width = Math.max(size.getX(), 1);
+        int height = Math.max(size.getY(), 1);
+        if (depth >= 0 && (width + 2 * PADDING > pageSize || height + 2 * PADDING > pageSize))
+            depth = -1;
+
+        ArrayDeque<OverlaySurface> queue = recycled.get(new Key(width, height, depth));
+        if (queue != null && !queue.isEmpty()) {
+            OverlaySurface surface = queue.poll();
+            recycleOrder.remove(surface);
+            return surface;
+        }
+
+        if (depth < 0)
+            return new OverlaySurface(this, createFrameBuffer(new Vector2i(width, height)), new Vector2i(0, 0),
+                    new Vector2i(width, height), -1, -1);
+
+        for (Page page : pages) {
+            if (page.depth != depth)
+                continue;
+
+            OverlaySurface surface = page.allocate(width, height);
+            if (surface != null)
+                return surface;
+        }
+
+        Page page = new Page(depth);
+        pages.add(page);
+        return page.allocate(width, height);
+    }
+
+    /**
+     * Will hand a surface back to the pool.
+     * @param surface surface to release
+     */
+    public void release(OverlaySurface surface) {
+        if (recycleOrder.size() >= MAX_RECYCLED) {
+            OverlaySurface eldest = recycleOrder.poll();
+            recycled.get(key(eldest)).remove(eldest);
+            free(eldest);
+        }
+
+        recycled.computeIfAbsent(key(surface), k -> new ArrayDeque<>()).add(surface);
+        recycleOrder.add(surface);
+    }
+
+    /**
+     * Returns the amount of atlas framebuffers.
+     * @return page count
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the amount of released surfaces that are kept
+     * for recycling.
+     * @return recycled surface count
+     */
+    public int getRecycledCount() {
+        return recycleOrder.size();
+    }
+
+    /**
+     * Returns the page size in pixels.
+     * @return page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Will delete all framebuffers of the pool.
+     *
+     * Surfaces that are still in use become invalid.
+     */
+    public void destroy() {
+        for (OverlaySurface surface : recycleOrder) {
+            if (!surface.isPacked())
+                getRenderer().getTextureBoard().deleteTexture(surface.getTexture());
+        }
+        recycleOrder.clear();
+        recycled.clear();
+
+        pages.forEach(page -> getRenderer().getTextureBoard().deleteTexture(page.frameBuffer));
+        pages.clear();
+    }
+
+    private void free(OverlaySurface surface) {
+        if (!surface.isPacked()) {
+            getRenderer().getTextureBoard().deleteTexture(surface.getTexture());
+            return;
+        }
+
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            if (page.frameBuffer != surface.getTexture())
+                continue;
+
+            page.packer.remove(surface.getId());
+            if (page.packer.count() == 0) {
+                getRenderer().getTextureBoard().deleteTexture(page.frameBuffer);
+                pages.remove(i);
+            }
+            return;
+        }
+    }
+
+    private FrameBufferResource createFrameBuffer(Vector2i size) {
+        TextureEmpty2D texture = new TextureEmpty2D(1);
+        texture.genTextures();
+        texture.initTexture(0, 0, size, ImageType.RGBA_8_INTEGER);
+        FrameBufferResource frameBuffer = new FrameBufferResource(size, texture, false,
+                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        getRenderer().getTextureBoard().loadTexture(frameBuffer);
+        return frameBuffer;
+    }
+
+    private static Key key(OverlaySurface surface) {
+        return new Key(surface.getSize().getX(), surface.getSize().getY(), surface.getDepth());
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    private class Page {
+
+        private final int depth;
+        private final MaxRectsPacker packer = new MaxRectsPacker(pageSize, pageSize);
+        private final FrameBufferResource frameBuffer = createFrameBuffer(new Vector2i(pageSize, pageSize));
+
+        private Page(int depth) {
+            this.depth = depth;
+        }
+
+        private OverlaySurface allocate(int width, int height) {
+            int id = packer.insert(width + 2 * PADDING, height + 2 * PADDING);
+            if (id < 0)
+                return null;
+
+            return new OverlaySurface(OverlaySurfacePool.this, frameBuffer,
+                    new Vector2i(packer.getX(id) + PADDING, packer.getY(id) + PADDING),
+                    new Vector2i(width, height), depth, id);
+        }
+    }
+
+    private static class Key {
+
+        private final int width;
+        private final int height;
+        private final int depth;
+
+        private Key(int width, int height, int depth) {
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return width == key.width && height == key.height && depth == key.depth;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, depth);
+        }
+    }
+}
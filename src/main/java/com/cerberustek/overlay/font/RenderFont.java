@@ -29,4 +29,10 @@ public interface RenderFont {
     Font getFont();
 
     CharResource getCharacter(char c);
+
+    /**
+     * Will release all glyphs of this font in the shared glyph
+     * cache.
+     */
+    void destroy();
 }
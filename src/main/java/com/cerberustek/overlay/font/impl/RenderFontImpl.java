@@ -22,20 +22,22 @@
 
 package com.cerberustek.overlay.font.impl;
 
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.gui.CFXGlyph;
+import com.cerberustek.gui.CFXGlyphCache;
 import com.cerberustek.resource.impl.BufferedImageResource;
 import com.cerberustek.overlay.font.CharResource;
 import com.cerberustek.overlay.font.RenderFont;
 
 import java.awt.*;
-import java.awt.font.FontRenderContext;
-import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
 
 public class RenderFontImpl implements RenderFont {
 
     private final HashMap<Character, CharResource> charMap = new HashMap<>();
+    private final ArrayList<CFXGlyph> glyphs = new ArrayList<>();
     private final Font font;
 
     public RenderFontImpl(Font font) {
@@ -58,36 +60,25 @@ public class RenderFontImpl implements RenderFont {
         return out;
     }
 
-    private CharResource fabriacateChar(char c) {
-        FontRenderContext context = new FontRenderContext(font.getTransform(), true, true);
-        Rectangle2D bounds = font.getStringBounds("" + c, context);
-
-        int width = (int) (bounds.getWidth());
-        int height = (int) (bounds.getHeight());
+    @Override
+    public void destroy() {
+        CFXGlyphCache glyphCache = getGlyphCache();
+        glyphs.forEach(glyphCache::release);
+        glyphs.clear();
+        charMap.clear();
+    }
 
-        if (width == 0)
+    private CharResource fabriacateChar(char c) {
+        CFXGlyph glyph = getGlyphCache().acquire(c, font);
+        if (glyph == null)
             return null;
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D graphics2D = (Graphics2D) image.getGraphics();
-
-        graphics2D.setColor(Color.WHITE);
-        graphics2D.setFont(font);
-
-        Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit()
-                .getDesktopProperty("awt.font.desktophints");
-        if (desktopHints == null) {
-            graphics2D.setRenderingHint(RenderingHints.KEY_RENDERING,
-                    RenderingHints.VALUE_RENDER_QUALITY);
-            graphics2D.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
-                    RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-            graphics2D.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                    RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
-        } else
-            graphics2D.setRenderingHints(desktopHints);
+        // the glyph is referenced as long as this font exists
+        glyphs.add(glyph);
+        return new CharResourceImpl(c, this, new BufferedImageResource(glyph.getImage(), 0), glyph.getBounds());
+    }
 
-        graphics2D.drawString("" + c, (float) bounds.getX(),
-                (float) (-bounds.getY()));
-        return new CharResourceImpl(c, this, new BufferedImageResource(image, 0), bounds);
+    private CFXGlyphCache getGlyphCache() {
+        return CerberusRegistry.getInstance().getService(CerberusRenderer.class).getGlyphCache();
     }
 }
@@ -122,6 +122,12 @@ public class OverlayBackground extends OverlayFrameBase implements OverlayFrame
         glDisable(GL_BLEND);
     }
 
+    @Override
+    public boolean isDynamic() {
+        // rendered from the textures of other frames
+        return true;
+    }
+
     @Override
     public TextureResource getTexture() {
         return frameBufferResource;
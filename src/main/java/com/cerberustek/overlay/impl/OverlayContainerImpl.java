@@ -26,18 +26,13 @@ import com.cerberustek.overlay.OverlayContainer;
 import com.cerberustek.overlay.OverlayFrame;
 import com.cerberustek.overlay.OverlayInteraction;
 import com.cerberustek.overlay.OverlayLocalInteraction;
+import com.cerberustek.overlay.OverlaySurface;
+import com.cerberustek.overlay.OverlaySurfacePool;
 import com.cerberustek.resource.image.TextureResource;
-import com.cerberustek.resource.impl.FrameBufferResource;
-import com.cerberustek.texture.AttachmentType;
-import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.TextureBoard;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.CerberusRegistry;
 import com.cerberustek.CerberusRenderer;
 import com.cerberustek.logic.math.Vector2f;
 import com.cerberustek.logic.math.Vector2i;
-import com.cerberustek.util.RenderUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -46,7 +41,9 @@ import java.util.UUID;
 public class OverlayContainerImpl extends OverlayFrameBase implements OverlayContainer {
 
     private final HashMap<OverlayFrame, Vector2f> children = new HashMap<>();
-    private FrameBufferResource frameBuffer;
+    private OverlaySurface surface;
+    /** Children have to be redrawn */
+    private boolean dirty = true;
 
     private CerberusRenderer renderer;
 
@@ -56,12 +53,7 @@ public class OverlayContainerImpl extends OverlayFrameBase implements OverlayCon
 
     public OverlayContainerImpl(OverlayFrame parent, Vector2i resolution, Vector2f size, UUID guiId) {
         super(parent, size, true, true, guiId);
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-        texture.initTexture(0, 0, resolution, ImageType.RGBA_8_INTEGER);
-        frameBuffer = new FrameBufferResource(resolution, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
-        getRenderer().getTextureBoard().loadTexture(frameBuffer);
+        surface = OverlaySurfacePool.getInstance().acquire(resolution, depth(parent));
     }
 
     @Override
@@ -71,38 +63,62 @@ public class OverlayContainerImpl extends OverlayFrameBase implements OverlayCon
 
     @Override
     public void update(double t) {
-        getRenderer().getTextureBoard().bindFrameBuffer(frameBuffer);
-        RenderUtil.clear();
-        children.forEach((child, pos) -> OverlayContainer.drawChild(child, pos, renderer, t));
+        // the surface still holds the last drawing
+        if (!dirty && !isDynamic())
+            return;
+
+        surface.bind();
+        surface.clear();
+        children.forEach((child, pos) -> OverlayContainer.drawChild(child, pos, getRenderer(), t));
+        dirty = false;
     }
 
-    @SuppressWarnings("DuplicatedCode")
     @Override
-    public void resize(Vector2i size) {
-        if (frameBuffer != null) {
-            TextureBoard textureBoard = getRenderer().getTextureBoard();
-            textureBoard.deleteTexture(frameBuffer);
-        }
-
-        TextureEmpty2D empty2D = new TextureEmpty2D(1);
-        empty2D.genTextures();
-        empty2D.initTexture(0, 0, size, ImageType.RGBA_8_INTEGER);
-
-        frameBuffer = new FrameBufferResource(size, empty2D, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
-        update(0);
+    public void updateParent(double t) {
+        // called by children that have been changed
+        invalidate();
+        super.updateParent(t);
+    }
 
+    @Override
+    public void resize(Vector2i size) {
+        // surfaces of the same size are recycled by the pool
+        if (surface != null)
+            surface.release();
+        surface = OverlaySurfacePool.getInstance().acquire(size, depth(parent()));
 
         children.keySet().forEach(child -> {
             child.resize(child.absolutSize().mul(size.toVector2f()).toVec2i());
         });
         updateChildren(0);
+        invalidate();
         update(0);
 
 
         // updateParent(0);
     }
 
+    /**
+     * Returns true, if any child may change without invalidating
+     * this container. Such containers are redrawn on every update.
+     * @return dynamic?
+     */
+    @Override
+    public boolean isDynamic() {
+        for (OverlayFrame child : children.keySet()) {
+            if (!(child instanceof OverlayFrameBase) || ((OverlayFrameBase) child).isDynamic())
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void invalidate() {
+        dirty = true;
+        if (parent() instanceof OverlayContainer)
+            ((OverlayContainer) parent()).invalidate();
+    }
+
     @Override
     public void updateChildren(double t) {
         children.keySet().forEach(child -> {
@@ -114,12 +130,17 @@ public class OverlayContainerImpl extends OverlayFrameBase implements OverlayCon
 
     @Override
     public TextureResource getTexture() {
-        return frameBuffer;
+        return surface.getTexture();
+    }
+
+    @Override
+    public OverlaySurface getSurface() {
+        return surface;
     }
 
     @Override
     public Vector2i getResolution() {
-        return frameBuffer.getSize();
+        return surface.getSize();
     }
 
     private void relayInteraction(OverlayInteraction interaction) {
@@ -148,13 +169,16 @@ public class OverlayContainerImpl extends OverlayFrameBase implements OverlayCon
 
     @Override
     public void addChild(OverlayFrame child, Vector2f position) {
-        if (!children.containsKey(child))
+        if (!children.containsKey(child)) {
             children.put(child, position);
+            invalidate();
+        }
     }
 
     @Override
     public void removeChild(OverlayFrame child) {
-        children.remove(child);
+        if (children.remove(child) != null)
+            invalidate();
     }
 
     @Override
@@ -165,7 +189,26 @@ public class OverlayContainerImpl extends OverlayFrameBase implements OverlayCon
     @Override
     public void destroy() {
         children.keySet().forEach(OverlayFrame::destroy);
-        getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+        surface.release();
+    }
+
+    /**
+     * Returns the nesting depth of a container with the specified
+     * parent.
+     *
+     * Containers that are not drawn by a parent container are
+     * sampled as a whole, so they get a dedicated framebuffer (-1).
+     * @param parent parent frame
+     * @return nesting depth or -1
+     */
+    private static int depth(OverlayFrame parent) {
+        if (!(parent instanceof OverlayContainer))
+            return -1;
+
+        int depth = 0;
+        for (OverlayFrame frame = parent.parent(); frame instanceof OverlayContainer; frame = frame.parent())
+            depth++;
+        return depth;
     }
 
     private CerberusRenderer getRenderer() {
@@ -23,6 +23,7 @@
 package com.cerberustek.overlay.impl;
 
 import com.cerberustek.logic.math.Vector2f;
+import com.cerberustek.overlay.OverlayContainer;
 import com.cerberustek.overlay.OverlayFrame;
 
 import java.util.UUID;
@@ -56,6 +57,7 @@ public abstract class OverlayFrameBase implements OverlayFrame {
     @Override
     public void setSize(Vector2f size) {
         this.size = size;
+        invalidateParent();
     }
 
     @Override
@@ -65,7 +67,10 @@ public abstract class OverlayFrameBase implements OverlayFrame {
 
     @Override
     public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            invalidateParent();
+        }
     }
 
     @Override
@@ -75,7 +80,10 @@ public abstract class OverlayFrameBase implements OverlayFrame {
 
     @Override
     public void setVisible(boolean visible) {
-        this.visible = visible;
+        if (this.visible != visible) {
+            this.visible = visible;
+            invalidateParent();
+        }
     }
 
     @Override
@@ -90,6 +98,27 @@ public abstract class OverlayFrameBase implements OverlayFrame {
             parent.updateParent(t);
     }
 
+    /**
+     * Returns true, if the texture of the frame may change without
+     * the frame notifying its parent, e.g. because it is rendered
+     * from other frames on every update.
+     *
+     * Containers redraw dynamic children on every update.
+     * @return dynamic?
+     */
+    public boolean isDynamic() {
+        return false;
+    }
+
+    /**
+     * Will make the parent container redraw its children on the
+     * next update.
+     */
+    protected void invalidateParent() {
+        if (parent instanceof OverlayContainer)
+            ((OverlayContainer) parent).invalidate();
+    }
+
     @Override
     public Vector2f absolutSize() {
         if (parent != null)
@@ -36,19 +36,34 @@ import com.cerberustek.overlay.Selectable;
 public class OverlayImage extends OverlayFrameBase implements OverlayFrame, Selectable {
 
     private final TextureResource texture;
+    private final boolean dynamic;
 
     private boolean selected;
 
     public OverlayImage(OverlayFrame parent, TextureResource texture, Vector2f size) {
+        this(parent, texture, size, false);
+    }
+
+    /**
+     * Creates a new overlay image.
+     * @param parent parent frame
+     * @param texture image texture
+     * @param size relative size
+     * @param dynamic the texture is changed outside of the overlay,
+     *                e.g. a render target, so the parent container
+     *                has to redraw the image on every update
+     */
+    public OverlayImage(OverlayFrame parent, TextureResource texture, Vector2f size, boolean dynamic) {
         super(parent, size);
         this.texture = texture;
+        this.dynamic = dynamic;
         selected = false;
     }
 
     @Override
     public void interact(OverlayInteraction interaction) {
         if (interaction instanceof SelectionInteraction)
-            selected = ((SelectionInteraction) interaction).isSelected();
+            select(((SelectionInteraction) interaction).isSelected());
     }
 
     @Override
@@ -75,7 +90,15 @@ public class OverlayImage extends OverlayFrameBase implements OverlayFrame, Sele
 
     @Override
     public void select(boolean select) {
-        this.selected = select;
+        if (this.selected != select) {
+            this.selected = select;
+            invalidateParent();
+        }
+    }
+
+    @Override
+    public boolean isDynamic() {
+        return dynamic;
     }
 
     @Override
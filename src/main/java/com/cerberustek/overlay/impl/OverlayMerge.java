@@ -112,6 +112,12 @@ public class OverlayMerge extends OverlayFrameBase {
         glDisable(GL_BLEND);
     }
 
+    @Override
+    public boolean isDynamic() {
+        // rendered from the textures of other frames
+        return true;
+    }
+
     @Override
     public TextureResource getTexture() {
         return frameBuffer;
@@ -0,0 +1,74 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline;
+
+import com.cerberustek.Destroyable;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.util.TimingHistory;
+
+/**
+ * Measures the GPU time of every render note in the pipeline
+ * using timestamp queries.
+ *
+ * Query results are read a few frames after they were issued,
+ * so measuring never stalls the pipeline. If the driver does
+ * not support timer queries, every method is a no-op and no
+ * histories are recorded.
+ */
+public interface GPUTimer extends Destroyable {
+
+    /**
+     * Returns if timer queries are supported by the current
+     * context.
+     *
+     * This is only known after the first frame was rendered.
+     * @return supported?
+     */
+    boolean isSupported();
+
+    /**
+     * Returns if the timer is currently measuring.
+     * @return enabled?
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables the measurements.
+     *
+     * Histories are kept while the timer is disabled.
+     * @param enabled enabled?
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the rolling GPU time history of a render note.
+     * @param note render note
+     * @return history in ms, or null if nothing was measured yet
+     */
+    TimingHistory getHistory(RenderNote note);
+
+    /**
+     * Removes the histories of all render notes.
+     */
+    void clearHistories();
+}
@@ -0,0 +1,54 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline;
+
+import com.cerberustek.resource.image.TextureResource;
+
+/**
+ * Access to the physical render targets of a compiled render
+ * graph.
+ */
+public interface RenderGraphContext {
+
+    /**
+     * Returns the render target that is currently assigned to the
+     * resource with the specified name.
+     *
+     * Transient resources share their render target with other
+     * transient resources, whose lifetimes do not overlap. Their
+     * content is therefore only valid between the pass writing it
+     * and the last pass reading it.
+     *
+     * @param name resource name
+     * @return render target
+     */
+    TextureResource getTarget(String name);
+
+    /**
+     * Returns an input provider, which always provides the render
+     * target currently assigned to the resource.
+     * @param name resource name
+     * @return input provider of the resource
+     */
+    InputProvider getProvider(String name);
+}
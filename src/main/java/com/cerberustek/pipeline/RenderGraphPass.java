@@ -0,0 +1,59 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline;
+
+import com.cerberustek.Destroyable;
+import com.cerberustek.window.Window;
+
+/**
+ * A pass of a render graph.
+ *
+ * Passes declare the render targets they read and write when
+ * they are added to the render graph. The graph decides in which
+ * order the passes are executed, culls passes whose outputs are
+ * never used and assigns the physical render targets.
+ */
+public interface RenderGraphPass extends Destroyable {
+
+    /**
+     * Will execute the pass.
+     *
+     * The render targets of the pass have to be fetched from the
+     * context on every execution, since they may be reassigned
+     * when the graph is recompiled or the window is resized.
+     *
+     * @param context render graph context
+     * @param delta time passed since last call
+     */
+    void execute(RenderGraphContext context, double delta);
+
+    /**
+     * Will reinitialize the pass.
+     *
+     * Render targets of the graph are resized by the graph itself,
+     * this is only needed for resources managed by the pass.
+     * @param window The current window. Carries e.g. framebuffer
+     *               size information
+     */
+    void reinit(Window window);
+}
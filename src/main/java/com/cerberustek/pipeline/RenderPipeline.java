@@ -189,4 +189,11 @@ public interface RenderPipeline extends Updatable, Destroyable {
      * @return delta time
      */
     double getDelta();
+
+    /**
+     * Returns the timer measuring the GPU time of every render
+     * note in the pipeline.
+     * @return gpu timer
+     */
+    GPUTimer getGPUTimer();
 }
@@ -0,0 +1,213 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.pipeline.GPUTimer;
+import com.cerberustek.util.TimingHistory;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * GPU timer using {@code GL_TIMESTAMP} queries.
+ *
+ * Every frame writes its queries into one of {@value #FRAMES}
+ * slots. When a slot comes around again, its results are
+ * almost always available and get collected. Results that are
+ * still not available are dropped instead of waiting for them,
+ * so the timer never stalls the pipeline.
+ */
+public class GPUTimerImpl implements GPUTimer {
+
+    /** Amount of frames queries stay in flight */
+    public static final int FRAMES = 3;
+
+    /** Query names per frame slot, two per render note */
+    private final int[][] queries = new int[FRAMES][];
+    /** Measured render notes per frame slot */
+    private final RenderNote[][] notes = new RenderNote[FRAMES][];
+    /** Amount of measured notes per frame slot */
+    private final int[] used = new int[FRAMES];
+    /** GPU time histories per render note */
+    private final Map<RenderNote, TimingHistory> histories = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** The renderer */
+    private CerberusRenderer renderer;
+    /** Current frame slot */
+    private int frame;
+    /** Whether queries are issued during the current frame */
+    private boolean active;
+    /** 0 = unknown, 1 = supported, -1 = unsupported */
+    private int support;
+    /** Whether measurements are enabled */
+    private volatile boolean enabled;
+    /** Amount of samples kept per render note */
+    private int historySize;
+
+    public GPUTimerImpl() {
+        enabled = getRenderer().getSettings().getBoolean("gpu_timer", true);
+        historySize = Math.max(1, getRenderer().getSettings().getInteger("gpu_timer_history", 120));
+    }
+
+    /**
+     * Starts a new frame and collects the results of the frame
+     * that was previously using the same slot.
+     *
+     * This has to be called on the render thread before any
+     * render note gets rendered.
+     */
+    void beginFrame() {
+        active = false;
+        if (support == 0)
+            support = detectSupport() ? 1 : -1;
+        if (support < 0)
+            return;
+
+        frame = (frame + 1) % FRAMES;
+        collect(frame);
+        active = enabled;
+    }
+
+    /**
+     * Issues the starting timestamp of a render note.
+     * @param note render note
+     */
+    void begin(RenderNote note) {
+        if (!active)
+            return;
+
+        int index = used[frame];
+        if (queries[frame] == null || queries[frame].length < (index + 1) * 2)
+            grow(frame, Math.max(8, index * 2));
+        glQueryCounter(queries[frame][index * 2], GL_TIMESTAMP);
+    }
+
+    /**
+     * Issues the closing timestamp of a render note.
+     * @param note render note
+     */
+    void end(RenderNote note) {
+        if (!active)
+            return;
+
+        int index = used[frame]++;
+        glQueryCounter(queries[frame][index * 2 + 1], GL_TIMESTAMP);
+        notes[frame][index] = note;
+    }
+
+    private void collect(int slot) {
+        int[] slotQueries = queries[slot];
+        RenderNote[] slotNotes = notes[slot];
+        for (int i = 0; i < used[slot]; i++) {
+            RenderNote note = slotNotes[i];
+            slotNotes[i] = null;
+            if (glGetQueryObjecti(slotQueries[i * 2 + 1], GL_QUERY_RESULT_AVAILABLE) == GL_FALSE)
+                continue;
+
+            long start = glGetQueryObjectui64(slotQueries[i * 2], GL_QUERY_RESULT);
+            long end = glGetQueryObjectui64(slotQueries[i * 2 + 1], GL_QUERY_RESULT);
+            histories.computeIfAbsent(note, key -> new TimingHistory(historySize)).add((end - start) * 1e-6);
+        }
+        used[slot] = 0;
+    }
+
+    private void grow(int slot, int capacity) {
+        int[] grown = new int[capacity * 2];
+        int old = 0;
+        if (queries[slot] != null) {
+            old = queries[slot].length;
+            System.arraycopy(queries[slot], 0, grown, 0, old);
+        }
+
+        int[] names = new int[grown.length - old];
+        glGenQueries(names);
+        System.arraycopy(names, 0, grown, old, names.length);
+        queries[slot] = grown;
+
+        RenderNote[] grownNotes = new RenderNote[capacity];
+        if (notes[slot] != null)
+            System.arraycopy(notes[slot], 0, grownNotes, 0, notes[slot].length);
+        notes[slot] = grownNotes;
+    }
+
+    private boolean detectSupport() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        boolean supported = capabilities.OpenGL33 || capabilities.GL_ARB_timer_query;
+        if (!supported)
+            CerberusRegistry.getInstance().warning("Timer queries are not supported, GPU timings are disabled");
+        return supported;
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    @Override
+    public boolean isSupported() {
+        return support > 0;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public TimingHistory getHistory(RenderNote note) {
+        return histories.get(note);
+    }
+
+    @Override
+    public void clearHistories() {
+        histories.clear();
+    }
+
+    @Override
+    public void destroy() {
+        for (int i = 0; i < FRAMES; i++) {
+            if (queries[i] != null) {
+                glDeleteQueries(queries[i]);
+                queries[i] = null;
+            }
+            notes[i] = null;
+            used[i] = 0;
+        }
+        active = false;
+        histories.clear();
+    }
+}
@@ -73,14 +73,17 @@ public abstract class RenderNote implements Updatable, Destroyable {
      * the child note.
      *
      * @param delta time passed since last call in seconds
+     * @param timer GPU timer measuring the note
      */
-    void render(double delta) {
+    void render(double delta, GPUTimerImpl timer) {
         long time = System.nanoTime();
+        timer.begin(this);
         update(delta);
+        timer.end(this);
         renderTime = (int) (System.nanoTime() - time);
 
         if (hasChild())
-            child.render(delta);
+            child.render(delta, timer);
     }
 
     /**
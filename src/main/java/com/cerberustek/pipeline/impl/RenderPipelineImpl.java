@@ -31,7 +31,6 @@ import com.cerberustek.events.FrameBufferSizeEvent;
 import com.cerberustek.pipeline.RenderPipeline;
 import com.cerberustek.pipeline.RenderScene;
 import com.cerberustek.texture.RenderTarget;
-import com.cerberustek.util.PriorityConsumer;
 import com.cerberustek.window.Window;
 import org.jetbrains.annotations.NotNull;
 
@@ -53,6 +52,12 @@ public class RenderPipelineImpl implements RenderPipeline, EventListener {
     private RenderScene renderScene;
     /** The current time delta offset on the render pipeline */
     private double currentDelta;
+    /** Time of the last unhandled resize request in ns, or 0 */
+    private volatile long resizeRequest;
+    /** Time a resize request has to settle before resizing in ns */
+    private long resizeDebounce = -1;
+    /** Measures the GPU time of the render notes */
+    private GPUTimerImpl gpuTimer;
 
     @Override
     public RenderScene setScene(RenderScene scene) {
@@ -205,14 +210,28 @@ public class RenderPipelineImpl implements RenderPipeline, EventListener {
         if (renderScene != null)
             renderScene.destroy();
         clearNotes();
+        if (gpuTimer != null)
+            gpuTimer.destroy();
     }
 
     @Override
     public void update(double delta) {
         currentDelta = delta;
+        long request = resizeRequest;
+        if (request != 0 && System.nanoTime() - request >= getResizeDebounce()) {
+            resizeRequest = 0;
+            if (note != null) {
+                resize();
+                // the targets of the previous size are not needed anymore
+                getRenderer().getTextureBoard().trimRenderTargets();
+            }
+        }
+
         if (!empty()) {
             renderScene.updateMatrices(delta);
-            note.render(delta);
+            GPUTimerImpl timer = getGPUTimer();
+            timer.beginFrame();
+            note.render(delta, timer);
         } else {
             CerberusRegistry.getInstance().fine("Cannot render anything: there is either no scene or the" +
                     " render pipeline is empty. This will probably fix itself");
@@ -224,6 +243,13 @@ public class RenderPipelineImpl implements RenderPipeline, EventListener {
         return currentDelta;
     }
 
+    @Override
+    public GPUTimerImpl getGPUTimer() {
+        if (gpuTimer == null)
+            gpuTimer = new GPUTimerImpl();
+        return gpuTimer;
+    }
+
     @Override
     public boolean onEvent(Event event) {
         /* This event handler will automatically insure
@@ -232,8 +258,18 @@ public class RenderPipelineImpl implements RenderPipeline, EventListener {
         * If the size of the main framebuffer is changed in
         * such a way the a FrameBufferSizeEvent gets triggered,
         * all rendering notes are automatically rescaled from
-        * here. */
+        * here.
+        * While the window is being dragged, a new event arrives
+        * every frame, so the notes are only rescaled once the
+        * size did not change for the debounce time. */
+
+        resizeRequest = System.nanoTime();
+        return true;
+    }
 
-        return getRenderer().nextGLTask(new PriorityConsumer(t -> this.resize()));
+    private long getResizeDebounce() {
+        if (resizeDebounce < 0)
+            resizeDebounce = getRenderer().getSettings().getInteger("resize_debounce", 100) * 1000000L;
+        return resizeDebounce;
     }
 }
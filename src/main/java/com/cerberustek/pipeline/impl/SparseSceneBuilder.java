@@ -122,7 +122,18 @@ public class SparseSceneBuilder implements RenderSceneBuilder {
         if (mesh == null)
             return;
 
-        VertexBuffer vertices = mesh.getVertexBuffer();
+        partition(renderable, mesh.getVertexBuffer());
+    }
+
+    /**
+     * Inserts a renderable into the partition of its vertex
+     * buffer, such that all renderables sharing a vertex buffer
+     * are drawn consecutively.
+     *
+     * @param renderable renderable to insert
+     * @param vertices vertex buffer of the renderable
+     */
+    protected void partition(Renderable renderable, VertexBuffer vertices) {
         if (!vertexBuffers.contains(vertices)) {
             // Add new vertex buffer
             vertexBuffers.add(vertices);
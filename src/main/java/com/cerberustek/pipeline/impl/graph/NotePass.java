@@ -0,0 +1,59 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.RenderGraphContext;
+import com.cerberustek.pipeline.RenderGraphPass;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.window.Window;
+
+/**
+ * Render pass executing a render note, which manages its own
+ * render targets.
+ *
+ * The render targets of the note can be imported into the graph
+ * if the note is an input provider.
+ */
+public class NotePass implements RenderGraphPass {
+
+    private final RenderNote note;
+
+    public NotePass(RenderNote note) {
+        this.note = note;
+    }
+
+    @Override
+    public void execute(RenderGraphContext context, double delta) {
+        note.update(delta);
+    }
+
+    @Override
+    public void reinit(Window window) {
+        note.reinit(window);
+    }
+
+    @Override
+    public void destroy() {
+        note.destroy();
+    }
+}
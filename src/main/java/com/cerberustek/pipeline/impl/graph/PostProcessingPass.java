@@ -0,0 +1,74 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.RenderGraphContext;
+import com.cerberustek.pipeline.RenderGraphPass;
+import com.cerberustek.pipeline.impl.notes.PostProcessingNote;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.window.Window;
+
+/**
+ * Render pass executing a post processing note.
+ *
+ * The note renders into the render target assigned to the output
+ * resource of the pass, instead of its own frame buffer. Inputs
+ * of the note should be providers obtained from the context of
+ * the render graph note.
+ */
+public class PostProcessingPass implements RenderGraphPass {
+
+    private final PostProcessingNote note;
+    private final String output;
+
+    /**
+     * Post processing pass.
+     * @param note post processing note
+     * @param output name of the resource the note renders into
+     */
+    public PostProcessingPass(PostProcessingNote note, String output) {
+        this.note = note;
+        this.output = output;
+    }
+
+    @Override
+    public void execute(RenderGraphContext context, double delta) {
+        TextureResource target = context.getTarget(output);
+        if (!(target instanceof FrameBufferResource))
+            throw new IllegalStateException("Render target of " + output + " is not a frame buffer");
+
+        note.setTarget((FrameBufferResource) target);
+        note.update(delta);
+    }
+
+    @Override
+    public void reinit(Window window) {
+        // the render target is resized by the render graph
+    }
+
+    @Override
+    public void destroy() {
+        note.destroy();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.InputProvider;
+import com.cerberustek.pipeline.RenderGraphPass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Declaration of render passes and the resources they read and
+ * write.
+ *
+ * Every resource is written by exactly one pass. Transient
+ * resources are owned by the graph and may share their physical
+ * render target with other transient resources. Imported resources
+ * are owned by someone else, e.g. a scene note, and are never
+ * shared.
+ *
+ * Passes are only executed, if they have side effects (e.g. drawing
+ * to the window), or if they write a resource that is an output of
+ * the graph or read by an executed pass. The order of declaration
+ * does not matter, the compiler orders the passes by their
+ * dependencies.
+ *
+ * The graph itself does not use any gl functions, so it can be
+ * compiled and inspected on the cpu alone.
+ */
+public class RenderGraph {
+
+    final ArrayList<Resource> resources = new ArrayList<>();
+    final ArrayList<Pass> passes = new ArrayList<>();
+    private final HashMap<String, Resource> resourceNames = new HashMap<>();
+    private final HashMap<String, Pass> passNames = new HashMap<>();
+
+    /**
+     * Will declare a transient resource, which is owned by the
+     * graph.
+     * @param name resource name
+     * @param target render target description
+     * @return this render graph
+     */
+    public RenderGraph addTarget(@NotNull String name, @NotNull RenderGraphTarget target) {
+        addResource(new Resource(resources.size(), name, target, null));
+        return this;
+    }
+
+    /**
+     * Will declare a resource, whose render target is provided
+     * from outside of the graph.
+     * @param name resource name
+     * @param provider provider of the render target
+     * @return this render graph
+     */
+    public RenderGraph importTarget(@NotNull String name, @NotNull InputProvider provider) {
+        addResource(new Resource(resources.size(), name, null, provider));
+        return this;
+    }
+
+    /**
+     * Will mark a resource as output of the graph.
+     *
+     * Outputs keep their render target to themselves and are
+     * valid after the graph has been executed.
+     * @param name resource name
+     * @return this render graph
+     */
+    public RenderGraph addOutput(@NotNull String name) {
+        resource(name).output = true;
+        return this;
+    }
+
+    /**
+     * Will declare a render pass.
+     * @param name pass name
+     * @param pass render pass
+     * @param reads names of the resources read by the pass
+     * @param writes names of the resources written by the pass
+     * @return this render graph
+     */
+    public RenderGraph addPass(@NotNull String name, @NotNull RenderGraphPass pass, @NotNull String[] reads,
+                               @NotNull String[] writes) {
+        return addPass(name, pass, reads, writes, false);
+    }
+
+    /**
+     * Will declare a render pass.
+     *
+     * Passes with side effects are never culled.
+     * @param name pass name
+     * @param pass render pass
+     * @param reads names of the resources read by the pass
+     * @param writes names of the resources written by the pass
+     * @param sideEffects pass has side effects
+     * @return this render graph
+     */
+    public RenderGraph addPass(@NotNull String name, @NotNull RenderGraphPass pass, @NotNull String[] reads,
+                               @NotNull String[] writes, boolean sideEffects) {
+        if (passNames.containsKey(name))
+            throw new IllegalArgumentException("Render pass " + name + " is already declared");
+
+        Pass declared = new Pass(passes.size(), name, pass, sideEffects);
+        for (String read : reads)
+            declared.reads.add(resource(read));
+        for (String write : writes) {
+            Resource resource = resource(write);
+            if (resource.writer != null)
+                throw new IllegalArgumentException("Resource " + write + " is already written by render pass "
+                        + resource.writer.name);
+            resource.writer = declared;
+            declared.writes.add(resource);
+        }
+
+        passes.add(declared);
+        passNames.put(name, declared);
+        return this;
+    }
+
+    /**
+     * Will compile the graph.
+     * @return compiled schedule
+     * @throws IllegalStateException thrown, if the graph contains
+     *          a cycle or a transient resource is read, but never
+     *          written
+     */
+    public RenderGraphSchedule compile() throws IllegalStateException {
+        return RenderGraphCompiler.compile(this);
+    }
+
+    /**
+     * Returns true, if a resource with the specified name has
+     * been declared.
+     * @param name resource name
+     * @return resource declared
+     */
+    public boolean hasResource(String name) {
+        return resourceNames.containsKey(name);
+    }
+
+    Resource resource(String name) {
+        Resource resource = resourceNames.get(name);
+        if (resource == null)
+            throw new IllegalArgumentException("Unknown render graph resource " + name);
+        return resource;
+    }
+
+    private void addResource(Resource resource) {
+        if (resourceNames.containsKey(resource.name))
+            throw new IllegalArgumentException("Resource " + resource.name + " is already declared");
+        resources.add(resource);
+        resourceNames.put(resource.name, resource);
+    }
+
+    static class Resource {
+
+        final int id;
+        final String name;
+        /** Transient render target, or null if imported */
+        final RenderGraphTarget target;
+        /** Provider of imported render targets */
+        final InputProvider provider;
+        boolean output;
+        Pass writer;
+
+        private Resource(int id, String name, RenderGraphTarget target, InputProvider provider) {
+            this.id = id;
+            this.name = name;
+            this.target = target;
+            this.provider = provider;
+        }
+
+        boolean isTransient() {
+            return target != null;
+        }
+    }
+
+    static class Pass {
+
+        final int id;
+        final String name;
+        final RenderGraphPass pass;
+        final boolean sideEffects;
+        final ArrayList<Resource> reads = new ArrayList<>();
+        final ArrayList<Resource> writes = new ArrayList<>();
+
+        private Pass(int id, String name, RenderGraphPass pass, boolean sideEffects) {
+            this.id = id;
+            this.name = name;
+            this.pass = pass;
+            this.sideEffects = sideEffects;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Pass;
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Resource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Compiles a render graph into an execution schedule.
+ *
+ * The compiler
+ *  1. culls all passes that neither have side effects, nor
+ *     contribute to an output or a pass with side effects,
+ *  2. orders the remaining passes topologically, preferring
+ *     the order of declaration where the dependencies allow it,
+ *  3. computes the lifetime of each resource as the range of
+ *     scheduled passes between its writer and its last reader and
+ *  4. assigns the transient resources to physical render targets.
+ *     Resources with the same target description share a render
+ *     target, if their lifetimes are strictly disjoint. Outputs
+ *     always get a render target of their own.
+ */
+final class RenderGraphCompiler {
+
+    private RenderGraphCompiler() {}
+
+    static RenderGraphSchedule compile(RenderGraph graph) {
+        int passCount = graph.passes.size();
+        int resourceCount = graph.resources.size();
+
+        boolean[] scheduled = cull(graph);
+        int[] order = sort(graph, scheduled);
+
+        // lifetimes in schedule positions
+        int[] first = new int[resourceCount];
+        int[] last = new int[resourceCount];
+        Arrays.fill(first, -1);
+        Arrays.fill(last, -1);
+        for (int i = 0; i < order.length; i++) {
+            Pass pass = graph.passes.get(order[i]);
+            for (Resource resource : pass.writes)
+                use(first, last, resource.id, i);
+            for (Resource resource : pass.reads)
+                use(first, last, resource.id, i);
+        }
+
+        // aliasing of transient resources in order of their first use
+        Integer[] transients = graph.resources.stream()
+                .filter(resource -> resource.isTransient() && first[resource.id] >= 0)
+                .map(resource -> resource.id)
+                .sorted((a, b) -> first[a] != first[b] ? Integer.compare(first[a], first[b]) : Integer.compare(a, b))
+                .toArray(Integer[]::new);
+
+        int[] slots = new int[resourceCount];
+        Arrays.fill(slots, -1);
+        ArrayList<RenderGraphTarget> slotTargets = new ArrayList<>();
+        ArrayList<Integer> slotLastUse = new ArrayList<>();
+
+        for (int id : transients) {
+            Resource resource = graph.resources.get(id);
+            int end = resource.output ? Integer.MAX_VALUE : last[id];
+
+            int slot = -1;
+            for (int s = 0; !resource.output && s < slotTargets.size(); s++) {
+                // a pass reading one resource and writing an other one
+                // needs both at the same time, so lifetimes have to be
+                // strictly disjoint
+                if (slotLastUse.get(s) < first[id] && slotTargets.get(s).equals(resource.target)) {
+                    slot = s;
+                    break;
+                }
+            }
+
+            if (slot < 0) {
+                slot = slotTargets.size();
+                slotTargets.add(resource.target);
+                slotLastUse.add(end);
+            } else
+                slotLastUse.set(slot, end);
+            slots[id] = slot;
+        }
+
+        boolean[] culled = new boolean[passCount];
+        for (int i = 0; i < passCount; i++)
+            culled[i] = !scheduled[i];
+        return new RenderGraphSchedule(graph, order, culled, first, last, slots, slotTargets);
+    }
+
+    /**
+     * Will mark all passes that have to be executed.
+     * @param graph render graph
+     * @return executed passes by id
+     */
+    private static boolean[] cull(RenderGraph graph) {
+        boolean[] scheduled = new boolean[graph.passes.size()];
+        ArrayDeque<Pass> work = new ArrayDeque<>();
+
+        for (Resource resource : graph.resources) {
+            if (resource.output && resource.writer == null && resource.isTransient())
+                throw new IllegalStateException("Output " + resource.name + " is never written");
+        }
+
+        for (Pass pass : graph.passes) {
+            boolean root = pass.sideEffects;
+            for (Resource resource : pass.writes)
+                root |= resource.output;
+
+            if (root) {
+                scheduled[pass.id] = true;
+                work.add(pass);
+            }
+        }
+
+        while (!work.isEmpty()) {
+            Pass pass = work.poll();
+            for (Resource resource : pass.reads) {
+                Pass writer = resource.writer;
+                if (writer == null) {
+                    if (resource.isTransient())
+                        throw new IllegalStateException("Render pass " + pass.name + " reads " + resource.name
+                                + ", which is never written");
+                    continue;
+                }
+                if (writer == pass)
+                    throw new IllegalStateException("Render pass " + pass.name + " reads its own output "
+                            + resource.name);
+
+                if (!scheduled[writer.id]) {
+                    scheduled[writer.id] = true;
+                    work.add(writer);
+                }
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * Will order the scheduled passes topologically.
+     *
+     * Of all passes whose dependencies have been met, the one
+     * declared first is executed first.
+     * @param graph render graph
+     * @param scheduled executed passes by id
+     * @return pass ids in execution order
+     */
+    private static int[] sort(RenderGraph graph, boolean[] scheduled) {
+        int passCount = graph.passes.size();
+        int[] dependencies = new int[passCount];
+        ArrayList<ArrayList<Pass>> dependents = new ArrayList<>(passCount);
+        for (int i = 0; i < passCount; i++)
+            dependents.add(new ArrayList<>());
+
+        int count = 0;
+        for (Pass pass : graph.passes) {
+            if (!scheduled[pass.id])
+                continue;
+
+            count++;
+            for (Resource resource : pass.reads) {
+                if (resource.writer != null) {
+                    dependents.get(resource.writer.id).add(pass);
+                    dependencies[pass.id]++;
+                }
+            }
+        }
+
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (Pass pass : graph.passes) {
+            if (scheduled[pass.id] && dependencies[pass.id] == 0)
+                ready.add(pass.id);
+        }
+
+        int[] order = new int[count];
+        int index = 0;
+        while (!ready.isEmpty()) {
+            int id = ready.poll();
+            order[index++] = id;
+            for (Pass dependent : dependents.get(id)) {
+                if (--dependencies[dependent.id] == 0)
+                    ready.add(dependent.id);
+            }
+        }
+
+        if (index < count) {
+            StringBuilder builder = new StringBuilder("Render graph contains a cycle between:");
+            for (Pass pass : graph.passes) {
+                if (scheduled[pass.id] && dependencies[pass.id] > 0)
+                    builder.append(' ').append(pass.name);
+            }
+            throw new IllegalStateException(builder.toString());
+        }
+        return order;
+    }
+
+    private static void use(int[] first, int[] last, int id, int position) {
+        if (first[id] < 0 || position < first[id])
+            first[id] = position;
+        if (position > last[id])
+            last[id] = position;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.pipeline.InputProvider;
+import com.cerberustek.pipeline.RenderGraphContext;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Pass;
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Resource;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.texture.AttachmentType;
+import com.cerberustek.texture.TextureBoard;
+import com.cerberustek.texture.impl.SimpleAttachment;
+import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.window.Window;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+
+/**
+ * Render note executing a compiled render graph.
+ *
+ * The note allocates one frame buffer per slot of the schedule,
+ * so transient resources with disjoint lifetimes share the same
+ * frame buffer. The output of the note is the render target of
+ * the output resource specified on construction.
+ *
+ * The note can be inserted into the render pipeline just like
+ * any other render note.
+ */
+public class RenderGraphNote extends RenderNote implements InputProvider, RenderGraphContext {
+
+    private final RenderGraph graph;
+    private final Resource output;
+    private final HashMap<String, InputProvider> providers = new HashMap<>();
+
+    private RenderGraphSchedule schedule;
+    private FrameBufferResource[] targets;
+
+    private CerberusRenderer renderer;
+
+    /**
+     * Creates a render note executing the render graph.
+     * @param graph render graph
+     * @param output name of the resource provided by this note
+     * @throws IllegalStateException thrown, if the graph cannot
+     *          be compiled
+     */
+    public RenderGraphNote(@NotNull RenderGraph graph, @NotNull String output) throws IllegalStateException {
+        this.graph = graph;
+        graph.addOutput(output);
+        this.output = graph.resource(output);
+
+        schedule = graph.compile();
+        targets = setupTargets(null, getRenderer().getWindow().getScreenSize());
+    }
+
+    /**
+     * Will compile the render graph again.
+     *
+     * This has to be called after passes or resources have been
+     * added to the graph.
+     * @throws IllegalStateException thrown, if the graph cannot
+     *          be compiled
+     */
+    public void recompile() throws IllegalStateException {
+        schedule = graph.compile();
+        targets = setupTargets(targets, getRenderer().getWindow().getScreenSize());
+    }
+
+    /**
+     * Returns the compiled schedule.
+     * @return schedule
+     */
+    public RenderGraphSchedule getSchedule() {
+        return schedule;
+    }
+
+    @Override
+    public void update(double delta) {
+        for (int i = 0; i < schedule.size(); i++)
+            schedule.getPass(i).pass.execute(this, delta);
+    }
+
+    @Override
+    public void reinit(Window window) {
+        targets = setupTargets(targets, window.getScreenSize());
+
+        for (Pass pass : graph.passes)
+            pass.pass.reinit(window);
+    }
+
+    @Override
+    public void destroy() {
+        deleteTargets(targets);
+        targets = null;
+
+        for (Pass pass : graph.passes)
+            pass.pass.destroy();
+    }
+
+    @Override
+    public TextureResource getTarget(String name) {
+        Resource resource = graph.resource(name);
+        if (!resource.isTransient())
+            return resource.provider.fetchOutput();
+
+        int slot = schedule.getSlot(resource);
+        if (slot < 0 || targets == null)
+            return null;
+        return targets[slot];
+    }
+
+    @Override
+    public InputProvider getProvider(String name) {
+        // fail early on unknown names
+        graph.resource(name);
+        return providers.computeIfAbsent(name, key -> () -> getTarget(key));
+    }
+
+    @Override
+    public TextureResource fetchOutput() {
+        return getTarget(output.name);
+    }
+
+    private FrameBufferResource[] setupTargets(FrameBufferResource[] targets, Vector2i screenSize) {
+        deleteTargets(targets);
+
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        FrameBufferResource[] created = new FrameBufferResource[schedule.getSlotCount()];
+        for (int slot = 0; slot < created.length; slot++) {
+            RenderGraphTarget target = schedule.getSlotTarget(slot);
+            Vector2i size = target.size(screenSize);
+
+            TextureEmpty2D texture = new TextureEmpty2D(1);
+            texture.genTextures();
+            texture.initTexture(0, target.getUnit(), size, target.getType());
+
+            created[slot] = new FrameBufferResource(size, texture, false,
+                    new SimpleAttachment(0, AttachmentType.COLOR_00));
+            textureBoard.loadTexture(created[slot]);
+        }
+        return created;
+    }
+
+    private void deleteTargets(FrameBufferResource[] targets) {
+        if (targets == null)
+            return;
+
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        for (FrameBufferResource target : targets)
+            textureBoard.deleteTexture(target);
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+}
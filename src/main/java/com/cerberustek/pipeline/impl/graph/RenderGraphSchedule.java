@@ -0,0 +1,208 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Pass;
+import com.cerberustek.pipeline.impl.graph.RenderGraph.Resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Execution plan of a compiled render graph.
+ *
+ * The schedule contains the order in which the passes are
+ * executed, the passes that have been culled and the physical
+ * render target (slot) every transient resource is assigned to.
+ * Imported resources and resources that are never used are
+ * assigned to no slot.
+ */
+public class RenderGraphSchedule {
+
+    private final RenderGraph graph;
+    private final int[] order;
+    private final boolean[] culled;
+    private final int[] firstUse;
+    private final int[] lastUse;
+    private final int[] slots;
+    private final List<RenderGraphTarget> slotTargets;
+
+    RenderGraphSchedule(RenderGraph graph, int[] order, boolean[] culled, int[] firstUse, int[] lastUse,
+                        int[] slots, List<RenderGraphTarget> slotTargets) {
+        this.graph = graph;
+        this.order = order;
+        this.culled = culled;
+        this.firstUse = firstUse;
+        this.lastUse = lastUse;
+        this.slots = slots;
+        this.slotTargets = Collections.unmodifiableList(slotTargets);
+    }
+
+    /**
+     * Returns the names of the executed passes in execution order.
+     * @return executed passes
+     */
+    public List<String> getPasses() {
+        ArrayList<String> names = new ArrayList<>(order.length);
+        for (int id : order)
+            names.add(graph.passes.get(id).name);
+        return names;
+    }
+
+    /**
+     * Returns the names of the passes that are never executed.
+     * @return culled passes
+     */
+    public List<String> getCulledPasses() {
+        ArrayList<String> names = new ArrayList<>();
+        for (Pass pass : graph.passes) {
+            if (culled[pass.id])
+                names.add(pass.name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns true, if the pass with the specified name is never
+     * executed.
+     * @param pass pass name
+     * @return pass culled
+     */
+    public boolean isCulled(String pass) {
+        for (Pass declared : graph.passes) {
+            if (declared.name.equals(pass))
+                return culled[declared.id];
+        }
+        throw new IllegalArgumentException("Unknown render pass " + pass);
+    }
+
+    /**
+     * Returns the slot of the physical render target the resource
+     * is assigned to, or -1 if the resource is imported or never
+     * used.
+     * @param resource resource name
+     * @return slot
+     */
+    public int getSlot(String resource) {
+        return slots[graph.resource(resource).id];
+    }
+
+    /**
+     * Returns the amount of physical render targets required.
+     * @return slot count
+     */
+    public int getSlotCount() {
+        return slotTargets.size();
+    }
+
+    /**
+     * Returns the description of the physical render target of a
+     * slot.
+     * @param slot slot
+     * @return render target description
+     */
+    public RenderGraphTarget getSlotTarget(int slot) {
+        return slotTargets.get(slot);
+    }
+
+    /**
+     * Returns the position in the schedule of the first pass using
+     * the resource, or -1 if the resource is never used.
+     * @param resource resource name
+     * @return first use
+     */
+    public int getFirstUse(String resource) {
+        return firstUse[graph.resource(resource).id];
+    }
+
+    /**
+     * Returns the position in the schedule of the last pass using
+     * the resource, or -1 if the resource is never used.
+     * @param resource resource name
+     * @return last use
+     */
+    public int getLastUse(String resource) {
+        return lastUse[graph.resource(resource).id];
+    }
+
+    /**
+     * Returns the amount of executed passes.
+     * @return pass count
+     */
+    public int size() {
+        return order.length;
+    }
+
+    RenderGraph getGraph() {
+        return graph;
+    }
+
+    Pass getPass(int index) {
+        return graph.passes.get(order[index]);
+    }
+
+    int getSlot(Resource resource) {
+        return slots[resource.id];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("RenderGraphSchedule{").append(order.length).append(" passes, ")
+                .append(slotTargets.size()).append(" targets}");
+
+        for (int i = 0; i < order.length; i++) {
+            Pass pass = graph.passes.get(order[i]);
+            builder.append("\n  ").append(i).append(": ").append(pass.name).append(" reads [");
+            appendResources(builder, pass.reads);
+            builder.append("] writes [");
+            appendResources(builder, pass.writes);
+            builder.append(']');
+        }
+
+        for (int slot = 0; slot < slotTargets.size(); slot++) {
+            builder.append("\n  #").append(slot).append(' ').append(slotTargets.get(slot)).append(':');
+            for (Resource resource : graph.resources) {
+                if (slots[resource.id] == slot)
+                    builder.append(' ').append(resource.name).append('[').append(firstUse[resource.id]).append(',')
+                            .append(resource.output ? "end" : String.valueOf(lastUse[resource.id])).append(']');
+            }
+        }
+
+        List<String> culledPasses = getCulledPasses();
+        if (!culledPasses.isEmpty())
+            builder.append("\n  culled: ").append(culledPasses);
+        return builder.toString();
+    }
+
+    private void appendResources(StringBuilder builder, List<Resource> resources) {
+        for (int i = 0; i < resources.size(); i++) {
+            if (i > 0)
+                builder.append(", ");
+            Resource resource = resources.get(i);
+            builder.append(resource.name);
+            if (slots[resource.id] >= 0)
+                builder.append('#').append(slots[resource.id]);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.texture.ImageType;
+
+import java.util.Objects;
+
+/**
+ * Description of a transient render target of a render graph.
+ *
+ * Transient resources with equal descriptions can share the same
+ * physical render target, if their lifetimes do not overlap.
+ */
+public class RenderGraphTarget {
+
+    private final int divisor;
+    private final ImageType type;
+    private final int unit;
+
+    /**
+     * Render target with the size of the screen divided by the
+     * divisor.
+     *
+     * @param divisor screen size divisor
+     * @param type image type of the color attachment
+     * @param unit active texture unit of the color attachment
+     */
+    public RenderGraphTarget(int divisor, ImageType type, int unit) {
+        if (divisor <= 0)
+            throw new IllegalArgumentException("Render target divisor has to be positive: " + divisor);
+
+        this.divisor = divisor;
+        this.type = Objects.requireNonNull(type);
+        this.unit = unit;
+    }
+
+    /**
+     * Render target with the size of the screen.
+     *
+     * @param type image type of the color attachment
+     * @param unit active texture unit of the color attachment
+     */
+    public RenderGraphTarget(ImageType type, int unit) {
+        this(1, type, unit);
+    }
+
+    /**
+     * Returns the size of the render target for the specified
+     * screen size.
+     * @param screenSize screen size
+     * @return render target size
+     */
+    public Vector2i size(Vector2i screenSize) {
+        return new Vector2i(Math.max(screenSize.getX() / divisor, 1), Math.max(screenSize.getY() / divisor, 1));
+    }
+
+    public int getDivisor() {
+        return divisor;
+    }
+
+    public ImageType getType() {
+        return type;
+    }
+
+    public int getUnit() {
+        return unit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RenderGraphTarget))
+            return false;
+        RenderGraphTarget target = (RenderGraphTarget) o;
+        return divisor == target.divisor && unit == target.unit && type == target.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(divisor, type, unit);
+    }
+
+    @Override
+    public String toString() {
+        return type + "/" + divisor + "@" + unit;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.GLComputeException;
+import com.cerberustek.exceptions.GLShaderTypeException;
+import com.cerberustek.exceptions.GLUnknownUniformException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.pipeline.InputProvider;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.BaseShaderResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.resource.shader.ShaderCodeResource;
+import com.cerberustek.resource.shader.ShaderResource;
+import com.cerberustek.settings.Settings;
+import com.cerberustek.shader.Shader;
+import com.cerberustek.shader.ShaderBoard;
+import com.cerberustek.shader.ShaderType;
+import com.cerberustek.shader.uniform.Uniform1f;
+import com.cerberustek.shader.uniform.Uniform1i;
+import com.cerberustek.shader.uniform.Uniform2i;
+import com.cerberustek.shader.uniform.Uniform3f;
+import com.cerberustek.texture.AttachmentType;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.Texture;
+import com.cerberustek.texture.TextureBoard;
+import com.cerberustek.texture.impl.SimpleAttachment;
+import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.window.Window;
+
+import java.util.function.Consumer;
+
+import static org.lwjgl.opengl.GL15.GL_READ_WRITE;
+import static org.lwjgl.opengl.GL15.GL_WRITE_ONLY;
+import static org.lwjgl.opengl.GL42.*;
+
+/**
+ * Bloom computed by a progressive downsample and upsample through
+ * the mip chain of a single texture.
+ *
+ * The first level holds the bright parts of the screen at half
+ * resolution. Every further level is downsampled from the previous
+ * one with a 13 tap filter. The levels are then blurred back up
+ * with a tent filter, adding each level onto the next larger one,
+ * so the first level ends up with the bloom of all levels. As the
+ * blur width grows with every level instead of with the kernel
+ * size, wide bloom does not get more expensive at higher
+ * resolutions.
+ *
+ * The bloom is bound at the GLOW unit and can replace the glow
+ * note as input of the tone mapping note.
+ */
+public class BloomNote extends RenderNote implements InputProvider {
+
+    public final static String DOWN_SHADER = "shader.bloom_down";
+    public final static String UP_SHADER = "shader.bloom_up";
+
+    private final static ImageType FORMAT = ImageType.RGBA_16_FLOAT;
+    private final static int LOCAL_SIZE = 8;
+    /** levels are not reduced below this size */
+    private final static int MIN_LEVEL_SIZE = 8;
+
+    private final InputProvider input;
+    private final int inputUnit;
+    private final int maxLevels;
+
+    private float threshold;
+    private float knee;
+    private float radius = 1f;
+
+    private FrameBufferResource frameBuffer;
+    private Vector2i size;
+    private int levels;
+
+    private CerberusRenderer renderer;
+
+    /**
+     * Bloom of the scene color with the mip count and threshold
+     * specified in the settings (bloom_mips, bloom_threshold and
+     * bloom_knee).
+     * @param screenTexture scene color
+     */
+    public BloomNote(InputProvider screenTexture) {
+        this(screenTexture, SceneNote.COLOR, getSettings().getInteger("bloom_mips", 6),
+                (float) getSettings().getDouble("bloom_threshold", 1d),
+                (float) getSettings().getDouble("bloom_knee", 0.5d));
+    }
+
+    /**
+     * Bloom of an arbitrary input.
+     * @param input input texture
+     * @param inputUnit texture unit of the input texture
+     * @param maxLevels maximum amount of mip levels
+     * @param threshold brightness below which pixels do not bloom
+     * @param knee width of the soft transition around the threshold
+     */
+    public BloomNote(InputProvider input, int inputUnit, int maxLevels, float threshold, float knee) {
+        if (maxLevels < 1)
+            throw new IllegalArgumentException("At least one mip level is required");
+
+        this.input = input;
+        this.inputUnit = inputUnit;
+        this.maxLevels = maxLevels;
+        this.threshold = threshold;
+        this.knee = knee;
+    }
+
+    private static Settings getSettings() {
+        return CerberusRegistry.getInstance().getService(CerberusRenderer.class).getSettings();
+    }
+
+    /**
+     * Computes the amount of mip levels of a bloom texture.
+     * @param size size of the first level
+     * @param maxLevels maximum amount of levels
+     * @return amount of levels
+     */
+    public static int levelCount(Vector2i size, int maxLevels) {
+        int levels = 1;
+        int min = Math.min(size.getX(), size.getY());
+        while (levels < maxLevels && (min >> levels) >= MIN_LEVEL_SIZE)
+            levels++;
+        return levels;
+    }
+
+    private void initTexture(Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        if (frameBuffer != null)
+            textureBoard.deleteTexture(frameBuffer);
+
+        size = new Vector2i(Math.max(screenSize.getX() / 2, 1), Math.max(screenSize.getY() / 2, 1));
+        levels = levelCount(size, maxLevels);
+
+        TextureEmpty2D base = new TextureEmpty2D(1);
+        base.genTextures();
+        base.initTexture(0, GlowNote.GLOW, size, FORMAT);
+        base.initMipmaps(0, levels);
+
+        frameBuffer = new FrameBufferResource(size, base, false, new SimpleAttachment(0, AttachmentType.COLOR_00));
+        textureBoard.loadTexture(frameBuffer);
+    }
+
+    @Override
+    public void update(double v) {
+        TextureResource source = input.fetchOutput();
+        if (source == null)
+            return;
+
+        CerberusRenderer renderer = getRenderer();
+        ShaderBoard shaderBoard = renderer.getShaderBoard();
+        TextureBoard textureBoard = renderer.getTextureBoard();
+
+        Texture sourceTexture = textureBoard.bindTexture(source);
+        if (sourceTexture == null)
+            return;
+        Vector2i screenSize = sourceTexture.getSize(0).xy();
+        if (frameBuffer == null || size.getX() != Math.max(screenSize.getX() / 2, 1)
+                || size.getY() != Math.max(screenSize.getY() / 2, 1))
+            initTexture(screenSize);
+
+        Texture bloom = textureBoard.bindTexture(frameBuffer);
+        if (bloom == null)
+            return;
+        int pointer = bloom.getPointer(0);
+
+        try {
+            Shader down = shaderBoard.bindShader(getShader(DOWN_SHADER, "tonemap/BloomDownComp.glsl",
+                    BloomNote::initDownShader));
+            if (down == null) {
+                CerberusRegistry.getInstance().warning("Failed to bind bloom downsample shader");
+                return;
+            }
+            for (int level = 0; level < levels; level++) {
+                // the first level is read from the input, all other levels from the previous level
+                down.getUniform("SourceTexture", Uniform1i.class).set(level == 0 ? inputUnit : GlowNote.GLOW)
+                        .update();
+                down.getUniform("SourceLevel", Uniform1i.class).set(level == 0 ? 0 : level - 1).update();
+                // only the first level is thresholded
+                if (level < 2)
+                    down.getUniform("Threshold", Uniform3f.class)
+                            .set(new Vector3f(threshold, knee, level == 0 ? 1 : 0)).update();
+                dispatch(shaderBoard, down, pointer, level, GL_WRITE_ONLY);
+            }
+
+            Shader up = shaderBoard.bindShader(getShader(UP_SHADER, "tonemap/BloomUpComp.glsl",
+                    BloomNote::initUpShader));
+            if (up == null) {
+                CerberusRegistry.getInstance().warning("Failed to bind bloom upsample shader");
+                return;
+            }
+            up.getUniform("SourceTexture", Uniform1i.class).set(GlowNote.GLOW).update();
+            up.getUniform("Radius", Uniform1f.class).set(radius).update();
+
+            for (int level = levels - 2; level >= 0; level--) {
+                up.getUniform("SourceLevel", Uniform1i.class).set(level + 1).update();
+                dispatch(shaderBoard, up, pointer, level, GL_READ_WRITE);
+            }
+        } catch (GLComputeException | GLShaderTypeException e) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        } finally {
+            glBindImageTexture(0, 0, 0, false, 0, GL_READ_WRITE, FORMAT.toInternalFormat());
+        }
+    }
+
+    private void dispatch(ShaderBoard shaderBoard, Shader shader, int pointer, int level, int access)
+            throws GLComputeException, GLShaderTypeException {
+        Vector2i target = new Vector2i(Math.max(size.getX() >> level, 1), Math.max(size.getY() >> level, 1));
+        shader.getUniform("TargetSize", Uniform2i.class).set(target).update();
+
+        glBindImageTexture(0, pointer, level, false, 0, access, FORMAT.toInternalFormat());
+        shaderBoard.dispatchCompute(new Vector3i((target.getX() + LOCAL_SIZE - 1) / LOCAL_SIZE,
+                (target.getY() + LOCAL_SIZE - 1) / LOCAL_SIZE, 1));
+        glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT | GL_TEXTURE_FETCH_BARRIER_BIT);
+    }
+
+    /**
+     * Will return a bloom shader consistently throughout all
+     * bloom notes.
+     * @param property property name of the shader
+     * @param code compute shader code name
+     * @param init shader initialization
+     * @return bloom shader
+     */
+    private ShaderResource getShader(String property, String code, Consumer<Shader> init) {
+        CerberusRenderer renderer = getRenderer();
+        ShaderResource resource = renderer.getPropertyMap().getProperty(property, ShaderResource.class);
+        if (resource == null) {
+            ShaderCodeResource computeCode = renderer.getShaderBoard().getShaderCodeLoader().resourceFromName(code);
+
+            resource = new BaseShaderResource(new ShaderCodeResource[] {computeCode},
+                    new ShaderType[] {ShaderType.COMPUTE}, init);
+            return renderer.getPropertyMap().getProperty(property, ShaderResource.class, resource);
+        }
+        return resource;
+    }
+
+    private static void initDownShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "SourceTexture", SceneNote.COLOR));
+            shader.addUniform(new Uniform1i(shader, "SourceLevel", 0));
+            shader.addUniform(new Uniform2i(shader, "TargetSize", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform3f(shader, "Threshold", new Vector3f(1, 0.5f, 0)));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void initUpShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "SourceTexture", GlowNote.GLOW));
+            shader.addUniform(new Uniform1i(shader, "SourceLevel", 1));
+            shader.addUniform(new Uniform2i(shader, "TargetSize", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform1f(shader, "Radius", 1f));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(float threshold) {
+        this.threshold = threshold;
+    }
+
+    public float getKnee() {
+        return knee;
+    }
+
+    public void setKnee(float knee) {
+        this.knee = knee;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * Sets the radius of the upsample filter in texels of the
+     * smaller level.
+     * @param radius upsample filter radius
+     */
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * Returns the amount of mip levels currently in use.
+     * @return amount of mip levels
+     */
+    public int getLevels() {
+        return levels;
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    @Override
+    public FrameBufferResource fetchOutput() {
+        return frameBuffer;
+    }
+
+    @Override
+    public void destroy() {
+        if (frameBuffer != null)
+            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+        frameBuffer = null;
+    }
+
+    @Override
+    public void reinit(Window window) {
+        // the mip chain is resized on the next update
+    }
+}
@@ -37,6 +37,8 @@ import com.cerberustek.events.KeyEvent;
 import com.cerberustek.geometry.DrawMode;
 import com.cerberustek.gui.CFXCanvas;
 import com.cerberustek.gui.CFXComponent;
+import com.cerberustek.gui.CFXDamageRegion;
+import com.cerberustek.gui.CFXPane;
 import com.cerberustek.gui.CFXShader;
 import com.cerberustek.gui.impl.FlatCanvas;
 import com.cerberustek.input.impl.MouseButton;
@@ -105,8 +107,21 @@ public class CFXNote extends RenderNote implements EventListener, InputProvider
     @Override
     public void update(double v) {
         if (getRenderer().getGUIManager().update(root.id()) || alwaysUpdate) {
-            canvas.clear();
-            root.paintComponent(canvas);
+            canvas.beginBatch();
+            if (root instanceof CFXPane && !alwaysUpdate) {
+                // only recomposite the damaged regions of the root pane
+                CFXDamageRegion damage = ((CFXPane) root).getDamage();
+                for (int i = 0; i < damage.size(); i++) {
+                    canvas.setScissor(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i));
+                    canvas.clear();
+                    root.paintComponent(canvas);
+                }
+                canvas.resetScissor();
+            } else {
+                canvas.clear();
+                root.paintComponent(canvas);
+            }
+            canvas.endBatch();
         }
 
         ShaderBoard shaderBoard = getRenderer().getShaderBoard();
@@ -31,6 +31,8 @@ import com.cerberustek.CerberusRenderer;
 import com.cerberustek.events.KeyEvent;
 import com.cerberustek.gui.CFXCanvas;
 import com.cerberustek.gui.CFXComponent;
+import com.cerberustek.gui.CFXDamageRegion;
+import com.cerberustek.gui.CFXPane;
 import com.cerberustek.gui.impl.FlatCanvas;
 import com.cerberustek.input.impl.MouseButton;
 import com.cerberustek.logic.math.Vector2i;
@@ -86,16 +88,31 @@ public class CFXNoteSelfContained extends RenderNote implements EventListener, I
         canvas.destroy();
     }
 
+    private void paintRoot() {
+        if (background != null)
+            canvas.drawTexture(background.fetchOutput(), new Vector2i(0), new Vector2i(0),
+                    canvas.getResolution(), false);
+        else
+            canvas.clear();
+
+        root.paintComponent(canvas);
+    }
+
     @Override
     public void update(double v) {
         if (getRenderer().getGUIManager().update(root.id()) || alwaysUpdate) {
-            if (background != null)
-                canvas.drawTexture(background.fetchOutput(), new Vector2i(0), new Vector2i(0),
-                        canvas.getResolution(), false);
-            else
-                canvas.clear();
-
-            root.paintComponent(canvas);
+            canvas.beginBatch();
+            if (root instanceof CFXPane && !alwaysUpdate) {
+                // only recomposite the damaged regions of the root pane
+                CFXDamageRegion damage = ((CFXPane) root).getDamage();
+                for (int i = 0; i < damage.size(); i++) {
+                    canvas.setScissor(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i));
+                    paintRoot();
+                }
+                canvas.resetScissor();
+            } else
+                paintRoot();
+            canvas.endBatch();
         }
     }
 
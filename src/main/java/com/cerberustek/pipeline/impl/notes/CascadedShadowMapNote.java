@@ -0,0 +1,354 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.camera.Camera;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.GLUnknownUniformException;
+import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.pipeline.Renderable;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.pipeline.impl.notes.shadow.ShadowCascades;
+import com.cerberustek.resource.impl.BaseShaderResource;
+import com.cerberustek.resource.shader.ShaderCodeResource;
+import com.cerberustek.resource.shader.ShaderResource;
+import com.cerberustek.settings.Settings;
+import com.cerberustek.shader.Shader;
+import com.cerberustek.shader.ShaderBoard;
+import com.cerberustek.shader.ShaderType;
+import com.cerberustek.shader.code.ShaderCodeLoader;
+import com.cerberustek.shader.uniform.Uniform1f;
+import com.cerberustek.shader.uniform.Uniform1i;
+import com.cerberustek.shader.uniform.UniformMatrix4f;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTarget;
+import com.cerberustek.util.RenderUtil;
+import com.cerberustek.util.TextureUtil;
+import com.cerberustek.window.Window;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL14.GL_TEXTURE_COMPARE_FUNC;
+import static org.lwjgl.opengl.GL14.GL_TEXTURE_COMPARE_MODE;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.GL_DEPTH_CLAMP;
+import static org.lwjgl.opengl.GL32.glFramebufferTexture;
+import static org.lwjgl.opengl.GL42.glTexStorage3D;
+
+/**
+ * Renders the shadows of a directional light into a cascaded
+ * shadow map.
+ *
+ * The view frustum of the camera is split into up to MAX_CASCADES
+ * cascades, which are all rendered in a single pass into the
+ * layers of a depth texture array. A geometry shader instance per
+ * cascade projects the geometry into its layer.
+ *
+ * Shaders sampling the shadow map include lighting/cascades.glsl.
+ * Their uniforms are added with setupReceiver() and updated with
+ * updateReceiver().
+ */
+public class CascadedShadowMapNote extends RenderNote implements RenderTarget {
+
+    public final static int CASCADE_SHADOW_MAP = 12;
+    public final static int MAX_CASCADES = 8;
+
+    private final static ImageType FORMAT = ImageType.DEPTH_32_FLOAT;
+
+    private final ShadowCascades cascades;
+    private final ShaderResource shader;
+    private final float near;
+    private final float far;
+    private final Matrix4f[] cascadeMatrices;
+
+    private Camera camera;
+    private Vector3f lightDirection;
+    private float shadowDistance;
+
+    private int texture;
+    private int frameBuffer;
+    private CerberusRenderer renderer;
+
+    /**
+     * Cascaded shadow map with the cascade settings of the
+     * renderer settings (shadow_cascades, shadow_cascade_resolution,
+     * shadow_cascade_lambda, shadow_caster_distance and
+     * shadow_distance).
+     * @param camera camera to fit the cascades to
+     * @param near near plane distance of the camera
+     * @param far far plane distance of the camera
+     * @param lightDirection direction the light is shining in
+     */
+    public CascadedShadowMapNote(Camera camera, float near, float far, Vector3f lightDirection) {
+        this(camera, near, far, lightDirection, createCascades(), (float) CerberusRegistry.getInstance()
+                .getService(CerberusRenderer.class).getSettings().getDouble("shadow_distance", 0d));
+    }
+
+    /**
+     * Cascaded shadow map with specific cascades.
+     * @param camera camera to fit the cascades to
+     * @param near near plane distance of the camera
+     * @param far far plane distance of the camera
+     * @param lightDirection direction the light is shining in
+     * @param cascades cascade split and fit settings
+     * @param shadowDistance view distance up to which shadows are
+     *                       rendered, or 0 to cover the whole frustum
+     */
+    public CascadedShadowMapNote(Camera camera, float near, float far, Vector3f lightDirection,
+                                 ShadowCascades cascades, float shadowDistance) {
+        if (cascades.getCount() > MAX_CASCADES)
+            throw new IllegalArgumentException("At most " + MAX_CASCADES + " cascades are supported");
+
+        this.camera = camera;
+        this.near = near;
+        this.far = far;
+        this.lightDirection = lightDirection;
+        this.cascades = cascades;
+        this.shadowDistance = shadowDistance;
+
+        cascadeMatrices = new Matrix4f[cascades.getCount()];
+        for (int i = 0; i < cascadeMatrices.length; i++)
+            cascadeMatrices[i] = new Matrix4f().initIdentity();
+
+        ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+        ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+        ShaderCodeResource vertex = codeLoader.resourceFromName("lighting/CascadeShadowVer.glsl");
+        ShaderCodeResource geometry = codeLoader.resourceFromName("lighting/CascadeShadowGeo.glsl");
+        ShaderCodeResource fragment = codeLoader.resourceFromName("lighting/CascadeShadowFrag.glsl");
+
+        shader = new BaseShaderResource(new ShaderCodeResource[] {vertex, geometry, fragment},
+                new ShaderType[] {ShaderType.VERTEX_SHADER, ShaderType.GEOMETRY_SHADER, ShaderType.FRAGMENT_SHADER},
+                this::setupShader);
+        shaderBoard.loadShader(shader);
+    }
+
+    private static ShadowCascades createCascades() {
+        Settings settings = CerberusRegistry.getInstance().getService(CerberusRenderer.class).getSettings();
+        int count = Math.min(Math.max(settings.getInteger("shadow_cascades", 4), 1), MAX_CASCADES);
+        return new ShadowCascades(count, settings.getInteger("shadow_cascade_resolution", 2048),
+                settings.getDouble("shadow_cascade_lambda", 0.75d),
+                settings.getDouble("shadow_caster_distance", 100d));
+    }
+
+    private void setupShader(Shader shader) {
+        try {
+            shader.addUniform(new UniformMatrix4f(shader, Renderable.MAT_PROJECTION, new Matrix4f().initIdentity()));
+            shader.addUniform(new Uniform1i(shader, "CascadeCount", cascades.getCount()));
+            for (int i = 0; i < cascades.getCount(); i++)
+                shader.addUniform(new UniformMatrix4f(shader, "CascadeProjection[" + i + "]",
+                        new Matrix4f().initIdentity()));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds the uniforms of lighting/cascades.glsl to a shader
+     * sampling the shadow map.
+     * @param shader receiving shader
+     * @throws GLUnknownUniformException the shader does not include
+     *                                   the cascade uniforms
+     */
+    public void setupReceiver(Shader shader) throws GLUnknownUniformException {
+        shader.addUniform(new Uniform1i(shader, "CascadeShadowMap", CASCADE_SHADOW_MAP));
+        shader.addUniform(new Uniform1i(shader, "CascadeCount", cascades.getCount()));
+        for (int i = 0; i < cascades.getCount(); i++) {
+            shader.addUniform(new UniformMatrix4f(shader, "CascadeMatrix[" + i + "]", new Matrix4f().initIdentity()));
+            shader.addUniform(new Uniform1f(shader, "CascadeSplit[" + i + "]", 0f));
+        }
+    }
+
+    /**
+     * Sets the cascades of the last update to a shader sampling
+     * the shadow map and binds the shadow map.
+     * @param shader receiving shader
+     */
+    public void updateReceiver(Shader shader) {
+        for (int i = 0; i < cascades.getCount(); i++) {
+            shader.getUniform("CascadeMatrix[" + i + "]", UniformMatrix4f.class).set(cascadeMatrices[i]).update();
+            shader.getUniform("CascadeSplit[" + i + "]", Uniform1f.class).set(cascades.getSplit(i)).update();
+        }
+        bindShadowMap();
+    }
+
+    /**
+     * Binds the shadow map to the CASCADE_SHADOW_MAP unit.
+     */
+    public void bindShadowMap() {
+        glActiveTexture(GL_TEXTURE0 + CASCADE_SHADOW_MAP);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+    }
+
+    private void initShadowMap() {
+        int resolution = cascades.getResolution();
+
+        texture = glGenTextures();
+        glActiveTexture(GL_TEXTURE0 + CASCADE_SHADOW_MAP);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+        glTexStorage3D(GL_TEXTURE_2D_ARRAY, 1, FORMAT.toInternalFormat(), resolution, resolution,
+                cascades.getCount());
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_COMPARE_MODE, GL_COMPARE_REF_TO_TEXTURE);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_COMPARE_FUNC, GL_LEQUAL);
+
+        frameBuffer = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, frameBuffer);
+        glFramebufferTexture(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, texture, 0);
+        glDrawBuffer(GL_NONE);
+        glReadBuffer(GL_NONE);
+
+        if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE)
+            CerberusRegistry.getInstance().getService(CerberusEvent.class).executeFullEIF(
+                    new ExceptionEvent(CerberusRenderer.class,
+                            new IllegalStateException("Cascaded shadow map framebuffer is incomplete")));
+        TextureUtil.unbindFramebuffer();
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    @Override
+    public void update(double v) {
+        if (camera == null)
+            return;
+        if (frameBuffer == 0)
+            initShadowMap();
+
+        cascades.fit(toArray(camera.getCameraMatrix()), near, far, shadowDistance,
+                new float[] {lightDirection.getX(), lightDirection.getY(), lightDirection.getZ()});
+        Matrix4f lightView = toMatrix(cascades.getLightView());
+        for (int i = 0; i < cascades.getCount(); i++)
+            cascadeMatrices[i] = toMatrix(cascades.getProjection(i)).mul(lightView);
+
+        CerberusRenderer renderer = getRenderer();
+        Shader s = renderer.getShaderBoard().bindShader(shader);
+        if (s == null)
+            return;
+
+        s.getUniform("CascadeCount", Uniform1i.class).set(cascades.getCount()).update();
+        for (int i = 0; i < cascades.getCount(); i++)
+            s.getUniform("CascadeProjection[" + i + "]", UniformMatrix4f.class)
+                    .set(toMatrix(cascades.getProjection(i))).update();
+
+        renderer.getPipeline().setRenderTarget(this);
+        RenderUtil.clear();
+        glEnable(GL_DEPTH_CLAMP);
+        renderer.getPipeline().getScene().render(lightView, s);
+        glDisable(GL_DEPTH_CLAMP);
+    }
+
+    private static float[] toArray(Matrix4f matrix) {
+        float[] values = new float[16];
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++)
+                values[row * 4 + column] = matrix.get(row, column);
+        }
+        return values;
+    }
+
+    private static Matrix4f toMatrix(float[] values) {
+        Matrix4f matrix = new Matrix4f();
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++)
+                matrix.set(row, column, values[row * 4 + column]);
+        }
+        return matrix;
+    }
+
+    @Override
+    public void set() {
+        glViewport(0, 0, cascades.getResolution(), cascades.getResolution());
+        glBindFramebuffer(GL_FRAMEBUFFER, frameBuffer);
+    }
+
+    @Override
+    public Vector2i getScreenSize() {
+        return new Vector2i(cascades.getResolution(), cascades.getResolution());
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+    }
+
+    public Vector3f getLightDirection() {
+        return lightDirection;
+    }
+
+    public void setLightDirection(Vector3f lightDirection) {
+        this.lightDirection = lightDirection;
+    }
+
+    public float getShadowDistance() {
+        return shadowDistance;
+    }
+
+    public void setShadowDistance(float shadowDistance) {
+        this.shadowDistance = shadowDistance;
+    }
+
+    public ShadowCascades getCascades() {
+        return cascades;
+    }
+
+    /**
+     * Returns the transformation of a cascade from world into
+     * clip space of the last update.
+     * @param cascade cascade index
+     * @return cascade matrix
+     */
+    public Matrix4f getCascadeMatrix(int cascade) {
+        return cascadeMatrices[cascade];
+    }
+
+    @Override
+    public void destroy() {
+        getRenderer().getShaderBoard().deleteShader(shader);
+        if (frameBuffer != 0)
+            glDeleteFramebuffers(frameBuffer);
+        if (texture != 0)
+            glDeleteTextures(texture);
+        frameBuffer = texture = 0;
+    }
+
+    @Override
+    public void reinit(Window window) {
+        // the cascade resolution does not depend on the window
+    }
+}
@@ -32,7 +32,6 @@ import com.cerberustek.CerberusRenderer;
 import com.cerberustek.camera.Camera;
 import com.cerberustek.logic.math.Matrix4f;
 import com.cerberustek.logic.math.Vector2i;
-import com.cerberustek.logic.math.Vector3i;
 import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.pipeline.RenderScene;
 import com.cerberustek.pipeline.impl.RenderNote;
@@ -42,15 +41,16 @@ import com.cerberustek.shader.code.ShaderCodeLoader;
 import com.cerberustek.shader.uniform.UniformMatrix4f;
 import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTargetFormat;
 import com.cerberustek.texture.TextureBoard;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.util.RenderUtil;
 import com.cerberustek.window.Window;
 
 public class DepthNote extends RenderNote implements InputProvider {
 
     public final static int DEPTH = 6;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(DEPTH, ImageType.DEPTH_32_FLOAT,
+            AttachmentType.DEPTH, false);
 
     private FrameBufferResource frameBuffer;
     private final ShaderResource shader;
@@ -88,23 +88,18 @@ public class DepthNote extends RenderNote implements InputProvider {
     }
 
     private FrameBufferResource initFrameBuffer(FrameBufferResource frameBuffer, Vector2i size) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
-
-        TextureEmpty2D depthTexture = new TextureEmpty2D(1);
-        depthTexture.genTextures();
-        depthTexture.initTexture(0, DEPTH, size, ImageType.DEPTH_32_FLOAT);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
-        Vector3i textureSize = depthTexture.getSize(0);
-        return new FrameBufferResource(new Vector2i(textureSize.getX(), textureSize.getY()), depthTexture, false,
-                new SimpleAttachment(0, AttachmentType.DEPTH));
+        return textureBoard.acquireRenderTarget(size, FORMAT);
     }
 
     @Override
     public void destroy() {
         CerberusRenderer renderer = getRenderer();
         renderer.getShaderBoard().deleteShader(shader);
-        renderer.getTextureBoard().deleteTexture(frameBuffer);
+        renderer.getTextureBoard().releaseRenderTarget(frameBuffer);
     }
 
     @Override
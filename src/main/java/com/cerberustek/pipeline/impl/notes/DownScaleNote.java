@@ -30,14 +30,14 @@ import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.shader.Shader;
 import com.cerberustek.shader.uniform.Uniform1f;
 import com.cerberustek.shader.uniform.Uniform1i;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
 
 public class DownScaleNote extends PostProcessingNote {
 
     public final static int DOWNSCALE = 7;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(DOWNSCALE, ImageType.RGBA_32_FLOAT);
 
     public DownScaleNote(InputProvider screenTexture) {
         super("tonemap/DownScaleVer.glsl", "tonemap/DownScaleFrag.glsl", screenTexture);
@@ -62,17 +62,11 @@ public class DownScaleNote extends PostProcessingNote {
     @SuppressWarnings("DuplicatedCode")
     @Override
     protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
         screenSize = screenSize.div(4);
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-
-        /* ## down scale texture */
-        texture.initTexture(0, DOWNSCALE, screenSize, ImageType.RGBA_32_FLOAT);
-
-        return new FrameBufferResource(screenSize, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
     }
 }
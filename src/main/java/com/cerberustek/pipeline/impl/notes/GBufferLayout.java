@@ -0,0 +1,131 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.texture.AttachmentType;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTargetFormat;
+
+import static com.cerberustek.pipeline.impl.notes.SceneNote.*;
+
+/**
+ * Layout of the geometry buffer written by the scene note.
+ *
+ * The full layout stores every target with at least 16 bit per
+ * channel (80 bytes per pixel). The compact layout uses half
+ * floats and packed formats (42 bytes per pixel):
+ *
+ * index | target       | full             | compact
+ * 0     | color        | RGBA_32_FLOAT    | RGBA_16_FLOAT
+ * 1     | normal       | RGBA_16_INTEGER  | RG_16_FLOAT, octahedral
+ * 2     | specular     | RGBA_16_INTEGER  | RGB10_A2_INTEGER
+ * 3     | emission     | RGBA_16_INTEGER  | R11_G11_B10_FLOAT
+ * 4     | metallic     | RGBA_16_INTEGER  | RGB10_A2_INTEGER
+ * 5     | displacement | RGBA_32_FLOAT    | R_16_FLOAT
+ * 6     | pos & depth  | RGBA_32_FLOAT    | RGBA_32_FLOAT
+ *
+ * Shaders reading the normal target have to define
+ * GBUFFER_COMPACT for the compact layout and decode the normal
+ * with gbufferDecodeNormal from util/gbuffer.glsl.
+ *
+ * The bucketed format over-allocates the geometry buffer to the
+ * next size bucket of the render target pool, so it is reused while
+ * the window is being resized. Shaders sampling it with normalized
+ * texture coordinates have to scale them by
+ * SceneNote.getViewportScale().
+ */
+public enum GBufferLayout {
+
+    FULL("cerberus/SceneFrag.glsl", ImageType.RGBA_32_FLOAT, ImageType.RGBA_16_INTEGER,
+            ImageType.RGBA_16_INTEGER, ImageType.RGBA_16_INTEGER, ImageType.RGBA_16_INTEGER,
+            ImageType.RGBA_32_FLOAT, ImageType.RGBA_32_FLOAT),
+    COMPACT("cerberus/SceneCompactFrag.glsl", ImageType.RGBA_16_FLOAT, ImageType.RG_16_FLOAT,
+            ImageType.RGB10_A2_INTEGER, ImageType.R11_G11_B10_FLOAT, ImageType.RGB10_A2_INTEGER,
+            ImageType.R_16_FLOAT, ImageType.RGBA_32_FLOAT);
+
+    private final String fragmentShader;
+    private final RenderTargetFormat format;
+    private final RenderTargetFormat bucketedFormat;
+
+    GBufferLayout(String fragmentShader, ImageType... types) {
+        this.fragmentShader = fragmentShader;
+        int[] units = new int[] {COLOR, NORMAL, SPECULAR, EMISSION, METALLIC, DISPLACEMENT, POSDEPTH};
+        AttachmentType[] attachments = new AttachmentType[] {AttachmentType.COLOR_00, AttachmentType.COLOR_01,
+                AttachmentType.COLOR_02, AttachmentType.COLOR_03, AttachmentType.COLOR_04, AttachmentType.COLOR_05,
+                AttachmentType.COLOR_06};
+        this.format = new RenderTargetFormat(units, types, attachments, true, false);
+        this.bucketedFormat = new RenderTargetFormat(units, types, attachments, true, true);
+    }
+
+    /**
+     * Returns the scene fragment shader writing this layout.
+     * @return shader code name
+     */
+    public String getFragmentShader() {
+        return fragmentShader;
+    }
+
+    /**
+     * Returns the exact-size render target format of the geometry
+     * buffer.
+     * @return render target format
+     */
+    public RenderTargetFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the render target format of the geometry buffer.
+     * @param bucketed over-allocate the geometry buffer in size
+     *                 buckets
+     * @return render target format
+     */
+    public RenderTargetFormat getFormat(boolean bucketed) {
+        return bucketed ? bucketedFormat : format;
+    }
+
+    /**
+     * Returns the amount of bytes per pixel of all color targets.
+     * @return bytes per pixel
+     */
+    public int byteSize() {
+        int size = 0;
+        for (int i = 0; i < format.length(); i++)
+            size += format.getType(i).byteSize();
+        return size;
+    }
+
+    /**
+     * Returns the layout with the specified name, e.g. from the
+     * settings, or the full layout if no such layout exists.
+     * @param name layout name
+     * @return layout
+     */
+    public static GBufferLayout fromName(String name) {
+        for (GBufferLayout layout : values()) {
+            if (layout.name().equalsIgnoreCase(name))
+                return layout;
+        }
+        return FULL;
+    }
+}
@@ -30,14 +30,14 @@ import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.shader.Shader;
 import com.cerberustek.shader.uniform.Uniform1f;
 import com.cerberustek.shader.uniform.Uniform1i;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
 
 public class GlowNote extends PostProcessingNote {
 
     public final static int GLOW = 8;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(GLOW, ImageType.RGBA_32_FLOAT);
 
     public GlowNote(InputProvider downscaleTexture) {
         super("tonemap/GlowVer.glsl", "tonemap/GlowFrag.glsl", downscaleTexture);
@@ -46,18 +46,12 @@ public class GlowNote extends PostProcessingNote {
     @SuppressWarnings("Duplicates")
     @Override
     protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
         screenSize = screenSize.div(4);
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-
-        /* ## glow texture ## */
-        texture.initTexture(0, GLOW, screenSize, ImageType.RGBA_32_FLOAT);
-
-        return new FrameBufferResource(screenSize, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
     }
 
     @Override
@@ -75,7 +75,7 @@ public class InstancedSceneNote extends RenderNote {
         ShaderCodeResource vertexSceneRS = codeLoader.resourceFromName("cerberus/SceneRSVer.glsl");
         ShaderCodeResource vertexSceneTRS = codeLoader.resourceFromName("cerberus/SceneTRSVer.glsl");
 
-        ShaderCodeResource fragmentScene = codeLoader.resourceFromName("cerberus/SceneFrag.glsl");
+        ShaderCodeResource fragmentScene = codeLoader.resourceFromName(sceneNote.getLayout().getFragmentShader());
 
 
         /*
@@ -28,14 +28,14 @@ import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.shader.Shader;
 import com.cerberustek.shader.uniform.Uniform1i;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
 
 public class LuminanceNote extends PostProcessingNote {
 
     public final static int LUMINANCE = 9;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(LUMINANCE, ImageType.RGBA_32_FLOAT);
 
     public LuminanceNote(InputProvider glowTexture) {
         super("tonemap/LuminanceVer.glsl", "tonemap/LuminanceFrag.glsl", glowTexture);
@@ -53,17 +53,11 @@ public class LuminanceNote extends PostProcessingNote {
     @SuppressWarnings("Duplicates")
     @Override
     protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
         screenSize = screenSize.div(4);
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-
-        /* luminance texture */
-        texture.initTexture(0, LUMINANCE, screenSize, ImageType.RGBA_32_FLOAT);
-
-        return new FrameBufferResource(screenSize, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
     }
 }
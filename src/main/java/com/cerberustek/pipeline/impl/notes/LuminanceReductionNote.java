@@ -0,0 +1,325 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.buffer.BufferAccess;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.GLComputeException;
+import com.cerberustek.exceptions.GLShaderTypeException;
+import com.cerberustek.exceptions.GLUnknownUniformException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.pipeline.InputProvider;
+import com.cerberustek.pipeline.impl.RenderNote;
+import com.cerberustek.pipeline.impl.notes.luminance.LuminanceReduction;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.BaseShaderResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.resource.impl.ImageTextureResource;
+import com.cerberustek.resource.shader.ShaderCodeResource;
+import com.cerberustek.resource.shader.ShaderResource;
+import com.cerberustek.shader.Shader;
+import com.cerberustek.shader.ShaderBoard;
+import com.cerberustek.shader.ShaderType;
+import com.cerberustek.shader.uniform.Uniform1f;
+import com.cerberustek.shader.uniform.Uniform1i;
+import com.cerberustek.shader.uniform.Uniform2i;
+import com.cerberustek.shader.uniform.Uniform3f;
+import com.cerberustek.texture.AttachmentType;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.Texture;
+import com.cerberustek.texture.TextureBoard;
+import com.cerberustek.texture.impl.SimpleAttachment;
+import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.window.Window;
+
+import java.util.function.Consumer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL42.*;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BARRIER_BIT;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER;
+
+/**
+ * Computes the adapted scene luminance for tone mapping with two
+ * compute dispatches.
+ *
+ * The first dispatch reduces blocks of 32x32 pixels of the input
+ * to partial log luminance sums in shared memory. The second
+ * dispatch sums up the partial sums in a single work group and
+ * adapts the luminance over time. No intermediate render targets
+ * are used; the result is written to a 1x1 target at the
+ * ADAPTED_LUMINANCE unit, which holds the adapted luminance, the
+ * average luminance and the average log luminance of the frame.
+ *
+ * LuminanceReduction is the CPU reference of the reduction.
+ */
+public class LuminanceReductionNote extends RenderNote implements InputProvider {
+
+    public final static String REDUCE_SHADER = "shader.luminance_reduce";
+    public final static String RESOLVE_SHADER = "shader.luminance_resolve";
+
+    public final static int PARTIAL_BUFFER = 6;
+    public final static int RESULT_BUFFER = 7;
+
+    /** pixels per work group edge of the first dispatch */
+    private final static int BLOCK_SIZE = 32;
+
+    private final InputProvider input;
+    private final int inputUnit;
+
+    private float adaptationRate = 1.5f;
+    private Vector3f color = new Vector3f(LuminanceReduction.WEIGHTS[0], LuminanceReduction.WEIGHTS[1],
+            LuminanceReduction.WEIGHTS[2]);
+
+    private FrameBufferResource frameBuffer;
+    private ImageTextureResource image;
+    private int partialBuffer;
+    private int partialCapacity;
+    private int resultBuffer;
+    private long lastUpdate;
+
+    private CerberusRenderer renderer;
+
+    /**
+     * Luminance reduction of the glow texture.
+     * @param glowTexture glow note output
+     */
+    public LuminanceReductionNote(InputProvider glowTexture) {
+        this(glowTexture, GlowNote.GLOW);
+    }
+
+    /**
+     * Luminance reduction of an arbitrary input.
+     * @param input input texture
+     * @param inputUnit texture unit of the input texture
+     */
+    public LuminanceReductionNote(InputProvider input, int inputUnit) {
+        this.input = input;
+        this.inputUnit = inputUnit;
+    }
+
+    private void init() {
+        TextureEmpty2D base = new TextureEmpty2D(1);
+        base.genTextures();
+        base.initTexture(0, AdaptedLuminanceNote.ADAPTED_LUMINANCE, new Vector2i(1, 1), ImageType.RGBA_32_FLOAT);
+
+        image = new ImageTextureResource(base);
+        frameBuffer = new FrameBufferResource(new Vector2i(1, 1), base, false,
+                new SimpleAttachment(0, AttachmentType.COLOR_00));
+
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        textureBoard.loadTexture(image);
+        textureBoard.loadTexture(frameBuffer);
+
+        resultBuffer = glGenBuffers();
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, resultBuffer);
+        glBufferData(GL_SHADER_STORAGE_BUFFER, new float[4], GL_DYNAMIC_COPY);
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+    }
+
+    @Override
+    public void update(double v) {
+        TextureResource source = input.fetchOutput();
+        if (source == null)
+            return;
+        if (frameBuffer == null)
+            init();
+
+        CerberusRenderer renderer = getRenderer();
+        ShaderBoard shaderBoard = renderer.getShaderBoard();
+        TextureBoard textureBoard = renderer.getTextureBoard();
+        Texture texture = textureBoard.bindTexture(source);
+        if (texture == null)
+            return;
+
+        long now = System.nanoTime();
+        float delta = lastUpdate == 0 ? 0 : (float) ((now - lastUpdate) * 1e-9);
+        lastUpdate = now;
+
+        Vector2i size = texture.getSize(0).xy();
+        int groupsX = (size.getX() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int groupsY = (size.getY() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        allocatePartials(groupsX * groupsY);
+
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, PARTIAL_BUFFER, partialBuffer);
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, RESULT_BUFFER, resultBuffer);
+
+        try {
+            Shader reduce = shaderBoard.bindShader(getShader(REDUCE_SHADER, "tonemap/LuminanceReduceComp.glsl",
+                    LuminanceReductionNote::initReduceShader));
+            if (reduce == null) {
+                CerberusRegistry.getInstance().warning("Failed to bind luminance reduction shader");
+                return;
+            }
+            reduce.getUniform("ScreenTexture", Uniform1i.class).set(inputUnit).update();
+            reduce.getUniform("ScreenSize", Uniform2i.class).set(size).update();
+            reduce.getUniform("color", Uniform3f.class).set(color).update();
+            shaderBoard.dispatchCompute(new Vector3i(groupsX, groupsY, 1));
+            glMemoryBarrier(GL_SHADER_STORAGE_BARRIER_BIT);
+
+            Shader resolve = shaderBoard.bindShader(getShader(RESOLVE_SHADER, "tonemap/LuminanceResolveComp.glsl",
+                    LuminanceReductionNote::initResolveShader));
+            if (resolve == null) {
+                CerberusRegistry.getInstance().warning("Failed to bind luminance resolve shader");
+                return;
+            }
+            textureBoard.bindImageTexture(image, 0, 0, BufferAccess.WRITE_ONLY);
+            resolve.getUniform("PartialCount", Uniform1i.class).set(groupsX * groupsY).update();
+            resolve.getUniform("Delta", Uniform1f.class).set(delta).update();
+            resolve.getUniform("AdaptationRate", Uniform1f.class).set(adaptationRate).update();
+            shaderBoard.dispatchCompute(new Vector3i(1, 1, 1));
+            glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT | GL_TEXTURE_FETCH_BARRIER_BIT
+                    | GL_SHADER_STORAGE_BARRIER_BIT);
+        } catch (GLComputeException | GLShaderTypeException e) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        }
+    }
+
+    private void allocatePartials(int partials) {
+        if (partialBuffer != 0 && partialCapacity >= partials)
+            return;
+
+        if (partialBuffer == 0)
+            partialBuffer = glGenBuffers();
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, partialBuffer);
+        // two floats per partial sum
+        glBufferData(GL_SHADER_STORAGE_BUFFER, partials * 8L, GL_DYNAMIC_COPY);
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+        partialCapacity = partials;
+    }
+
+    /**
+     * Will return a reduction shader consistently throughout all
+     * luminance reduction notes.
+     * @param property property name of the shader
+     * @param code compute shader code name
+     * @param init shader initialization
+     * @return reduction shader
+     */
+    private ShaderResource getShader(String property, String code, Consumer<Shader> init) {
+        CerberusRenderer renderer = getRenderer();
+        ShaderResource resource = renderer.getPropertyMap().getProperty(property, ShaderResource.class);
+        if (resource == null) {
+            ShaderCodeResource computeCode = renderer.getShaderBoard().getShaderCodeLoader().resourceFromName(code);
+
+            resource = new BaseShaderResource(new ShaderCodeResource[] {computeCode},
+                    new ShaderType[] {ShaderType.COMPUTE}, init);
+            return renderer.getPropertyMap().getProperty(property, ShaderResource.class, resource);
+        }
+        return resource;
+    }
+
+    private static void initReduceShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "ScreenTexture", GlowNote.GLOW));
+            shader.addUniform(new Uniform2i(shader, "ScreenSize", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform3f(shader, "color", new Vector3f(0, 0, 0)));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void initResolveShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "PartialCount", 0));
+            shader.addUniform(new Uniform1f(shader, "Delta", 0f));
+            shader.addUniform(new Uniform1f(shader, "AdaptationRate", 0f));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Makes the adapted luminance jump to the luminance of the
+     * next frame, e.g. after a camera cut.
+     */
+    public void resetAdaptation() {
+        getRenderer().tryGLTask(t -> {
+            if (resultBuffer == 0)
+                return;
+            glBindBuffer(GL_SHADER_STORAGE_BUFFER, resultBuffer);
+            glBufferSubData(GL_SHADER_STORAGE_BUFFER, 0, new float[4]);
+            glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+        });
+    }
+
+    public float getAdaptationRate() {
+        return adaptationRate;
+    }
+
+    /**
+     * Sets how fast the adapted luminance follows the scene
+     * luminance.
+     * @param adaptationRate adaptation rate per second
+     */
+    public void setAdaptationRate(float adaptationRate) {
+        this.adaptationRate = adaptationRate;
+    }
+
+    public Vector3f getColor() {
+        return color;
+    }
+
+    public void setColor(Vector3f color) {
+        this.color = color;
+    }
+
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+
+    @Override
+    public FrameBufferResource fetchOutput() {
+        return frameBuffer;
+    }
+
+    @Override
+    public void destroy() {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        if (frameBuffer != null) {
+            textureBoard.deleteTexture(image);
+            textureBoard.deleteTexture(frameBuffer);
+            frameBuffer = null;
+            image = null;
+        }
+        if (partialBuffer != 0)
+            glDeleteBuffers(partialBuffer);
+        if (resultBuffer != 0)
+            glDeleteBuffers(resultBuffer);
+        partialBuffer = resultBuffer = 0;
+    }
+
+    @Override
+    public void reinit(Window window) {
+        // the partial buffer grows on the next update
+    }
+}
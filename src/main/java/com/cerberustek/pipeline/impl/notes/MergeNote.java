@@ -35,11 +35,9 @@ import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.overlay.OverlayUtil;
 import com.cerberustek.pipeline.InputProvider;
 import com.cerberustek.pipeline.impl.RenderNote;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTargetFormat;
 import com.cerberustek.texture.TextureBoard;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.util.RenderUtil;
 import com.cerberustek.window.Window;
 import org.jetbrains.annotations.NotNull;
@@ -48,6 +46,8 @@ import static org.lwjgl.opengl.GL11.*;
 
 public class MergeNote extends RenderNote implements InputProvider {
 
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(0, ImageType.RGBA_8_INTEGER);
+
     private InputProvider background;
     private InputProvider[] textures;
     private FrameBufferResource frameBuffer;
@@ -69,20 +69,16 @@ public class MergeNote extends RenderNote implements InputProvider {
 
     @SuppressWarnings("DuplicatedCode")
     private FrameBufferResource initFrameBuffer(FrameBufferResource frameBuffer, Vector2i size) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
-
-        TextureEmpty2D empty = new TextureEmpty2D(1);
-        empty.genTextures();
-        empty.initTexture(0, 0, size, ImageType.RGBA_8_INTEGER);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
-        return new FrameBufferResource(size, empty, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(size, FORMAT);
     }
 
     @Override
     public void destroy() {
-        getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+        getRenderer().getTextureBoard().releaseRenderTarget(frameBuffer);
     }
 
     @Override
@@ -45,6 +45,8 @@ import java.nio.IntBuffer;
 public abstract class PostProcessingNote extends RenderNote implements InputProvider {
 
     private FrameBufferResource frameBuffer;
+    /** frame buffer is owned by someone else, e.g. a render graph */
+    private boolean externalTarget;
     protected final ShaderResource shader;
 
     private CerberusRenderer renderer;
@@ -90,8 +92,8 @@ public abstract class PostProcessingNote extends RenderNote implements InputProv
     public void destroy() {
         CerberusRenderer renderer = getRenderer();
         renderer.getShaderBoard().deleteShader(shader);
-        if (frameBuffer != null)
-            renderer.getTextureBoard().deleteTexture(frameBuffer);
+        if (frameBuffer != null && !externalTarget)
+            renderer.getTextureBoard().releaseRenderTarget(frameBuffer);
 
         displayNote.destroy();
     }
@@ -110,6 +112,9 @@ public abstract class PostProcessingNote extends RenderNote implements InputProv
      *               size information
      */
     public void reinit(Window window) {
+        if (externalTarget)
+            return;
+
         CerberusRenderer renderer = getRenderer();
         TextureBoard textureBoard = renderer.getTextureBoard();
         // textureBoard.deleteTexture(frameBuffer);
@@ -121,6 +126,25 @@ public abstract class PostProcessingNote extends RenderNote implements InputProv
         textureBoard.loadTexture(frameBuffer);
     }
 
+    /**
+     * Will make the note render into a frame buffer, that is owned
+     * by someone else.
+     *
+     * The frame buffer created by the note itself is released. From
+     * now on the owner of the target is responsible for resizing
+     * and deleting it.
+     * @param target frame buffer to render into
+     */
+    public void setTarget(FrameBufferResource target) {
+        if (target == frameBuffer)
+            return;
+
+        if (frameBuffer != null && !externalTarget)
+            getRenderer().getTextureBoard().releaseRenderTarget(frameBuffer);
+        frameBuffer = target;
+        externalTarget = true;
+    }
+
     @Override
     public void update(double v) {
         getRenderer().getTextureBoard().bindFrameBuffer(frameBuffer);
@@ -31,6 +31,7 @@ import com.cerberustek.CerberusRegistry;
 import com.cerberustek.CerberusRenderer;
 import com.cerberustek.camera.Camera;
 import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.Vector2f;
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.logic.math.Vector3f;
 import com.cerberustek.pipeline.InputProvider;
@@ -42,11 +43,7 @@ import com.cerberustek.shader.uniform.Uniform1f;
 import com.cerberustek.shader.uniform.Uniform1i;
 import com.cerberustek.shader.uniform.Uniform3f;
 import com.cerberustek.shader.uniform.UniformMatrix4f;
-import com.cerberustek.texture.AttachmentType;
-import com.cerberustek.texture.ImageType;
 import com.cerberustek.texture.TextureBoard;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.util.LightUtil;
 import com.cerberustek.util.RenderUtil;
 import com.cerberustek.window.Window;
@@ -63,12 +60,52 @@ public class SceneNote extends RenderNote implements InputProvider {
 
     private FrameBufferResource frameBuffer;
     private final ShaderResource sceneShader;
+    private final GBufferLayout layout;
+    private final boolean bucketed;
 
     private CerberusRenderer renderer;
     private Camera camera;
 
+    /**
+     * Scene note with the geometry buffer layout specified in the
+     * settings (gbuffer_layout).
+     * @param camera camera to render the scene with
+     */
     public SceneNote(Camera camera) {
+        this(camera, GBufferLayout.fromName(CerberusRegistry.getInstance().getService(CerberusRenderer.class)
+                .getSettings().getString("gbuffer_layout", GBufferLayout.FULL.name())));
+    }
+
+    /**
+     * Scene note with a specific geometry buffer layout. The
+     * geometry buffer is only bucketed if enabled in the settings
+     * (gbuffer_bucketed), since most notes sampling it do not scale
+     * their texture coordinates by getViewportScale().
+     * @param camera camera to render the scene with
+     * @param layout geometry buffer layout
+     */
+    public SceneNote(Camera camera, GBufferLayout layout) {
+        this(camera, layout, CerberusRegistry.getInstance().getService(CerberusRenderer.class)
+                .getSettings().getBoolean("gbuffer_bucketed", false));
+    }
+
+    /**
+     * Scene note with a specific geometry buffer layout.
+     *
+     * A bucketed geometry buffer is reused while the window is being
+     * resized, but every note sampling it with normalized texture
+     * coordinates has to scale them by getViewportScale(). Only the
+     * tiled lighting note does so, so the geometry buffer should
+     * only be bucketed in pipelines without any other consumer.
+     * @param camera camera to render the scene with
+     * @param layout geometry buffer layout
+     * @param bucketed over-allocate the geometry buffer in the size
+     *                 buckets of the render target pool
+     */
+    public SceneNote(Camera camera, GBufferLayout layout, boolean bucketed) {
         this.camera = camera;
+        this.layout = layout;
+        this.bucketed = bucketed;
 
         CerberusRenderer renderer = getRenderer();
         Window window = renderer.getWindow();
@@ -78,7 +115,7 @@ public class SceneNote extends RenderNote implements InputProvider {
         ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
 
         ShaderCodeResource vertexScene = codeLoader.resourceFromName("cerberus/SceneVer.glsl");
-        ShaderCodeResource fragmentScene = codeLoader.resourceFromName("cerberus/SceneFrag.glsl");
+        ShaderCodeResource fragmentScene = codeLoader.resourceFromName(layout.getFragmentShader());
 
         sceneShader = new BaseShaderResource(
                 vertexScene,
@@ -205,7 +242,7 @@ public class SceneNote extends RenderNote implements InputProvider {
         CerberusRenderer renderer = getRenderer();
 
         renderer.getShaderBoard().deleteShader(sceneShader);
-        renderer.getTextureBoard().deleteTexture(frameBuffer);
+        renderer.getTextureBoard().releaseRenderTarget(frameBuffer);
     }
 
     @Override
@@ -229,38 +266,34 @@ public class SceneNote extends RenderNote implements InputProvider {
     }
 
     private FrameBufferResource setupFramebuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
-
-        TextureEmpty2D textures = new TextureEmpty2D(7);
-        textures.genTextures();
-
-        // ## Primary screen texture ##
-        // Textured, though not lighten up scene pixels
-        textures.initTexture(0, COLOR, screenSize, ImageType.RGBA_32_FLOAT);
-        // ## camera view normal texture ##
-        textures.initTexture(1, NORMAL, screenSize, ImageType.RGBA_16_INTEGER);
-        // ## camera view specular texture ##
-        textures.initTexture(2, SPECULAR, screenSize, ImageType.RGBA_16_INTEGER);
-        // ## camera view emission texture ##
-        textures.initTexture(3, EMISSION, screenSize, ImageType.RGBA_16_INTEGER);
-        // ## camera view metallic texture ##
-        textures.initTexture(4, METALLIC, screenSize, ImageType.RGBA_16_INTEGER);
-        // ## camera view depth offset texture ##
-        textures.initTexture(5, DISPLACEMENT, screenSize, ImageType.RGBA_32_FLOAT);
-        // ## Scene camera space pos and depth texture ##
-        textures.initTexture(6, POSDEPTH, screenSize, ImageType.RGBA_32_FLOAT);
-        // textures.initTexture(6, 6, screenSize, ImageType.DEPTH_32_FLOAT);
-
-        return new FrameBufferResource(screenSize, textures, true,
-                new SimpleAttachment(0, AttachmentType.COLOR_00),
-                new SimpleAttachment(1, AttachmentType.COLOR_01),
-                new SimpleAttachment(2, AttachmentType.COLOR_02),
-                new SimpleAttachment(3, AttachmentType.COLOR_03),
-                new SimpleAttachment(4, AttachmentType.COLOR_04),
-                new SimpleAttachment(5, AttachmentType.COLOR_05),
-                new SimpleAttachment(6, AttachmentType.COLOR_06));
-            // new SimpleAttachment(6, AttachmentType.DEPTH));
+            textureBoard.releaseRenderTarget(frameBuffer);
+
+        return textureBoard.acquireRenderTarget(screenSize, layout.getFormat(bucketed));
+    }
+
+    public GBufferLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isBucketed() {
+        return bucketed;
+    }
+
+    /**
+     * Returns the ratio between the size and the storage size of
+     * the geometry buffer.
+     *
+     * Normalized texture coordinates covering the screen have to be
+     * multiplied by this, to sample the rendered area of a bucketed
+     * geometry buffer.
+     * @return texture coordinate scale
+     */
+    public Vector2f getViewportScale() {
+        Vector2i size = frameBuffer.getSize();
+        Vector2i storage = frameBuffer.getStorageSize();
+        return new Vector2f((float) size.getX() / storage.getX(), (float) size.getY() / storage.getY());
     }
 
     public Camera getCamera() {
@@ -34,14 +34,14 @@ import com.cerberustek.shader.uniform.Uniform1f;
 import com.cerberustek.shader.uniform.Uniform1i;
 import com.cerberustek.shader.uniform.Uniform3f;
 import com.cerberustek.shader.uniform.UniformMatrix4f;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
 
 public class ScreenSpaceShadowNote extends PostProcessingNote {
 
     public final static int SHADOW = 12;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(SHADOW, ImageType.RGBA_32_FLOAT);
 
     private final ShadowMapNote[] lightViewMaps;
 
@@ -104,14 +104,10 @@ public class ScreenSpaceShadowNote extends PostProcessingNote {
     @SuppressWarnings("DuplicatedCode")
     @Override
     protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-        texture.initTexture(0, SHADOW, screenSize, ImageType.RGBA_32_FLOAT);
-
-        return new FrameBufferResource(screenSize, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
     }
 }
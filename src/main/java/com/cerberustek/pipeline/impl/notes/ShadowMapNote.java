@@ -42,15 +42,16 @@ import com.cerberustek.shader.code.ShaderCodeLoader;
 import com.cerberustek.shader.uniform.UniformMatrix4f;
 import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTargetFormat;
 import com.cerberustek.texture.TextureBoard;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
 import com.cerberustek.util.RenderUtil;
 import com.cerberustek.window.Window;
 
 public class ShadowMapNote extends RenderNote implements InputProvider {
 
     public final static int LIGHTPOSDEPTH = 11;
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(LIGHTPOSDEPTH, ImageType.RGBA_32_FLOAT,
+            AttachmentType.COLOR_00, true);
 
     private FrameBufferResource frameBuffer;
     private final ShaderResource shader;
@@ -88,15 +89,11 @@ public class ShadowMapNote extends RenderNote implements InputProvider {
     }
 
     private FrameBufferResource initFrameBuffer(FrameBufferResource frameBuffer, Vector2i size) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
-
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-        texture.initTexture(0, LIGHTPOSDEPTH, size, ImageType.RGBA_32_FLOAT);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
-        return new FrameBufferResource(size, texture, true,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(size, FORMAT);
     }
 
     private CerberusRenderer getRenderer() {
@@ -124,7 +121,7 @@ public class ShadowMapNote extends RenderNote implements InputProvider {
     @Override
     public void destroy() {
         CerberusRenderer renderer = getRenderer();
-        renderer.getTextureBoard().deleteTexture(frameBuffer);
+        renderer.getTextureBoard().releaseRenderTarget(frameBuffer);
         renderer.getShaderBoard().deleteShader(shader);
     }
 
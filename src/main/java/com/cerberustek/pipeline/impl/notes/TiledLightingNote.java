@@ -0,0 +1,309 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.GLComputeException;
+import com.cerberustek.exceptions.GLShaderTypeException;
+import com.cerberustek.exceptions.GLUnknownUniformException;
+import com.cerberustek.logic.math.Vector2f;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3f;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.logic.math.Vector4f;
+import com.cerberustek.pipeline.impl.notes.screenspacelighting.Light;
+import com.cerberustek.resource.impl.BaseShaderResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.resource.shader.ShaderCodeResource;
+import com.cerberustek.resource.shader.ShaderResource;
+import com.cerberustek.shader.Shader;
+import com.cerberustek.shader.ShaderBoard;
+import com.cerberustek.shader.ShaderType;
+import com.cerberustek.shader.uniform.Uniform1i;
+import com.cerberustek.shader.uniform.Uniform2f;
+import com.cerberustek.shader.uniform.Uniform2i;
+import com.cerberustek.shader.uniform.Uniform3f;
+import com.cerberustek.shader.uniform.Uniform4f;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL42.glMemoryBarrier;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BARRIER_BIT;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER;
+
+/**
+ * Deferred lighting note, that only shades the lights affecting
+ * a screen tile.
+ *
+ * The lights are stored in a shader storage buffer instead of
+ * uniform arrays, so the number of lights is only limited by the
+ * memory of the graphics card. Before the lighting pass a compute
+ * shader computes the bounds of the scene geometry within each
+ * tile of TILE_SIZE x TILE_SIZE pixels and collects the lights,
+ * whose sphere of influence intersects these bounds. Tiles,
+ * which only show the background, do not collect any lights.
+ *
+ * The light positions have to be in the same space as the
+ * position target of the scene note. Bucketed geometry buffers are
+ * sampled through the viewport of the scene note.
+ */
+public class TiledLightingNote extends PostProcessingNote {
+
+    public final static int TILE_SIZE = 16;
+    /**
+     * Maximum amount of lights shaded per tile. Has to match the
+     * definition in lighting/lighting.glsl, since it sizes the tile
+     * buffer. If more lights are visible in a tile, the lights with
+     * the lowest indices are kept, so important lights should be
+     * added first.
+     */
+    public final static int MAX_TILE_LIGHTS = 255;
+
+    public final static int LIGHT_BUFFER = 4;
+    public final static int TILE_BUFFER = 5;
+
+    public final static String CULL_SHADER = "shader.tiled_light_cull";
+
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(0, ImageType.RGBA_32_FLOAT);
+
+    /** position and range, color and intensity, negated direction */
+    private final static int LIGHT_FLOATS = 12;
+
+    private final ArrayList<Light> lights = new ArrayList<>();
+    private final SceneNote scene;
+
+    private FloatBuffer staging;
+    private int lightBuffer;
+    private int tileBuffer;
+    private int tilesX;
+    private int tilesY;
+
+    public TiledLightingNote(SceneNote scene) {
+        super("lighting/TiledLightingVer.glsl", scene.getLayout() == GBufferLayout.COMPACT ?
+                "lighting/TiledLightingCompactFrag.glsl" : "lighting/TiledLightingFrag.glsl", scene);
+        this.scene = scene;
+    }
+
+    @Override
+    protected void setupShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "ColorTexture", SceneNote.COLOR));
+            shader.addUniform(new Uniform1i(shader, "EmissionTexture", SceneNote.EMISSION));
+            shader.addUniform(new Uniform1i(shader, "NormalTexture", SceneNote.NORMAL));
+            shader.addUniform(new Uniform1i(shader, "SpecularTexture", SceneNote.SPECULAR));
+            shader.addUniform(new Uniform1i(shader, "CameraSpacePositionTexture", SceneNote.POSDEPTH));
+            shader.addUniform(new Uniform3f(shader, "ViewPosition", new Vector3f(0, 0, 0)));
+            shader.addUniform(new Uniform4f(shader, "AmbientLightColor", new Vector4f(1, 1, 1, 0.1f)));
+            shader.addUniform(new Uniform2i(shader, "TileCount", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform2i(shader, "ScreenSize", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform2f(shader, "ViewportScale", new Vector2f(1, 1)));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void initCullShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "CameraSpacePositionTexture", SceneNote.POSDEPTH));
+            shader.addUniform(new Uniform1i(shader, "LightCount", 0));
+            shader.addUniform(new Uniform2i(shader, "TileCount", new Vector2i(1, 1)));
+            shader.addUniform(new Uniform2i(shader, "ScreenSize", new Vector2i(1, 1)));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void setAmbientLightColor(Vector3f color, float intensity) {
+        set4f("AmbientLightColor", new Vector4f(color, intensity));
+    }
+
+    /**
+     * Sets the position of the viewer used for specular
+     * highlights.
+     * @param position view position
+     */
+    public void setViewPosition(Vector3f position) {
+        set3f("ViewPosition", position);
+    }
+
+    /**
+     * Adds a light to the note.
+     *
+     * Point lights are only shaded within their range. A light
+     * with a range of zero or less is treated as a directional
+     * light and shades every pixel.
+     * @param light light to add
+     */
+    public void addLight(Light light) {
+        lights.add(light);
+    }
+
+    public boolean removeLight(Light light) {
+        return lights.remove(light);
+    }
+
+    public void clearLights() {
+        lights.clear();
+    }
+
+    public int getLightCount() {
+        return lights.size();
+    }
+
+    @Override
+    public void update(double v) {
+        cullLights();
+        super.update(v);
+    }
+
+    /**
+     * Will upload the lights and collect the lights of each
+     * screen tile.
+     */
+    private void cullLights() {
+        CerberusRenderer renderer = getRenderer();
+        ShaderBoard shaderBoard = renderer.getShaderBoard();
+        TextureBoard textureBoard = renderer.getTextureBoard();
+
+        FrameBufferResource geometry = scene.fetchOutput();
+        Vector2i screenSize = geometry.getSize();
+        Vector2i tiles = new Vector2i((screenSize.getX() + TILE_SIZE - 1) / TILE_SIZE,
+                (screenSize.getY() + TILE_SIZE - 1) / TILE_SIZE);
+        uploadLights();
+        allocateTiles(tiles);
+
+        Shader shader = shaderBoard.bindShader(getCullShader());
+        if (shader == null) {
+            CerberusRegistry.getInstance().warning("Failed to bind light culling shader");
+            return;
+        }
+        textureBoard.bindTexture(geometry);
+
+        shader.getUniform("LightCount", Uniform1i.class).set(lights.size()).update();
+        shader.getUniform("TileCount", Uniform2i.class).set(tiles).update();
+        shader.getUniform("ScreenSize", Uniform2i.class).set(screenSize).update();
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, LIGHT_BUFFER, lightBuffer);
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, TILE_BUFFER, tileBuffer);
+
+        try {
+            shaderBoard.dispatchCompute(new Vector3i(tiles.getX(), tiles.getY(), 1));
+            glMemoryBarrier(GL_SHADER_STORAGE_BARRIER_BIT);
+        } catch (GLComputeException | GLShaderTypeException e) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        }
+
+        set2i("TileCount", tiles);
+        set2i("ScreenSize", screenSize);
+        set2f("ViewportScale", scene.getViewportScale());
+    }
+
+    private void uploadLights() {
+        int floats = Math.max(lights.size(), 1) * LIGHT_FLOATS;
+        if (staging == null || staging.capacity() < floats)
+            staging = BufferUtils.createFloatBuffer(Math.max(floats,
+                    staging != null ? staging.capacity() * 2 : 0));
+
+        staging.clear();
+        for (Light light : lights) {
+            Vector3f position = light.getPosition();
+            Vector3f color = light.getColor();
+            Vector3f direction = light.getNegDirection();
+            staging.put(position.getX()).put(position.getY()).put(position.getZ()).put(light.getRange());
+            staging.put(color.getX()).put(color.getY()).put(color.getZ()).put(light.getIntensity());
+            staging.put(direction.getX()).put(direction.getY()).put(direction.getZ()).put(0);
+        }
+        if (lights.isEmpty())
+            staging.put(new float[LIGHT_FLOATS]);
+        staging.flip();
+
+        if (lightBuffer == 0)
+            lightBuffer = glGenBuffers();
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, lightBuffer);
+        glBufferData(GL_SHADER_STORAGE_BUFFER, staging, GL_STREAM_DRAW);
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+    }
+
+    private void allocateTiles(Vector2i tiles) {
+        if (tileBuffer != 0 && tiles.getX() == tilesX && tiles.getY() == tilesY)
+            return;
+
+        if (tileBuffer == 0)
+            tileBuffer = glGenBuffers();
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, tileBuffer);
+        glBufferData(GL_SHADER_STORAGE_BUFFER, (long) tiles.getX() * tiles.getY() * (MAX_TILE_LIGHTS + 1) * 4,
+                GL_DYNAMIC_COPY);
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, 0);
+        tilesX = tiles.getX();
+        tilesY = tiles.getY();
+    }
+
+    /**
+     * Will return the light culling shader consistently
+     * throughout all tiled lighting notes.
+     * @return light culling shader
+     */
+    private ShaderResource getCullShader() {
+        CerberusRenderer renderer = getRenderer();
+        ShaderResource resource = renderer.getPropertyMap().getProperty(CULL_SHADER, ShaderResource.class);
+        if (resource == null) {
+            ShaderCodeResource computeCode = renderer.getShaderBoard().getShaderCodeLoader()
+                    .resourceFromName("lighting/TiledLightCullComp.glsl");
+
+            resource = new BaseShaderResource(new ShaderCodeResource[] {computeCode},
+                    new ShaderType[] {ShaderType.COMPUTE}, TiledLightingNote::initCullShader);
+            return renderer.getPropertyMap().getProperty(CULL_SHADER, ShaderResource.class, resource);
+        }
+        return resource;
+    }
+
+    @Override
+    public void destroy() {
+        if (lightBuffer != 0)
+            glDeleteBuffers(lightBuffer);
+        if (tileBuffer != 0)
+            glDeleteBuffers(tileBuffer);
+        lightBuffer = tileBuffer = 0;
+        super.destroy();
+    }
+
+    @SuppressWarnings("DuplicatedCode")
+    @Override
+    protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        if (frameBuffer != null)
+            textureBoard.releaseRenderTarget(frameBuffer);
+
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
+    }
+}
@@ -32,13 +32,14 @@ import com.cerberustek.shader.Shader;
 import com.cerberustek.shader.uniform.Uniform1f;
 import com.cerberustek.shader.uniform.Uniform1i;
 import com.cerberustek.shader.uniform.Uniform4f;
-import com.cerberustek.texture.AttachmentType;
 import com.cerberustek.texture.ImageType;
-import com.cerberustek.texture.impl.SimpleAttachment;
-import com.cerberustek.texture.impl.TextureEmpty2D;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.TextureBoard;
 
 public class ToneMappingNote extends PostProcessingNote {
 
+    private final static RenderTargetFormat FORMAT = new RenderTargetFormat(SceneNote.COLOR, ImageType.RGBA_8_INTEGER);
+
     public ToneMappingNote(InputProvider colorScreen, InputProvider glowScreen, InputProvider adaptationScreen) {
         super("tonemap/BloomVer.glsl", "tonemap/BloomFrag.glsl", colorScreen, glowScreen, adaptationScreen);
     }
@@ -94,14 +95,10 @@ public class ToneMappingNote extends PostProcessingNote {
     @SuppressWarnings("DuplicatedCode")
     @Override
     protected FrameBufferResource setupFrameBuffer(FrameBufferResource frameBuffer, Vector2i screenSize) {
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
         if (frameBuffer != null)
-            getRenderer().getTextureBoard().deleteTexture(frameBuffer);
-
-        TextureEmpty2D texture = new TextureEmpty2D(1);
-        texture.genTextures();
-        texture.initTexture(0, SceneNote.COLOR, screenSize, ImageType.RGBA_8_INTEGER);
+            textureBoard.releaseRenderTarget(frameBuffer);
 
-        return new FrameBufferResource(screenSize, texture, false,
-                new SimpleAttachment(0, AttachmentType.COLOR_00));
+        return textureBoard.acquireRenderTarget(screenSize, FORMAT);
     }
 }
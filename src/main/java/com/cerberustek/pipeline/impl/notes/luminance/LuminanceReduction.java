@@ -0,0 +1,87 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes.luminance;
+
+/**
+ * CPU reference of the luminance reduction of the luminance
+ * reduction note.
+ *
+ * The reference computes the same values as the compute shaders,
+ * but in double precision and without OpenGL, so the shader
+ * results can be validated headless.
+ */
+public final class LuminanceReduction {
+
+    /** Rec. 709 luminance weights */
+    public final static float[] WEIGHTS = new float[] {0.212671f, 0.71516f, 0.072169f};
+    /** offset preventing the logarithm of zero */
+    public final static double EPSILON = 1e-4;
+
+    private LuminanceReduction() {}
+
+    /**
+     * Computes the luminance of a color.
+     * @param r red
+     * @param g green
+     * @param b blue
+     * @param weights luminance weights of the color channels
+     * @return luminance
+     */
+    public static double luminance(double r, double g, double b, float[] weights) {
+        return r * weights[0] + g * weights[1] + b * weights[2];
+    }
+
+    /**
+     * Computes the average log luminance of an image.
+     * @param rgba image with 4 floats per pixel, row by row
+     * @param width image width
+     * @param height image height
+     * @param weights luminance weights of the color channels
+     * @return average of log(luminance + EPSILON) over all pixels
+     */
+    public static double averageLogLuminance(float[] rgba, int width, int height, float[] weights) {
+        if (rgba.length < width * height * 4)
+            throw new IllegalArgumentException("The image holds less than " + width + "x" + height + " pixels");
+        if (width * height == 0)
+            return 0;
+
+        double sum = 0;
+        for (int i = 0; i < width * height; i++) {
+            double luminance = luminance(rgba[i * 4], rgba[i * 4 + 1], rgba[i * 4 + 2], weights);
+            sum += Math.log(Math.max(luminance, 0) + EPSILON);
+        }
+        return sum / (width * height);
+    }
+
+    /**
+     * Moves the adapted log luminance towards the current one.
+     * @param adapted previous adapted log luminance
+     * @param current current average log luminance
+     * @param delta time since the last adaptation in seconds
+     * @param rate adaptation rate per second
+     * @return new adapted log luminance
+     */
+    public static double adapt(double adapted, double current, double delta, double rate) {
+        return adapted + (current - adapted) * (1 - Math.exp(-delta * rate));
+    }
+}
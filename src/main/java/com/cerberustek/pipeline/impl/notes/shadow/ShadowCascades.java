@@ -0,0 +1,345 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes.shadow;
+
+/**
+ * Split and fit math of cascaded shadow maps.
+ *
+ * The view frustum of the camera is split into slices along the
+ * view direction. Each slice is enclosed by a bounding sphere,
+ * which is covered by an orthographic projection along the light
+ * direction. The size of a sphere does not change when the camera
+ * rotates and its center is snapped to whole shadow map texels,
+ * so the shadow edges do not shimmer when the camera moves. The
+ * projection is half a texel wider than the sphere, so snapping
+ * never moves a part of the sphere out of the cascade.
+ *
+ * All matrices are stored row major in arrays of 16 values and
+ * this class does not access OpenGL, so it can be used and tested
+ * without a renderer.
+ */
+public class ShadowCascades {
+
+    /** precision the sphere radius is rounded up to */
+    private final static double RADIUS_STEP = 1d / 16d;
+
+    private final int count;
+    private final int resolution;
+    private final double lambda;
+    private final double casterDistance;
+
+    private final float[] splits;
+    private final float[] radii;
+    private final float[][] projections;
+    private final float[] lightView = new float[16];
+
+    /**
+     * Creates the cascades.
+     *
+     * The split scheme is blended between a uniform split with a
+     * lambda of 0 and a logarithmic split with a lambda of 1.
+     * @param count amount of cascades
+     * @param resolution width and height of a cascade in texels
+     * @param lambda split scheme blend factor
+     * @param casterDistance distance towards the light, in which
+     *                       shadow casters in front of a cascade
+     *                       are still rendered
+     */
+    public ShadowCascades(int count, int resolution, double lambda, double casterDistance) {
+        if (count < 1)
+            throw new IllegalArgumentException("At least one cascade is required");
+        if (resolution < 2)
+            throw new IllegalArgumentException("The cascade resolution has to be at least 2 texels");
+
+        this.count = count;
+        this.resolution = resolution;
+        this.lambda = Math.min(Math.max(lambda, 0), 1);
+        this.casterDistance = Math.max(casterDistance, 0);
+
+        splits = new float[count + 1];
+        radii = new float[count];
+        projections = new float[count][16];
+    }
+
+    /**
+     * Computes the split distances of a view frustum.
+     * @param near near plane distance
+     * @param far far plane distance
+     * @param count amount of cascades
+     * @param lambda blend factor between the uniform (0) and the
+     *               logarithmic (1) split scheme
+     * @return count + 1 distances, starting with near and ending
+     *          with far
+     */
+    public static float[] split(double near, double far, int count, double lambda) {
+        if (near <= 0 || far <= near)
+            throw new IllegalArgumentException("Invalid clipping planes: " + near + ", " + far);
+
+        float[] distances = new float[count + 1];
+        for (int i = 0; i <= count; i++) {
+            double f = (double) i / count;
+            double uniform = near + (far - near) * f;
+            double logarithmic = near * Math.pow(far / near, f);
+            distances[i] = (float) (lambda * logarithmic + (1 - lambda) * uniform);
+        }
+        distances[0] = (float) near;
+        distances[count] = (float) far;
+        return distances;
+    }
+
+    /**
+     * Fits the cascades to a camera.
+     * @param cameraMatrix row major view projection matrix of the
+     *                     camera
+     * @param near near plane distance of the camera
+     * @param far far plane distance of the camera
+     * @param shadowDistance view distance up to which shadows are
+     *                       rendered, or 0 to cover the whole frustum
+     * @param lightDirection direction the light is shining in
+     */
+    public void fit(float[] cameraMatrix, double near, double far, double shadowDistance, float[] lightDirection) {
+        double[] inverse = invert(cameraMatrix);
+        if (inverse == null)
+            throw new IllegalArgumentException("The camera matrix is not invertible");
+
+        // frustum corners on the near and the far plane
+        double[][] nearCorners = new double[4][];
+        double[][] farCorners = new double[4][];
+        for (int i = 0; i < 4; i++) {
+            double x = (i & 1) == 0 ? -1 : 1;
+            double y = (i & 2) == 0 ? -1 : 1;
+            nearCorners[i] = unproject(inverse, x, y, -1);
+            farCorners[i] = unproject(inverse, x, y, 1);
+        }
+
+        double[][] basis = lightBasis(lightDirection);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++)
+                lightView[row * 4 + column] = (float) basis[row][column];
+            lightView[row * 4 + 3] = 0;
+        }
+        lightView[12] = lightView[13] = lightView[14] = 0;
+        lightView[15] = 1;
+
+        float[] distances = split(near,
+                shadowDistance > near ? Math.min(shadowDistance, far) : far, count, lambda);
+        System.arraycopy(distances, 0, splits, 0, splits.length);
+
+        double[][] corners = new double[8][3];
+        for (int cascade = 0; cascade < count; cascade++) {
+            // points on a corner ray are linear in the view distance
+            double start = (splits[cascade] - near) / (far - near);
+            double end = (splits[cascade + 1] - near) / (far - near);
+            for (int i = 0; i < 4; i++) {
+                lerp(nearCorners[i], farCorners[i], start, corners[i]);
+                lerp(nearCorners[i], farCorners[i], end, corners[i + 4]);
+            }
+            fitCascade(cascade, corners, basis);
+        }
+    }
+
+    private void fitCascade(int cascade, double[][] corners, double[][] basis) {
+        double[] center = new double[3];
+        for (double[] corner : corners) {
+            for (int i = 0; i < 3; i++)
+                center[i] += corner[i] / corners.length;
+        }
+
+        double radius = 0;
+        for (double[] corner : corners) {
+            double dx = corner[0] - center[0];
+            double dy = corner[1] - center[1];
+            double dz = corner[2] - center[2];
+            radius = Math.max(radius, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        radius = Math.ceil(radius / RADIUS_STEP) * RADIUS_STEP;
+        radius = Math.max(radius, RADIUS_STEP);
+
+        // center in light space, snapped to the closest texel
+        double texel = 2 * radius / (resolution - 1);
+        double extent = texel * resolution / 2;
+        double cx = Math.rint(dot(basis[0], center) / texel) * texel;
+        double cy = Math.rint(dot(basis[1], center) / texel) * texel;
+        double cz = dot(basis[2], center);
+
+        double zNear = cz - radius - casterDistance;
+        double zFar = cz + radius;
+
+        float[] projection = projections[cascade];
+        projection[0] = (float) (1 / extent);
+        projection[1] = projection[2] = 0;
+        projection[3] = (float) (-cx / extent);
+        projection[4] = 0;
+        projection[5] = (float) (1 / extent);
+        projection[6] = 0;
+        projection[7] = (float) (-cy / extent);
+        projection[8] = projection[9] = 0;
+        projection[10] = (float) (2 / (zFar - zNear));
+        projection[11] = (float) (-(zFar + zNear) / (zFar - zNear));
+        projection[12] = projection[13] = projection[14] = 0;
+        projection[15] = 1;
+        radii[cascade] = (float) radius;
+    }
+
+    /**
+     * Returns an orthonormal basis, whose rows are the right, up
+     * and forward direction of the light.
+     * @param direction light direction
+     * @return light basis
+     */
+    static double[][] lightBasis(float[] direction) {
+        double[] forward = normalize(new double[] {direction[0], direction[1], direction[2]});
+        double[] up = Math.abs(forward[1]) > 0.99 ? new double[] {0, 0, 1} : new double[] {0, 1, 0};
+        double[] right = normalize(cross(up, forward));
+        up = cross(forward, right);
+        return new double[][] {right, up, forward};
+    }
+
+    private static double[] unproject(double[] inverse, double x, double y, double z) {
+        double[] out = new double[3];
+        double w = inverse[12] * x + inverse[13] * y + inverse[14] * z + inverse[15];
+        for (int row = 0; row < 3; row++)
+            out[row] = (inverse[row * 4] * x + inverse[row * 4 + 1] * y + inverse[row * 4 + 2] * z
+                    + inverse[row * 4 + 3]) / w;
+        return out;
+    }
+
+    /**
+     * Inverts a row major 4x4 matrix.
+     * @param m matrix
+     * @return inverse or null, if the matrix is singular
+     */
+    static double[] invert(float[] m) {
+        double[] a = new double[16];
+        double[] inv = new double[16];
+        for (int i = 0; i < 16; i++) {
+            a[i] = m[i];
+            inv[i] = i % 5 == 0 ? 1 : 0;
+        }
+
+        // gauss jordan elimination with partial pivoting
+        for (int column = 0; column < 4; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < 4; row++) {
+                if (Math.abs(a[row * 4 + column]) > Math.abs(a[pivot * 4 + column]))
+                    pivot = row;
+            }
+            if (Math.abs(a[pivot * 4 + column]) < 1e-12)
+                return null;
+            swapRows(a, column, pivot);
+            swapRows(inv, column, pivot);
+
+            double scale = 1 / a[column * 4 + column];
+            for (int i = 0; i < 4; i++) {
+                a[column * 4 + i] *= scale;
+                inv[column * 4 + i] *= scale;
+            }
+
+            for (int row = 0; row < 4; row++) {
+                double factor = a[row * 4 + column];
+                if (row == column || factor == 0)
+                    continue;
+                for (int i = 0; i < 4; i++) {
+                    a[row * 4 + i] -= factor * a[column * 4 + i];
+                    inv[row * 4 + i] -= factor * inv[column * 4 + i];
+                }
+            }
+        }
+        return inv;
+    }
+
+    private static void swapRows(double[] m, int a, int b) {
+        if (a == b)
+            return;
+        for (int i = 0; i < 4; i++) {
+            double tmp = m[a * 4 + i];
+            m[a * 4 + i] = m[b * 4 + i];
+            m[b * 4 + i] = tmp;
+        }
+    }
+
+    private static void lerp(double[] a, double[] b, double f, double[] out) {
+        for (int i = 0; i < 3; i++)
+            out[i] = a[i] + (b[i] - a[i]) * f;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[] cross(double[] a, double[] b) {
+        return new double[] {a[1] * b[2] - a[2] * b[1], a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0]};
+    }
+
+    private static double[] normalize(double[] v) {
+        double length = Math.sqrt(dot(v, v));
+        if (length == 0)
+            throw new IllegalArgumentException("The light direction must not be zero");
+        return new double[] {v[0] / length, v[1] / length, v[2] / length};
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Returns the view distance at which a cascade ends.
+     * @param cascade cascade index
+     * @return far distance of the cascade
+     */
+    public float getSplit(int cascade) {
+        return splits[cascade + 1];
+    }
+
+    /**
+     * Returns the radius of the bounding sphere of a cascade.
+     * @param cascade cascade index
+     * @return cascade radius
+     */
+    public float getRadius(int cascade) {
+        return radii[cascade];
+    }
+
+    /**
+     * Returns the rotation from world into light space, which is
+     * shared by all cascades.
+     * @return row major light view matrix
+     */
+    public float[] getLightView() {
+        return lightView;
+    }
+
+    /**
+     * Returns the orthographic projection of a cascade from light
+     * into clip space.
+     * @param cascade cascade index
+     * @return row major cascade projection
+     */
+    public float[] getProjection(int cascade) {
+        return projections[cascade];
+    }
+}
@@ -32,6 +32,8 @@ public class FrameBufferResource implements TextureResource {
 
     private Texture base;
     private Vector2i size;
+    /** Size of the texture buffers, or null if equal to the size */
+    private Vector2i storageSize;
     private Attachment[] attachments;
     private boolean renderBuffer;
 
@@ -44,7 +46,7 @@ public class FrameBufferResource implements TextureResource {
 
     @Override
     public Texture load() {
-        FrameBufferTexture fbo = new FrameBufferTexture(size, base);
+        FrameBufferTexture fbo = new FrameBufferTexture(size, getStorageSize(), base);
         fbo.createAttachments(attachments);
         if (renderBuffer)
             fbo.genRenderBuffer();
@@ -68,6 +70,22 @@ public class FrameBufferResource implements TextureResource {
         this.size = size;
     }
 
+    /**
+     * Returns the size of the texture buffers.
+     *
+     * The storage size may be larger than the size of the frame
+     * buffer, in which case only the area of the size is rendered
+     * to.
+     * @return storage size
+     */
+    public Vector2i getStorageSize() {
+        return storageSize != null ? storageSize : size;
+    }
+
+    public void setStorageSize(Vector2i storageSize) {
+        this.storageSize = storageSize;
+    }
+
     public Attachment[] getAttachments() {
         return attachments;
     }
@@ -31,6 +31,7 @@ import com.cerberustek.logic.math.Vector3f;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.List;
 
 public class ObjResource implements ModelResource {
 
@@ -52,38 +53,7 @@ public class ObjResource implements ModelResource {
         ArrayList<Integer> indices = new ArrayList<>();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("v")) {
-                    String[] s = line.split(" ");
-
-                    float x = Float.parseFloat(s[1]);
-                    float y = Float.parseFloat(s[2]);
-                    float z = Float.parseFloat(s[3]);
-
-                    vertices.add(new VertexImpl(new Vector3f(x, y, z)));
-
-                } else if (line.startsWith("f")) {
-                    String[] s = line.split(" ");
-
-                    int i0 = Integer.parseInt(s[1]) - 1;
-                    int i1 = Integer.parseInt(s[2]) - 1;
-                    int i2 = Integer.parseInt(s[3]) - 1;
-
-                    if (!lines) {
-                        indices.add(i0);
-                        indices.add(i1);
-                        indices.add(i2);
-                    } else {
-                        indices.add(i0);
-                        indices.add(i1);
-                        indices.add(i1);
-                        indices.add(i2);
-                        indices.add(i2);
-                        indices.add(i0);
-                    }
-                }
-            }
+            parse(reader, vertices, indices);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -100,4 +70,49 @@ public class ObjResource implements ModelResource {
         mesh.addVertices(vs, is, true);
         return mesh;
     }
+
+    /**
+     * Reads the vertices and faces of an obj file.
+     *
+     * This does not require a gl context.
+     *
+     * @param reader obj source
+     * @param vertices list to add the vertices to
+     * @param indices list to add the indices to
+     * @throws IOException failed to read the source
+     */
+    void parse(BufferedReader reader, List<Vertex> vertices, List<Integer> indices) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("v")) {
+                String[] s = line.split(" ");
+
+                float x = Float.parseFloat(s[1]);
+                float y = Float.parseFloat(s[2]);
+                float z = Float.parseFloat(s[3]);
+
+                vertices.add(new VertexImpl(new Vector3f(x, y, z)));
+
+            } else if (line.startsWith("f")) {
+                String[] s = line.split(" ");
+
+                int i0 = Integer.parseInt(s[1]) - 1;
+                int i1 = Integer.parseInt(s[2]) - 1;
+                int i2 = Integer.parseInt(s[3]) - 1;
+
+                if (!lines) {
+                    indices.add(i0);
+                    indices.add(i1);
+                    indices.add(i2);
+                } else {
+                    indices.add(i0);
+                    indices.add(i1);
+                    indices.add(i1);
+                    indices.add(i2);
+                    indices.add(i2);
+                    indices.add(i0);
+                }
+            }
+        }
+    }
 }
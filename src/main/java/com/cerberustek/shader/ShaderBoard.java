@@ -311,6 +311,21 @@ public interface ShaderBoard extends Destroyable, Initable {
      */
     ShaderBlock bindSSBO(SSBOResource resource, int index, int bindingIndex) throws IllegalContextException;
 
+    /**
+     * Will bind a shader block, which is not part of a registered
+     * SSBO resource, to its binding index.
+     *
+     * This is used for blocks sub allocated from shared buffer
+     * objects. If the current thread is not a render thread, this
+     * method will throw an IllegalContextException.
+     *
+     * @param block shader block
+     * @return bound shader block
+     * @throws IllegalContextException get's thrown, if the
+     *          current thread is not a gl render thread
+     */
+    ShaderBlock bindStorageBlock(ShaderBlock block) throws IllegalContextException;
+
     /**
      * Will delete the SSBO.
      *
@@ -300,6 +300,22 @@ public class ShaderBoardImpl implements ShaderBoard {
         return block;
     }
 
+    @Override
+    public ShaderBlock bindStorageBlock(ShaderBlock block) throws IllegalContextException {
+        if (!getRenderer().getWindow().isGlThread())
+            throw new IllegalContextException();
+
+        ShaderBlock prev = storageBlockMap.get(block.getBindingIndex());
+        if (prev == null) {
+            block.bind();
+            storageBlockMap.put(block.getBindingIndex(), block);
+        } else if (!block.equals(prev)) {
+            block.bind();
+            storageBlockMap.replace(block.getBindingIndex(), prev, block);
+        }
+        return block;
+    }
+
     @Override
     public void deleteSSBO(SSBOResource resource) {
         ShaderStorageBufferObject ssbo = SSBOMap.get(resource);
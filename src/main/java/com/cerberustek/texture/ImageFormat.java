@@ -24,9 +24,12 @@ package com.cerberustek.texture;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.opengl.GL30.GL_RG;
 
 public enum ImageFormat {
 
+    RED(GL_RED),
+    RG(GL_RG),
     RGB(GL_RGB),
     BGR(GL_BGR),
     RGBA(GL_RGBA),
@@ -41,6 +41,12 @@ public enum ImageType {
     RGBA_16_FLOAT(GL_RGBA16F, ImageFormat.RGBA, 16, true, ComponentType.FLOAT),
     RGBA_32_FLOAT(GL_RGBA32F, ImageFormat.RGBA, 32, true, ComponentType.FLOAT),
 
+    R_16_FLOAT(GL_R16F, ImageFormat.RED, 16, false, ComponentType.HALF_FLOAT, 2),
+    RG_16_FLOAT(GL_RG16F, ImageFormat.RG, 16, false, ComponentType.HALF_FLOAT, 4),
+    /* packed formats, the pixel size is the size of the largest channel */
+    RGB10_A2_INTEGER(GL_RGB10_A2, ImageFormat.RGBA, 10, true, ComponentType.UNSIGNED_BYTE, 4),
+    R11_G11_B10_FLOAT(GL_R11F_G11F_B10F, ImageFormat.RGB, 11, false, ComponentType.HALF_FLOAT, 4),
+
     BGR_8_INTEGER(GL_RGB8, ImageFormat.BGR, 8, false, ComponentType.UNSIGNED_BYTE),
     BGR_16_INTEGER(GL_RGB16, ImageFormat.BGR, 16, false, ComponentType.UNSIGNED_BYTE),
     BGRA_8_INTEGER(GL_RGBA8, ImageFormat.BGRA, 8, true, ComponentType.UNSIGNED_BYTE),
@@ -60,13 +66,20 @@ public enum ImageType {
     private final int pixelSize;
     private final boolean alpha;
     private final ComponentType bufferType;
+    private final int byteSize;
 
     ImageType(int internalFormat, ImageFormat format, int pixelSize, boolean alpha, ComponentType bufferType) {
+        this(internalFormat, format, pixelSize, alpha, bufferType, (pixelSize / 8) * (alpha ? 4 : 3));
+    }
+
+    ImageType(int internalFormat, ImageFormat format, int pixelSize, boolean alpha, ComponentType bufferType,
+              int byteSize) {
         this.internalFormat = internalFormat;
         this.format = format;
         this.pixelSize = pixelSize;
         this.alpha = alpha;
         this.bufferType = bufferType;
+        this.byteSize = byteSize;
     }
 
     public int toInternalFormat() {
@@ -100,7 +113,7 @@ public enum ImageType {
      * @return pixel size
      */
     public int byteSize() {
-        return (pixelSize / 8) * (alpha ? 4 : 3);
+        return byteSize;
     }
 
     public ComponentType preferedBuffer() {
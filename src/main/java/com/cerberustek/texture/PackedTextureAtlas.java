@@ -0,0 +1,98 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture;
+
+import com.cerberustek.exceptions.AtlasCapacityException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.resource.image.TextureResource;
+
+/**
+ * Texture atlas with cells of variable size.
+ *
+ * Instead of dividing the atlas texture into a grid of equally
+ * sized cells, a packed texture atlas allocates a region of the
+ * exact size of each cell texture. Cells are therefore addressed
+ * at pixel granularity: the atlas dimensions are the texture size
+ * in pixels, and the cell size is always one pixel.
+ */
+public interface PackedTextureAtlas extends TextureAtlas {
+
+    @Override
+    PackedAtlasCell getCell(int cellId);
+
+    /**
+     * Will add a cell texture of the specified size to the texture
+     * atlas without overwriting any existing textures.
+     *
+     * In contrast to addCell(TextureResource), this method does not
+     * require the cell texture to be loaded, since the atlas region
+     * is allocated from the provided size. The cell texture is
+     * written 'per pixel' to the allocated region.
+     *
+     * This method, depending on the implementation,
+     * may be executed asynchronously.
+     *
+     * @param cellTexture cell texture to add
+     * @param size size of the cell texture in pixels
+     * @return added atlas cell
+     * @throws AtlasCapacityException thrown, if there is no
+     *          free region large enough for the cell texture
+     */
+    PackedAtlasCell addCell(TextureResource cellTexture, Vector2i size) throws AtlasCapacityException;
+
+    @Override
+    PackedAtlasCell[] addCells(TextureResource... cellTextures) throws AtlasCapacityException;
+
+    /**
+     * Will add multiple cell textures of the specified sizes to the
+     * texture atlas without overwriting any existing textures.
+     *
+     * If not all cell textures can be packed into the texture atlas,
+     * none of them is added and an AtlasCapacityException is thrown.
+     *
+     * This method, depending on the implementation,
+     * may be executed asynchronously.
+     *
+     * @param cellTextures cell textures to add
+     * @param sizes sizes of the cell textures in pixels
+     * @return added atlas cells in the order of the cell textures
+     * @throws AtlasCapacityException thrown, if there is not enough
+     *          free space for all cell textures
+     */
+    PackedAtlasCell[] addCells(TextureResource[] cellTextures, Vector2i[] sizes) throws AtlasCapacityException;
+
+    /**
+     * Returns true, if a cell of the specified size could be added
+     * to the texture atlas.
+     * @param size cell size in pixels
+     * @return cell fits
+     */
+    boolean fits(Vector2i size);
+
+    /**
+     * Returns the fraction of the atlas texture area that is
+     * occupied by cells in the range of [0, 1].
+     * @return occupancy
+     */
+    float occupancy();
+}
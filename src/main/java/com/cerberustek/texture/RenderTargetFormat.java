@@ -0,0 +1,155 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Format of a pooled render target.
+ *
+ * The format describes every texture buffer of a frame buffer by
+ * its active texture unit, image type and attachment. Pooled
+ * render targets are only ever shared between requests with equal
+ * formats.
+ *
+ * Bucketed render targets are over-allocated to the next size
+ * bucket and only rendered to through the viewport, so they can be
+ * reused while the window is being resized. Shaders sampling them
+ * have to scale their texture coordinates by the ratio between the
+ * size and the storage size of the frame buffer.
+ */
+public class RenderTargetFormat {
+
+    private final int[] units;
+    private final ImageType[] types;
+    private final AttachmentType[] attachments;
+    private final boolean renderBuffer;
+    private final boolean bucketed;
+
+    /**
+     * Creates a new render target format.
+     * @param units active texture units of the texture buffers
+     * @param types image types of the texture buffers
+     * @param attachments attachments of the texture buffers
+     * @param renderBuffer frame buffer uses a depth render buffer
+     * @param bucketed render target is over-allocated in size
+     *                 buckets
+     */
+    public RenderTargetFormat(@NotNull int[] units, @NotNull ImageType[] types, @NotNull AttachmentType[] attachments,
+                              boolean renderBuffer, boolean bucketed) {
+        if (units.length != types.length || units.length != attachments.length)
+            throw new IllegalArgumentException("The amount of units, image types and attachments has to be equal");
+
+        this.units = units.clone();
+        this.types = types.clone();
+        this.attachments = attachments.clone();
+        this.renderBuffer = renderBuffer;
+        this.bucketed = bucketed;
+    }
+
+    /**
+     * Creates a new render target format with a single texture
+     * buffer.
+     * @param unit active texture unit of the texture buffer
+     * @param type image type of the texture buffer
+     * @param attachment attachment of the texture buffer
+     * @param renderBuffer frame buffer uses a depth render buffer
+     */
+    public RenderTargetFormat(int unit, @NotNull ImageType type, @NotNull AttachmentType attachment,
+                              boolean renderBuffer) {
+        this(new int[] {unit}, new ImageType[] {type}, new AttachmentType[] {attachment}, renderBuffer, false);
+    }
+
+    /**
+     * Creates a new render target format with a single color
+     * attachment and without render buffer.
+     * @param unit active texture unit of the texture buffer
+     * @param type image type of the texture buffer
+     */
+    public RenderTargetFormat(int unit, @NotNull ImageType type) {
+        this(unit, type, AttachmentType.COLOR_00, false);
+    }
+
+    /**
+     * Returns the amount of texture buffers.
+     * @return texture buffer count
+     */
+    public int length() {
+        return units.length;
+    }
+
+    public int getUnit(int index) {
+        return units[index];
+    }
+
+    public ImageType getType(int index) {
+        return types[index];
+    }
+
+    public AttachmentType getAttachment(int index) {
+        return attachments[index];
+    }
+
+    public boolean hasRenderBuffer() {
+        return renderBuffer;
+    }
+
+    public boolean isBucketed() {
+        return bucketed;
+    }
+
+    /**
+     * Returns the amount of bytes per pixel of all texture buffers
+     * and the depth render buffer (24 bit, stored in 4 bytes).
+     * @return bytes per pixel
+     */
+    public int byteSize() {
+        int size = renderBuffer ? 4 : 0;
+        for (ImageType type : types)
+            size += type.byteSize();
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RenderTargetFormat))
+            return false;
+        RenderTargetFormat format = (RenderTargetFormat) o;
+        return renderBuffer == format.renderBuffer && bucketed == format.bucketed &&
+                Arrays.equals(units, format.units) && Arrays.equals(types, format.types) &&
+                Arrays.equals(attachments, format.attachments);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(units);
+        result = 31 * result + Arrays.hashCode(types);
+        result = 31 * result + Arrays.hashCode(attachments);
+        result = 31 * result + (renderBuffer ? 1 : 0);
+        return 31 * result + (bucketed ? 1 : 0);
+    }
+}
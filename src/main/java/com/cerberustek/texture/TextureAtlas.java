@@ -183,6 +183,32 @@ public interface TextureAtlas extends Texture {
      */
     AtlasCell addCellUnchecked(TextureResource cellTexture) throws AtlasCapacityException;
 
+    /**
+     * Will add multiple cell textures to the texture atlas without
+     * overwriting any existing textures.
+     *
+     * This method behaves like addCell(TextureResource) for each of
+     * the provided cell textures, but uploads all of them at once.
+     * Implementations should use this to stitch the cell textures
+     * with as few draw calls and memory barriers as possible.
+     *
+     * If there are not enough free cells left in the texture atlas
+     * to hold all cell textures, none of them is added and an
+     * AtlasCapacityException is thrown.
+     *
+     * This method, depending on the implementation,
+     * may be executed asynchronously.
+     *
+     * @param cellTextures cell textures to add
+     * @return added atlas cells in the order of the cell textures
+     * @throws AtlasCapacityException thrown, if the texture
+     *          atlas cannot hold all cell textures
+     * @throws AtlasCellSizeException thrown, if the size of one
+     *          of the provided textures does not fit the cell size
+     *          of the texture atlas
+     */
+    AtlasCell[] addCells(TextureResource... cellTextures) throws AtlasCapacityException, AtlasCellSizeException;
+
     /**
      * Will remove the cell with the specified cell id.
      * @param cellId id of the cell to remove
@@ -22,7 +22,9 @@
 
 package com.cerberustek.texture;
 
+import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
 import com.cerberustek.resource.impl.ImageTextureResource;
 import com.cerberustek.Destroyable;
 import com.cerberustek.buffer.BufferAccess;
@@ -239,4 +241,40 @@ public interface TextureBoard extends Destroyable {
      * @return Resource of FrameBuffer
      */
     TextureResource getBoundFrameBuffer();
+
+    /**
+     * Returns a render target from the render target pool.
+     *
+     * If the pool holds an unused render target with the same
+     * format and storage size, that render target is reused.
+     * Otherwise a new one is created and loaded. This has to be
+     * called on the Gl-Renderthread.
+     * Render targets acquired this way should be returned to the
+     * pool with <code>releaseRenderTarget</code>, e.g. when the
+     * window is resized, instead of deleting them.
+     *
+     * @param size size of the render target
+     * @param format format of the render target
+     * @return render target
+     */
+    FrameBufferResource acquireRenderTarget(@NotNull Vector2i size, @NotNull RenderTargetFormat format);
+
+    /**
+     * Returns a render target to the render target pool.
+     *
+     * Render targets that have not been acquired from the pool
+     * are deleted instead.
+     *
+     * @param resource render target to release
+     */
+    void releaseRenderTarget(@NotNull FrameBufferResource resource);
+
+    /**
+     * Deletes all unused render targets of the render target
+     * pool.
+     *
+     * The render pipeline calls this once a resize has settled,
+     * so targets of stale sizes do not stay resident.
+     */
+    void trimRenderTargets();
 }
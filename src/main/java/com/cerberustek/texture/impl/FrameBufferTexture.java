@@ -50,6 +50,8 @@ public class FrameBufferTexture implements FrameBuffer {
     private final Texture texture;
     /** Frame buffer size */
     private Vector2i screenSize;
+    /** Size of the texture buffers and render buffer */
+    private final Vector2i storageSize;
     /** Frame buffer object id.
      * Used for storing geometry and color information */
     private int frameBuffer;
@@ -68,7 +70,20 @@ public class FrameBufferTexture implements FrameBuffer {
      * @param texture Texture to draw to
      */
     public FrameBufferTexture(@NotNull Vector2i screenSize, Texture texture) {
+        this(screenSize, screenSize, texture);
+    }
+
+    /**
+     * Frame buffer object, whose texture buffers are larger than
+     * the area rendered to.
+     *
+     * @param screenSize Frame buffer size (viewport)
+     * @param storageSize Size of the texture buffers
+     * @param texture Texture to draw to
+     */
+    public FrameBufferTexture(@NotNull Vector2i screenSize, @NotNull Vector2i storageSize, Texture texture) {
         this.screenSize = screenSize;
+        this.storageSize = storageSize;
         this.texture = texture;
     }
 
@@ -144,7 +159,7 @@ public class FrameBufferTexture implements FrameBuffer {
     public void genRenderBuffer() {
         renderBuffer = glGenRenderbuffers();
         glBindRenderbuffer(GL_RENDERBUFFER, renderBuffer);
-        glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT24, screenSize.getX(), screenSize.getY());
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT24, storageSize.getX(), storageSize.getY());
 
         TextureUtil.unbindRenderbuffer();
     }
@@ -224,6 +239,24 @@ public class FrameBufferTexture implements FrameBuffer {
         return screenSize;
     }
 
+    /**
+     * Will change the area of the frame buffer that is rendered
+     * to.
+     *
+     * The size must not exceed the storage size.
+     * @param screenSize Frame buffer size
+     */
+    public void setScreenSize(@NotNull Vector2i screenSize) {
+        if (screenSize.getX() > storageSize.getX() || screenSize.getY() > storageSize.getY())
+            throw new IllegalArgumentException("Frame buffer size " + screenSize + " exceeds the storage size "
+                    + storageSize);
+        this.screenSize = screenSize;
+    }
+
+    public Vector2i getStorageSize() {
+        return storageSize;
+    }
+
     @Override
     public Collection<Attachment> getAttachments() {
         return attachments.values();
@@ -0,0 +1,249 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture.impl;
+
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.resource.impl.FrameBufferResource;
+import com.cerberustek.texture.Attachment;
+import com.cerberustek.texture.RenderTargetFormat;
+import com.cerberustek.texture.Texture;
+import com.cerberustek.texture.TextureBoard;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pool of render targets owned by the texture board.
+ *
+ * Released render targets are kept and handed out again for the
+ * next request with the same storage size and format. The least
+ * recently released targets are deleted once the unused targets
+ * take up more memory than the budget of the pool. The most
+ * recently released target is only deleted when a new target has
+ * to be allocated, so a note releasing and reacquiring its target
+ * on resize may still reuse it, even if it exceeds the budget on
+ * its own.
+ */
+class RenderTargetPool {
+
+    public static final int DEFAULT_BUCKET = 256;
+    /** Default memory budget of unused render targets in MiB */
+    public static final int DEFAULT_BUDGET = 256;
+
+    private final TextureBoard textureBoard;
+    private final int bucket;
+    private final long budget;
+
+    /** Storage key of every render target created by the pool */
+    private final HashMap<FrameBufferResource, Key> owned = new HashMap<>();
+    /** Unused render targets by storage key */
+    private final HashMap<Key, ArrayDeque<FrameBufferResource>> free = new HashMap<>();
+    /** Unused render targets in order of release */
+    private final LinkedHashMap<FrameBufferResource, Key> released = new LinkedHashMap<>();
+
+    /** Memory taken up by the unused render targets in bytes */
+    private long releasedBytes;
+    private long allocations;
+    private long reuses;
+
+    /**
+     * Creates a new render target pool.
+     * @param textureBoard texture board loading the render targets
+     * @param bucket size bucket of bucketed formats in pixels
+     * @param budget memory budget of unused render targets in bytes
+     */
+    RenderTargetPool(TextureBoard textureBoard, int bucket, long budget) {
+        this.textureBoard = textureBoard;
+        this.bucket = Math.max(bucket, 1);
+        this.budget = Math.max(budget, 0);
+    }
+
+    FrameBufferResource acquire(Vector2i size, RenderTargetFormat format) {
+        size = new Vector2i(Math.max(size.getX(), 1), Math.max(size.getY(), 1));
+        Vector2i storage = format.isBucketed() ? bucket(size) : size;
+        Key key = new Key(storage.getX(), storage.getY(), format);
+
+        ArrayDeque<FrameBufferResource> candidates = free.get(key);
+        if (candidates != null && !candidates.isEmpty()) {
+            FrameBufferResource resource = candidates.poll();
+            released.remove(resource);
+            releasedBytes -= key.byteSize();
+            reuses++;
+
+            if (!resource.getSize().equals(size)) {
+                resource.setSize(size);
+                Texture texture = textureBoard.getTexture(resource);
+                if (texture instanceof FrameBufferTexture)
+                    ((FrameBufferTexture) texture).setScreenSize(size);
+            }
+            return resource;
+        }
+
+        evict(budget, 0);
+
+        TextureEmpty2D texture = new TextureEmpty2D(format.length());
+        texture.genTextures();
+        Attachment[] attachments = new Attachment[format.length()];
+        for (int i = 0; i < format.length(); i++) {
+            texture.initTexture(i, format.getUnit(i), storage, format.getType(i));
+            attachments[i] = new SimpleAttachment(i, format.getAttachment(i));
+        }
+
+        FrameBufferResource resource = new FrameBufferResource(size, texture, format.hasRenderBuffer(), attachments);
+        resource.setStorageSize(storage);
+        textureBoard.loadTexture(resource);
+        owned.put(resource, key);
+        allocations++;
+        return resource;
+    }
+
+    /**
+     * Will return a render target to the pool.
+     * @param resource render target
+     * @return true, if the render target was created by the pool
+     */
+    boolean release(FrameBufferResource resource) {
+        Key key = owned.get(resource);
+        if (key == null)
+            return false;
+        if (released.containsKey(resource))
+            return true;
+
+        free.computeIfAbsent(key, k -> new ArrayDeque<>()).push(resource);
+        released.put(resource, key);
+        releasedBytes += key.byteSize();
+
+        evict(budget, 1);
+        return true;
+    }
+
+    /**
+     * Will forget a render target, that is deleted by someone
+     * else.
+     * @param resource render target
+     */
+    void forget(FrameBufferResource resource) {
+        Key key = owned.remove(resource);
+        if (key != null && released.remove(resource) != null) {
+            free.get(key).remove(resource);
+            releasedBytes -= key.byteSize();
+        }
+    }
+
+    /**
+     * Will delete all unused render targets.
+     */
+    void trim() {
+        for (FrameBufferResource resource : released.keySet().toArray(new FrameBufferResource[0]))
+            delete(resource);
+        released.clear();
+        free.clear();
+        releasedBytes = 0;
+    }
+
+    void clear() {
+        owned.clear();
+        released.clear();
+        free.clear();
+        releasedBytes = 0;
+    }
+
+    long getAllocations() {
+        return allocations;
+    }
+
+    long getReuses() {
+        return reuses;
+    }
+
+    int getFreeCount() {
+        return released.size();
+    }
+
+    long getFreeBytes() {
+        return releasedBytes;
+    }
+
+    /**
+     * Will delete the least recently released render targets,
+     * until the unused render targets fit into the budget.
+     * @param budget memory budget in bytes
+     * @param keep amount of most recently released targets to keep
+     */
+    private void evict(long budget, int keep) {
+        Iterator<Map.Entry<FrameBufferResource, Key>> iterator = released.entrySet().iterator();
+        while (releasedBytes > budget && released.size() > keep && iterator.hasNext()) {
+            Map.Entry<FrameBufferResource, Key> eldest = iterator.next();
+            iterator.remove();
+            free.get(eldest.getValue()).remove(eldest.getKey());
+            releasedBytes -= eldest.getValue().byteSize();
+            delete(eldest.getKey());
+        }
+    }
+
+    private void delete(FrameBufferResource resource) {
+        owned.remove(resource);
+        textureBoard.deleteTexture(resource);
+    }
+
+    private Vector2i bucket(Vector2i size) {
+        return new Vector2i(((size.getX() + bucket - 1) / bucket) * bucket,
+                ((size.getY() + bucket - 1) / bucket) * bucket);
+    }
+
+    private static class Key {
+
+        private final int width;
+        private final int height;
+        private final RenderTargetFormat format;
+
+        private Key(int width, int height, RenderTargetFormat format) {
+            this.width = width;
+            this.height = height;
+            this.format = format;
+        }
+
+        private long byteSize() {
+            return (long) width * height * format.byteSize();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return width == key.width && height == key.height && format.equals(key.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, format);
+        }
+    }
+}
@@ -22,13 +22,16 @@
 
 package com.cerberustek.texture.impl;
 
+import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.FrameBufferResource;
 import com.cerberustek.resource.impl.ImageTextureResource;
 import com.cerberustek.CerberusRegistry;
 import com.cerberustek.CerberusRenderer;
 import com.cerberustek.buffer.BufferAccess;
 import com.cerberustek.texture.FrameBuffer;
 import com.cerberustek.texture.ImageTexture;
+import com.cerberustek.texture.RenderTargetFormat;
 import com.cerberustek.texture.Texture;
 import com.cerberustek.texture.TextureBoard;
 import com.cerberustek.util.TextureUtil;
@@ -42,11 +45,15 @@ public class TextureBoardImpl implements TextureBoard {
     private final HashMap<TextureResource, Texture> textureMap = new HashMap<>();
 
     private CerberusRenderer renderer;
+    private RenderTargetPool renderTargetPool;
     private TextureResource currentTexture;
     private TextureResource currentFrameBuffer;
 
     @Override
     public void deleteTexture(@NotNull TextureResource resource) {
+        if (renderTargetPool != null && resource instanceof FrameBufferResource)
+            renderTargetPool.forget((FrameBufferResource) resource);
+
         Texture texture = getTexture(resource);
         if (texture != null) {
             getRenderer().tryGLTask((time) -> texture.destroy());
@@ -222,8 +229,27 @@ public class TextureBoardImpl implements TextureBoard {
         return currentFrameBuffer;
     }
 
+    @Override
+    public FrameBufferResource acquireRenderTarget(@NotNull Vector2i size, @NotNull RenderTargetFormat format) {
+        return getRenderTargetPool().acquire(size, format);
+    }
+
+    @Override
+    public void releaseRenderTarget(@NotNull FrameBufferResource resource) {
+        if (!getRenderTargetPool().release(resource))
+            deleteTexture(resource);
+    }
+
+    @Override
+    public void trimRenderTargets() {
+        if (renderTargetPool != null)
+            renderTargetPool.trim();
+    }
+
     @Override
     public void destroy() {
+        if (renderTargetPool != null)
+            renderTargetPool.clear();
         getRenderer().tryGLTask((time) -> textureMap.values().forEach(Texture::destroy));
         textureMap.clear();
     }
@@ -237,6 +263,15 @@ public class TextureBoardImpl implements TextureBoard {
         }
     }
 
+    private RenderTargetPool getRenderTargetPool() {
+        if (renderTargetPool == null)
+            renderTargetPool = new RenderTargetPool(this,
+                    getRenderer().getSettings().getInteger("render_target_bucket", RenderTargetPool.DEFAULT_BUCKET),
+                    getRenderer().getSettings().getInteger("render_target_pool_budget",
+                            RenderTargetPool.DEFAULT_BUDGET) * 1024L * 1024L);
+        return renderTargetPool;
+    }
+
     private CerberusRenderer getRenderer() {
         if (renderer == null)
             renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
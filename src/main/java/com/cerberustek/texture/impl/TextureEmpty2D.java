@@ -32,6 +32,7 @@ import java.nio.ByteBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_MAX_LEVEL;
 import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
 import static org.lwjgl.opengl.GL13.glActiveTexture;
 
@@ -78,6 +79,31 @@ public class TextureEmpty2D implements Texture {
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
     }
 
+    /**
+     * Allocates the mip levels of an initialized texture buffer
+     * and enables linear mip map filtering.
+     *
+     * Each level is half the size of the previous level.
+     *
+     * @param index Index of the texture buffer
+     * @param mipLevels Amount of levels including the base level
+     */
+    public void initMipmaps(int index, int mipLevels) {
+        glActiveTexture(GL_TEXTURE0 + levels[index]);
+        glBindTexture(GL_TEXTURE_2D, textureBuffers[index]);
+
+        ImageType type = types[index];
+        for (int level = 1; level < mipLevels; level++) {
+            glTexImage2D(GL_TEXTURE_2D, level, type.toInternalFormat(), Math.max(sizes[index].getX() >> level, 1),
+                    Math.max(sizes[index].getY() >> level, 1), 0, type.toFormat(),
+                    type.preferedBuffer().getGlId(), (ByteBuffer) null);
+        }
+
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, mipLevels - 1);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+    }
+
     /**
      * Initializes all textures with the specified units, sizes and
      * ImageTypes.
@@ -0,0 +1,521 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture.impl.atlas;
+
+import com.cerberustek.CerberusEvent;
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.buffer.BufferAccess;
+import com.cerberustek.events.ExceptionEvent;
+import com.cerberustek.exceptions.AtlasCellSizeException;
+import com.cerberustek.exceptions.GLComputeException;
+import com.cerberustek.exceptions.GLShaderTypeException;
+import com.cerberustek.exceptions.GLUnknownUniformException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.pipeline.impl.notes.SceneNote;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.resource.impl.BaseShaderResource;
+import com.cerberustek.resource.shader.ShaderCodeResource;
+import com.cerberustek.resource.shader.ShaderResource;
+import com.cerberustek.shader.Shader;
+import com.cerberustek.shader.ShaderBoard;
+import com.cerberustek.shader.ShaderType;
+import com.cerberustek.shader.code.ShaderCodeLoader;
+import com.cerberustek.shader.uniform.Uniform1i;
+import com.cerberustek.shader.uniform.Uniform2i;
+import com.cerberustek.texture.ImageFormat;
+import com.cerberustek.texture.ImageTexture;
+import com.cerberustek.texture.Texture;
+import com.cerberustek.texture.TextureBoard;
+import org.jetbrains.annotations.NotNull;
+import org.lwjgl.BufferUtils;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL42.GL_SHADER_IMAGE_ACCESS_BARRIER_BIT;
+import static org.lwjgl.opengl.GL42.glMemoryBarrier;
+import static org.lwjgl.opengl.GL42.glTexStorage3D;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER;
+import static org.lwjgl.opengl.GL43.glCopyImageSubData;
+
+/**
+ * Renders cell textures into the base texture of a texture atlas
+ * using the atlas compute shader.
+ *
+ * The stitcher only knows about pixel regions inside the atlas
+ * texture, so it can be shared by atlas implementations with
+ * different cell layouts.
+ */
+class AtlasStitcher {
+
+    public static final String ATLAS_BATCH_SHADER = "shader.atlas.batch";
+    public static final String ATLAS_BATCH_RED_SHADER = "shader.atlas.batch.red";
+
+    /** Binding index of the cell table for batched stitching */
+    private static final int BINDING_CELL_TABLE = 3;
+    /** Size of a single cell table entry in ints */
+    private static final int CELL_TABLE_STRIDE = 8;
+
+    private final ImageTexture imageTexture;
+
+    private Vector2i localComputeSize;
+    private CerberusRenderer renderer;
+
+    AtlasStitcher(ImageTexture imageTexture) {
+        this.imageTexture = imageTexture;
+    }
+
+    /**
+     * Will render the cell texture into the specified region of the
+     * atlas texture.
+     *
+     * If rescale is false, the cell texture is written 'per pixel'
+     * to the upper right corner of the region. Cell textures larger
+     * than the region are reported and skipped, callers should
+     * validate them before allocating the region.
+     * If rescale is true, the cell texture is scaled to fit the
+     * region.
+     *
+     * This method is executed asynchronously, if it is not called
+     * from a gl thread.
+     *
+     * Atlases with a single texture layer are stitched like a batch
+     * of one cell texture, since the atlas shader writes the full
+     * material layout.
+     *
+     * @param cellTexture cell texture
+     * @param offset offset of the region in pixels
+     * @param extent size of the region in pixels
+     * @param rescale rescale the cell texture to the region
+     */
+    void stitch(TextureResource cellTexture, Vector2i offset, Vector2i extent, boolean rescale) {
+        if (imageTexture.length() == 1) {
+            stitch(new TextureResource[] {cellTexture}, new Vector2i[] {offset}, new Vector2i[] {extent}, rescale);
+            return;
+        }
+
+        final CerberusRenderer renderer = getRenderer();
+        renderer.tryGLTask(t -> {
+            ShaderBoard shaderBoard = renderer.getShaderBoard();
+            TextureBoard textureBoard = renderer.getTextureBoard();
+            Shader shader = shaderBoard.bindShader(getAtlasShader());
+            Texture srcSamp = textureBoard.bindTexture(cellTexture);
+
+            if (shader == null) {
+                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind atlas shader");
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                                new NullPointerException("Failed to set atlas cell")));
+                return;
+            }
+            if (srcSamp == null) {
+                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind cell texture");
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                                new NullPointerException("Failed to set atlas cell")));
+                return;
+            }
+
+            Vector2i srcSize = srcSamp.getSize(0).xy();
+            if (!rescale && (srcSize.getX() > extent.getX() || srcSize.getY() > extent.getY())) {
+                reportCellSize(extent, srcSamp.getSize(0));
+                return;
+            }
+
+            setupShader(shader, offset, extent, srcSize, rescale);
+            imageTexture.bindImage(BufferAccess.WRITE_ONLY);
+
+            try {
+                Vector2i local = getLocalComputeSize();
+                Vector2i work = rescale ? extent : srcSize;
+                shaderBoard.dispatchCompute(new Vector3i(
+                        (int) Math.ceil((float) work.getX() / (float) local.getX()),
+                        (int) Math.ceil((float) work.getY() / (float) local.getY()), 1));
+                glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT);
+            } catch (GLComputeException | GLShaderTypeException e) {
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+            }
+
+            imageTexture.unbindImage();
+        });
+    }
+
+    /**
+     * Will render multiple cell textures into the specified regions
+     * of the atlas texture within a single gl task.
+     *
+     * If the cell textures are not rescaled and share the internal
+     * format of the atlas texture, they are copied directly into the
+     * atlas texture. Otherwise, all cell textures sharing an internal
+     * format are staged into one array texture and stitched into the
+     * atlas with a single compute dispatch and a single memory
+     * barrier.
+     *
+     * Only the first texture of each cell texture is stitched, which
+     * is the color layer for single layer cell textures such as
+     * glyph images.
+     *
+     * This method is executed asynchronously, if it is not called
+     * from a gl thread.
+     *
+     * @param cellTextures cell textures
+     * @param offsets offsets of the regions in pixels
+     * @param extents sizes of the regions in pixels
+     * @param rescale rescale the cell textures to their regions
+     */
+    void stitch(TextureResource[] cellTextures, Vector2i[] offsets, Vector2i[] extents, boolean rescale) {
+        if (cellTextures.length != offsets.length || cellTextures.length != extents.length)
+            throw new IllegalArgumentException("There has to be an offset and an extent for each cell texture");
+        if (cellTextures.length == 0)
+            return;
+
+        final CerberusRenderer renderer = getRenderer();
+        renderer.tryGLTask(t -> {
+            TextureBoard textureBoard = renderer.getTextureBoard();
+
+            // group the cell textures by their internal format
+            HashMap<Integer, ArrayList<Integer>> groups = new HashMap<>();
+            Texture[] sources = new Texture[cellTextures.length];
+            for (int i = 0; i < cellTextures.length; i++) {
+                sources[i] = textureBoard.loadTexture(cellTextures[i]);
+                if (sources[i] == null) {
+                    CerberusRegistry.getInstance().warning("[ATLAS]> Failed to load cell texture");
+                    CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                            .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                                    new NullPointerException("Failed to set atlas cell")));
+                    continue;
+                }
+
+                Vector3i srcSize = sources[i].getSize(0);
+                if (!rescale && (srcSize.getX() > extents[i].getX() || srcSize.getY() > extents[i].getY())) {
+                    reportCellSize(extents[i], srcSize);
+                    continue;
+                }
+
+                groups.computeIfAbsent(sources[i].getType(0).toInternalFormat(), k -> new ArrayList<>()).add(i);
+            }
+
+            int atlasFormat = imageTexture.getType(0).toInternalFormat();
+            for (int format : groups.keySet()) {
+                if (!rescale && format == atlasFormat)
+                    copy(sources, offsets, groups.get(format));
+                else
+                    dispatchBatch(sources, offsets, extents, groups.get(format), format, rescale);
+            }
+        });
+    }
+
+    /**
+     * Will check on the calling thread, that the cell texture fits
+     * into a region of the specified size.
+     * @param cellTexture cell texture
+     * @param extent size of the region in pixels
+     * @throws AtlasCellSizeException thrown, if the cell texture is
+     *          larger than the region
+     */
+    void validate(TextureResource cellTexture, Vector2i extent) throws AtlasCellSizeException {
+        validate(new TextureResource[] {cellTexture}, new Vector2i[] {extent});
+    }
+
+    /**
+     * Will check on the calling thread, that the cell textures fit
+     * into regions of the specified sizes.
+     *
+     * Atlases call this before they allocate any region, so an
+     * oversized cell texture does not leave a partially inserted
+     * cell behind. Cell textures which are not loaded yet can not be
+     * checked here and are skipped when stitching instead.
+     *
+     * @param cellTextures cell textures
+     * @param extents sizes of the regions in pixels
+     * @throws AtlasCellSizeException thrown, if a cell texture is
+     *          larger than its region
+     */
+    void validate(TextureResource[] cellTextures, Vector2i[] extents) throws AtlasCellSizeException {
+        if (cellTextures.length != extents.length)
+            throw new IllegalArgumentException("There has to be an extent for each cell texture");
+
+        TextureBoard textureBoard = getRenderer().getTextureBoard();
+        for (int i = 0; i < cellTextures.length; i++) {
+            Texture texture = textureBoard.getTexture(cellTextures[i]);
+            if (texture == null)
+                continue;
+
+            Vector3i size = texture.getSize(0);
+            if (size.getX() > extents[i].getX() || size.getY() > extents[i].getY())
+                throw new AtlasCellSizeException(new Vector3i(extents[i], 1), size);
+        }
+    }
+
+    /**
+     * Will report a cell texture which does not fit into its region
+     * from within a gl task.
+     * @param extent size of the region in pixels
+     * @param size size of the cell texture
+     */
+    private void reportCellSize(Vector2i extent, Vector3i size) {
+        CerberusRegistry.getInstance().warning("[ATLAS]> Cell texture does not fit into its region");
+        CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                        new AtlasCellSizeException(new Vector3i(extent, 1), size)));
+    }
+
+    /**
+     * Will copy the cell textures directly into the atlas texture.
+     *
+     * This requires the cell textures to share the internal format
+     * of the atlas texture. Copies are transfer operations and do
+     * not require a memory barrier.
+     *
+     * @param sources loaded cell textures
+     * @param offsets region offsets
+     * @param indices indices of the cell textures to copy
+     */
+    private void copy(Texture[] sources, Vector2i[] offsets, ArrayList<Integer> indices) {
+        int atlasPointer = imageTexture.getPointer(0);
+        for (int i : indices) {
+            Vector3i srcSize = sources[i].getSize(0);
+            glCopyImageSubData(sources[i].getPointer(0), GL_TEXTURE_2D, 0, 0, 0, 0,
+                    atlasPointer, GL_TEXTURE_2D, 0, offsets[i].getX(), offsets[i].getY(), 0,
+                    srcSize.getX(), srcSize.getY(), 1);
+        }
+    }
+
+    /**
+     * Will stage the cell textures into an array texture and stitch
+     * all of them into the atlas texture with a single dispatch.
+     *
+     * @param sources loaded cell textures
+     * @param offsets region offsets
+     * @param extents region sizes
+     * @param indices indices of the cell textures to stitch
+     * @param format shared internal format of the cell textures
+     * @param rescale rescale the cell textures to their regions
+     */
+    private void dispatchBatch(Texture[] sources, Vector2i[] offsets, Vector2i[] extents, ArrayList<Integer> indices,
+                               int format, boolean rescale) {
+        ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+        Shader shader = shaderBoard.bindShader(getBatchShader());
+        if (shader == null) {
+            CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind atlas batch shader");
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
+                            new NullPointerException("Failed to set atlas cells")));
+            return;
+        }
+
+        int maxWidth = 1;
+        int maxHeight = 1;
+        int workWidth = 1;
+        int workHeight = 1;
+        for (int i : indices) {
+            Vector3i srcSize = sources[i].getSize(0);
+            maxWidth = Math.max(maxWidth, srcSize.getX());
+            maxHeight = Math.max(maxHeight, srcSize.getY());
+            workWidth = Math.max(workWidth, rescale ? extents[i].getX() : srcSize.getX());
+            workHeight = Math.max(workHeight, rescale ? extents[i].getY() : srcSize.getY());
+        }
+
+        // stage the cell textures in one array texture
+        int staging = glGenTextures();
+        glActiveTexture(GL_TEXTURE0 + SceneNote.COLOR);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, staging);
+        glTexStorage3D(GL_TEXTURE_2D_ARRAY, 1, format, maxWidth, maxHeight, indices.size());
+
+        IntBuffer cellTable = BufferUtils.createIntBuffer(indices.size() * CELL_TABLE_STRIDE);
+        for (int layer = 0; layer < indices.size(); layer++) {
+            int i = indices.get(layer);
+            Vector3i srcSize = sources[i].getSize(0);
+            glCopyImageSubData(sources[i].getPointer(0), GL_TEXTURE_2D, 0, 0, 0, 0,
+                    staging, GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, srcSize.getX(), srcSize.getY(), 1);
+
+            cellTable.put(offsets[i].getX()).put(offsets[i].getY());
+            cellTable.put(extents[i].getX()).put(extents[i].getY());
+            cellTable.put(srcSize.getX()).put(srcSize.getY());
+            cellTable.put(rescale ? 1 : 0).put(layer);
+        }
+        cellTable.flip();
+
+        int tableBuffer = glGenBuffers();
+        glBindBuffer(GL_SHADER_STORAGE_BUFFER, tableBuffer);
+        glBufferData(GL_SHADER_STORAGE_BUFFER, cellTable, GL_STREAM_DRAW);
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, BINDING_CELL_TABLE, tableBuffer);
+
+        imageTexture.bindImage(0, BufferAccess.WRITE_ONLY);
+        try {
+            Vector2i local = getLocalComputeSize();
+            shaderBoard.dispatchCompute(new Vector3i(
+                    (int) Math.ceil((float) workWidth / (float) local.getX()),
+                    (int) Math.ceil((float) workHeight / (float) local.getY()), indices.size()));
+            glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT);
+        } catch (GLComputeException | GLShaderTypeException e) {
+            CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                    .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+        }
+        imageTexture.unbindImage(0);
+
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, BINDING_CELL_TABLE, 0);
+        glDeleteBuffers(tableBuffer);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+        glDeleteTextures(staging);
+    }
+
+    /**
+     * Will return the atlas shader consistently throughout
+     * all texture atlas instances.
+     * @return texture atlas shader
+     */
+    ShaderResource getAtlasShader() {
+        ShaderResource resource = getRenderer().getPropertyMap().getProperty(StitchedTextureAtlas2D.ATLAS_SHADER,
+                ShaderResource.class);
+        if (resource == null) {
+            ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+            ShaderCodeResource fragmentCode = codeLoader.resourceFromName("util/AtlasComp.glsl");
+
+            resource = new BaseShaderResource(new ShaderCodeResource[] {fragmentCode},
+                    new ShaderType[] {ShaderType.COMPUTE}, AtlasStitcher::initAtlasShader);
+            return getRenderer().getPropertyMap().getProperty(StitchedTextureAtlas2D.ATLAS_SHADER,
+                    ShaderResource.class, resource);
+        }
+        return resource;
+    }
+
+    /**
+     * Will return the atlas batch shader consistently throughout
+     * all texture atlas instances.
+     *
+     * Atlases with a single channel color layer use a variant of
+     * the batch shader, since the image format of the atlas has to
+     * match the format declared in the shader.
+     *
+     * @return texture atlas batch shader
+     */
+    ShaderResource getBatchShader() {
+        boolean red = imageTexture.getType(0).getFormat() == ImageFormat.RED;
+        String name = red ? ATLAS_BATCH_RED_SHADER : ATLAS_BATCH_SHADER;
+
+        ShaderResource resource = getRenderer().getPropertyMap().getProperty(name, ShaderResource.class);
+        if (resource == null) {
+            ShaderBoard shaderBoard = getRenderer().getShaderBoard();
+            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
+
+            ShaderCodeResource computeCode = codeLoader.resourceFromName(red ? "util/AtlasBatchRedComp.glsl"
+                    : "util/AtlasBatchComp.glsl");
+
+            resource = new BaseShaderResource(new ShaderCodeResource[] {computeCode},
+                    new ShaderType[] {ShaderType.COMPUTE}, AtlasStitcher::initBatchShader);
+            return getRenderer().getPropertyMap().getProperty(name, ShaderResource.class, resource);
+        }
+        return resource;
+    }
+
+    /**
+     * Will initiate the atlas shader.
+     * @param shader atlas shader
+     */
+    private static void initAtlasShader(Shader shader) {
+        try {
+            // atlas parameters
+            shader.addUniform(new Uniform2i(shader, "cell", new Vector2i(0, 0)));
+            shader.addUniform(new Uniform2i(shader, "cellSize", new Vector2i(0, 0)));
+            shader.addUniform(new Uniform2i(shader, "srcSize", new Vector2i(0, 0)));
+            shader.addUniform(new Uniform1i(shader, "rescale", 0));
+
+            // samplers
+            shader.addUniform(new Uniform1i(shader, "colorSamp", SceneNote.COLOR));
+            shader.addUniform(new Uniform1i(shader, "normalSamp", SceneNote.NORMAL));
+            shader.addUniform(new Uniform1i(shader, "specularSamp", SceneNote.SPECULAR));
+            shader.addUniform(new Uniform1i(shader, "emissionSamp", SceneNote.EMISSION));
+            shader.addUniform(new Uniform1i(shader, "metallicSamp", SceneNote.METALLIC));
+            shader.addUniform(new Uniform1i(shader, "depthSamp", SceneNote.DISPLACEMENT));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Will initiate the atlas batch shader.
+     * @param shader atlas batch shader
+     */
+    private static void initBatchShader(Shader shader) {
+        try {
+            shader.addUniform(new Uniform1i(shader, "cellSamp", SceneNote.COLOR));
+        } catch (GLUnknownUniformException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Will setup the shaders uniforms for rendering a cell texture
+     * to the atlas.
+     * @param shader atlas shader
+     * @param offset region offset in pixels
+     * @param extent region size in pixels
+     * @param srcSize src texture size
+     * @param rescale rescale source texture
+     */
+    private void setupShader(Shader shader, Vector2i offset, Vector2i extent, Vector2i srcSize, boolean rescale) {
+        shader.getUniform("cell", Uniform2i.class).set(offset);
+        shader.getUniform("cellSize", Uniform2i.class).set(extent);
+        shader.getUniform("srcSize", Uniform2i.class).set(srcSize);
+        shader.getUniform("rescale", Uniform1i.class).set(rescale ? 1 : 0);
+
+        shader.update(0);
+    }
+
+    @NotNull
+    private Vector2i getLocalComputeSize() {
+        if (localComputeSize == null) {
+            try {
+                return localComputeSize = getRenderer().getShaderBoard().getLocalGroupSize(getAtlasShader()).xy();
+            } catch (GLShaderTypeException e) {
+                CerberusRegistry.getInstance().getService(CerberusEvent.class)
+                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
+                return new Vector2i(8, 8);
+            }
+        }
+        return localComputeSize;
+    }
+
+    /**
+     * Will return the renderer instance.
+     * @return cerberus renderer
+     */
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture.impl.atlas;
+
+import java.util.*;
+
+/**
+ * Rectangle packer for variable size texture atlas cells.
+ *
+ * The packer implements the MaxRects algorithm with the best
+ * area fit heuristic. All free space inside the bin is tracked as
+ * a set of maximal free rectangles, which may overlap each other.
+ * The free rectangles are kept sorted by area, such that the best
+ * fitting free rectangle for an insertion can be found with a
+ * logarithmic lookup followed by a short forward scan.
+ *
+ * Removing a rectangle hands its area back to the free set and
+ * joins it with neighbouring free rectangles, so the space can be
+ * reused by later insertions.
+ *
+ * The packer does not depend on any gl context and can therefore
+ * be used and tested on the cpu alone.
+ */
+public class MaxRectsPacker {
+
+    /** Free rectangles sorted by area, then position */
+    private final TreeSet<Rect> freeRects = new TreeSet<>();
+    /** Packed rectangles by id. Released ids are null */
+    private final ArrayList<Rect> rects = new ArrayList<>();
+    /** Released rectangle ids, reused in ascending order */
+    private final TreeSet<Integer> freeIds = new TreeSet<>();
+    /** Packed rectangle ids by the position of their upper left corner */
+    private final HashMap<Long, Integer> origins = new HashMap<>();
+
+    private final int width;
+    private final int height;
+
+    private long usedArea;
+    private int count;
+
+    public MaxRectsPacker(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Bin size has to be positive: " + width + "x" + height);
+
+        this.width = width;
+        this.height = height;
+        freeRects.add(new Rect(0, 0, width, height));
+    }
+
+    /**
+     * Will pack a rectangle of the specified size into the bin and
+     * return its id.
+     *
+     * If there is no free space left in the bin which is large
+     * enough to hold the rectangle, this method will return -1.
+     *
+     * @param width rectangle width
+     * @param height rectangle height
+     * @return rectangle id or -1
+     */
+    public int insert(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Rectangle size has to be positive: " + width + "x" + height);
+
+        Rect node = findBestAreaFit(width, height);
+        if (node == null)
+            return -1;
+
+        Rect placed = new Rect(node.x, node.y, width, height);
+        splitFreeRects(placed);
+
+        int id = nextId();
+        rects.set(id, placed);
+        origins.put(origin(placed.x, placed.y), id);
+        usedArea += placed.area;
+        count++;
+        return id;
+    }
+
+    /**
+     * Will remove the rectangle with the specified id from the bin
+     * and make its area available for future insertions.
+     *
+     * @param id rectangle id
+     * @return true, if the rectangle was packed
+     */
+    public boolean remove(int id) {
+        if (id < 0 || id >= rects.size())
+            return false;
+
+        Rect rect = rects.get(id);
+        if (rect == null)
+            return false;
+
+        rects.set(id, null);
+        freeIds.add(id);
+        origins.remove(origin(rect.x, rect.y));
+        usedArea -= rect.area;
+        count--;
+
+        release(rect);
+        return true;
+    }
+
+    /**
+     * Will remove all rectangles from the bin.
+     */
+    public void clear() {
+        freeRects.clear();
+        rects.clear();
+        freeIds.clear();
+        origins.clear();
+        usedArea = 0;
+        count = 0;
+        freeRects.add(new Rect(0, 0, width, height));
+    }
+
+    /**
+     * Returns true, if the id references a packed rectangle.
+     * @param id rectangle id
+     * @return rectangle is packed
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < rects.size() && rects.get(id) != null;
+    }
+
+    /**
+     * Returns true, if a rectangle of the specified size could be
+     * inserted into the bin.
+     * @param width rectangle width
+     * @param height rectangle height
+     * @return rectangle fits
+     */
+    public boolean fits(int width, int height) {
+        return findBestAreaFit(width, height) != null;
+    }
+
+    /**
+     * Returns the id of the rectangle covering the specified
+     * point, or -1 if the point is not covered.
+     *
+     * The upper left corners of the packed rectangles are indexed,
+     * so looking up a rectangle by its position does not have to
+     * scan all rectangles. Other points fall back to a scan.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return rectangle id or -1
+     */
+    public int find(int x, int y) {
+        Integer id = origins.get(origin(x, y));
+        if (id != null)
+            return id;
+
+        for (int i = 0; i < rects.size(); i++) {
+            Rect rect = rects.get(i);
+            if (rect != null && x >= rect.x && y >= rect.y && x < rect.right() && y < rect.bottom())
+                return i;
+        }
+        return -1;
+    }
+
+    public int getX(int id) {
+        return get(id).x;
+    }
+
+    public int getY(int id) {
+        return get(id).y;
+    }
+
+    public int getWidth(int id) {
+        return get(id).width;
+    }
+
+    public int getHeight(int id) {
+        return get(id).height;
+    }
+
+    /**
+     * Returns the width of the bin.
+     * @return bin width
+     */
+    public int getBinWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the bin.
+     * @return bin height
+     */
+    public int getBinHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the amount of packed rectangles.
+     * @return rectangle count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the area covered by packed rectangles.
+     * @return used area
+     */
+    public long usedArea() {
+        return usedArea;
+    }
+
+    /**
+     * Returns the area not covered by packed rectangles.
+     * @return free area
+     */
+    public long freeArea() {
+        return (long) width * height - usedArea;
+    }
+
+    /**
+     * Returns the amount of free rectangles currently tracked.
+     * @return free rectangle count
+     */
+    public int freeRectCount() {
+        return freeRects.size();
+    }
+
+    /**
+     * Returns the fraction of the bin area covered by packed
+     * rectangles in the range of [0, 1].
+     * @return occupancy
+     */
+    public float occupancy() {
+        return (float) ((double) usedArea / ((double) width * height));
+    }
+
+    /**
+     * Returns true, if there is no free space left in the bin.
+     * @return bin is full
+     */
+    public boolean isFull() {
+        return freeRects.isEmpty();
+    }
+
+    private Rect get(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("Invalid rectangle id " + id);
+        return rects.get(id);
+    }
+
+    /**
+     * Returns the free rectangles as arrays of {x, y, width, height}
+     * for validation.
+     * @return free rectangles
+     */
+    List<int[]> getFreeRects() {
+        ArrayList<int[]> output = new ArrayList<>(freeRects.size());
+        for (Rect free : freeRects)
+            output.add(new int[] {free.x, free.y, free.width, free.height});
+        return output;
+    }
+
+    private static long origin(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private int nextId() {
+        if (!freeIds.isEmpty())
+            return freeIds.pollFirst();
+
+        rects.add(null);
+        return rects.size() - 1;
+    }
+
+    /**
+     * Will return the free rectangle with the smallest area that is
+     * still able to hold a rectangle of the specified size.
+     *
+     * Since the free rectangles are sorted by area, the lookup starts
+     * at the first free rectangle with sufficient area and stops at the
+     * first one that fits in both dimensions.
+     *
+     * @param width rectangle width
+     * @param height rectangle height
+     * @return best fitting free rectangle or null
+     */
+    private Rect findBestAreaFit(int width, int height) {
+        if (width > this.width || height > this.height)
+            return null;
+
+        Rect probe = new Rect(Integer.MIN_VALUE, Integer.MIN_VALUE, width, height);
+        for (Rect free : freeRects.tailSet(probe, true)) {
+            if (free.width >= width && free.height >= height)
+                return free;
+        }
+        return null;
+    }
+
+    /**
+     * Will split all free rectangles intersecting with the placed
+     * rectangle into the up to four maximal free rectangles
+     * surrounding it.
+     * @param placed placed rectangle
+     */
+    private void splitFreeRects(Rect placed) {
+        ArrayList<Rect> split = new ArrayList<>();
+        Iterator<Rect> iterator = freeRects.iterator();
+        while (iterator.hasNext()) {
+            Rect free = iterator.next();
+            if (!free.intersects(placed))
+                continue;
+
+            iterator.remove();
+            if (placed.x > free.x)
+                split.add(new Rect(free.x, free.y, placed.x - free.x, free.height));
+            if (placed.right() < free.right())
+                split.add(new Rect(placed.right(), free.y, free.right() - placed.right(), free.height));
+            if (placed.y > free.y)
+                split.add(new Rect(free.x, free.y, free.width, placed.y - free.y));
+            if (placed.bottom() < free.bottom())
+                split.add(new Rect(free.x, placed.bottom(), free.width, free.bottom() - placed.bottom()));
+        }
+        split.forEach(this::addFreeRect);
+    }
+
+    /**
+     * Will add a free rectangle to the free set, unless it is
+     * already covered by an other free rectangle. Free rectangles
+     * covered by the new rectangle are removed from the set.
+     *
+     * @param rect free rectangle
+     * @return true, if the rectangle was added
+     */
+    private boolean addFreeRect(Rect rect) {
+        if (isCovered(rect))
+            return false;
+
+        // rects are sorted by area, so only smaller rects can be
+        // contained by the new rect
+        freeRects.headSet(rect, false).removeIf(rect::contains);
+        freeRects.add(rect);
+        return true;
+    }
+
+    /**
+     * Will hand the area of a removed rectangle back to the free
+     * set and grow it into all maximal free rectangles that can be
+     * formed together with adjacent free rectangles.
+     * @param rect removed rectangle
+     */
+    private void release(Rect rect) {
+        ArrayDeque<Rect> pending = new ArrayDeque<>();
+        pending.add(rect);
+
+        while (!pending.isEmpty()) {
+            Rect current = pending.poll();
+            if (isCovered(current))
+                continue;
+
+            for (Rect free : freeRects) {
+                current.join(free, pending);
+                free.join(current, pending);
+            }
+            addFreeRect(current);
+        }
+    }
+
+    private boolean isCovered(Rect rect) {
+        for (Rect free : freeRects.tailSet(rect, true)) {
+            if (free.contains(rect))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rectangle struct class
+     */
+    private static class Rect implements Comparable<Rect> {
+
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final long area;
+
+        public Rect(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.area = (long) width * height;
+        }
+
+        private int right() {
+            return x + width;
+        }
+
+        private int bottom() {
+            return y + height;
+        }
+
+        private boolean intersects(Rect other) {
+            return x < other.right() && other.x < right() && y < other.bottom() && other.y < bottom();
+        }
+
+        private boolean contains(Rect other) {
+            return other.x >= x && other.y >= y && other.right() <= right() && other.bottom() <= bottom();
+        }
+
+        /**
+         * Will add the rectangles formed by stretching this rectangle
+         * across the other rectangle to the output, if the other
+         * rectangle covers the full span of this rectangle along one
+         * axis and touches or overlaps it along the other.
+         * @param other other free rectangle
+         * @param out output queue
+         */
+        private void join(Rect other, Queue<Rect> out) {
+            if (other.y <= y && other.bottom() >= bottom() && other.x <= right() && x <= other.right()) {
+                int minX = Math.min(x, other.x);
+                int maxX = Math.max(right(), other.right());
+                if (minX < x || maxX > right())
+                    out.add(new Rect(minX, y, maxX - minX, height));
+            }
+            if (other.x <= x && other.right() >= right() && other.y <= bottom() && y <= other.bottom()) {
+                int minY = Math.min(y, other.y);
+                int maxY = Math.max(bottom(), other.bottom());
+                if (minY < y || maxY > bottom())
+                    out.add(new Rect(x, minY, width, maxY - minY));
+            }
+        }
+
+        @Override
+        public int compareTo(Rect other) {
+            int c = Long.compare(area, other.area);
+            if (c != 0)
+                return c;
+            if ((c = Integer.compare(y, other.y)) != 0)
+                return c;
+            if ((c = Integer.compare(x, other.x)) != 0)
+                return c;
+            if ((c = Integer.compare(width, other.width)) != 0)
+                return c;
+            return Integer.compare(height, other.height);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture.impl.atlas;
+
+import com.cerberustek.CerberusRegistry;
+import com.cerberustek.CerberusRenderer;
+import com.cerberustek.exceptions.AtlasCapacityException;
+import com.cerberustek.exceptions.AtlasCellSizeException;
+import com.cerberustek.exceptions.IllegalContextException;
+import com.cerberustek.logic.math.Vector2i;
+import com.cerberustek.logic.math.Vector3i;
+import com.cerberustek.resource.image.TextureResource;
+import com.cerberustek.texture.*;
+import com.cerberustek.texture.impl.ImageTextureImpl;
+import com.cerberustek.texture.impl.TextureEmpty2D;
+
+import java.util.HashMap;
+
+/**
+ * Texture atlas with variable size cells.
+ *
+ * The regions of the cells inside the atlas texture are allocated
+ * by a MaxRectsPacker, so cell textures of different sizes can
+ * share a single atlas without wasting the space a fixed grid cell
+ * would require for the largest possible cell texture.
+ * The space of removed cells is reused by later insertions.
+ */
+public class PackedTextureAtlas2D implements PackedTextureAtlas {
+
+    private static final Vector3i CELL_SIZE = new Vector3i(1, 1, 1);
+
+    private final Vector3i dimensions;
+    private final TextureEmpty2D base;
+    private final ImageTexture imageTexture;
+    private final MaxRectsPacker packer;
+    private final HashMap<Integer, PackedAtlasCell> cells;
+    private final AtlasStitcher stitcher;
+
+    private CerberusRenderer renderer;
+
+    public PackedTextureAtlas2D(Vector2i size, int[] units, ImageType[] imageTypes, Attachment[] attachments) {
+
+        if (imageTypes.length < units.length)
+            throw new IllegalArgumentException("There have the be at least as many image types as" +
+                    "texture units provided to the texture atlas base texture");
+        if (attachments.length != units.length)
+            throw new IllegalArgumentException("There have to be just as many attachments as" +
+                    " texture units to the texture atlas base framebuffer");
+        if (units.length == 0)
+            throw new IllegalArgumentException("There has to be at least one texture unit");
+
+        this.dimensions = new Vector3i(size, 1);
+        this.packer = new MaxRectsPacker(size.getX(), size.getY());
+        this.cells = new HashMap<>();
+
+        this.base = new TextureEmpty2D(units.length);
+        base.genTextures();
+
+        for (int i = 0; i < units.length; i++)
+            base.initTexture(i, units[i], size, imageTypes[i]);
+
+        imageTexture = new ImageTextureImpl(base);
+        stitcher = new AtlasStitcher(imageTexture);
+    }
+
+    @Override
+    public Vector3i getAtlasDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public Vector3i getCellSize() {
+        return CELL_SIZE;
+    }
+
+    @Override
+    public int toCellId(Vector3i cellCoord) {
+        if (cellCoord.getX() >= dimensions.getX() || cellCoord.getY() >= dimensions.getY() ||
+                cellCoord.getX() < 0 || cellCoord.getY() < 0)
+            throw new IllegalArgumentException("cell coords outside of texture atlas");
+
+        return packer.find(cellCoord.getX(), cellCoord.getY());
+    }
+
+    @Override
+    public Vector3i toCellCoord(int cellId) {
+        return new Vector3i(getCell(cellId).getOffset(), 0);
+    }
+
+    @Override
+    public PackedAtlasCell getCell(int cellId) {
+        PackedAtlasCell cell = cells.get(cellId);
+        if (cell == null)
+            throw new IllegalArgumentException("Invalid cell id " + cellId);
+        return cell;
+    }
+
+    @Override
+    public AtlasCell setCell(TextureResource cellTexture, int cellId) throws AtlasCellSizeException {
+        PackedAtlasCell old = getCell(cellId);
+        stitcher.validate(cellTexture, old.getSize());
+
+        PackedAtlasCell cell = new PackedAtlas2DCell(cellTexture, cellId, old.getOffset(), old.getSize(), this);
+        cells.put(cellId, cell);
+
+        stitcher.stitch(cellTexture, cell.getOffset(), cell.getSize(), false);
+        return cell;
+    }
+
+    @Override
+    public AtlasCell setCellUnchecked(TextureResource cellTexture, int cellId) {
+        PackedAtlasCell old = getCell(cellId);
+        PackedAtlasCell cell = new PackedAtlas2DCell(cellTexture, cellId, old.getOffset(), old.getSize(), this);
+        cells.put(cellId, cell);
+
+        stitcher.stitch(cellTexture, cell.getOffset(), cell.getSize(), true);
+        return cell;
+    }
+
+    /**
+     * Will add a cell texture to the texture atlas without
+     * overwriting any existing textures.
+     *
+     * The region of the cell is allocated from the size of the
+     * cell texture, which therefore has to be loaded. This method
+     * should only be called from within a valid gl context.
+     *
+     * @param cellTexture cell texture to add
+     * @return added atlas cell
+     * @throws AtlasCapacityException thrown, if there is no free
+     *          region large enough for the cell texture
+     */
+    @Override
+    public AtlasCell addCell(TextureResource cellTexture) throws AtlasCapacityException {
+        return addCell(cellTexture, getTextureSize(cellTexture));
+    }
+
+    /**
+     * Will add a cell texture to the texture atlas without
+     * overwriting any existing textures.
+     *
+     * Since the cells of a packed texture atlas do not have a fixed
+     * size, the cell texture is never rescaled. This method behaves
+     * just like addCell(TextureResource).
+     *
+     * @param cellTexture cell texture to add
+     * @return added atlas cell
+     * @throws AtlasCapacityException thrown, if there is no free
+     *          region large enough for the cell texture
+     */
+    @Override
+    public AtlasCell addCellUnchecked(TextureResource cellTexture) throws AtlasCapacityException {
+        return addCell(cellTexture, getTextureSize(cellTexture));
+    }
+
+    @Override
+    public PackedAtlasCell addCell(TextureResource cellTexture, Vector2i size) throws AtlasCapacityException {
+        stitcher.validate(cellTexture, size);
+
+        int cellId = packer.insert(size.getX(), size.getY());
+        if (cellId == -1)
+            throw new AtlasCapacityException(this);
+
+        PackedAtlasCell cell = new PackedAtlas2DCell(cellTexture, cellId,
+                new Vector2i(packer.getX(cellId), packer.getY(cellId)), size, this);
+        cells.put(cellId, cell);
+
+        stitcher.stitch(cellTexture, cell.getOffset(), size, false);
+        return cell;
+    }
+
+    @Override
+    public PackedAtlasCell[] addCells(TextureResource... cellTextures) throws AtlasCapacityException {
+        Vector2i[] sizes = new Vector2i[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++)
+            sizes[i] = getTextureSize(cellTextures[i]);
+        return addCells(cellTextures, sizes);
+    }
+
+    @Override
+    public PackedAtlasCell[] addCells(TextureResource[] cellTextures, Vector2i[] sizes) throws AtlasCapacityException {
+        if (cellTextures.length != sizes.length)
+            throw new IllegalArgumentException("There has to be a size for each cell texture");
+        // validate all cells before any of them is packed
+        stitcher.validate(cellTextures, sizes);
+
+        int[] cellIds = new int[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++) {
+            cellIds[i] = packer.insert(sizes[i].getX(), sizes[i].getY());
+            if (cellIds[i] == -1) {
+                // roll back the cells packed so far
+                for (int j = 0; j < i; j++)
+                    packer.remove(cellIds[j]);
+                throw new AtlasCapacityException(this);
+            }
+        }
+
+        PackedAtlasCell[] output = new PackedAtlasCell[cellTextures.length];
+        Vector2i[] offsets = new Vector2i[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++) {
+            offsets[i] = new Vector2i(packer.getX(cellIds[i]), packer.getY(cellIds[i]));
+            output[i] = new PackedAtlas2DCell(cellTextures[i], cellIds[i], offsets[i], sizes[i], this);
+            cells.put(cellIds[i], output[i]);
+        }
+
+        // render all cell textures to the texture atlas at once
+        stitcher.stitch(cellTextures, offsets, sizes, false);
+        return output;
+    }
+
+    @Override
+    public void removeCell(int cellId) {
+        if (packer.remove(cellId))
+            cells.remove(cellId);
+    }
+
+    @Override
+    public boolean fits(Vector2i size) {
+        return packer.fits(size.getX(), size.getY());
+    }
+
+    @Override
+    public float occupancy() {
+        return packer.occupancy();
+    }
+
+    /**
+     * Will return the overall capacity of the texture atlas
+     * in pixels.
+     * @return capacity in pixels
+     */
+    @Override
+    public int capacity() {
+        return dimensions.getX() * dimensions.getY();
+    }
+
+    /**
+     * Will return the amount of unoccupied pixels.
+     *
+     * Note that the free area may be fragmented, so a cell of
+     * the returned area will not necessarily fit into the atlas.
+     * @return unoccupied pixels
+     */
+    @Override
+    public int remaining() {
+        return (int) packer.freeArea();
+    }
+
+    @Override
+    public boolean isFull() {
+        return packer.isFull();
+    }
+
+    @Override
+    public boolean isOnline() {
+        return base.isOnline();
+    }
+
+    @Override
+    public boolean isOnline(int index) {
+        return base.isOnline(index);
+    }
+
+    @Override
+    public void genTextures() {
+        base.genTextures();
+    }
+
+    @Override
+    public void genTexture(int index) {
+        base.genTexture(index);
+    }
+
+    @Override
+    public void bind() {
+        base.bind();
+    }
+
+    @Override
+    public void bindToUnit(int index, int unit) {
+        base.bindToUnit(index, unit);
+    }
+
+    @Override
+    public void bind(int index) {
+        base.bind(index);
+    }
+
+    @Override
+    public void destroy(int index) {
+        base.destroy(index);
+    }
+
+    @Override
+    public int length() {
+        return base.length();
+    }
+
+    @Override
+    public int getUnit(int index) {
+        return base.getUnit(index);
+    }
+
+    @Override
+    public int getPointer(int index) {
+        return base.getPointer(index);
+    }
+
+    @Override
+    public ImageType getType(int index) {
+        return base.getType(index);
+    }
+
+    @Override
+    public Vector3i getSize(int index) {
+        return base.getSize(index);
+    }
+
+    @Override
+    public void destroy() {
+        imageTexture.destroy();
+    }
+
+    /**
+     * Will load the cell texture and return its size.
+     * @param cellTexture cell texture
+     * @return size of the cell texture in pixels
+     */
+    private Vector2i getTextureSize(TextureResource cellTexture) {
+        if (!getRenderer().getWindow().isGlThread())
+            throw new IllegalContextException();
+
+        Texture texture = getRenderer().getTextureBoard().loadTexture(cellTexture);
+        if (texture == null)
+            throw new IllegalArgumentException("Failed to load cell texture " + cellTexture);
+        return texture.getSize(0).xy();
+    }
+
+    /**
+     * Will return the renderer instance.
+     * @return cerberus renderer
+     */
+    private CerberusRenderer getRenderer() {
+        if (renderer == null)
+            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
+        return renderer;
+    }
+}
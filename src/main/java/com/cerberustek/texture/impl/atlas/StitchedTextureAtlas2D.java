@@ -22,32 +22,16 @@
 
 package com.cerberustek.texture.impl.atlas;
 
-import com.cerberustek.CerberusEvent;
-import com.cerberustek.events.ExceptionEvent;
 import com.cerberustek.exceptions.*;
-import com.cerberustek.pipeline.impl.notes.SceneNote;
 import com.cerberustek.resource.image.TextureResource;
-import com.cerberustek.resource.impl.BaseShaderResource;
-import com.cerberustek.resource.shader.ShaderCodeResource;
-import com.cerberustek.resource.shader.ShaderResource;
-import com.cerberustek.CerberusRegistry;
-import com.cerberustek.CerberusRenderer;
-import com.cerberustek.buffer.BufferAccess;
 import com.cerberustek.texture.*;
 import com.cerberustek.logic.math.Vector2i;
 import com.cerberustek.logic.math.Vector3i;
-import com.cerberustek.shader.Shader;
-import com.cerberustek.shader.ShaderBoard;
-import com.cerberustek.shader.ShaderType;
-import com.cerberustek.shader.code.ShaderCodeLoader;
-import com.cerberustek.shader.uniform.Uniform1i;
-import com.cerberustek.shader.uniform.Uniform2i;
 import com.cerberustek.texture.impl.ImageTextureImpl;
 import com.cerberustek.texture.impl.TextureEmpty2D;
-import org.jetbrains.annotations.NotNull;
 
-import static org.lwjgl.opengl.GL42.GL_SHADER_IMAGE_ACCESS_BARRIER_BIT;
-import static org.lwjgl.opengl.GL42.glMemoryBarrier;
+import java.util.Arrays;
+import java.util.TreeSet;
 
 public class StitchedTextureAtlas2D implements TextureAtlas {
 
@@ -58,10 +42,9 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
     private final TextureEmpty2D base;
     private final ImageTexture imageTexture;
     private final AtlasCell[] cells;
-
-    private Vector2i localComputeSize;
-
-    private CerberusRenderer renderer;
+    /** Ids of all unoccupied cells in ascending order */
+    private final TreeSet<Integer> freeIds;
+    private final AtlasStitcher stitcher;
 
     public StitchedTextureAtlas2D(Vector3i dimensions, Vector3i cellSize, int[] units,
                                   ImageType[] imageTypes, Attachment[] attachments) {
@@ -77,6 +60,9 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
 
         this.dimensions = dimensions;
         cells = new AtlasCell[dimensions.getX() * dimensions.getY()];
+        freeIds = new TreeSet<>();
+        for (int i = 0; i < cells.length; i++)
+            freeIds.add(i);
 
         this.cellSize = cellSize;
         Vector2i textureSize = dimensions.xy().mul(cellSize.xy());
@@ -88,6 +74,7 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
             base.initTexture(i, units[i], textureSize, imageTypes[i]);
 
         imageTexture = new ImageTextureImpl(base);
+        stitcher = new AtlasStitcher(imageTexture);
     }
 
     @Override
@@ -121,105 +108,25 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
         return cells[cellId];
     }
 
-    @SuppressWarnings("DuplicatedCode")
     @Override
     public AtlasCell setCell(TextureResource cellTexture, int cellId) throws AtlasCellSizeException {
+        stitcher.validate(cellTexture, cellSize.xy());
+
         StitchedAtlas2DCell cell = new StitchedAtlas2DCell(cellTexture, cellId, this);
-        cells[cellId] = cell;
+        occupy(cellId, cell);
 
         // render the cell texture to the texture atlas
-        final CerberusRenderer renderer = getRenderer();
-        renderer.tryGLTask(t -> {
-            ShaderBoard shaderBoard = renderer.getShaderBoard();
-            TextureBoard textureBoard = renderer.getTextureBoard();
-            Shader shader = shaderBoard.bindShader(getAtlasShader());
-            Texture srcSamp = textureBoard.bindTexture(cellTexture);
-
-            if (shader == null) {
-                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind atlas shader");
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
-                                new NullPointerException("Failed to set atlas cell")));
-                return;
-            }
-            if (srcSamp == null) {
-                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind cell texture");
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
-                                new NullPointerException("Failed to set atlas cell")));
-                return;
-            }
-
-            Vector2i srcSize = srcSamp.getSize(0).xy();
-            if (srcSize.getX() > cellSize.getX() || srcSize.getY() > cellSize.getY())
-                throw new AtlasCellSizeException(this, srcSamp.getSize(0));
-
-            setupShader(shader, cellId, srcSize, false);
-            imageTexture.bindImage(BufferAccess.WRITE_ONLY);
-
-            try {
-                Vector2i local = getLocalComputeSize();
-                shaderBoard.dispatchCompute(new Vector3i(
-                        (int) Math.ceil((float) srcSize.getX() / (float) local.getX()),
-                        (int) Math.ceil((float) srcSize.getY() / (float) local.getY()), 1));
-                glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT);
-            } catch (GLComputeException | GLShaderTypeException e) {
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
-            }
-
-            imageTexture.unbindImage();
-        });
+        stitcher.stitch(cellTexture, toCellCoord(cellId).xy().mul(cellSize.xy()), cellSize.xy(), false);
         return cell;
     }
 
-    @SuppressWarnings("DuplicatedCode")
     @Override
     public AtlasCell setCellUnchecked(TextureResource cellTexture, int cellId) {
         StitchedAtlas2DCell cell = new StitchedAtlas2DCell(cellTexture, cellId, this);
-        cells[cellId] = cell;
+        occupy(cellId, cell);
 
         // render the cell texture to the texture atlas
-        final CerberusRenderer renderer = getRenderer();
-        renderer.tryGLTask(t -> {
-            ShaderBoard shaderBoard = renderer.getShaderBoard();
-            TextureBoard textureBoard = renderer.getTextureBoard();
-            Shader shader = shaderBoard.bindShader(getAtlasShader());
-            Texture srcSamp = textureBoard.bindTexture(cellTexture);
-
-            if (shader == null) {
-                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind atlas shader");
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
-                                new NullPointerException("Failed to set atlas cell")));
-                return;
-            }
-            if (srcSamp == null) {
-                CerberusRegistry.getInstance().warning("[ATLAS]> Failed to bind cell texture");
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class,
-                                new NullPointerException("Failed to set atlas cell")));
-                return;
-            }
-
-            Vector2i srcSize = srcSamp.getSize(0).xy();
-
-            setupShader(shader, cellId, srcSize, true);
-            imageTexture.bindImage(BufferAccess.WRITE_ONLY);
-
-            try {
-                Vector2i local = getLocalComputeSize();
-                shaderBoard.dispatchCompute(new Vector3i(
-                        (int) Math.ceil((float) cellSize.getX() / (float) local.getX()),
-                        (int) Math.ceil((float) cellSize.getY() / (float) local.getY()), 1));
-                glMemoryBarrier(GL_SHADER_IMAGE_ACCESS_BARRIER_BIT);
-            } catch (GLComputeException | GLShaderTypeException e) {
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
-            }
-
-            imageTexture.unbindImage();
-        });
+        stitcher.stitch(cellTexture, toCellCoord(cellId).xy().mul(cellSize.xy()), cellSize.xy(), true);
         return cell;
     }
 
@@ -241,10 +148,38 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
         return setCellUnchecked(cellTexture, cellId);
     }
 
+    @Override
+    public AtlasCell[] addCells(TextureResource... cellTextures) throws AtlasCapacityException,
+            AtlasCellSizeException {
+        if (cellTextures.length > freeIds.size())
+            throw new AtlasCapacityException(this);
+
+        // validate all cells before any of them is occupied
+        Vector2i[] extents = new Vector2i[cellTextures.length];
+        Arrays.fill(extents, cellSize.xy());
+        stitcher.validate(cellTextures, extents);
+
+        AtlasCell[] output = new AtlasCell[cellTextures.length];
+        Vector2i[] offsets = new Vector2i[cellTextures.length];
+        for (int i = 0; i < cellTextures.length; i++) {
+            int cellId = nextFreeId();
+            output[i] = new StitchedAtlas2DCell(cellTextures[i], cellId, this);
+            occupy(cellId, output[i]);
+
+            offsets[i] = toCellCoord(cellId).xy().mul(cellSize.xy());
+        }
+
+        // render all cell textures to the texture atlas at once
+        stitcher.stitch(cellTextures, offsets, extents, false);
+        return output;
+    }
+
     @Override
     public void removeCell(int cellId) {
-        if (cellId >= 0 && cellId < cells.length)
+        if (cellId >= 0 && cellId < cells.length && cells[cellId] != null) {
             cells[cellId] = null;
+            freeIds.add(cellId);
+        }
     }
 
     @Override
@@ -254,23 +189,12 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
 
     @Override
     public int remaining() {
-        int count = 0;
-        for (AtlasCell cell : cells) {
-            if (cell == null)
-                count++;
-        }
-        return count;
+        return freeIds.size();
     }
 
     @Override
     public boolean isFull() {
-        // go through the cell array backward; usually this will
-        // speed up the lookup process for large atlae
-        for (int i = cells.length - 1; i >= 0; i--) {
-            if (cells[i] == null)
-                return false;
-        }
-        return true;
+        return freeIds.isEmpty();
     }
 
     @Override
@@ -344,76 +268,16 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
     }
 
     /**
-     * Will return the atlas shader consistently throughout
-     * all texture atlas instances.
-     * @return texture atlas shader
+     * Will store the cell in the cell array and mark its
+     * id as occupied.
+     * @param cellId cell id
+     * @param cell atlas cell
      */
-    private ShaderResource getAtlasShader() {
-        ShaderResource resource = getRenderer().getPropertyMap().getProperty(ATLAS_SHADER, ShaderResource.class);
-        if (resource == null) {
-            ShaderBoard shaderBoard = getRenderer().getShaderBoard();
-            ShaderCodeLoader codeLoader = shaderBoard.getShaderCodeLoader();
-
-            ShaderCodeResource fragmentCode = codeLoader.resourceFromName("util/AtlasComp.glsl");
-
-            resource = new BaseShaderResource(new ShaderCodeResource[] {fragmentCode},
-                    new ShaderType[] {ShaderType.COMPUTE}, this::initAtlasShader);
-            return getRenderer().getPropertyMap().getProperty(ATLAS_SHADER, ShaderResource.class, resource);
-        }
-        return resource;
-    }
-
-    /**
-     * Will initiate the atlas shader.
-     * @param shader atlas shader
-     */
-    private void initAtlasShader(Shader shader) {
-        try {
-            // atlas parameters
-            shader.addUniform(new Uniform2i(shader, "cell", new Vector2i(0, 0)));
-            shader.addUniform(new Uniform2i(shader, "cellSize", cellSize.xy()));
-            shader.addUniform(new Uniform2i(shader, "srcSize", cellSize.xy()));
-            shader.addUniform(new Uniform1i(shader, "rescale", 0));
-
-            // samplers
-            shader.addUniform(new Uniform1i(shader, "colorSamp", SceneNote.COLOR));
-            shader.addUniform(new Uniform1i(shader, "normalSamp", SceneNote.NORMAL));
-            shader.addUniform(new Uniform1i(shader, "specularSamp", SceneNote.SPECULAR));
-            shader.addUniform(new Uniform1i(shader, "emissionSamp", SceneNote.EMISSION));
-            shader.addUniform(new Uniform1i(shader, "metallicSamp", SceneNote.METALLIC));
-            shader.addUniform(new Uniform1i(shader, "depthSamp", SceneNote.DISPLACEMENT));
-        } catch (GLUnknownUniformException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Will setup the shaders uniforms for rendering a cell texture
-     * to the atlas.
-     * @param shader atlas shader
-     * @param cell cell coordinate
-     * @param srcSize src texture size
-     * @param rescale rescale source texture
-     */
-    private void setupShader(Shader shader, int cell, Vector2i srcSize, boolean rescale) {
-        setupShader(shader, toCellCoord(cell).xy(), srcSize, rescale);
-    }
-
-    /**
-     * Will setup the shaders uniforms for rendering a cell texture
-     * to the atlas.
-     * @param shader atlas shader
-     * @param cellCoord cell coordinate
-     * @param srcSize src texture size
-     * @param rescale rescale source texture
-     */
-    private void setupShader(Shader shader, Vector2i cellCoord, Vector2i srcSize, boolean rescale) {
-        shader.getUniform("cell", Uniform2i.class).set(cellCoord.mul(cellSize.xy()));
-        shader.getUniform("cellSize", Uniform2i.class).set(cellSize.xy());
-        shader.getUniform("srcSize", Uniform2i.class).set(srcSize);
-        shader.getUniform("rescale", Uniform1i.class).set(rescale ? 1 : 0);
-
-        shader.update(0);
+    private void occupy(int cellId, AtlasCell cell) {
+        if (cellId >= cells.length || cellId < 0)
+            throw new IllegalArgumentException("Invalid cell id " + cellId);
+        cells[cellId] = cell;
+        freeIds.remove(cellId);
     }
 
     /**
@@ -425,34 +289,8 @@ public class StitchedTextureAtlas2D implements TextureAtlas {
      * @return next free cell id
      */
     private int nextFreeId() {
-        for (int i = 0; i < cells.length; i++) {
-            if (cells[i] == null)
-                return i;
-        }
-        return -1;
-    }
-
-    @NotNull
-    private Vector2i getLocalComputeSize() {
-        if (localComputeSize == null) {
-            try {
-                return localComputeSize = getRenderer().getShaderBoard().getLocalGroupSize(getAtlasShader()).xy();
-            } catch (GLShaderTypeException e) {
-                CerberusRegistry.getInstance().getService(CerberusEvent.class)
-                        .executeFullEIF(new ExceptionEvent(CerberusRenderer.class, e));
-                return new Vector2i(8, 8);
-            }
-        }
-        return localComputeSize;
-    }
-
-    /**
-     * Will return the renderer instance.
-     * @return cerberus renderer
-     */
-    private CerberusRenderer getRenderer() {
-        if (renderer == null)
-            renderer = CerberusRegistry.getInstance().getService(CerberusRenderer.class);
-        return renderer;
+        if (freeIds.isEmpty())
+            return -1;
+        return freeIds.first();
     }
 }
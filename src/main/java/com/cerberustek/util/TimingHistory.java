@@ -0,0 +1,165 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.util;
+
+import java.util.Arrays;
+
+/**
+ * Rolling history of timing samples in milliseconds.
+ *
+ * The history keeps the last {@code capacity} samples in a
+ * ring buffer, so statistics always describe the most recent
+ * frames. All methods are synchronized, because samples are
+ * usually added on the render thread while the statistics are
+ * read by the debug overlay or a terminal command.
+ */
+public class TimingHistory {
+
+    /** Samples in ms */
+    private final double[] samples;
+    /** Next index to write to */
+    private int head;
+    /** Amount of valid samples */
+    private int count;
+
+    /**
+     * Creates a new timing history.
+     * @param capacity maximum amount of samples kept
+     */
+    public TimingHistory(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        samples = new double[capacity];
+    }
+
+    /**
+     * Adds a sample and drops the oldest one if the history
+     * is full.
+     * @param ms sample in milliseconds
+     */
+    public synchronized void add(double ms) {
+        samples[head] = ms;
+        head = (head + 1) % samples.length;
+        if (count < samples.length)
+            count++;
+    }
+
+    /**
+     * Returns the amount of samples currently stored.
+     * @return sample count
+     */
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returns the maximum amount of samples stored.
+     * @return capacity
+     */
+    public int capacity() {
+        return samples.length;
+    }
+
+    /**
+     * Returns the most recent sample, or 0 if there is none.
+     * @return latest sample in ms
+     */
+    public synchronized double latest() {
+        if (count == 0)
+            return 0;
+        return samples[(head - 1 + samples.length) % samples.length];
+    }
+
+    /**
+     * Returns the smallest sample, or 0 if there is none.
+     * @return minimum in ms
+     */
+    public synchronized double min() {
+        if (count == 0)
+            return 0;
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++)
+            min = Math.min(min, samples[i]);
+        return min;
+    }
+
+    /**
+     * Returns the largest sample, or 0 if there is none.
+     * @return maximum in ms
+     */
+    public synchronized double max() {
+        double max = 0;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, samples[i]);
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean of all samples, or 0 if
+     * there is none.
+     * @return average in ms
+     */
+    public synchronized double average() {
+        if (count == 0)
+            return 0;
+        double sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += samples[i];
+        return sum / count;
+    }
+
+    /**
+     * Returns the given percentile using the nearest rank
+     * method, or 0 if there are no samples.
+     * @param percentile percentile between 0 and 100
+     * @return percentile in ms
+     */
+    public synchronized double percentile(double percentile) {
+        if (count == 0)
+            return 0;
+        double[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100d * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Returns a copy of all samples, oldest first.
+     * @return samples in ms
+     */
+    public synchronized double[] toArray() {
+        double[] out = new double[count];
+        int start = (head - count + samples.length) % samples.length;
+        for (int i = 0; i < count; i++)
+            out[i] = samples[(start + i) % samples.length];
+        return out;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public synchronized void clear() {
+        head = 0;
+        count = 0;
+    }
+}
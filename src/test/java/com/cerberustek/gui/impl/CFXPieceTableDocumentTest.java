@@ -0,0 +1,217 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.exceptions.EndOfDocumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies seeded random edits to a piece table document and to a plain
+ * StringBuilder model, and compares both after every edit.
+ */
+class CFXPieceTableDocumentTest {
+
+    private static final int SEEDS = 16;
+    private static final int EDITS = 2000;
+    private static final String CHARS = "abcdefgh \n";
+
+    @Test
+    void randomEditsMatchModel() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random random = new Random(seed);
+            String initial = randomText(random, random.nextInt(64));
+            CFXPieceTableDocument doc = new CFXPieceTableDocument(initial);
+            StringBuilder model = new StringBuilder(initial);
+
+            for (int step = 0; step < EDITS; step++) {
+                String edit = edit(random, doc, model);
+                String context = "seed " + seed + ", step " + step + ": " + edit;
+                assertDocument(doc, model, random, context);
+            }
+        }
+    }
+
+    @Test
+    void emptyDocumentHasOneLine() {
+        CFXPieceTableDocument doc = new CFXPieceTableDocument();
+        assertEquals(1, doc.size());
+        assertEquals(0, doc.length());
+        assertEquals("", doc.getLine(0).toString());
+
+        doc.insert("a\n\nb", 0);
+        assertEquals(3, doc.size());
+        assertEquals("", doc.getLine(1).toString());
+        assertEquals("b", doc.getLine(2).toString());
+    }
+
+    @Test
+    void invalidPositionsThrow() {
+        CFXPieceTableDocument doc = new CFXPieceTableDocument("ab\ncd");
+        assertThrows(EndOfDocumentException.class, () -> doc.getLine(2));
+        assertThrows(EndOfDocumentException.class, () -> doc.getLine(-1));
+        assertThrows(EndOfDocumentException.class, () -> doc.insert("x", 0, 3));
+        assertThrows(EndOfDocumentException.class, () -> doc.remove(1, 0, 0, 1));
+        assertThrows(EndOfDocumentException.class, () -> doc.remove(0, 2, 0, 1));
+        assertThrows(EndOfDocumentException.class, () -> doc.get(0, 0, 1, 3));
+        assertEquals("ab\ncd", doc.toString());
+    }
+
+    /**
+     * Will apply the same random edit to the document and the model.
+     * @return description of the edit
+     */
+    private static String edit(Random random, CFXPieceTableDocument doc, StringBuilder model) {
+        int first = random.nextInt(lineCount(model));
+        int start = random.nextInt(lineLength(model, first) + 1);
+        int last = first + random.nextInt(lineCount(model) - first);
+        int end = random.nextInt(lineLength(model, last) + 1);
+        if (last == first && end < start) {
+            int swap = start;
+            start = end;
+            end = swap;
+        }
+        String input = randomText(random, random.nextInt(12));
+
+        switch (random.nextInt(6)) {
+            case 0:
+                doc.insert(input, first);
+                model.insert(offset(model, first, lineLength(model, first)), input);
+                return "append " + quote(input) + " to line " + first;
+            case 1:
+                doc.insert(input, first, start);
+                model.insert(offset(model, first, start), input);
+                return "insert " + quote(input) + " at " + first + ":" + start;
+            case 2: {
+                // only the part of the input, which ends before (last, end) is inserted
+                int length = clippedLength(input, first, start, last, end);
+                doc.insert(input, first, start, last, end);
+                model.insert(offset(model, first, start), input, 0, length);
+                return "insert " + quote(input) + " at " + first + ":" + start + " up to " + last + ":" + end;
+            }
+            case 3: {
+                // the overwritten block has the extent of the input, clamped to the document
+                int breaks = count(input, '\n');
+                int setLast = first + breaks;
+                int setEnd = breaks == 0 ? start + input.length() : input.length() - input.lastIndexOf('\n') - 1;
+                if (setLast >= lineCount(model)) {
+                    setLast = lineCount(model) - 1;
+                    setEnd = lineLength(model, setLast);
+                } else
+                    setEnd = Math.min(setEnd, lineLength(model, setLast));
+
+                doc.set(input, first, start);
+                model.replace(offset(model, first, start), offset(model, setLast, setEnd), input);
+                return "overwrite " + quote(input) + " at " + first + ":" + start;
+            }
+            case 4:
+                doc.set(input, first, start, last, end);
+                model.replace(offset(model, first, start), offset(model, last, end), input);
+                return "set " + first + ":" + start + "-" + last + ":" + end + " to " + quote(input);
+            default:
+                doc.remove(first, start, last, end);
+                model.delete(offset(model, first, start), offset(model, last, end));
+                return "remove " + first + ":" + start + "-" + last + ":" + end;
+        }
+    }
+
+    private static void assertDocument(CFXPieceTableDocument doc, StringBuilder model, Random random,
+                                       String context) {
+        assertEquals(model.toString(), doc.toString(), context);
+        assertEquals(model.length(), doc.length(), context);
+        assertEquals(lineCount(model), doc.size(), context);
+
+        String[] lines = model.toString().split("\n", -1);
+        for (int i = 0; i < lines.length; i++)
+            assertEquals(lines[i], doc.getLine(i).toString(), context + ", line " + i);
+
+        // random block
+        int first = random.nextInt(lines.length);
+        int last = first + random.nextInt(lines.length - first);
+        int start = random.nextInt(lines[first].length() + 1);
+        int end = random.nextInt(lines[last].length() + 1);
+        if (last == first && end < start)
+            end = start;
+        assertEquals(model.substring(offset(model, first, start), offset(model, last, end)),
+                doc.get(first, start, last, end).toString(),
+                context + ", block " + first + ":" + start + "-" + last + ":" + end);
+    }
+
+    /**
+     * Returns the length of the input prefix, which ends before
+     * (last, end), if inserted at (first, start).
+     */
+    private static int clippedLength(String input, int first, int start, int last, int end) {
+        int line = first;
+        int letter = start;
+        int length = 0;
+        while (length < input.length() && (line < last || (line == last && letter < end))) {
+            if (input.charAt(length++) == '\n') {
+                line++;
+                letter = 0;
+            } else
+                letter++;
+        }
+        return length;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            builder.append(CHARS.charAt(random.nextInt(CHARS.length())));
+        return builder.toString();
+    }
+
+    private static int lineCount(CharSequence text) {
+        return count(text, '\n') + 1;
+    }
+
+    private static int lineLength(StringBuilder text, int line) {
+        int offset = offset(text, line, 0);
+        int end = text.indexOf("\n", offset);
+        return (end == -1 ? text.length() : end) - offset;
+    }
+
+    private static int offset(StringBuilder text, int line, int letter) {
+        int offset = 0;
+        for (int i = 0; i < line; i++)
+            offset = text.indexOf("\n", offset) + 1;
+        return offset + letter;
+    }
+
+    private static int count(CharSequence text, char c) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c)
+                count++;
+        }
+        return count;
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\n", "\\n") + "\"";
+    }
+}
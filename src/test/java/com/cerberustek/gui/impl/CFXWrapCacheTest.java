@@ -0,0 +1,254 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.gui.impl;
+
+import com.cerberustek.gui.CFXCharacter;
+import com.cerberustek.logic.math.Vector2i;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Random;
+
+import static com.cerberustek.gui.CFXFontRenderer.ESCAPE_NEW_LINE;
+import static com.cerberustek.gui.CFXFontRenderer.FAKE_NEW_LINE;
+import static com.cerberustek.gui.impl.CFXTextLayout.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wraps seeded random texts with the wrap cache of the font renderer
+ * and with the wrap that laid out the whole text on every call, and
+ * compares the break positions. Glyphs are measured with java.awt,
+ * so no gl context is required.
+ */
+class CFXWrapCacheTest {
+
+    private static final int SEEDS = 16;
+    private static final String[] WORDS = ("a an the quick brown fox jumps over lazy dog render pipeline texture "
+            + "shader buffer glyph alphabet layout paragraph supercalifragilisticexpialidocious").split(" ");
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 14);
+    private static final Font LARGE_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 22);
+
+    @Test
+    void breaksMatchLegacyWrap() {
+        MeasuringFontRenderer renderer = new MeasuringFontRenderer();
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random random = new Random(seed);
+            String text = text(random, 200 + random.nextInt(2000));
+            for (int step = 0; step < 8; step++) {
+                int width = 8 + random.nextInt(400);
+                int hspace = random.nextInt(3);
+                boolean packing = random.nextBoolean();
+                boolean wordWrap = random.nextBoolean();
+                String context = "seed " + seed + ", width " + width + ", hspace " + hspace + ", packing "
+                        + packing + ", wordWrap " + wordWrap;
+
+                assertEquals(legacyWrap(renderer, text, FONT, width, hspace, packing, wordWrap, ESCAPE_NEW_LINE),
+                        renderer.wrap(text, FONT, new Vector2i(width, 0), hspace, 0, packing, wordWrap),
+                        context);
+                assertEquals(legacyWrap(renderer, text, FONT, width, hspace, packing, wordWrap, FAKE_NEW_LINE),
+                        renderer.wrap(text, FONT, new Vector2i(width, 0), hspace, 0, packing, wordWrap,
+                                FAKE_NEW_LINE), context);
+            }
+        }
+    }
+
+    @Test
+    void rewrapDropsFakeNewLines() {
+        MeasuringFontRenderer renderer = new MeasuringFontRenderer();
+        String text = text(new Random(7), 1500);
+
+        String wrapped = renderer.wrap(text, FONT, new Vector2i(120, 0), 1, 0, false, true, FAKE_NEW_LINE);
+        assertEquals(legacyWrap(renderer, wrapped, FONT, 300, 1, false, true, FAKE_NEW_LINE),
+                renderer.wrap(wrapped, FONT, new Vector2i(300, 0), 1, 0, false, true, FAKE_NEW_LINE));
+        assertEquals(renderer.wrap(text, FONT, new Vector2i(300, 0), 1, 0, false, true, FAKE_NEW_LINE),
+                renderer.wrap(wrapped, FONT, new Vector2i(300, 0), 1, 0, false, true, FAKE_NEW_LINE));
+    }
+
+    @Test
+    void widthChangeReusesMeasuredParagraphs() {
+        MeasuringFontRenderer renderer = new MeasuringFontRenderer();
+        String text = text(new Random(3), 2000);
+
+        renderer.wrap(text, FONT, new Vector2i(200, 0), 1, 0, false, true);
+        assertEquals(0.0, renderer.getWrapCacheHitRate(), 0.0);
+
+        // same paragraphs at another width only have to be broken again
+        String narrow = renderer.wrap(text, FONT, new Vector2i(90, 0), 1, 0, false, true);
+        assertEquals(0.5, renderer.getWrapCacheHitRate(), 1e-9);
+        assertEquals(legacyWrap(renderer, text, FONT, 90, 1, false, true, ESCAPE_NEW_LINE), narrow);
+
+        // going back to the first width has to break again as well
+        assertEquals(legacyWrap(renderer, text, FONT, 200, 1, false, true, ESCAPE_NEW_LINE),
+                renderer.wrap(text, FONT, new Vector2i(200, 0), 1, 0, false, true));
+    }
+
+    @Test
+    void fontChangeInvalidatesParagraphs() {
+        MeasuringFontRenderer renderer = new MeasuringFontRenderer();
+        String text = text(new Random(5), 2000);
+
+        String small = renderer.wrap(text, FONT, new Vector2i(250, 0), 1, 0, false, true);
+        String large = renderer.wrap(text, LARGE_FONT, new Vector2i(250, 0), 1, 0, false, true);
+        assertEquals(0.0, renderer.getWrapCacheHitRate(), 0.0);
+        assertNotEquals(small, large);
+        assertEquals(legacyWrap(renderer, text, LARGE_FONT, 250, 1, false, true, ESCAPE_NEW_LINE), large);
+
+        // a changed spacing must not reuse the advances either
+        assertEquals(legacyWrap(renderer, text, FONT, 250, 2, false, true, ESCAPE_NEW_LINE),
+                renderer.wrap(text, FONT, new Vector2i(250, 0), 2, 0, false, true));
+        assertEquals(0.0, renderer.getWrapCacheHitRate(), 0.0);
+    }
+
+    @Test
+    void editedParagraphIsWrappedAgain() {
+        MeasuringFontRenderer renderer = new MeasuringFontRenderer();
+        String text = text(new Random(11), 1000);
+        renderer.wrap(text, FONT, new Vector2i(150, 0), 1, 0, false, true);
+
+        int split = text.indexOf('\n') + 1;
+        String edited = text.substring(0, split) + "inserted words at the start " + text.substring(split);
+        assertEquals(legacyWrap(renderer, edited, FONT, 150, 1, false, true, ESCAPE_NEW_LINE),
+                renderer.wrap(edited, FONT, new Vector2i(150, 0), 1, 0, false, true));
+    }
+
+    /**
+     * Wraps the input as the font renderer did before the wrap cache,
+     * by breaking the layout of the whole input in a single pass.
+     */
+    private static String legacyWrap(MeasuringFontRenderer renderer, String input, Font font, int width,
+                                     int hspace, boolean packing, boolean wordWrap, char newLineEscape) {
+        CFXTextLayout layout = renderer.layout(input, font, hspace, 0, packing);
+        StringBuilder builder = new StringBuilder(input.length() + 16);
+        StringBuilder word = new StringBuilder();
+
+        int x = 0;
+        boolean inWord = false;
+        int lastWordStart = 0;
+
+        for (int i = 0; i < layout.length(); i++) {
+            int advance = layout.getAdvance(i);
+            switch (layout.getKind(i)) {
+                case KIND_NEW_LINE:
+                    builder.append(word).append(ESCAPE_NEW_LINE);
+                    word.setLength(0);
+                    inWord = false;
+                    x = 0;
+                    break;
+                case KIND_TAB:
+                case KIND_SPACE:
+                    if (inWord) {
+                        builder.append(word);
+                        word.setLength(0);
+                        inWord = false;
+                    }
+
+                    x += advance;
+                    if (x >= width) {
+                        builder.append(newLineEscape);
+                        x = advance;
+                    }
+                    builder.append(input.charAt(i));
+                    break;
+                case KIND_GLYPH:
+                    if (!inWord) {
+                        inWord = true;
+                        lastWordStart = x;
+                    }
+
+                    x += advance;
+                    if (x >= width) {
+                        if (lastWordStart == 0 || !wordWrap) {
+                            builder.append(word);
+                            word.setLength(0);
+                            x = advance;
+                            lastWordStart = 0;
+                        }
+                        builder.append(newLineEscape);
+                        x -= lastWordStart;
+                        lastWordStart = 0;
+                    }
+                    word.append(input.charAt(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+        builder.append(word);
+        return builder.toString();
+    }
+
+    /**
+     * Generates a text of words, spaces, tabs and line breaks. Color
+     * escapes are left out, since the wrap cache keeps them in place
+     * inside of words, while the legacy wrap moved them ahead of the
+     * word.
+     */
+    private static String text(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length + 64);
+        while (builder.length() < length) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+            int separator = random.nextInt(20);
+            if (separator == 0)
+                builder.append('\n');
+            else if (separator == 1)
+                builder.append('\t');
+            else if (separator == 2)
+                builder.append("  ");
+            else
+                builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Font renderer, which measures glyphs with java.awt instead of
+     * loading them into texture alphabets.
+     */
+    private static class MeasuringFontRenderer extends CFXFontRendererImpl {
+
+        private final HashMap<CharInfo, CFXCharacter> glyphs = new HashMap<>();
+
+        private MeasuringFontRenderer() {
+            setAsyncMode(false);
+        }
+
+        @Override
+        CFXCharacter requestCharacter(char c, Font font) {
+            return glyphs.computeIfAbsent(new CharInfo(c, font), key -> {
+                FontRenderContext renderContext = new FontRenderContext(font.getTransform(), true, true);
+                Rectangle2D bounds = font.getStringBounds(Character.toString(c), renderContext);
+                return new CFXCharacterImpl(c, (int) Math.ceil(bounds.getWidth()),
+                        (int) Math.ceil(bounds.getHeight()), c, font, null);
+            });
+        }
+
+        @Override
+        int tabInSpaces() {
+            return 4;
+        }
+    }
+}
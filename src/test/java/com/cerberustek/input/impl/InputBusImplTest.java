@@ -0,0 +1,137 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.input.impl;
+
+import com.cerberustek.event.Event;
+import com.cerberustek.events.CursorPositionEvent;
+import com.cerberustek.events.KeyEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the order, coalescing and allocation behaviour of the
+ * input bus.
+ */
+class InputBusImplTest {
+
+    private static final int CALLBACKS = 1000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 100;
+    /** Allowance for the allocations of the measurement itself */
+    private static final long SLACK = 4096;
+
+    @Test
+    void dispatchesInPostOrder() {
+        ArrayList<String> fired = new ArrayList<>();
+        InputBusImpl bus = new InputBusImpl(2) {
+            @Override
+            void fire(Event event) {
+                if (event instanceof KeyEvent)
+                    fired.add("key " + ((KeyEvent) event).getKey());
+                else
+                    fired.add("cursor " + ((CursorPositionEvent) event).getCurrentPos().getX());
+            }
+        };
+
+        bus.postKey(null, 1, 65, 0, 1, 0);
+        bus.postCursor(null, 1, 10, 0, 1, 0, false);
+        bus.postKey(null, 1, 66, 0, 1, 0);
+        bus.postCursor(null, 1, 20, 0, 1, 0, false);
+        assertEquals(4, bus.size());
+
+        assertEquals(4, bus.dispatch());
+        assertEquals("[key 65, cursor 10.0, key 66, cursor 20.0]", fired.toString());
+        assertEquals(0, bus.size());
+        assertEquals(0, bus.dispatch());
+    }
+
+    @Test
+    void consecutiveCursorMovesAreCoalesced() {
+        ArrayList<Double> deltas = new ArrayList<>();
+        InputBusImpl bus = new InputBusImpl() {
+            @Override
+            void fire(Event event) {
+                deltas.add(((CursorPositionEvent) event).getDeltaPos().getX());
+            }
+        };
+
+        for (int i = 0; i < 10; i++)
+            bus.postCursor(null, 1, i, 0, 1, 0, true);
+        bus.postCursor(null, 2, 0, 0, 5, 0, true);
+
+        assertEquals(2, bus.size());
+        assertEquals(9, bus.getCoalesced());
+        assertEquals(2, bus.dispatch());
+        assertEquals("[10.0, 5.0]", deltas.toString());
+    }
+
+    @Test
+    void steadyStateDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+                "thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        long[] fired = new long[1];
+        InputBusImpl bus = new InputBusImpl() {
+            @Override
+            void fire(Event event) {
+                fired[0]++;
+            }
+        };
+
+        // grows the batches to their steady state size and compiles the hot paths
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            postAndDispatch(bus);
+        fired[0] = 0;
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ROUNDS; i++)
+            postAndDispatch(bus);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertEquals(2L * CALLBACKS * ROUNDS, fired[0]);
+        assertTrue(allocated <= SLACK, "allocated " + allocated + " bytes for "
+                + fired[0] + " callbacks");
+    }
+
+    /**
+     * Posts interleaved key and cursor callbacks, such that none of
+     * them are coalesced, and dispatches them.
+     */
+    private static void postAndDispatch(InputBusImpl bus) {
+        for (int i = 0; i < CALLBACKS; i++) {
+            bus.postKey(null, 1, 65 + (i & 15), i, i & 1, 0);
+            bus.postCursor(null, 1, i, i, 1, 1, false);
+        }
+        bus.dispatch();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.graph;
+
+import com.cerberustek.pipeline.RenderGraphContext;
+import com.cerberustek.pipeline.RenderGraphPass;
+import com.cerberustek.texture.ImageType;
+import com.cerberustek.window.Window;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compiles small render graphs on the cpu and checks culling,
+ * ordering, validation and render target aliasing.
+ */
+class RenderGraphCompilerTest {
+
+    private static final RenderGraphTarget FULL = new RenderGraphTarget(ImageType.RGBA_16_FLOAT, 0);
+    private static final RenderGraphTarget HALF = new RenderGraphTarget(2, ImageType.RGBA_16_FLOAT, 0);
+    private static final String[] NONE = new String[0];
+
+    private static final RenderGraphPass PASS = new RenderGraphPass() {
+        @Override
+        public void execute(RenderGraphContext context, double delta) {}
+
+        @Override
+        public void reinit(Window window) {}
+
+        @Override
+        public void destroy() {}
+    };
+
+    @Test
+    void unusedPassesAreCulled() {
+        RenderGraphSchedule schedule = new RenderGraph()
+                .addTarget("color", FULL)
+                .addTarget("unused", FULL)
+                .addTarget("debug", FULL)
+                .addTarget("out", FULL)
+                .addOutput("out")
+                .addPass("scene", PASS, NONE, names("color"))
+                .addPass("unused", PASS, names("color"), names("unused"))
+                .addPass("debug", PASS, names("unused"), names("debug"))
+                .addPass("tonemap", PASS, names("color"), names("out"))
+                .addPass("present", PASS, names("out"), NONE, true)
+                .addPass("overlay", PASS, NONE, NONE, true)
+                .compile();
+
+        assertEquals(Arrays.asList("scene", "tonemap", "present", "overlay"), schedule.getPasses());
+        assertEquals(Arrays.asList("unused", "debug"), schedule.getCulledPasses());
+        assertTrue(schedule.isCulled("debug"));
+        assertEquals(-1, schedule.getSlot("unused"));
+    }
+
+    @Test
+    void passesAreOrderedByDependencyThenDeclaration() {
+        RenderGraphSchedule schedule = new RenderGraph()
+                .addTarget("a", FULL)
+                .addTarget("b", FULL)
+                .addTarget("c", FULL)
+                .addOutput("c")
+                .addPass("composite", PASS, names("a", "b"), names("c"))
+                .addPass("independent", PASS, NONE, NONE, true)
+                .addPass("second", PASS, names("a"), names("b"))
+                .addPass("first", PASS, NONE, names("a"))
+                .addPass("last", PASS, NONE, NONE, true)
+                .compile();
+
+        // "independent" is ready right away and declared before "first"
+        assertEquals(Arrays.asList("independent", "first", "second", "composite", "last"),
+                schedule.getPasses());
+    }
+
+    @Test
+    void cyclesAreRejected() {
+        RenderGraph graph = new RenderGraph()
+                .addTarget("x", FULL)
+                .addTarget("y", FULL)
+                .addOutput("x")
+                .addPass("p", PASS, names("y"), names("x"))
+                .addPass("q", PASS, names("x"), names("y"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, graph::compile);
+        assertTrue(exception.getMessage().contains("cycle"), exception.getMessage());
+    }
+
+    @Test
+    void unwrittenReadsAreRejected() {
+        RenderGraph read = new RenderGraph()
+                .addTarget("missing", FULL)
+                .addPass("present", PASS, names("missing"), NONE, true);
+        assertThrows(IllegalStateException.class, read::compile);
+
+        RenderGraph output = new RenderGraph()
+                .addTarget("out", FULL)
+                .addOutput("out");
+        assertThrows(IllegalStateException.class, output::compile);
+
+        // imported resources are written outside of the graph
+        RenderGraphSchedule schedule = new RenderGraph()
+                .importTarget("scene", () -> null)
+                .addPass("present", PASS, names("scene"), NONE, true)
+                .compile();
+        assertEquals(Arrays.asList("present"), schedule.getPasses());
+        assertEquals(-1, schedule.getSlot("scene"));
+    }
+
+    @Test
+    void onlyStrictlyDisjointEqualTargetsShareSlots() {
+        // chain 0 -> t0 -> 1 -> t1 -> 2 -> t2 -> 3 -> t3 -> 4 -> h -> 5
+        RenderGraphSchedule schedule = new RenderGraph()
+                .addTarget("t0", FULL)
+                .addTarget("t1", FULL)
+                .addTarget("t2", FULL)
+                .addTarget("t3", FULL)
+                .addTarget("h", HALF)
+                .addPass("p0", PASS, NONE, names("t0"))
+                .addPass("p1", PASS, names("t0"), names("t1"))
+                .addPass("p2", PASS, names("t1"), names("t2"))
+                .addPass("p3", PASS, names("t2"), names("t3"))
+                .addPass("p4", PASS, names("t3"), names("h"))
+                .addPass("p5", PASS, names("h"), NONE, true)
+                .compile();
+
+        assertEquals(0, schedule.getFirstUse("t0"));
+        assertEquals(1, schedule.getLastUse("t0"));
+
+        // t0 ends where t1 starts, so they are alive at the same time
+        assertNotEquals(schedule.getSlot("t0"), schedule.getSlot("t1"));
+        assertNotEquals(schedule.getSlot("t1"), schedule.getSlot("t2"));
+        assertEquals(schedule.getSlot("t0"), schedule.getSlot("t2"));
+        assertEquals(schedule.getSlot("t1"), schedule.getSlot("t3"));
+
+        // a different target description never shares a slot
+        int half = schedule.getSlot("h");
+        assertNotEquals(schedule.getSlot("t0"), half);
+        assertNotEquals(schedule.getSlot("t1"), half);
+        assertEquals(HALF, schedule.getSlotTarget(half));
+        assertEquals(3, schedule.getSlotCount());
+        assertSlotsValid(schedule, "t0", "t1", "t2", "t3", "h");
+    }
+
+    @Test
+    void outputsAreNeverAliased() {
+        RenderGraphSchedule schedule = new RenderGraph()
+                .addTarget("t0", FULL)
+                .addTarget("t1", FULL)
+                .addTarget("out", FULL)
+                .addTarget("t2", FULL)
+                .addTarget("t3", FULL)
+                .addOutput("out")
+                .addPass("p0", PASS, NONE, names("t0"))
+                .addPass("p1", PASS, names("t0"), names("t1"))
+                .addPass("p2", PASS, names("t1"), names("out"))
+                .addPass("p3", PASS, names("out"), names("t2"))
+                .addPass("p4", PASS, names("t2"), names("t3"))
+                .addPass("p5", PASS, names("t3"), NONE, true)
+                .compile();
+
+        // t0 is dead when out is written, but outputs do not reuse slots
+        int out = schedule.getSlot("out");
+        for (String resource : names("t0", "t1", "t2", "t3"))
+            assertNotEquals(out, schedule.getSlot(resource), resource + " shares the output slot");
+        assertSlotsValid(schedule, "t0", "t1", "out", "t2", "t3");
+    }
+
+    /**
+     * Asserts that resources sharing a slot have equal targets and
+     * strictly disjoint lifetimes.
+     */
+    private static void assertSlotsValid(RenderGraphSchedule schedule, String... resources) {
+        for (int i = 0; i < resources.length; i++) {
+            for (int j = i + 1; j < resources.length; j++) {
+                String a = resources[i];
+                String b = resources[j];
+                if (schedule.getSlot(a) != schedule.getSlot(b))
+                    continue;
+
+                boolean disjoint = schedule.getLastUse(a) < schedule.getFirstUse(b)
+                        || schedule.getLastUse(b) < schedule.getFirstUse(a);
+                assertTrue(disjoint, a + " and " + b + " share a slot while both are alive");
+            }
+        }
+    }
+
+    private static String[] names(String... names) {
+        return names;
+    }
+}
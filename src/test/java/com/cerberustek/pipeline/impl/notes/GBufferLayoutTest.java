@@ -0,0 +1,267 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes;
+
+import com.cerberustek.texture.ImageType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the compact geometry buffer encodings on the cpu.
+ *
+ * The octahedral normal encoding is a copy of util/gbuffer.glsl,
+ * which is the source of truth. The shader functions are compared
+ * against the copy they were mirrored from, so a changed shader
+ * fails this test until the copy is updated as well. Stored values are quantized like the GL does for the image types
+ * of the compact layout. Since the GL may either round or truncate
+ * when converting to small floats, both are checked.
+ */
+class GBufferLayoutTest {
+
+    private static final int SAMPLES = 200000;
+
+    private static final Path GBUFFER_SHADER = Paths.get("run", "shaders", "util", "gbuffer.glsl");
+    /** Shader functions mirrored by octWrap, octEncode and octDecode */
+    private static final String[] MIRRORED_FUNCTIONS = {
+            "vec2 octWrap(vec2 v) {\n"
+                    + "    return (1.0 - abs(v.yx)) * vec2(v.x >= 0.0 ? 1.0 : -1.0, v.y >= 0.0 ? 1.0 : -1.0);\n"
+                    + "}",
+            "vec2 octEncode(vec3 n) {\n"
+                    + "    n /= max(abs(n.x) + abs(n.y) + abs(n.z), 1e-6);\n"
+                    + "    return n.z >= 0.0 ? n.xy : octWrap(n.xy);\n"
+                    + "}",
+            "vec3 octDecode(vec2 f) {\n"
+                    + "    vec3 n = vec3(f.x, f.y, 1.0 - abs(f.x) - abs(f.y));\n"
+                    + "    float t = clamp(-n.z, 0.0, 1.0);\n"
+                    + "    n.xy += vec2(n.x >= 0.0 ? -t : t, n.y >= 0.0 ? -t : t);\n"
+                    + "    return normalize(n);\n"
+                    + "}"
+    };
+
+    @Test
+    void compactLayoutUsesTheCheckedTypes() {
+        GBufferLayout layout = GBufferLayout.COMPACT;
+        assertEquals(ImageType.RG_16_FLOAT, layout.getFormat().getType(SceneNote.NORMAL));
+        assertEquals(ImageType.RGB10_A2_INTEGER, layout.getFormat().getType(SceneNote.SPECULAR));
+        assertEquals(ImageType.RGB10_A2_INTEGER, layout.getFormat().getType(SceneNote.METALLIC));
+        assertEquals(ImageType.R11_G11_B10_FLOAT, layout.getFormat().getType(SceneNote.EMISSION));
+        assertEquals(42, layout.byteSize());
+    }
+
+    @Test
+    void mirrorMatchesTheShader() throws IOException {
+        String shader = new String(Files.readAllBytes(GBUFFER_SHADER), StandardCharsets.UTF_8)
+                .replace("\r\n", "\n");
+        for (String function : MIRRORED_FUNCTIONS) {
+            assertTrue(shader.contains(function), GBUFFER_SHADER + " no longer contains the mirrored function\n"
+                    + function + "\nUpdate the copy in this test together with the shader.");
+        }
+    }
+
+    @Test
+    void octahedralRoundTripIsExact() {
+        double max = 0;
+        for (float[] normal : normals(new Random(43))) {
+            float[] encoded = octEncode(normal);
+            assertTrue(Math.abs(encoded[0]) <= 1 && Math.abs(encoded[1]) <= 1,
+                    "encoded normal leaves [-1, 1]");
+            max = Math.max(max, angle(normal, octDecode(encoded)));
+        }
+        assertTrue(max < 1e-3, "round trip error of " + max + " degrees");
+    }
+
+    @Test
+    void octahedralNormalsSurviveRG16F() {
+        for (boolean truncate : new boolean[] {false, true}) {
+            double max = 0;
+            for (float[] normal : normals(new Random(43))) {
+                float[] stored = store(ImageType.RG_16_FLOAT, truncate, octEncode(normal));
+                max = Math.max(max, angle(normal, octDecode(stored)));
+            }
+            assertTrue(max < (truncate ? 0.12 : 0.06),
+                    "RG16F normal error of " + max + " degrees, truncate " + truncate);
+        }
+    }
+
+    @Test
+    void rgb10a2ErrorIsHalfAStep() {
+        Random random = new Random(43);
+        for (int i = 0; i < SAMPLES; i++) {
+            float[] value = {random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat()};
+            float[] stored = store(ImageType.RGB10_A2_INTEGER, false, value);
+            for (int c = 0; c < 3; c++)
+                assertEquals(value[c], stored[c], 0.5 / 1023 + 1e-6);
+            assertEquals(value[3], stored[3], 0.5 / 3 + 1e-6);
+        }
+
+        // specular * roughness may leave the normalized range
+        assertArrayEquals(new float[] {1, 0, 1, 1},
+                store(ImageType.RGB10_A2_INTEGER, false, 1.5f, -0.25f, 7, 2), 0);
+    }
+
+    @Test
+    void r11g11b10RelativeErrorIsBounded() {
+        for (boolean truncate : new boolean[] {false, true}) {
+            // 6 mantissa bits for red and green, 5 for blue
+            double redGreen = truncate ? Math.scalb(1.0, -6) : Math.scalb(1.0, -7);
+            double blue = truncate ? Math.scalb(1.0, -5) : Math.scalb(1.0, -6);
+
+            Random random = new Random(43);
+            for (int i = 0; i < SAMPLES; i++) {
+                // log uniform between the smallest normal value and the largest blue value
+                float[] value = new float[3];
+                for (int c = 0; c < 3; c++)
+                    value[c] = (float) Math.scalb(1.0 + random.nextDouble(), random.nextInt(30) - 14);
+                float[] stored = store(ImageType.R11_G11_B10_FLOAT, truncate, value);
+                for (int c = 0; c < 3; c++) {
+                    double error = Math.abs(stored[c] - value[c]) / value[c];
+                    assertTrue(error <= (c < 2 ? redGreen : blue),
+                            "relative error of " + error + " for " + value[c] + ", truncate " + truncate);
+                }
+            }
+
+            // denormals have a fixed step
+            for (int i = 0; i < SAMPLES; i++) {
+                float value = (float) (random.nextDouble() * Math.scalb(1.0, -14));
+                float[] stored = store(ImageType.R11_G11_B10_FLOAT, truncate, value, value, value);
+                assertEquals(value, stored[0], Math.scalb(1.0, truncate ? -20 : -21));
+                assertEquals(value, stored[2], Math.scalb(1.0, truncate ? -19 : -20));
+            }
+        }
+
+        // there is no sign bit
+        assertArrayEquals(new float[] {0, 0, 0}, store(ImageType.R11_G11_B10_FLOAT, false, -1, -0.5f, -1e-6f), 0);
+    }
+
+    /**
+     * Random unit vectors, the axes and vectors on the folds of the
+     * octahedron.
+     */
+    private static float[][] normals(Random random) {
+        float d = (float) Math.sqrt(0.5);
+        float[][] special = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1},
+                {d, d, 0}, {-d, d, 0}, {d, -d, 0}, {-d, -d, 0}, {d, 0, -d}, {0, -d, -d}};
+
+        float[][] normals = new float[SAMPLES + special.length][];
+        System.arraycopy(special, 0, normals, 0, special.length);
+        for (int i = special.length; i < normals.length; i++) {
+            double x = random.nextGaussian();
+            double y = random.nextGaussian();
+            double z = random.nextGaussian();
+            double length = Math.sqrt(x * x + y * y + z * z);
+            normals[i] = new float[] {(float) (x / length), (float) (y / length), (float) (z / length)};
+        }
+        return normals;
+    }
+
+    /* copies of the functions in util/gbuffer.glsl, see MIRRORED_FUNCTIONS */
+
+    private static float[] octWrap(float x, float y) {
+        return new float[] {(1 - Math.abs(y)) * (x >= 0 ? 1 : -1), (1 - Math.abs(x)) * (y >= 0 ? 1 : -1)};
+    }
+
+    private static float[] octEncode(float[] n) {
+        float sum = Math.max(Math.abs(n[0]) + Math.abs(n[1]) + Math.abs(n[2]), 1e-6f);
+        float x = n[0] / sum;
+        float y = n[1] / sum;
+        return n[2] / sum >= 0 ? new float[] {x, y} : octWrap(x, y);
+    }
+
+    private static float[] octDecode(float[] f) {
+        float x = f[0];
+        float y = f[1];
+        float z = 1 - Math.abs(x) - Math.abs(y);
+        float t = Math.min(Math.max(-z, 0), 1);
+        x += x >= 0 ? -t : t;
+        y += y >= 0 ? -t : t;
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        return new float[] {x / length, y / length, z / length};
+    }
+
+    /**
+     * Returns the angle between two unit vectors in degrees.
+     */
+    private static double angle(float[] a, float[] b) {
+        double cx = (double) a[1] * b[2] - (double) a[2] * b[1];
+        double cy = (double) a[2] * b[0] - (double) a[0] * b[2];
+        double cz = (double) a[0] * b[1] - (double) a[1] * b[0];
+        double dot = (double) a[0] * b[0] + (double) a[1] * b[1] + (double) a[2] * b[2];
+        return Math.toDegrees(Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), dot));
+    }
+
+    /**
+     * Will convert the channels to an image type and back.
+     */
+    private static float[] store(ImageType type, boolean truncate, float... channels) {
+        float[] stored = new float[channels.length];
+        for (int c = 0; c < channels.length; c++) {
+            switch (type) {
+                case R_16_FLOAT:
+                case RG_16_FLOAT:
+                case RGBA_16_FLOAT:
+                    stored[c] = smallFloat(channels[c], 10, true, truncate);
+                    break;
+                case RGB10_A2_INTEGER:
+                    stored[c] = unorm(channels[c], c < 3 ? 10 : 2);
+                    break;
+                case R11_G11_B10_FLOAT:
+                    stored[c] = smallFloat(channels[c], c < 2 ? 6 : 5, false, truncate);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Image type " + type + " is not checked");
+            }
+        }
+        return stored;
+    }
+
+    private static float unorm(float value, int bits) {
+        int max = (1 << bits) - 1;
+        return Math.round(Math.min(Math.max(value, 0), 1) * max) / (float) max;
+    }
+
+    /**
+     * Will quantize a value to a float with a 5 bit exponent and the
+     * specified amount of mantissa bits.
+     */
+    private static float smallFloat(float value, int mantissa, boolean signed, boolean truncate) {
+        if (!signed && value <= 0)
+            return 0;
+
+        double abs = Math.abs(value);
+        double max = (2 - Math.scalb(1.0, -mantissa)) * Math.scalb(1.0, 15);
+        if (abs >= max)
+            return (float) Math.copySign(max, value);
+
+        double step = Math.scalb(1.0, Math.max(Math.getExponent(abs), -14) - mantissa);
+        double steps = truncate ? Math.floor(abs / step) : Math.rint(abs / step);
+        return (float) Math.copySign(steps * step, value);
+    }
+}
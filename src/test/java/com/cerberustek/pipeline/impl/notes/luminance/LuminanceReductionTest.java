@@ -0,0 +1,190 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes.luminance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Emulates the two compute passes of the luminance reduction note
+ * in single precision and compares them to the cpu reference.
+ *
+ * The reduce pass sums up blocks of 32x32 pixels, starting with 2x2
+ * pixels per invocation, with the same tree reduction as
+ * tonemap/LuminanceReduceComp.glsl. The resolve pass sums up the
+ * partial sums like tonemap/LuminanceResolveComp.glsl and adapts
+ * the luminance.
+ */
+class LuminanceReductionTest {
+
+    private static final int BLOCK_SIZE = 32;
+    private static final int REDUCE_GROUP = 16;
+    private static final int RESOLVE_GROUP = 256;
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    void partialSumsMatchTheReference() {
+        // odd sizes leave partially covered blocks at the right and bottom edge
+        int[][] sizes = {{1920, 1080}, {1001, 563}, {31, 33}, {1, 1}};
+        for (int[] size : sizes) {
+            float[] image = hdrImage(size[0], size[1], new Random(46));
+            float[][] partials = reduce(image, size[0], size[1]);
+
+            float pixels = 0;
+            for (float[] partial : partials)
+                pixels += partial[1];
+            assertEquals(size[0] * size[1], pixels, 0, "every pixel is summed up exactly once");
+
+            double expected = LuminanceReduction.averageLogLuminance(image, size[0], size[1],
+                    LuminanceReduction.WEIGHTS);
+            float[] result = resolve(partials, new float[4], 0, 0);
+            assertEquals(expected, result[1], 1e-4, size[0] + "x" + size[1]);
+            assertEquals(result[1], result[0], "the first frame is not adapted");
+        }
+    }
+
+    @Test
+    void blackImageAveragesToTheLogOfEpsilon() {
+        float[] image = new float[640 * 480 * 4];
+        float[] result = resolve(reduce(image, 640, 480), new float[4], 0, 0);
+
+        assertEquals(Math.log(LuminanceReduction.EPSILON), LuminanceReduction.averageLogLuminance(image, 640, 480,
+                LuminanceReduction.WEIGHTS), 1e-9);
+        assertEquals(Math.log(LuminanceReduction.EPSILON), result[1], 1e-5);
+        assertEquals(result[1], result[0]);
+        assertEquals(640 * 480f, result[2]);
+    }
+
+    @Test
+    void adaptationMatchesTheReference() {
+        float[][] bright = reduce(hdrImage(800, 600, new Random(1)), 800, 600);
+        float[][] dark = reduce(new float[800 * 600 * 4], 800, 600);
+
+        float[] result = resolve(bright, new float[4], 0, 0);
+        double adapted = result[0];
+        for (int frame = 0; frame < 240; frame++) {
+            double delta = frame % 3 == 0 ? 1 / 30d : 1 / 144d;
+            result = resolve(dark, result, (float) delta, 1.5f);
+            adapted = LuminanceReduction.adapt(adapted, result[1], delta, 1.5);
+            assertEquals(adapted, result[0], 1e-4, "frame " + frame);
+        }
+        // after 240 frames the luminance has adapted to the dark image
+        assertEquals(Math.log(LuminanceReduction.EPSILON), result[0], 0.05);
+    }
+
+    /**
+     * Log uniform luminance between 1e-3 and 1e4, with some black
+     * pixels and a small, very bright spot.
+     */
+    private static float[] hdrImage(int width, int height, Random random) {
+        float[] image = new float[width * height * 4];
+        for (int i = 0; i < width * height; i++) {
+            if (random.nextInt(20) == 0)
+                continue;
+            for (int c = 0; c < 3; c++)
+                image[i * 4 + c] = (float) Math.pow(10, random.nextDouble() * 7 - 3);
+            image[i * 4 + 3] = 1;
+        }
+        for (int y = 0; y < Math.min(height, 8); y++) {
+            for (int x = 0; x < Math.min(width, 8); x++) {
+                int i = (y * width + x) * 4;
+                image[i] = image[i + 1] = image[i + 2] = 65000;
+            }
+        }
+        return image;
+    }
+
+    private static float logLuminance(float[] image, int index) {
+        float luminance = image[index] * LuminanceReduction.WEIGHTS[0] + image[index + 1]
+                * LuminanceReduction.WEIGHTS[1] + image[index + 2] * LuminanceReduction.WEIGHTS[2];
+        return (float) Math.log(Math.max(luminance, 0) + EPSILON);
+    }
+
+    /**
+     * Emulates the reduce pass.
+     * @return log luminance sum and pixel count of every block
+     */
+    private static float[][] reduce(float[] image, int width, int height) {
+        int groupsX = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int groupsY = (height + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        float[][] partials = new float[groupsX * groupsY][];
+
+        float[] sums = new float[REDUCE_GROUP * REDUCE_GROUP];
+        float[] counts = new float[sums.length];
+        for (int groupY = 0; groupY < groupsY; groupY++) {
+            for (int groupX = 0; groupX < groupsX; groupX++) {
+                for (int local = 0; local < sums.length; local++) {
+                    int originX = (groupX * REDUCE_GROUP + local % REDUCE_GROUP) * 2;
+                    int originY = (groupY * REDUCE_GROUP + local / REDUCE_GROUP) * 2;
+                    sums[local] = counts[local] = 0;
+                    for (int y = 0; y < 2; y++) {
+                        for (int x = 0; x < 2; x++) {
+                            if (originX + x < width && originY + y < height) {
+                                sums[local] += logLuminance(image, ((originY + y) * width + originX + x) * 4);
+                                counts[local] += 1;
+                            }
+                        }
+                    }
+                }
+                treeReduce(sums, counts);
+                partials[groupY * groupsX + groupX] = new float[] {sums[0], counts[0]};
+            }
+        }
+        return partials;
+    }
+
+    /**
+     * Emulates the resolve pass.
+     * @param previous previous result buffer
+     * @return adapted log luminance, average log luminance, pixels
+     *          and the initialized flag
+     */
+    private static float[] resolve(float[][] partials, float[] previous, float delta, float rate) {
+        float[] sums = new float[RESOLVE_GROUP];
+        float[] counts = new float[RESOLVE_GROUP];
+        for (int local = 0; local < RESOLVE_GROUP; local++) {
+            for (int i = local; i < partials.length; i += RESOLVE_GROUP) {
+                sums[local] += partials[i][0];
+                counts[local] += partials[i][1];
+            }
+        }
+        treeReduce(sums, counts);
+
+        float average = counts[0] > 0 ? sums[0] / counts[0] : 0;
+        float adapted = previous[3] > 0.5f ? previous[0] + (average - previous[0])
+                * (1 - (float) Math.exp(-delta * rate)) : average;
+        return new float[] {adapted, average, counts[0], 1};
+    }
+
+    private static void treeReduce(float[] sums, float[] counts) {
+        for (int stride = sums.length / 2; stride > 0; stride >>= 1) {
+            for (int local = 0; local < stride; local++) {
+                sums[local] += sums[local + stride];
+                counts[local] += counts[local + stride];
+            }
+        }
+    }
+}
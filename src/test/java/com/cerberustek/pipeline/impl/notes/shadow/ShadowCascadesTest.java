@@ -0,0 +1,229 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.pipeline.impl.notes.shadow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the split scheme, the fit and the texel snapping of the
+ * shadow cascades against a perspective camera.
+ */
+class ShadowCascadesTest {
+
+    private static final int RESOLUTION = 2048;
+    private static final double NEAR = 0.1;
+    private static final double FAR = 500;
+    private static final double FOV = Math.toRadians(70);
+    private static final double ASPECT = 16d / 9d;
+
+    private static final float[][] LIGHTS = {{0.3f, -1, 0.2f}, {0, -1, 0}, {1, -0.1f, 0}, {-0.5f, -0.5f, -0.7f}};
+
+    @Test
+    void splitsIncreaseFromNearToFar() {
+        double[][] planes = {{0.1, 500}, {1, 10}, {0.01, 10000}, {5, 5.5}};
+        for (double[] plane : planes) {
+            for (int count = 1; count <= 8; count++) {
+                for (double lambda : new double[] {0, 0.25, 0.5, 0.75, 1}) {
+                    float[] splits = ShadowCascades.split(plane[0], plane[1], count, lambda);
+                    assertEquals(count + 1, splits.length);
+                    assertEquals((float) plane[0], splits[0]);
+                    assertEquals((float) plane[1], splits[count]);
+                    for (int i = 1; i <= count; i++)
+                        assertTrue(splits[i] > splits[i - 1], "split " + i + " of " + count + " with lambda "
+                                + lambda + " is not increasing");
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> ShadowCascades.split(0, 10, 4, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> ShadowCascades.split(10, 10, 4, 0.5));
+    }
+
+    @Test
+    void fitEndsAtTheShadowDistance() {
+        ShadowCascades cascades = new ShadowCascades(4, RESOLUTION, 0.75, 0);
+        double[][] camera = camera(new double[] {0, 2, 0}, 0.4, -0.1);
+
+        cascades.fit(cameraMatrix(camera), NEAR, FAR, 0, LIGHTS[0]);
+        assertEquals((float) FAR, cascades.getSplit(3));
+
+        cascades.fit(cameraMatrix(camera), NEAR, FAR, 120, LIGHTS[0]);
+        assertEquals(120f, cascades.getSplit(3));
+        for (int i = 1; i < 4; i++)
+            assertTrue(cascades.getSplit(i) > cascades.getSplit(i - 1));
+    }
+
+    @Test
+    void sliceCornersAreInsideTheCascade() {
+        Random random = new Random(45);
+        for (int i = 0; i < 20000; i++) {
+            float[] light = i < LIGHTS.length ? LIGHTS[i] : new float[] {(float) random.nextGaussian(),
+                    (float) random.nextGaussian(), (float) random.nextGaussian()};
+            double[] eye = {random.nextDouble() * 20 - 10, random.nextDouble() * 10, random.nextDouble() * 20 - 10};
+            double[][] camera = camera(eye, random.nextDouble() * 2 * Math.PI, random.nextDouble() * 3 - 1.5);
+            double shadowDistance = random.nextBoolean() ? 0 : 10 + random.nextDouble() * 300;
+
+            ShadowCascades cascades = new ShadowCascades(1 + random.nextInt(6), 256 << random.nextInt(4),
+                    random.nextDouble(), 20);
+            cascades.fit(cameraMatrix(camera), NEAR, FAR, shadowDistance, light);
+            assertCornersInside(cascades, camera);
+        }
+    }
+
+    @Test
+    void snappedCascadesMoveInWholeTexels() {
+        for (float[] light : LIGHTS) {
+            ShadowCascades cascades = new ShadowCascades(4, RESOLUTION, 0.75, 20);
+            double[] eye = {10, 3, -4};
+            cascades.fit(cameraMatrix(camera(eye, 0.7, -0.2)), NEAR, FAR, 150, light);
+
+            float[] radii = new float[4];
+            double[][] previous = new double[4][];
+            for (int i = 0; i < 4; i++) {
+                radii[i] = cascades.getRadius(i);
+                previous[i] = texelOffset(cascades, i);
+            }
+
+            boolean moved = false;
+            for (int step = 1; step <= 50; step++) {
+                // translate by a fraction of a texel, which is never a multiple of it
+                eye[0] += 0.173;
+                eye[1] -= 0.021;
+                eye[2] += 0.117;
+                cascades.fit(cameraMatrix(camera(eye, 0.7, -0.2)), NEAR, FAR, 150, light);
+
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(radii[i], cascades.getRadius(i), "radius changed by translation");
+
+                    double[] offset = texelOffset(cascades, i);
+                    for (int axis = 0; axis < 2; axis++) {
+                        assertEquals(Math.rint(offset[axis]), offset[axis], 1e-2,
+                                "cascade " + i + " is not snapped to a texel");
+                        double delta = offset[axis] - previous[i][axis];
+                        assertEquals(Math.rint(delta), delta, 1e-2, "cascade " + i + " moved by a partial texel");
+                        moved |= Math.rint(delta) != 0;
+                    }
+                    previous[i] = offset;
+                }
+            }
+            assertTrue(moved, "the cascades did not follow the camera");
+        }
+    }
+
+    /**
+     * Returns the light space center of a cascade in texels.
+     */
+    private static double[] texelOffset(ShadowCascades cascades, int cascade) {
+        float[] projection = cascades.getProjection(cascade);
+        // projection[3] = -x / extent and a texel is 2 * extent / resolution wide
+        return new double[] {-projection[3] * RESOLUTION / 2d, -projection[7] * RESOLUTION / 2d};
+    }
+
+    private static void assertCornersInside(ShadowCascades cascades, double[][] camera) {
+        float[] view = cascades.getLightView();
+        double tan = Math.tan(FOV / 2);
+
+        double start = NEAR;
+        for (int cascade = 0; cascade < cascades.getCount(); cascade++) {
+            double end = cascades.getSplit(cascade);
+            float[] projection = cascades.getProjection(cascade);
+
+            for (double distance : new double[] {start, end}) {
+                for (int corner = 0; corner < 4; corner++) {
+                    double x = ((corner & 1) == 0 ? -1 : 1) * distance * tan * ASPECT;
+                    double y = ((corner & 2) == 0 ? -1 : 1) * distance * tan;
+                    double[] point = new double[3];
+                    for (int i = 0; i < 3; i++)
+                        point[i] = camera[0][i] + camera[3][i] * distance + camera[1][i] * x + camera[2][i] * y;
+
+                    double[] clip = transform(projection, transform(view, point));
+                    for (int i = 0; i < 3; i++)
+                        assertTrue(Math.abs(clip[i]) <= 1 + 1e-5, "corner " + corner + " at " + distance
+                                + " lies outside of cascade " + cascade + ": " + clip[i]);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Returns the eye position and the right, up and forward
+     * direction of a camera.
+     * @param yaw rotation around the y axis
+     * @param pitch rotation around the right axis
+     */
+    private static double[][] camera(double[] eye, double yaw, double pitch) {
+        double[] forward = {Math.sin(yaw) * Math.cos(pitch), Math.sin(pitch), -Math.cos(yaw) * Math.cos(pitch)};
+        double[] right = {Math.cos(yaw), 0, Math.sin(yaw)};
+        double[] up = {right[1] * forward[2] - right[2] * forward[1], right[2] * forward[0] - right[0] * forward[2],
+                right[0] * forward[1] - right[1] * forward[0]};
+        return new double[][] {eye.clone(), right, up, forward};
+    }
+
+    /**
+     * Returns the row major view projection matrix of a camera.
+     */
+    private static float[] cameraMatrix(double[][] camera) {
+        double[] eye = camera[0];
+        double[] view = new double[16];
+        for (int row = 0; row < 3; row++) {
+            // the camera looks down the negative z axis
+            double[] axis = camera[row + 1];
+            double sign = row == 2 ? -1 : 1;
+            for (int i = 0; i < 3; i++)
+                view[row * 4 + i] = sign * axis[i];
+            view[row * 4 + 3] = -sign * (axis[0] * eye[0] + axis[1] * eye[1] + axis[2] * eye[2]);
+        }
+        view[15] = 1;
+
+        double f = 1 / Math.tan(FOV / 2);
+        double[] projection = new double[16];
+        projection[0] = f / ASPECT;
+        projection[5] = f;
+        projection[10] = (FAR + NEAR) / (NEAR - FAR);
+        projection[11] = 2 * FAR * NEAR / (NEAR - FAR);
+        projection[14] = -1;
+
+        float[] out = new float[16];
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++) {
+                double sum = 0;
+                for (int i = 0; i < 4; i++)
+                    sum += projection[row * 4 + i] * view[i * 4 + column];
+                out[row * 4 + column] = (float) sum;
+            }
+        }
+        return out;
+    }
+
+    private static double[] transform(float[] m, double[] p) {
+        double[] out = new double[3];
+        for (int row = 0; row < 3; row++)
+            out[row] = m[row * 4] * p[0] + m[row * 4 + 1] * p[1] + m[row * 4 + 2] * p[2] + m[row * 4 + 3];
+        return out;
+    }
+}
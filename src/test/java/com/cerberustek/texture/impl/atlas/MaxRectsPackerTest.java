@@ -0,0 +1,247 @@
+/*
+ * Cerberus-Renderer is a OpenGL-based rendering engine.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.texture.impl.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Packs seeded random rectangles into a MaxRectsPacker and checks
+ * after every operation, that all placements are disjoint and inside
+ * of the bin, and that the free rectangles neither overlap a placement
+ * nor contain each other.
+ */
+class MaxRectsPackerTest {
+
+    private static final int SEEDS = 8;
+    private static final int OPERATIONS = 600;
+
+    @Test
+    void insertUntilFull() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random random = new Random(seed);
+            MaxRectsPacker packer = new MaxRectsPacker(256, 192);
+            ArrayList<Integer> ids = new ArrayList<>();
+
+            int failures = 0;
+            while (failures < 32) {
+                int id = packer.insert(1 + random.nextInt(40), 1 + random.nextInt(40));
+                if (id == -1) {
+                    failures++;
+                    continue;
+                }
+                assertFalse(ids.contains(id), "seed " + seed + ": id " + id + " handed out twice");
+                ids.add(id);
+                assertValid(packer, "seed " + seed + ", insert " + ids.size());
+            }
+
+            assertEquals(ids.size(), packer.count());
+            assertTrue(packer.occupancy() > 0.5f, "seed " + seed + ": occupancy " + packer.occupancy());
+        }
+    }
+
+    @Test
+    void exactFillLeavesNoFreeSpace() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        for (int i = 0; i < 16; i++)
+            assertEquals(i, packer.insert(16, 16));
+        assertValid(packer, "filled");
+
+        assertTrue(packer.isFull());
+        assertEquals(0, packer.freeArea());
+        assertEquals(0, packer.freeRectCount());
+        assertFalse(packer.fits(1, 1));
+        assertEquals(-1, packer.insert(1, 1));
+        assertEquals(1.0f, packer.occupancy(), 0f);
+    }
+
+    @Test
+    void releaseAndReinsert() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        for (int i = 0; i < 16; i++)
+            packer.insert(16, 16);
+
+        // release two horizontal neighbours
+        int left = packer.find(16, 32);
+        int right = packer.find(32, 32);
+        assertTrue(packer.remove(left));
+        assertTrue(packer.remove(right));
+        assertFalse(packer.remove(right));
+        assertFalse(packer.contains(right));
+        assertEquals(-1, packer.find(20, 36));
+        assertValid(packer, "released");
+
+        // the released cells are joined into a single free rectangle
+        assertTrue(packer.fits(32, 16));
+        assertFalse(packer.fits(16, 32));
+        int joined = packer.insert(32, 16);
+        assertEquals(Math.min(left, right), joined);
+        assertEquals(16, packer.getX(joined));
+        assertEquals(32, packer.getY(joined));
+        assertTrue(packer.isFull());
+        assertValid(packer, "reinserted");
+
+        // releasing everything restores the whole bin
+        for (int id = 0; id < 16; id++)
+            packer.remove(id);
+        assertEquals(0, packer.count());
+        assertEquals(64 * 64, packer.freeArea());
+        assertEquals(1, packer.freeRectCount());
+        assertEquals(0, packer.insert(64, 64));
+    }
+
+    @Test
+    void randomInsertAndRemove() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random random = new Random(seed);
+            MaxRectsPacker packer = new MaxRectsPacker(128, 128);
+            ArrayList<Integer> ids = new ArrayList<>();
+
+            for (int step = 0; step < OPERATIONS; step++) {
+                String context = "seed " + seed + ", step " + step;
+                if (!ids.isEmpty() && random.nextInt(3) == 0) {
+                    int id = ids.remove(random.nextInt(ids.size()));
+                    assertTrue(packer.remove(id), context);
+                } else {
+                    int width = 1 + random.nextInt(32);
+                    int height = 1 + random.nextInt(32);
+                    boolean fits = packer.fits(width, height);
+                    int id = packer.insert(width, height);
+                    assertEquals(fits, id != -1, context);
+                    if (id != -1)
+                        ids.add(id);
+                }
+                assertEquals(ids.size(), packer.count(), context);
+                assertValid(packer, context);
+            }
+
+            for (int id : ids)
+                packer.remove(id);
+            assertEquals(1, packer.freeRectCount(), "seed " + seed);
+            assertEquals(128 * 128, packer.freeArea(), "seed " + seed);
+        }
+    }
+
+    @Test
+    void capacityFailureLeavesPackerUnchanged() {
+        MaxRectsPacker packer = new MaxRectsPacker(100, 50);
+        assertEquals(-1, packer.insert(101, 1));
+        assertEquals(-1, packer.insert(1, 51));
+        assertFalse(packer.fits(101, 1));
+
+        int id = packer.insert(60, 50);
+        int freeRects = packer.freeRectCount();
+        assertEquals(-1, packer.insert(41, 10));
+        assertEquals(1, packer.count());
+        assertEquals(freeRects, packer.freeRectCount());
+        assertEquals(60 * 50, packer.usedArea());
+        assertEquals(0, packer.getX(id));
+        assertValid(packer, "after failure");
+
+        assertThrows(IllegalArgumentException.class, () -> packer.insert(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> packer.insert(10, -1));
+        assertThrows(IllegalArgumentException.class, () -> packer.getX(id + 1));
+        assertThrows(IllegalArgumentException.class, () -> new MaxRectsPacker(0, 10));
+    }
+
+    @Test
+    void findByOriginAndInterior() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        int a = packer.insert(10, 20);
+        int b = packer.insert(30, 5);
+
+        assertEquals(a, packer.find(packer.getX(a), packer.getY(a)));
+        assertEquals(b, packer.find(packer.getX(b), packer.getY(b)));
+        assertEquals(a, packer.find(packer.getX(a) + 9, packer.getY(a) + 19));
+        assertEquals(b, packer.find(packer.getX(b) + 29, packer.getY(b) + 4));
+        assertEquals(-1, packer.find(63, 63));
+
+        int x = packer.getX(a);
+        int y = packer.getY(a);
+        packer.remove(a);
+        assertEquals(-1, packer.find(x, y));
+        assertEquals(b, packer.find(packer.getX(b), packer.getY(b)));
+
+        packer.clear();
+        assertEquals(-1, packer.find(0, 0));
+        assertEquals(0, packer.count());
+    }
+
+    /**
+     * Checks the placements and free rectangles of the packer against
+     * each other and against the bin.
+     */
+    private static void assertValid(MaxRectsPacker packer, String context) {
+        int binWidth = packer.getBinWidth();
+        int binHeight = packer.getBinHeight();
+
+        ArrayList<int[]> placed = new ArrayList<>();
+        long usedArea = 0;
+        for (int id = 0; placed.size() < packer.count(); id++) {
+            assertTrue(id < binWidth * binHeight, context + ": missing placements");
+            if (!packer.contains(id))
+                continue;
+
+            int[] rect = {packer.getX(id), packer.getY(id), packer.getWidth(id), packer.getHeight(id)};
+            assertInside(rect, binWidth, binHeight, context + ": placement " + id);
+            for (int[] other : placed)
+                assertFalse(intersects(rect, other), context + ": placement " + id + " overlaps");
+            assertEquals(id, packer.find(rect[0], rect[1]), context + ": find " + id);
+            assertEquals(id, packer.find(rect[0] + rect[2] - 1, rect[1] + rect[3] - 1), context + ": find " + id);
+
+            placed.add(rect);
+            usedArea += (long) rect[2] * rect[3];
+        }
+        assertEquals(usedArea, packer.usedArea(), context);
+
+        List<int[]> free = packer.getFreeRects();
+        for (int i = 0; i < free.size(); i++) {
+            int[] rect = free.get(i);
+            assertTrue(rect[2] > 0 && rect[3] > 0, context + ": empty free rect");
+            assertInside(rect, binWidth, binHeight, context + ": free rect");
+            for (int[] other : placed)
+                assertFalse(intersects(rect, other), context + ": free rect overlaps a placement");
+            for (int j = 0; j < free.size(); j++)
+                assertFalse(i != j && contains(free.get(j), rect), context + ": free rect is redundant");
+        }
+        assertEquals(free.isEmpty(), packer.isFull(), context);
+    }
+
+    private static void assertInside(int[] rect, int width, int height, String context) {
+        assertTrue(rect[0] >= 0 && rect[1] >= 0 && rect[0] + rect[2] <= width && rect[1] + rect[3] <= height,
+                context + " outside of the bin");
+    }
+
+    private static boolean intersects(int[] a, int[] b) {
+        return a[0] < b[0] + b[2] && b[0] < a[0] + a[2] && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+    }
+
+    private static boolean contains(int[] a, int[] b) {
+        return b[0] >= a[0] && b[1] >= a[1] && b[0] + b[2] <= a[0] + a[2] && b[1] + b[3] <= a[1] + a[3];
+    }
+}